@@ -0,0 +1,17 @@
+#!/bin/bash
+# start MapMaker packaged by scripts/startup-cds.sh, with its AppCDS archive when there is one.
+#
+# usage: JAVAFX=/path/to/javafx-sdk/lib scripts/mapmaker.sh [arguments of application]
+# run from MapMakerAssignment, the application reads resources/ relative to working directory.
+set -e
+
+if [ -z "$JAVAFX" ]; then
+	echo "set JAVAFX to lib directory of JavaFX SDK" >&2
+	exit 2
+fi
+CDS=""
+# an archive of another JDK or class path is ignored by the JVM, start up is then as without one
+if [ -f dist/mapmaker.jsa ]; then
+	CDS="-XX:SharedArchiveFile=dist/mapmaker.jsa -Xshare:auto"
+fi
+exec java $CDS --module-path "$JAVAFX" --add-modules javafx.controls -cp dist/mapmaker.jar mapmaker.MapMakerSkeleton "$@"
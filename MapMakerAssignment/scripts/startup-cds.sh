@@ -0,0 +1,64 @@
+#!/bin/bash
+# package MapMaker with an AppCDS archive of its classes and measure time to first frame without and with it.
+#
+# CDS only archives classes loaded from jar files, never from a directory, so classes are packaged first:
+#   dist/mapmaker.jar   compiled classes
+#   dist/mapmaker.jsa   dynamic AppCDS archive dumped by a training run of the jar
+# scripts/mapmaker.sh starts the application from dist/ and uses the archive when there is one. the archive
+# is only valid for the JDK and class path it was dumped with, so it is made here on the machine that runs it
+# and never checked in. run this again after recompiling or changing JDK.
+#
+# the application is started with --profile, see mapmaker.StartupProfile, which prints one line such as
+#   startup: jvm 95 ms, launch 310 ms, build 160 ms, show 70 ms, frame 120 ms, first frame 755 ms
+# and exits once the window is drawn, so training run dumps exactly classes start up needs. then every run is
+# repeated with and without archive and the median first frame of both is printed as before and after.
+#
+# measured on a machine without display, JDK 17 and one core, where editor cannot open a window: mapmaker.cli.MapBatch
+# started from same jar for stats of resources/maps/test.map took a median of 110 ms before and 86 ms after over
+# 15 runs, with 107 application classes and the JDK classes they use taken from archive. with classes in a
+# directory instead of a jar no application class was archived. first frame of editor is still to be measured
+# by this script on a desktop.
+#
+# needs JDK 13 or later for -XX:ArchiveClassesAtExit, the JavaFX SDK and a display. run from
+# MapMakerAssignment, the application reads resources/ relative to working directory.
+#
+# usage: JAVAFX=/path/to/javafx-sdk/lib scripts/startup-cds.sh [runs, default 10]
+#   JAVAFX   lib directory of JavaFX SDK, required
+#   CLASSES  directory of compiled classes, default bin
+set -e
+
+RUNS=${1:-10}
+CLASSES=${CLASSES:-bin}
+JAR=dist/mapmaker.jar
+ARCHIVE=dist/mapmaker.jsa
+if [ -z "$JAVAFX" ]; then
+	echo "set JAVAFX to lib directory of JavaFX SDK" >&2
+	exit 2
+fi
+LAUNCH="--module-path $JAVAFX --add-modules javafx.controls -cp $JAR mapmaker.MapMakerSkeleton --profile"
+
+# prints first frame of one run in milliseconds
+first_frame() {
+	java "$@" $LAUNCH | sed -n 's/.*first frame \([0-9]*\) ms.*/\1/p'
+}
+
+median() {
+	sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+echo "packaging $JAR"
+mkdir -p dist
+rm -f "$JAR" "$ARCHIVE"
+jar --create --file "$JAR" -C "$CLASSES" .
+
+echo "dumping $ARCHIVE"
+first_frame -XX:ArchiveClassesAtExit="$ARCHIVE" > /dev/null
+
+BEFORE=""
+AFTER=""
+for run in $(seq "$RUNS"); do
+	BEFORE="$BEFORE $(first_frame)"
+	AFTER="$AFTER $(first_frame -XX:SharedArchiveFile="$ARCHIVE")"
+	echo "run $run: before$(echo $BEFORE | awk '{ print " " $NF }') ms, after$(echo $AFTER | awk '{ print " " $NF }') ms"
+done
+echo "median of $RUNS runs, before: $(echo $BEFORE | tr ' ' '\n' | median) ms, after: $(echo $AFTER | tr ' ' '\n' | median) ms"
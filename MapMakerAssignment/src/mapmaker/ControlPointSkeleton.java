@@ -11,7 +11,21 @@ import javafx.scene.shape.Circle;
  * @author Shahriar (Shawn) Emami
  * @version Oct 8, 2018
  */
-public class ControlPointSkeleton extends Circle{
+public class ControlPointSkeleton extends Circle implements MapLayer.Member{
+
+	/**
+	 * <p>
+	 * shape this control point belongs to, null if it is not part of a shape.</br>
+	 * </p>
+	 */
+	private PolyShapeSkeleton2 shape;
+
+	/**
+	 * <p>
+	 * index of this node in its {@link MapLayer}, -1 when it is not in one.</br>
+	 * </p>
+	 */
+	private int layerIndex = -1;
 
 	/**
 	 * <p>
@@ -25,6 +39,26 @@ public class ControlPointSkeleton extends Circle{
 		super( x,y,5, Color.GRAY);
 	}
 
+	/**
+	 * <p>
+	 * create a {@link ControlPointSkeleton} center around x and y which belongs to given shape.</br>
+	 * </p>
+	 * @param x - center location of of circle on x axis
+	 * @param y - center location of of circle on y axis
+	 * @param shape - shape this control point belongs to
+	 */
+	public ControlPointSkeleton( double x, double y, PolyShapeSkeleton2 shape){
+		this( x, y);
+		this.shape = shape;
+	}
+
+	/**
+	 * @return shape this control point belongs to, or null
+	 */
+	public PolyShapeSkeleton2 getShape(){
+		return shape;
+	}
+
 	/**
 	 * <p>
 	 * add 2 {@link ChangeListener} for each {@link Circle#centerXProperty()} and {@link Circle#centerYProperty()}.</br>
@@ -50,4 +84,14 @@ public class ControlPointSkeleton extends Circle{
 		centerXProperty().set( centerXProperty().get() + deltaX);
 		centerYProperty().set( centerYProperty().get() + deltaY);
 	}
+
+	@Override
+	public int getLayerIndex(){
+		return layerIndex;
+	}
+
+	@Override
+	public void setLayerIndex( int index){
+		layerIndex = index;
+	}
 }
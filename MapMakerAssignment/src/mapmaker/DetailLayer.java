@@ -0,0 +1,199 @@
+package mapmaker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Bounds;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+import mapmaker.model.MapChanges;
+import mapmaker.model.RoomRecord;
+import mapmaker.render.DetailIndex;
+
+/**
+ * <p>
+ * level of detail layer of a {@link MapAreaSkeleton} zoomed out. a room smaller on screen than
+ * {@link DetailIndex#DETAIL_PIXELS} is hidden with its control points, so it costs no stroke or handles, and is
+ * parked in its record until it is shown again, see {@link PolyShapeSkeleton2#park(RoomRecord)}. it is
+ * drawn on this canvas by its fill alone: as a simplified outline, as its bounding box, or when it is below a few
+ * pixels as part of a density cell with its neighbors. see {@link DetailIndex} for how levels are chosen.</br>
+ * canvas covers only viewport of map, one pixel per screen pixel, and is drawn again at most once per pulse after
+ * zoom, viewport, rooms or selection change. zooming only shows or hides rooms whose extent lies between old and
+ * new threshold, rooms are followed through {@link MapChanges}.</br>
+ * rooms on this canvas are drawn above all shapes, small rooms are usually drawn after large ones around them
+ * anyway.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class DetailLayer extends Canvas{
+
+	/**
+	 * <p>
+	 * outline of selected rooms, their own stroke is not drawn at this size.</br>
+	 * </p>
+	 */
+	private static final Color SELECTED = Color.DODGERBLUE;
+
+	private final MapAreaSkeleton map;
+	private final DetailIndex index = new DetailIndex();
+	/**
+	 * <p>
+	 * undoes zoom of map, so canvas has one pixel per screen pixel.</br>
+	 * </p>
+	 */
+	private final Scale unzoom = new Scale();
+	private final Map< Integer, Color> colors = new HashMap<>();
+	private int[] pixels = new int[0];
+	private double[] xs = new double[16];
+	private double[] ys = new double[16];
+	private double zoom = 1;
+	private final AnimationTimer pulse = new AnimationTimer(){
+		@Override
+		public void handle( long now){
+			stop();
+			redraw();
+		}
+	};
+
+	/**
+	 * @param map - map whose rooms are drawn, this layer is one of its children
+	 */
+	DetailLayer( MapAreaSkeleton map){
+		super();
+		this.map = map;
+		setMouseTransparent( true);
+		// placed on viewport by redraw, not by layout of map
+		setManaged( false);
+		getTransforms().add( unzoom);
+		map.addMapChangeListener( this::mapChanged);
+		map.zoomProperty().addListener( ( o, a, b) -> zoomChanged( b.doubleValue()));
+		map.viewportProperty().addListener( o -> pulse.start());
+	}
+
+	private void mapChanged( MapChanges changes){
+		changes.forEach( MapChanges.Kind.REMOVED, index::remove);
+		changes.forEach( MapChanges.Kind.ADDED, this::update);
+		changes.forEach( MapChanges.Kind.GEOMETRY, this::update);
+		changes.forEach( MapChanges.Kind.STYLE, this::update);
+		pulse.start();
+	}
+
+	private void update( int id){
+		RoomRecord record = map.getRecord( id);
+		if( record == null)
+			return;
+		index.put( id, record);
+		show( id);
+	}
+
+	/**
+	 * <p>
+	 * show shape of a room and its control points only if it is drawn in full at current zoom. a hidden room keeps
+	 * its points in its record, a shown one gets them back. also called by map when a room loses its control
+	 * points, as only then it can be parked.</br>
+	 * </p>
+	 */
+	void show( int id){
+		PolyShapeSkeleton2 shape = map.getShape( id);
+		if( shape == null)
+			return;
+		boolean detail = !index.contains( id) || index.level( id, zoom) == DetailIndex.Level.DETAIL;
+		if( detail)
+			shape.unpark();
+		else
+			shape.park( map.getRecord( id));
+		if( shape.isVisible() == detail)
+			return;
+		shape.setVisible( detail);
+		for( ControlPointSkeleton point: shape.getControlPoints())
+			point.setVisible( detail);
+	}
+
+	private void zoomChanged( double zoom){
+		double before = DetailIndex.detailExtent( this.zoom), after = DetailIndex.detailExtent( zoom);
+		this.zoom = zoom;
+		index.forEachExtent( Math.min( before, after), Math.max( before, after), this::show);
+		pulse.start();
+	}
+
+	/**
+	 * <p>
+	 * called by map when selection changed, selected rooms are outlined.</br>
+	 * </p>
+	 */
+	void selectionChanged(){
+		if( zoom < 1)
+			pulse.start();
+	}
+
+	private void redraw(){
+		Bounds view = map.getViewport();
+		int width = (int) Math.ceil( view.getWidth() * zoom), height = (int) Math.ceil( view.getHeight() * zoom);
+		if( zoom >= 1 || index.size() == 0 || width <= 0 || height <= 0){
+			setWidth( 0);
+			setHeight( 0);
+			return;
+		}
+		setLayoutX( view.getMinX());
+		setLayoutY( view.getMinY());
+		unzoom.setX( 1 / zoom);
+		unzoom.setY( 1 / zoom);
+		setWidth( width);
+		setHeight( height);
+		GraphicsContext g = getGraphicsContext2D();
+		g.clearRect( 0, 0, width, height);
+		if( pixels.length < width * height)
+			pixels = new int[width * height];
+		else
+			Arrays.fill( pixels, 0, width * height, 0);
+		index.paintDensity( pixels, width, height, view.getMinX(), view.getMinY(), zoom);
+		g.getPixelWriter().setPixels( 0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+		g.setStroke( SELECTED);
+		g.setLineWidth( 1);
+		index.visit( view.getMinX(), view.getMinY(), view.getMaxX(), view.getMaxY(), zoom,
+				( id, level) -> draw( g, id, level, view.getMinX(), view.getMinY()));
+	}
+
+	private void draw( GraphicsContext g, int id, DetailIndex.Level level, double left, double top){
+		g.setFill( colors.computeIfAbsent( index.getColor( id), argb -> Color.rgb( (argb >> 16) & 0xFF,
+				(argb >> 8) & 0xFF, argb & 0xFF, ((argb >>> 24) & 0xFF) / 255.0)));
+		boolean selected = map.getSelection().contains( id);
+		if( level == DetailIndex.Level.BOX){
+			double[] bounds = index.getBounds( id);
+			double x = (bounds[0] - left) * zoom, y = (bounds[1] - top) * zoom;
+			double w = Math.max( 1, (bounds[2] - bounds[0]) * zoom), h = Math.max( 1, (bounds[3] - bounds[1]) * zoom);
+			g.fillRect( x, y, w, h);
+			if( selected)
+				g.strokeRect( x, y, w, h);
+			return;
+		}
+		double[] outline = index.getOutline( id);
+		int count = outline.length / 2;
+		if( xs.length < count){
+			xs = new double[count];
+			ys = new double[count];
+		}
+		for( int i = 0; i < count; i++){
+			xs[i] = (outline[i * 2] - left) * zoom;
+			ys[i] = (outline[i * 2 + 1] - top) * zoom;
+		}
+		g.fillPolygon( xs, ys, count);
+		if( selected)
+			g.strokePolygon( xs, ys, count);
+	}
+
+	/**
+	 * <p>
+	 * stop waiting for next pulse, called when map is disposed.</br>
+	 * </p>
+	 */
+	void dispose(){
+		pulse.stop();
+	}
+}
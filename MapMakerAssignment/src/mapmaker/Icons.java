@@ -0,0 +1,56 @@
+package mapmaker;
+
+import java.io.File;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import mapmaker.render.IconSheet;
+
+/**
+ * <p>
+ * toolbar and menu icons cut out of icon atlas of {@link IconSheet}. atlas is decoded once, on first icon, and
+ * every icon is an {@link ImageView} showing its cell of that one shared {@link Image}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class Icons{
+
+	public static final String ATLAS_PATH = "resources/icons/" + IconSheet.ATLAS;
+
+	private static Image atlas;
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private Icons(){
+	}
+
+	/**
+	 * @param name - file name of icon without extension, such as "save"
+	 * @return new view of {@link IconSheet#LARGE} icon, for toolbar
+	 */
+	public static ImageView large( String name){
+		return view( name, IconSheet.LARGE);
+	}
+
+	/**
+	 * @param name - file name of icon without extension, such as "save"
+	 * @return new view of {@link IconSheet#SMALL} icon, for menus
+	 */
+	public static ImageView small( String name){
+		return view( name, IconSheet.SMALL);
+	}
+
+	private static ImageView view( String name, int size){
+		if( atlas == null)
+			atlas = new Image( new File( ATLAS_PATH).toURI().toString());
+		int[] cell = IconSheet.cell( name, size);
+		ImageView view = new ImageView( atlas);
+		view.setViewport( new Rectangle2D( cell[0], cell[1], cell[2], cell[3]));
+		return view;
+	}
+}
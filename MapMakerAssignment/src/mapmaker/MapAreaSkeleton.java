@@ -1,18 +1,54 @@
 package mapmaker;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableList;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
+import javafx.scene.shape.Polyline;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.scene.transform.Scale;
 import mapmaker.PolyShapeSkeleton2;
+import mapmaker.geom.Affine;
+import mapmaker.geom.PackedPolygons;
+import mapmaker.geom.PolygonBooleans;
+import mapmaker.geom.Polygons;
+import mapmaker.model.CoordinatePrecision;
+import mapmaker.model.Coordinates;
+import mapmaker.model.MapChangeListener;
+import mapmaker.model.MapChanges;
+import mapmaker.model.MapSnapshot;
+import mapmaker.model.MapStyle;
+import mapmaker.model.MemoryReport;
+import mapmaker.model.PersistentVector;
+import mapmaker.model.RoomRecord;
+import mapmaker.query.BrushSweep;
+import mapmaker.query.GeometryService;
+import mapmaker.query.GeometrySnapshot;
+import mapmaker.session.SessionEvent;
 
 /**
  * <p>
@@ -26,6 +62,27 @@ import mapmaker.PolyShapeSkeleton2;
 public class MapAreaSkeleton extends Pane {
 	final ObjectProperty<Point2D> mousePosition = new SimpleObjectProperty<>();
 
+	/**
+	 * <p>
+	 * smallest and largest zoom, in pixels per map unit.</br>
+	 * </p>
+	 */
+	public static final double MIN_ZOOM = 1 / 64.0;
+	public static final double MAX_ZOOM = 8;
+	/**
+	 * <p>
+	 * radius of erase brush in screen pixels when {@link ToolStateSkeleton#getOption()} does not give one.</br>
+	 * </p>
+	 */
+	public static final int ERASE_RADIUS = 8;
+	/**
+	 * <p>
+	 * most selected rooms given control points, a larger selection is moved or
+	 * erased as a whole and gets none.</br>
+	 * </p>
+	 */
+	public static final int MAX_HANDLE_ROOMS = 64;
+
 	private SelectionArea select;
 
 	/**
@@ -35,6 +92,39 @@ public class MapAreaSkeleton extends Pane {
 	 * </p>
 	 */
 	private ObservableList<Node> children;
+	/**
+	 * <p>
+	 * layers of this map from bottom to top. rooms keep their paint order, control
+	 * handles do not need one so they are removed in constant time. overlays such
+	 * as {@link SelectionArea} are never picked by the mouse.</br>
+	 * </p>
+	 */
+	private final MapLayer<PolyShapeSkeleton2> roomLayer = new MapLayer<>(true);
+	private final Pane pathLayer = new Pane();
+	private final MapLayer<ControlPointSkeleton> handleLayer = new MapLayer<>(false);
+	private final Pane overlayLayer = new Pane();
+	/**
+	 * <p>
+	 * draws rooms too small at current zoom to be shown as nodes, between rooms
+	 * and paths.</br>
+	 * </p>
+	 */
+	private final DetailLayer detailLayer;
+	/**
+	 * <p>
+	 * pixels per map unit, map is scaled by it from its top left corner so
+	 * coordinates of mouse events and rooms do not change with zoom.</br>
+	 * </p>
+	 */
+	private final DoubleProperty zoom = new SimpleDoubleProperty(this, "zoom", 1);
+	/**
+	 * <p>
+	 * part of this map visible on screen in map units, kept by whoever scrolls
+	 * this map.</br>
+	 * </p>
+	 */
+	private final ObjectProperty<Bounds> viewport = new SimpleObjectProperty<>(this, "viewport",
+			new BoundingBox(0, 0, 0, 0));
 	/**
 	 * <p>
 	 * active shape that is currently being manipulated.</br>
@@ -55,6 +145,120 @@ public class MapAreaSkeleton extends Pane {
 	 */
 	private ToolStateSkeleton tool;
 
+	/**
+	 * <p>
+	 * shared styles of all shapes in this map, one for each distinct
+	 * {@link MapStyle}. shapes bind to these so equal styles are one object.</br>
+	 * </p>
+	 */
+	private final Map<MapStyle, ShapeStyle> styles = new HashMap<>();
+	/**
+	 * <p>
+	 * shared points of instance rooms by identity of the {@link Coordinates}
+	 * their records share, so copies duplicated here or read from a file box
+	 * their points once.</br>
+	 * </p>
+	 */
+	private final Map<Coordinates, RoomTemplate> templates = new IdentityHashMap<>();
+
+	/**
+	 * <p>
+	 * every room in this map indexed by its dense room id, null where a room was
+	 * erased. ids of erased rooms are given again to new rooms so ids stay
+	 * dense.</br>
+	 * </p>
+	 */
+	private final List<PolyShapeSkeleton2> rooms = new ArrayList<>();
+	/**
+	 * <p>
+	 * ids in {@link #rooms} which are in use.</br>
+	 * </p>
+	 */
+	private final BitSet live = new BitSet();
+	/**
+	 * <p>
+	 * selected rooms, drawn with <code>.room:selected</code> style.</br>
+	 * </p>
+	 */
+	private final RoomSelection selection = new RoomSelection();
+	/**
+	 * <p>
+	 * rooms which have control points: a few selected ones and a room just drawn,
+	 * until selection changes. other rooms have no handles.</br>
+	 * </p>
+	 */
+	private final BitSet handles = new BitSet();
+	/**
+	 * <p>
+	 * node under the mouse when it was pressed.</br>
+	 * </p>
+	 */
+	private Object pressTarget;
+
+	/**
+	 * <p>
+	 * runs queries over all rooms off the JavaFX thread.</br>
+	 * </p>
+	 */
+	private final GeometryService geometry = new GeometryService(Platform::runLater);
+	private static final String SELECT_QUERY = "select";
+	private static final String EDIT_QUERY = "edit";
+	private static final String ERASE_QUERY = "erase";
+	/**
+	 * <p>
+	 * path of erase tool drawn as wide as its brush. {@link #brush} is null while
+	 * its rooms are still put in a grid, points dragged until then are swept once
+	 * it arrives, starting at {@link #brushSwept}.</br>
+	 * </p>
+	 */
+	private final Polyline brushStroke = new Polyline();
+	private BrushSweep brush;
+	private int brushSwept;
+	private boolean brushReleased;
+	private final PolygonBooleans booleans = new PolygonBooleans();
+	/**
+	 * <p>
+	 * headless copy of each room by id and its paint order stamp, from which
+	 * {@link #snapshot()} takes a {@link MapSnapshot} in constant time. rooms in
+	 * {@link #dirty} changed since their record was made.</br>
+	 * </p>
+	 */
+	private final PersistentVector.Transient<RoomRecord> records = PersistentVector.<RoomRecord>empty().asTransient();
+	private final PersistentVector.Transient<Long> paintOrder = PersistentVector.<Long>empty().asTransient();
+	private long nextPaint;
+	private final BitSet dirty = new BitSet();
+	/**
+	 * <p>
+	 * precision coordinates of {@link #records} are kept with, so snapshots and
+	 * saved maps of this document take less memory. shapes on screen still hold
+	 * boxed doubles as JavaFX polygons require, see
+	 * {@link #setPrecision(CoordinatePrecision)}.</br>
+	 * </p>
+	 */
+	private CoordinatePrecision precision = CoordinatePrecision.DOUBLE;
+	/**
+	 * <p>
+	 * rooms currently shown as inside selection area.</br>
+	 * </p>
+	 */
+	private BitSet candidates = new BitSet();
+
+	/**
+	 * <p>
+	 * changes of rooms since last pulse, collected only while there are
+	 * listeners. {@link #pulse} hands them to listeners once per pulse and stops
+	 * until next change.</br>
+	 * </p>
+	 */
+	private final MapChanges.Collector changes = new MapChanges.Collector();
+	private final List<MapChangeListener> changeListeners = new ArrayList<>();
+	private final AnimationTimer pulse = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			fireChanges();
+		}
+	};
+
 	/**
 	 * <p>
 	 * create a new object and register mouse events.</br>
@@ -65,6 +269,19 @@ public class MapAreaSkeleton extends Pane {
 		select = new SelectionArea();
 		tool = ToolStateSkeleton.state();
 		children = this.getChildren();
+		// doors and paths are drawn above rooms and below control handles
+		pathLayer.setPickOnBounds(false);
+		overlayLayer.setMouseTransparent(true);
+		detailLayer = new DetailLayer(this);
+		children.addAll(roomLayer, detailLayer, pathLayer, handleLayer, overlayLayer);
+		brushStroke.setOpacity(.4);
+		brushStroke.setStroke(Color.LIGHTGRAY);
+		brushStroke.setStrokeLineCap(StrokeLineCap.ROUND);
+		brushStroke.setStrokeLineJoin(StrokeLineJoin.ROUND);
+		Scale scale = new Scale();
+		scale.xProperty().bind(zoom);
+		scale.yProperty().bind(zoom);
+		getTransforms().add(scale);
 		registerMouseEvents();
 	}
 
@@ -93,27 +310,28 @@ public class MapAreaSkeleton extends Pane {
 		e.consume();
 		startX = e.getX();
 		startY = e.getY();
+		pressTarget = e.getTarget();
 		switch (activeTool()) {
 		case Door:
 			break;
 		case Move:
-
 			break;
 		case Path:
 			break;
 		case Select:
 
-			children.add(select);
+			overlayLayer.getChildren().add(select);
 
 			select.start(e.getX(), e.getY());
-
+			geometry.update(GeometrySnapshot.of(snapshot()));
 			break;
 		case Erase:
-
+			startErase(e.getX(), e.getY());
 			break;
 		case Room:
 			activeShape = new PolyShapeSkeleton2(tool.getOption());
-			children.add(activeShape);
+			activeShape.setShapeStyle(styleFor(MapStyle.DEFAULT));
+			roomLayer.add(activeShape);
 			break;
 		default:
 			throw new UnsupportedOperationException(
@@ -139,27 +357,35 @@ public class MapAreaSkeleton extends Pane {
 		case Path:
 			break;
 		case Erase:
+			brushStroke.getPoints().addAll(e.getX(), e.getY());
+			sweepBrush();
 			break;
 		case Select:
 			select.end(e.getX(), e.getY());
-
+			queryInside(this::showCandidates);
 			break;
 		case Move:
             //used similar structure as well as variable name from code found on stackoverflow, link: https://stackoverflow.com/questions/27080039/proper-way-to-move-a-javafx8-node-around
 			double deltaX = e.getX() - startX;
 			double deltaY = e.getY() - startY;
-			((PolyShapeSkeleton2) e.getTarget()).translate(deltaX,deltaY);
-	
-			
-			
-			
+			if (pressTarget instanceof PolyShapeSkeleton2) {
+				PolyShapeSkeleton2 shape = (PolyShapeSkeleton2) pressTarget;
+				// dragging a selected room moves the whole selection
+				if (selection.contains(shape.getRoomId()))
+					moveSelected(deltaX, deltaY);
+				else {
+					shape.translate(deltaX, deltaY);
+					geometryChanged(shape.getRoomId());
+				}
+			} else if (pressTarget instanceof ControlPointSkeleton) {
+				((ControlPointSkeleton) pressTarget).translate(deltaX, deltaY);
+				PolyShapeSkeleton2 shape = roomOf(pressTarget);
+				if (shape != null)
+					geometryChanged(shape.getRoomId());
+			}
 
 			startX = e.getX();
 			startY = e.getY();
-
-			// startX = e.getX();
-			// startY = e.getY();
-
 			break;
 		case Room:
 			// if you are not using PolyShapeSkeleton2 use line below
@@ -192,22 +418,41 @@ public class MapAreaSkeleton extends Pane {
 		case Path:
 			break;
 		case Select:
-			children.remove(select);
-			select.containsAny(children, (filter) -> {
-
-			});
+			overlayLayer.getChildren().remove(select);
+			boolean toggle = e.isShortcutDown(), add = e.isShiftDown();
+			if (select.getWidth() == 0 && select.getHeight() == 0) {
+				// a click without drag picks the room under the mouse
+				geometry.cancel(SELECT_QUERY);
+				showCandidates(new BitSet());
+				BitSet found = new BitSet();
+				PolyShapeSkeleton2 shape = roomOf(pressTarget);
+				if (shape != null)
+					found.set(shape.getRoomId());
+				applySelection(found, toggle, add);
+			} else {
+				// replaces last preview query, selection changes when result arrives
+				queryInside(found -> {
+					showCandidates(new BitSet());
+					applySelection(found, toggle, add);
+				});
+			}
 			select.clear();
 			break;
 		case Erase:
-
-			children.remove(e.getTarget());
-			children.removeAll(((PolyShapeSkeleton2) e.getTarget()).getControlPoints());
-
+			PolyShapeSkeleton2 shape = roomOf(pressTarget);
+			// clicking a selected room erases the whole selection
+			if (brushStroke.getPoints().size() == 2 && shape != null && selection.contains(shape.getRoomId())) {
+				endErase();
+				eraseSelected();
+			} else if (brush != null)
+				finishErase();
+			else
+				// grid is not ready yet, rooms are erased once it is
+				brushReleased = true;
 			break;
 		case Room:
-			activeShape.registerControlPoints();
-			children.addAll(activeShape.getControlPoints());
-			
+			addRoom(activeShape);
+			showControlPoints(activeShape);
 			break;
 		default:
 			throw new UnsupportedOperationException(
@@ -236,12 +481,8 @@ public class MapAreaSkeleton extends Pane {
 	 * @return string containing all shapes.
 	 */
 	public String convertToString() {
-		// for each node in children
-		return children.stream()
-				// filter out any node that is not PolyShape
-				.filter(PolyShapeSkeleton2.class::isInstance)
-				// cast filtered nodes to PolyShapes
-				.map(PolyShapeSkeleton2.class::cast)
+		// for each room in paint order
+		return roomLayer.getMembers().stream()
 				// convert each shape to a string format
 				.map(PolyShapeSkeleton2::convertToString)
 				// join all string formats together using new line
@@ -263,19 +504,1130 @@ public class MapAreaSkeleton extends Pane {
 				.map(k -> new PolyShapeSkeleton2(map.get(k)))
 				// for each created PolyShape
 				.forEach(s -> {
-					children.add(s);
-					children.addAll(s.getControlPoints());
+					s.setShapeStyle(styleFor(s.toRecord().getStyle()));
+					roomLayer.add(s);
+					addRoom(s);
 				});
 		;
 	}
 
+	/**
+	 * <p>
+	 * create a headless copy of all shapes in order they are drawn. only shapes
+	 * changed since last copy are converted again.</br>
+	 * </p>
+	 * 
+	 * @return list of {@link RoomRecord} for each shape.
+	 */
+	public List<RoomRecord> toRecords() {
+		return snapshot().inPaintOrder();
+	}
+
+	/**
+	 * <p>
+	 * create a shape for each given {@link RoomRecord} and add them, without
+	 * control points until they are selected.</br>
+	 * </p>
+	 * 
+	 * @param records - records usually read by a {@link mapmaker.io.MapCodec}.
+	 * @return id given to each record, in order of records
+	 */
+	public int[] loadRecords(Iterable<RoomRecord> records) {
+		List<PolyShapeSkeleton2> shapes = new ArrayList<>();
+		List<RoomRecord> loaded = new ArrayList<>();
+		for (RoomRecord record : records) {
+			PolyShapeSkeleton2 shape = record.isInstance()
+					? new PolyShapeSkeleton2(templateFor(record), record.getCoordinates().offsetX(),
+							record.getCoordinates().offsetY())
+					: new PolyShapeSkeleton2(record);
+			shape.setShapeStyle(styleFor(record.getStyle()));
+			shapes.add(shape);
+			loaded.add(record);
+		}
+		// one addAll fires one change event instead of one per node
+		roomLayer.addAll(shapes);
+		int[] ids = new int[shapes.size()];
+		for (int i = 0; i < shapes.size(); i++) {
+			int id = ids[i] = addRoom(shapes.get(i));
+			// loaded record already matches shape, no need to convert it again
+			this.records.set(id, withPrecision(loaded.get(i)));
+			dirty.clear(id);
+		}
+		return ids;
+	}
+
+	/**
+	 * <p>
+	 * find the shared {@link RoomTemplate} of an instance, or make given room a
+	 * template for new instances of it.</br>
+	 * </p>
+	 * 
+	 * @param record - record of a room
+	 * @return template sharing points of record
+	 */
+	private RoomTemplate templateFor(RoomRecord record) {
+		return templates.computeIfAbsent(record.getCoordinates().base(), k -> new RoomTemplate(record));
+	}
+
+	/**
+	 * <p>
+	 * find the shared {@link ShapeStyle} for given style, creating it if this is
+	 * the first shape using it.</br>
+	 * </p>
+	 * 
+	 * @param style - headless style of a shape
+	 * @return shared style to bind shape to
+	 */
+	private ShapeStyle styleFor(MapStyle style) {
+		return styles.computeIfAbsent(style, ShapeStyle::new);
+	}
+
+	/**
+	 * <p>
+	 * give every shape of one style a new style. when no other shape already uses
+	 * the new style this is one update of a shared {@link ShapeStyle}, otherwise
+	 * shapes are moved to the existing one.</br>
+	 * </p>
+	 * 
+	 * @param from - current style of shapes to be restyled
+	 * @param to   - new style
+	 */
+	public void restyle(MapStyle from, MapStyle to) {
+		ShapeStyle shared = styles.remove(from);
+		if (shared == null || from.equals(to)) {
+			if (shared != null)
+				styles.put(from, shared);
+			return;
+		}
+		ShapeStyle existing = styles.get(to);
+		BitSet ids = (BitSet) shared.getRooms().clone();
+		if (existing == null) {
+			shared.set(to);
+			styles.put(to, shared);
+		} else {
+			for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+				rooms.get(id).setShapeStyle(existing);
+			// room being drawn has no id yet
+			if (activeShape != null && activeShape.getShapeStyle() == shared)
+				activeShape.setShapeStyle(existing);
+		}
+		// only restyled rooms need new records
+		dirty.or(ids);
+		if (!changeListeners.isEmpty())
+			for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+				styleChanged(id);
+	}
+
+	/**
+	 * <p>
+	 * estimate heap used by this map in one pass over its layers. shapes, their
+	 * boxed points, points of parked shapes, headless records, control points,
+	 * listeners and shared styles are reported separately, see
+	 * {@link MemoryReport} for how estimates are made.</br>
+	 * </p>
+	 * 
+	 * @return new report
+	 */
+	public MemoryReport memoryReport() {
+		long shapes = 0, points = 0, parked = 0, references = 0, shared = 0, controlPoints = 0, boundShapes = 0,
+				others = 0;
+		long recordCount = 0, recordBytes = 0;
+		for (PolyShapeSkeleton2 shape : roomLayer.getMembers()) {
+			shapes++;
+			// an instance shares Double objects of its template, its own list still
+			// holds a reference to each of them
+			if (shape.isInstance())
+				references += shape.getPoints().size();
+			// a parked room shares its record in this map, its emptied list may
+			// still keep a slot for each coordinate
+			else if (shape.isParked())
+				parked += shape.getPointCount() * 2;
+			else
+				points += shape.getPoints().size();
+			if (shape.getShapeStyle() != null)
+				boundShapes++;
+		}
+		controlPoints = handleLayer.size();
+		others = children.size() + pathLayer.getChildren().size() + overlayLayer.getChildren().size();
+		// 2 change listeners for each control point and 3 bindings for each styled shape
+		long listeners = controlPoints * 2 + boundShapes * 3;
+		for (RoomTemplate template : templates.values())
+			shared += template.getRecord().getPointCount() * 2;
+		for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+			RoomRecord record = records.get(id);
+			if (record != null) {
+				recordCount++;
+				recordBytes += MemoryReport.RECORD_BYTES + record.getCoordinates().estimatedBytes();
+			}
+		}
+		return new MemoryReport("Map: " + shapes + " rooms")
+				.add("PolyShapeSkeleton2", shapes, shapes * MemoryReport.FX_POLYGON_BYTES)
+				.add("points (boxed Double)", points, points * MemoryReport.FX_BOXED_DOUBLE_BYTES)
+				.add("parked points (in room records)", parked, parked * MemoryReport.REFERENCE_BYTES)
+				.add("shared template points", shared, shared * MemoryReport.FX_BOXED_DOUBLE_BYTES)
+				.add("instance point references", references, references * MemoryReport.REFERENCE_BYTES)
+				.add("room records (" + precision.name().toLowerCase() + ")", recordCount, recordBytes)
+				.add("ControlPointSkeleton", controlPoints, controlPoints * MemoryReport.FX_CIRCLE_BYTES)
+				.add("listeners and bindings", listeners, listeners * MemoryReport.FX_LISTENER_BYTES)
+				.add("shared styles", styles.size(), styles.size() * MemoryReport.FX_STYLE_BYTES)
+				.add("other nodes", others, others * MemoryReport.FX_NODE_BYTES);
+	}
+
 	/**
 	 * <p>
 	 * call this function to clear all shapes in {@link MapAreaSkeleton}.</br>
 	 * </p>
 	 */
 	public void clearMap() {
-		children.clear();
+		for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1))
+			roomRemoved(id);
+		roomLayer.clear();
+		pathLayer.getChildren().clear();
+		handleLayer.clear();
+		handles.clear();
+		styles.clear();
+		templates.clear();
+		rooms.clear();
+		live.clear();
+		selection.clear();
+		geometry.cancel(SELECT_QUERY);
+		endErase();
+		records.clear();
+		paintOrder.clear();
+		dirty.clear();
+		candidates = new BitSet();
+	}
+
+	/**
+	 * <p>
+	 * stop worker threads of this map, to be called when application stops.</br>
+	 * </p>
+	 */
+	public void dispose() {
+		pulse.stop();
+		detailLayer.dispose();
+		geometry.shutdown();
+	}
+
+	/**
+	 * <p>
+	 * register a listener which from now on gets one {@link MapChanges} per pulse
+	 * in which any room was added, removed, moved or restyled. listener should
+	 * read state of existing rooms with {@link #getRecord(int)} when it is
+	 * added.</br>
+	 * </p>
+	 * 
+	 * @param listener - listener to be added
+	 */
+	public void addMapChangeListener(MapChangeListener listener) {
+		changeListeners.add(listener);
+	}
+
+	public void removeMapChangeListener(MapChangeListener listener) {
+		changeListeners.remove(listener);
+	}
+
+	/**
+	 * <p>
+	 * give changes collected so far to listeners now instead of on next pulse,
+	 * so changes made after this call come in a batch of their own.</br>
+	 * </p>
+	 */
+	public void flushChanges() {
+		fireChanges();
+	}
+
+	/**
+	 * <p>
+	 * give collected changes to every listener as one batch. changes made by
+	 * listeners go to next pulse.</br>
+	 * </p>
+	 */
+	private void fireChanges() {
+		pulse.stop();
+		if (changes.isEmpty())
+			return;
+		MapChanges batch = changes.drain();
+		for (MapChangeListener listener : new ArrayList<>(changeListeners))
+			listener.mapChanged(batch);
+	}
+
+	private void roomAdded(int id) {
+		if (!changeListeners.isEmpty()) {
+			changes.added(id);
+			pulse.start();
+		}
+	}
+
+	private void roomRemoved(int id) {
+		if (!changeListeners.isEmpty()) {
+			changes.removed(id);
+			pulse.start();
+		}
+	}
+
+	/**
+	 * <p>
+	 * mark style of a room as changed for its record and listeners.</br>
+	 * </p>
+	 */
+	private void styleChanged(int id) {
+		dirty.set(id);
+		if (!changeListeners.isEmpty()) {
+			changes.styleChanged(id);
+			pulse.start();
+		}
+	}
+
+	/**
+	 * <p>
+	 * mark geometry of a room as changed for next snapshot and listeners.</br>
+	 * </p>
+	 */
+	private void geometryChanged(int id) {
+		dirty.set(id);
+		if (!changeListeners.isEmpty()) {
+			changes.geometryChanged(id);
+			pulse.start();
+		}
+	}
+
+	/**
+	 * <p>
+	 * current headless copy of a room. a room not changed since its last copy is
+	 * not converted again.</br>
+	 * </p>
+	 * 
+	 * @param id - id of a room
+	 * @return record of room, null if no room has given id
+	 */
+	public RoomRecord getRecord(int id) {
+		if (id < 0 || !live.get(id))
+			return null;
+		if (dirty.get(id) || records.get(id) == null) {
+			records.set(id, recordOf(id));
+			dirty.clear(id);
+		}
+		return records.get(id);
+	}
+
+	/**
+	 * @param id - id of a live room
+	 * @return new record of room with {@link #precision} of this map
+	 */
+	private RoomRecord recordOf(int id) {
+		return withPrecision(rooms.get(id).toRecord());
+	}
+
+	/**
+	 * <p>
+	 * convert given record to {@link #precision} of this map. an instance keeps
+	 * points it shares with its template, and a room too far out for
+	 * {@link CoordinatePrecision#FIXED} keeps its doubles.</br>
+	 * </p>
+	 * 
+	 * @param record - record of a room
+	 * @return record to be kept in {@link #records}
+	 */
+	private RoomRecord withPrecision(RoomRecord record) {
+		if (record.isInstance())
+			return record;
+		try {
+			return record.withPrecision(precision);
+		} catch (IllegalArgumentException e) {
+			return record;
+		}
+	}
+
+	/**
+	 * @return precision coordinates of rooms are kept with in snapshots
+	 */
+	public CoordinatePrecision getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * <p>
+	 * choose how coordinates of this map are kept in its headless records, which
+	 * every snapshot, save and export reads. {@link CoordinatePrecision#FLOAT}
+	 * and {@link CoordinatePrecision#FIXED} halve memory of those records, and
+	 * of rooms hidden by level of detail, which keep their points only in them
+	 * instead of boxed doubles, see {@link DetailLayer}. records are converted
+	 * again from shapes, so going back to {@link CoordinatePrecision#DOUBLE}
+	 * loses nothing until map is saved, except for rooms parked meanwhile, which
+	 * come back with the rounded points.</br>
+	 * </p>
+	 * 
+	 * @param precision - precision of records from now on
+	 */
+	public void setPrecision(CoordinatePrecision precision) {
+		if (precision == this.precision)
+			return;
+		this.precision = precision;
+		for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+			records.set(id, recordOf(id));
+			if (rooms.get(id).isParked())
+				rooms.get(id).park(records.get(id));
+		}
+		dirty.clear();
+	}
+
+	/**
+	 * @param id - id of a room
+	 * @return shape of room, null if no room has given id
+	 */
+	PolyShapeSkeleton2 getShape(int id) {
+		return id >= 0 && live.get(id) ? rooms.get(id) : null;
+	}
+
+	/**
+	 * @return ids of all rooms in this map, a copy
+	 */
+	public BitSet getRoomIds() {
+		return (BitSet) live.clone();
+	}
+
+	/**
+	 * <p>
+	 * give a shape already in room layer the lowest free room id.</br>
+	 * </p>
+	 * 
+	 * @param shape - shape to be registered
+	 * @return id given to shape
+	 */
+	private int addRoom(PolyShapeSkeleton2 shape) {
+		int id = live.nextClearBit(0);
+		if (id == rooms.size())
+			rooms.add(shape);
+		else
+			rooms.set(id, shape);
+		live.set(id);
+		dirty.set(id);
+		paintOrder.set(id, nextPaint++);
+		shape.setRoomId(id);
+		roomAdded(id);
+		return id;
+	}
+
+	/**
+	 * <p>
+	 * take a consistent version of this map which can be saved, exported or
+	 * queried on another thread while editing goes on. only rooms changed since
+	 * last snapshot are converted to records, the rest is shared, so apart from
+	 * those this is constant time.</br>
+	 * </p>
+	 * 
+	 * @return new snapshot
+	 */
+	public MapSnapshot snapshot() {
+		for (int id = dirty.nextSetBit(0); id >= 0; id = dirty.nextSetBit(id + 1))
+			records.set(id, live.get(id) ? recordOf(id) : null);
+		dirty.clear();
+		return new MapSnapshot(records.persistent(), paintOrder.persistent(), live.cardinality());
+	}
+
+	/**
+	 * <p>
+	 * find rooms inside selection area on a worker thread.</br>
+	 * </p>
+	 * 
+	 * @param result - called on JavaFX thread with ids of rooms inside
+	 */
+	private void queryInside(Consumer<BitSet> result) {
+		double minX = select.getX(), minY = select.getY();
+		double maxX = minX + select.getWidth(), maxY = minY + select.getHeight();
+		geometry.submit(SELECT_QUERY, s -> s.inside(minX, minY, maxX, maxY), found -> {
+			// rooms erased while query was running are ignored
+			found.and(live);
+			result.accept(found);
+		});
+	}
+
+	/**
+	 * <p>
+	 * start a stroke of erase tool. rooms are put in a grid on a worker while
+	 * stroke is dragged, each segment of stroke then tests only rooms near it.</br>
+	 * </p>
+	 */
+	private void startErase(double x, double y) {
+		endErase();
+		int option = tool.getOption();
+		// brush keeps its size on screen at any zoom
+		brushStroke.setStrokeWidth(2 * (option > 0 ? option : ERASE_RADIUS) / getZoom());
+		brushStroke.getPoints().setAll(x, y);
+		overlayLayer.getChildren().add(brushStroke);
+		geometry.update(GeometrySnapshot.of(snapshot()));
+		geometry.submit(ERASE_QUERY, BrushSweep::new, sweep -> {
+			brush = sweep;
+			sweepBrush();
+			if (brushReleased)
+				finishErase();
+		}, (failure) -> {
+			// stroke is dropped instead of waiting for a grid that never comes
+			endErase();
+			failure.printStackTrace();
+		});
+	}
+
+	/**
+	 * <p>
+	 * sweep brush along points of stroke not swept yet and mark rooms it touched.
+	 * </br>
+	 * </p>
+	 */
+	private void sweepBrush() {
+		if (brush == null)
+			return;
+		ObservableList<Double> points = brushStroke.getPoints();
+		double radius = brushStroke.getStrokeWidth() / 2;
+		BitSet found = new BitSet();
+		for (; brushSwept + 2 <= points.size(); brushSwept += 2) {
+			int start = Math.max(0, brushSwept - 2);
+			found.or(brush.sweep(points.get(start), points.get(start + 1), points.get(brushSwept),
+					points.get(brushSwept + 1), radius));
+		}
+		found.and(live);
+		for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1))
+			rooms.get(id).setCandidate(true);
+		candidates.or(found);
+	}
+
+	/**
+	 * <p>
+	 * erase all rooms touched by stroke in one batch.</br>
+	 * </p>
+	 */
+	private void finishErase() {
+		BitSet found = (BitSet) brush.getTouched().clone();
+		endErase();
+		eraseRooms(found);
+	}
+
+	/**
+	 * <p>
+	 * remove stroke of erase tool and forget its rooms.</br>
+	 * </p>
+	 */
+	private void endErase() {
+		geometry.cancel(ERASE_QUERY);
+		overlayLayer.getChildren().remove(brushStroke);
+		brush = null;
+		brushSwept = 0;
+		brushReleased = false;
+		showCandidates(new BitSet());
+	}
+
+	/**
+	 * <p>
+	 * mark given rooms as inside selection area and unmark the rest.</br>
+	 * </p>
+	 * 
+	 * @param found - ids of rooms inside selection area
+	 */
+	private void showCandidates(BitSet found) {
+		BitSet changed = (BitSet) candidates.clone();
+		changed.xor(found);
+		for (int id = changed.nextSetBit(0); id >= 0; id = changed.nextSetBit(id + 1))
+			if (live.get(id))
+				rooms.get(id).setCandidate(found.get(id));
+		candidates = found;
+	}
+
+	/**
+	 * <p>
+	 * change selection by given rooms.</br>
+	 * </p>
+	 * 
+	 * @param found  - ids of rooms picked by select tool
+	 * @param toggle - flip selection state of found rooms
+	 * @param add    - add found rooms to selection, otherwise selection is replaced
+	 */
+	private void applySelection(BitSet found, boolean toggle, boolean add) {
+		BitSet before = selection.toBitSet();
+		if (toggle)
+			selection.toggleAll(found);
+		else if (add)
+			selection.addAll(found);
+		else
+			selection.set(found);
+		selectionChanged(before);
+	}
+
+	/**
+	 * <p>
+	 * find room of a picked node, a room itself or the room of a control
+	 * point.</br>
+	 * </p>
+	 * 
+	 * @param target - target of a mouse event
+	 * @return room or null if target is not part of a room
+	 */
+	private PolyShapeSkeleton2 roomOf(Object target) {
+		PolyShapeSkeleton2 shape = null;
+		if (target instanceof PolyShapeSkeleton2)
+			shape = (PolyShapeSkeleton2) target;
+		else if (target instanceof ControlPointSkeleton)
+			shape = ((ControlPointSkeleton) target).getShape();
+		return shape != null && shape.getRoomId() >= 0 ? shape : null;
+	}
+
+	/**
+	 * <p>
+	 * describe target of a mouse event as {kind, room id, control point index}
+	 * with kinds of {@link SessionEvent}, so it can be found again by
+	 * {@link #targetNode(int, int, int)} in a map whose rooms got same ids.</br>
+	 * </p>
+	 * 
+	 * @param target - target of a mouse event on this map
+	 * @return kind, room id and point index, -1 where not used
+	 */
+	int[] describeTarget(Object target) {
+		PolyShapeSkeleton2 shape = roomOf(target);
+		if (shape == null)
+			return new int[] { SessionEvent.TARGET_MAP, -1, -1 };
+		if (target instanceof ControlPointSkeleton)
+			return new int[] { SessionEvent.TARGET_POINT, shape.getRoomId(),
+					Arrays.asList(shape.getControlPoints()).indexOf(target) };
+		return new int[] { SessionEvent.TARGET_ROOM, shape.getRoomId(), -1 };
+	}
+
+	/**
+	 * @return node described by {@link #describeTarget(Object)}, this map if it
+	 *         no longer exists
+	 */
+	Node targetNode(int kind, int room, int point) {
+		if (kind == SessionEvent.TARGET_MAP || room < 0 || room >= rooms.size() || rooms.get(room) == null)
+			return this;
+		PolyShapeSkeleton2 shape = rooms.get(room);
+		if (kind == SessionEvent.TARGET_POINT) {
+			ControlPointSkeleton[] points = shape.getControlPoints();
+			return point >= 0 && point < points.length ? points[point] : this;
+		}
+		return shape;
+	}
+
+	/**
+	 * @return true if no query started by an event is still to change this map
+	 *         or its selection
+	 */
+	boolean isSettled() {
+		return geometry.isIdle();
+	}
+
+	/**
+	 * <p>
+	 * update look of rooms whose selection state changed since given
+	 * state.</br>
+	 * </p>
+	 * 
+	 * @param before - selected ids before change
+	 */
+	private void selectionChanged(BitSet before) {
+		before.xor(selection.toBitSet());
+		for (int id = before.nextSetBit(0); id >= 0; id = before.nextSetBit(id + 1))
+			if (live.get(id))
+				rooms.get(id).setSelected(selection.contains(id));
+		// only a few selected rooms are about to be edited and need their handles
+		BitSet edited = selection.size() <= MAX_HANDLE_ROOMS ? selection.toBitSet() : new BitSet();
+		BitSet released = (BitSet) handles.clone();
+		released.andNot(edited);
+		releaseControlPoints(released);
+		edited.stream().forEach(id -> showControlPoints(rooms.get(id)));
+		detailLayer.selectionChanged();
+	}
+
+	/**
+	 * <p>
+	 * create control points of a room which does not have them yet.</br>
+	 * </p>
+	 */
+	private void showControlPoints(PolyShapeSkeleton2 shape) {
+		if (shape.getControlPoints().length > 0 || shape.getPointCount() == 0)
+			return;
+		shape.registerControlPoints();
+		handles.set(shape.getRoomId());
+		// a room hidden by level of detail keeps its new handles hidden too
+		for (ControlPointSkeleton point : shape.getControlPoints())
+			point.setVisible(shape.isVisible());
+		handleLayer.addAll(Arrays.asList(shape.getControlPoints()));
+	}
+
+	/**
+	 * <p>
+	 * drop control points of given rooms in one change of control handle layer.
+	 * a hidden room can then be parked again.</br>
+	 * </p>
+	 * 
+	 * @param ids - ids of rooms which no longer need their handles
+	 */
+	private void releaseControlPoints(BitSet ids) {
+		if (ids.isEmpty())
+			return;
+		List<ControlPointSkeleton> points = new ArrayList<>();
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+			if (live.get(id))
+				Collections.addAll(points, rooms.get(id).releaseControlPoints());
+		handleLayer.removeAll(points);
+		handles.andNot(ids);
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+			detailLayer.show(id);
+	}
+
+	/**
+	 * <p>
+	 * pixels per map unit. below 1 small rooms are drawn with less detail, see
+	 * {@link DetailLayer}.</br>
+	 * </p>
+	 * 
+	 * @return zoom property
+	 */
+	public DoubleProperty zoomProperty() {
+		return zoom;
+	}
+
+	public double getZoom() {
+		return zoom.get();
+	}
+
+	/**
+	 * @param zoom - new zoom, clamped to {@link #MIN_ZOOM} and {@link #MAX_ZOOM}
+	 */
+	public void setZoom(double zoom) {
+		this.zoom.set(Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom)));
+	}
+
+	/**
+	 * @return part of map visible on screen in map units
+	 */
+	public ObjectProperty<Bounds> viewportProperty() {
+		return viewport;
+	}
+
+	public Bounds getViewport() {
+		return viewport.get();
+	}
+
+	public void setViewport(Bounds viewport) {
+		this.viewport.set(viewport);
+	}
+
+	/**
+	 * @return selected rooms of this map, change it through methods of this class
+	 *         so rooms are redrawn.
+	 */
+	public RoomSelection getSelection() {
+		return selection;
+	}
+
+	/**
+	 * <p>
+	 * select every room in this map.</br>
+	 * </p>
+	 */
+	public void selectAll() {
+		BitSet before = selection.toBitSet();
+		selection.set(live);
+		selectionChanged(before);
+	}
+
+	/**
+	 * <p>
+	 * select rooms that are not selected and unselect the rest.</br>
+	 * </p>
+	 */
+	public void invertSelection() {
+		BitSet before = selection.toBitSet();
+		selection.invert(live);
+		selectionChanged(before);
+	}
+
+	public void clearSelection() {
+		BitSet before = selection.toBitSet();
+		selection.clear();
+		selectionChanged(before);
+	}
+
+	/**
+	 * <p>
+	 * move every selected room. each room replaces its points in one batch, see
+	 * {@link PolyShapeSkeleton2#translate(double, double)}.</br>
+	 * </p>
+	 * 
+	 * @param deltaX - distance traveled in x direction
+	 * @param deltaY - distance traveled in y direction
+	 */
+	public void moveSelected(double deltaX, double deltaY) {
+		moveRooms(selection.toBitSet(), deltaX, deltaY);
+	}
+
+	/**
+	 * <p>
+	 * move given rooms like {@link #moveSelected(double, double)} does.</br>
+	 * </p>
+	 * 
+	 * @param ids    - ids of rooms to be moved, ids without a room are left out
+	 * @param deltaX - distance traveled in x direction
+	 * @param deltaY - distance traveled in y direction
+	 */
+	public void moveRooms(BitSet ids, double deltaX, double deltaY) {
+		BitSet moved = (BitSet) ids.clone();
+		moved.and(live);
+		for (int id = moved.nextSetBit(0); id >= 0; id = moved.nextSetBit(id + 1))
+			rooms.get(id).translate(deltaX, deltaY);
+		dirty.or(moved);
+		if (!changeListeners.isEmpty()) {
+			changes.geometryChanged(moved);
+			pulse.start();
+		}
+	}
+
+	/**
+	 * <p>
+	 * replace points of one room, an instance is detached first. only a room with
+	 * same number of points can be changed in place, its control points are
+	 * kept.</br>
+	 * </p>
+	 * 
+	 * @param id     - id of room
+	 * @param points - x and y pairs of new points
+	 * @return false if there is no such room or its number of points differs
+	 */
+	public boolean setPoints(int id, double[] points) {
+		if (id < 0 || !live.get(id) || rooms.get(id).getPointCount() * 2 != points.length)
+			return false;
+		PackedPolygons packed = new PackedPolygons(1, points.length / 2);
+		rooms.get(id).unpack(packed, packed.add(points));
+		geometryChanged(id);
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * give one room a new style, shared with other rooms of same style.</br>
+	 * </p>
+	 * 
+	 * @param id    - id of room
+	 * @param style - new style
+	 * @return false if there is no such room
+	 */
+	public boolean setStyle(int id, MapStyle style) {
+		if (id < 0 || !live.get(id))
+			return false;
+		rooms.get(id).setShapeStyle(styleFor(style));
+		styleChanged(id);
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * add one instance of every selected room moved by given distance and select
+	 * the copies.</br>
+	 * </p>
+	 * 
+	 * @param deltaX - distance of copy in x direction
+	 * @param deltaY - distance of copy in y direction
+	 */
+	public void duplicateSelected(double deltaX, double deltaY) {
+		instantiateSelected(new double[] { deltaX, deltaY });
+	}
+
+	/**
+	 * <p>
+	 * copy every selected room into a grid, selected room is top left cell and
+	 * every other cell gets an instance of it.</br>
+	 * </p>
+	 * 
+	 * @param rows     - number of rows, at least 1
+	 * @param columns  - number of columns, at least 1
+	 * @param spacingX - distance between columns
+	 * @param spacingY - distance between rows
+	 */
+	public void arraySelected(int rows, int columns, double spacingX, double spacingY) {
+		double[] offsets = new double[Math.max(0, rows * columns - 1) * 2];
+		int i = 0;
+		for (int row = 0; row < rows; row++)
+			for (int column = 0; column < columns; column++)
+				if (row > 0 || column > 0) {
+					offsets[i++] = column * spacingX;
+					offsets[i++] = row * spacingY;
+				}
+		instantiateSelected(offsets);
+	}
+
+	/**
+	 * <p>
+	 * copy every selected room to evenly spaced places on a circle, selected room
+	 * is the place on the right of center. instances only have an offset, so
+	 * copies are moved around circle but not rotated.</br>
+	 * </p>
+	 * 
+	 * @param count  - number of places on circle including selected room
+	 * @param radius - radius of circle
+	 */
+	public void radialArraySelected(int count, double radius) {
+		double[] offsets = new double[Math.max(0, count - 1) * 2];
+		for (int i = 1; i < count; i++) {
+			double angle = 2 * Math.PI * i / count;
+			offsets[i * 2 - 2] = radius * Math.cos(angle) - radius;
+			offsets[i * 2 - 1] = radius * Math.sin(angle);
+		}
+		instantiateSelected(offsets);
+	}
+
+	/**
+	 * <p>
+	 * add instances of every selected room at given offsets and select them. all
+	 * copies of a room share one {@link RoomTemplate}, they are added to each
+	 * layer in one batch and get no control points until edited.</br>
+	 * </p>
+	 * 
+	 * @param offsets - x and y pairs of distance of each copy from its room
+	 */
+	private void instantiateSelected(double[] offsets) {
+		if (selection.size() == 0 || offsets.length == 0)
+			return;
+		List<PolyShapeSkeleton2> shapes = new ArrayList<>();
+		selection.forEach(id -> {
+			RoomRecord record = getRecord(id);
+			RoomTemplate template = templateFor(record);
+			ShapeStyle style = styleFor(record.getStyle());
+			double x = record.getCoordinates().offsetX(), y = record.getCoordinates().offsetY();
+			for (int i = 0; i < offsets.length; i += 2) {
+				PolyShapeSkeleton2 shape = new PolyShapeSkeleton2(template, x + offsets[i], y + offsets[i + 1]);
+				shape.setShapeStyle(style);
+				shapes.add(shape);
+			}
+		});
+		roomLayer.addAll(shapes);
+		BitSet added = new BitSet();
+		for (PolyShapeSkeleton2 shape : shapes)
+			added.set(addRoom(shape));
+		BitSet before = selection.toBitSet();
+		selection.set(added);
+		selectionChanged(before);
+	}
+
+	/**
+	 * <p>
+	 * give every selected instance its own points and control points, so it no
+	 * longer shares them with other copies.</br>
+	 * </p>
+	 */
+	public void detachSelected() {
+		selection.forEach(id -> {
+			PolyShapeSkeleton2 shape = rooms.get(id);
+			if (!shape.isInstance())
+				return;
+			showControlPoints(shape);
+			shape.detach();
+			geometryChanged(id);
+		});
+	}
+
+	/**
+	 * <p>
+	 * apply given transform to every selected room at once. points of all rooms
+	 * are packed into one {@link PackedPolygons}, transformed in one pass, on all
+	 * cores for large selections, and written back to each room in one batch. a
+	 * translation only moves rooms, see {@link #moveSelected(double, double)}.</br>
+	 * </p>
+	 * 
+	 * @param transform - transform to apply
+	 */
+	public void transformSelected(Affine transform) {
+		if (selection.size() == 0)
+			return;
+		if (transform.isTranslation()) {
+			moveSelected(transform.getTx(), transform.getTy());
+			return;
+		}
+		List<PolyShapeSkeleton2> shapes = new ArrayList<>(selection.size());
+		selection.forEach(id -> shapes.add(rooms.get(id)));
+		PackedPolygons packed = new PackedPolygons(shapes.size(), shapes.size() * 8);
+		for (PolyShapeSkeleton2 shape : shapes)
+			shape.pack(packed);
+		packed.transform(transform);
+		for (int i = 0; i < shapes.size(); i++)
+			shapes.get(i).unpack(packed, i);
+		BitSet moved = selection.toBitSet();
+		dirty.or(moved);
+		if (!changeListeners.isEmpty()) {
+			changes.geometryChanged(moved);
+			pulse.start();
+		}
+	}
+
+	/**
+	 * @return {minX, minY, maxX, maxY} of selected rooms, NaN if none is
+	 *         selected
+	 */
+	public double[] selectionBounds() {
+		double[] bounds = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+		selection.forEach(id -> {
+			RoomRecord record = getRecord(id);
+			for (int p = 0; p < record.getPointCount(); p++)
+				Polygons.include(bounds, record.getX(p), record.getY(p));
+		});
+		return bounds;
+	}
+
+	/**
+	 * <p>
+	 * rotate selected rooms around center of their bounds.</br>
+	 * </p>
+	 * 
+	 * @param degrees - angle, positive turns clockwise on screen
+	 */
+	public void rotateSelected(double degrees) {
+		double[] bounds = selectionBounds();
+		transformSelected(Affine.rotate(degrees, (bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2));
+	}
+
+	/**
+	 * <p>
+	 * scale selected rooms around center of their bounds, negative factors
+	 * mirror.</br>
+	 * </p>
+	 * 
+	 * @param scaleX - factor in x direction
+	 * @param scaleY - factor in y direction
+	 */
+	public void scaleSelected(double scaleX, double scaleY) {
+		double[] bounds = selectionBounds();
+		transformSelected(Affine.scale(scaleX, scaleY, (bounds[0] + bounds[2]) / 2, (bounds[1] + bounds[3]) / 2));
+	}
+
+	/**
+	 * <p>
+	 * replace selected rooms with their union, style of first selected room is
+	 * used.</br>
+	 * </p>
+	 */
+	public void mergeSelected() {
+		editSelected((s, ids) -> recordsOf(booleans.union(pointsOf(s, ids)), s.get(ids[0])));
+	}
+
+	/**
+	 * <p>
+	 * replace selected rooms with area covered by all of them, style of first
+	 * selected room is used.</br>
+	 * </p>
+	 */
+	public void intersectSelected() {
+		editSelected((s, ids) -> recordsOf(booleans.intersection(pointsOf(s, ids)), s.get(ids[0])));
+	}
+
+	/**
+	 * <p>
+	 * cut top most selected room out of all other selected rooms, for example to
+	 * make a doorway or a hole. cutting room is removed, cut rooms keep their
+	 * style.</br>
+	 * </p>
+	 */
+	public void cutSelected() {
+		int[] top = { -1 };
+		selection.forEach(id -> {
+			if (top[0] < 0 || rooms.get(id).getLayerIndex() > rooms.get(top[0]).getLayerIndex())
+				top[0] = id;
+		});
+		int cutter = top[0];
+		editSelected((s, ids) -> {
+			double[] knife = s.get(cutter).copyPoints();
+			List<RoomRecord> cut = new ArrayList<>();
+			for (int id : ids)
+				if (id != cutter)
+					cut.addAll(recordsOf(booleans.difference(s.get(id).copyPoints(), knife), s.get(id)));
+			return cut;
+		});
+	}
+
+	/**
+	 * <p>
+	 * compute new rooms from selected rooms on a worker thread and replace
+	 * selected rooms with them. result is dropped if any of those rooms changed
+	 * while it was computed.</br>
+	 * </p>
+	 * 
+	 * @param edit - creates new rooms from a snapshot and ids of selected rooms
+	 */
+	private void editSelected(BiFunction<GeometrySnapshot, int[], List<RoomRecord>> edit) {
+		if (selection.size() < 2)
+			return;
+		GeometrySnapshot snapshot = GeometrySnapshot.of(snapshot());
+		geometry.update(snapshot);
+		BitSet ids = selection.toBitSet();
+		int[] array = ids.stream().toArray();
+		geometry.submit(EDIT_QUERY, s -> edit.apply(s, array), result -> {
+			for (int id : array)
+				if (!live.get(id) || dirty.get(id) || records.get(id) != snapshot.get(id))
+					return;
+			eraseRooms(ids);
+			loadRecords(result);
+		});
+	}
+
+	private static List<double[]> pointsOf(GeometrySnapshot snapshot, int[] ids) {
+		List<double[]> points = new ArrayList<>(ids.length);
+		for (int id : ids)
+			points.add(snapshot.get(id).copyPoints());
+		return points;
+	}
+
+	/**
+	 * <p>
+	 * create rooms from outlines, number of sides of each is its number of
+	 * points.</br>
+	 * </p>
+	 */
+	private static List<RoomRecord> recordsOf(List<double[]> polygons, RoomRecord styleOf) {
+		List<RoomRecord> records = new ArrayList<>(polygons.size());
+		for (double[] points : polygons)
+			records.add(new RoomRecord(points.length / 2, styleOf.getStyle(), points));
+		return records;
+	}
+
+	/**
+	 * <p>
+	 * erase every selected room with its control points.</br>
+	 * </p>
+	 */
+	public void eraseSelected() {
+		eraseRooms(selection.toBitSet());
+	}
+
+	/**
+	 * <p>
+	 * erase given rooms with their control points. each layer removes its part in
+	 * one pass which fires one change event.</br>
+	 * </p>
+	 * 
+	 * @param ids - ids of rooms to be erased, ids without a room are cleared
+	 */
+	public void eraseRooms(BitSet ids) {
+		ids.and(live);
+		if (ids.isEmpty())
+			return;
+		List<PolyShapeSkeleton2> shapes = new ArrayList<>();
+		List<ControlPointSkeleton> points = new ArrayList<>();
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+			PolyShapeSkeleton2 shape = rooms.get(id);
+			shapes.add(shape);
+			Collections.addAll(points, shape.getControlPoints());
+			shape.setSelected(false);
+			shape.setCandidate(false);
+			shape.setRoomId(-1);
+			rooms.set(id, null);
+			roomRemoved(id);
+			records.set(id, null);
+			paintOrder.set(id, null);
+		}
+		roomLayer.removeAll(shapes);
+		handleLayer.removeAll(points);
+		handles.andNot(ids);
+		live.andNot(ids);
+		dirty.andNot(ids);
+		candidates.andNot(ids);
+		selection.removeAll(ids);
 	}
 
 }
@@ -0,0 +1,151 @@
+package mapmaker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.ButtonBar.ButtonData;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Window;
+import mapmaker.io.MapCodecs;
+import mapmaker.preview.MapPreview;
+import mapmaker.preview.PreviewCache;
+
+/**
+ * <p>
+ * dialog listing recent maps followed by all maps of a directory, each with its thumbnail, room count, bounds,
+ * file size and last modified time from a {@link PreviewCache}. maps with a valid cached preview show it at once,
+ * others are built in background and appear when ready, so choosing a map never needs loading it.</br>
+ * result is path of chosen map, or null if dialog was cancelled.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapBrowser extends Dialog< Path>{
+
+	private static final ButtonType OPEN = new ButtonType( "Open", ButtonData.OK_DONE);
+
+	private final PreviewCache cache;
+	private final ListView< Path> list = new ListView<>();
+	/**
+	 * <p>
+	 * loaded thumbnails, a rebuilt preview is a new object so its new image is loaded.</br>
+	 * </p>
+	 */
+	private final Map< MapPreview, Image> images = new IdentityHashMap<>();
+	private final Set< Path> requested = new HashSet<>();
+
+	/**
+	 * @param owner - window owning this dialog
+	 * @param cache - cache of previews and recent maps
+	 * @param directory - directory whose maps are listed after recent maps
+	 */
+	public MapBrowser( Window owner, PreviewCache cache, Path directory){
+		super();
+		this.cache = cache;
+		initOwner( owner);
+		setTitle( "Browse Maps");
+		setResizable( true);
+		Set< Path> maps = new LinkedHashSet<>();
+		for( Path recent: cache.getRecent())
+			if( Files.isRegularFile( recent))
+				maps.add( recent);
+		try( Stream< Path> files = Files.list( directory)){
+			maps.addAll( files.filter( Files::isRegularFile).filter( MapCodecs::isMapFile)
+					.map( p -> p.toAbsolutePath().normalize()).sorted().collect( Collectors.toList()));
+		}catch( IOException e){
+			e.printStackTrace();
+		}
+		list.getItems().setAll( new ArrayList<>( maps));
+		list.setCellFactory( view -> new PreviewCell());
+		list.setPrefSize( 480, 520);
+		list.setOnMouseClicked( e -> {
+			if( e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2 && list.getSelectionModel().getSelectedItem() != null){
+				setResult( list.getSelectionModel().getSelectedItem());
+				close();
+			}
+		});
+		getDialogPane().setContent( list);
+		getDialogPane().getButtonTypes().addAll( OPEN, ButtonType.CANCEL);
+		getDialogPane().lookupButton( OPEN).disableProperty()
+				.bind( list.getSelectionModel().selectedItemProperty().isNull());
+		setResultConverter( button -> button == OPEN ? list.getSelectionModel().getSelectedItem() : null);
+	}
+
+	/**
+	 * <p>
+	 * one map in list, shows preview if it is cached or requests it once if not.</br>
+	 * </p>
+	 */
+	private class PreviewCell extends ListCell< Path>{
+
+		private final ImageView thumbnail = new ImageView();
+		private final Label name = new Label();
+		private final Label rooms = new Label();
+		private final Label file = new Label();
+		private final Label bounds = new Label();
+		private final HBox box;
+
+		PreviewCell(){
+			super();
+			thumbnail.setPreserveRatio( true);
+			thumbnail.setFitWidth( PreviewCache.THUMBNAIL_SIZE / 2);
+			thumbnail.setFitHeight( PreviewCache.THUMBNAIL_SIZE / 2);
+			StackPane frame = new StackPane( thumbnail);
+			frame.setMinSize( PreviewCache.THUMBNAIL_SIZE / 2, PreviewCache.THUMBNAIL_SIZE / 2);
+			name.setStyle( "-fx-font-weight: bold");
+			box = new HBox( 8, frame, new VBox( 2, name, rooms, file, bounds));
+			box.setPadding( new Insets( 2));
+		}
+
+		@Override
+		protected void updateItem( Path item, boolean empty){
+			super.updateItem( item, empty);
+			if( empty || item == null){
+				setGraphic( null);
+				return;
+			}
+			name.setText( item.getFileName().toString());
+			MapPreview preview = cache.get( item);
+			if( preview == null){
+				thumbnail.setImage( null);
+				rooms.setText( "building preview...");
+				file.setText( item.getParent().toString());
+				bounds.setText( "");
+				if( requested.add( item))
+					cache.request( item, p -> list.refresh());
+			}else{
+				thumbnail.setImage( preview.getThumbnail() == null ? null
+						: images.computeIfAbsent( preview, p -> new Image( p.getThumbnail().toUri().toString(), true)));
+				rooms.setText( preview.getRooms() + " rooms, " + preview.getVertices() + " vertices");
+				file.setText( (preview.getSize() + 1023) / 1024 + " KB, modified "
+						+ DateFormat.getDateTimeInstance().format( new Date( preview.getLastModified())));
+				double[] b = preview.getBounds();
+				bounds.setText( Double.isNaN( b[0]) ? "empty"
+						: String.format( "%.0f x %.0f at (%.0f, %.0f)", b[2] - b[0], b[3] - b[1], b[0], b[1]));
+			}
+			setGraphic( box);
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package mapmaker;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+
+/**
+ * <p>
+ * one layer of {@link MapAreaSkeleton}, holding only one kind of node. every member knows its index in this layer
+ * so it can be found without searching children.</br>
+ * an ordered layer keeps paint order of its members, removing one member shifts the members above it. an unordered
+ * layer moves its last member into the hole instead, so removing one member is constant time. removing many
+ * members at once is one pass over children and fires one change event in both kinds.</br>
+ * layer is not picked on its bounds, so mouse events on empty parts of it reach the layer below.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ * @param <T> - type of nodes in this layer
+ */
+public class MapLayer< T extends Node & MapLayer.Member> extends Pane{
+
+	/**
+	 * <p>
+	 * a node which can be added to a {@link MapLayer}.</br>
+	 * </p>
+	 */
+	public interface Member{
+
+		/**
+		 * @return index of this node in its layer, -1 if it is not in one
+		 */
+		int getLayerIndex();
+
+		/**
+		 * <p>
+		 * only to be called by {@link MapLayer}.</br>
+		 * </p>
+		 * @param index - new index in layer
+		 */
+		void setLayerIndex( int index);
+	}
+
+	private final boolean ordered;
+	private final ObservableList< Node> nodes;
+
+	/**
+	 * @param ordered - true if paint order of members must be kept when members are removed
+	 */
+	public MapLayer( boolean ordered){
+		super();
+		this.ordered = ordered;
+		nodes = getChildren();
+		setPickOnBounds( false);
+	}
+
+	public void add( T node){
+		node.setLayerIndex( nodes.size());
+		nodes.add( node);
+	}
+
+	/**
+	 * <p>
+	 * add all given nodes on top of this layer with one change event.</br>
+	 * </p>
+	 * @param batch - nodes to be added
+	 */
+	public void addAll( Collection< ? extends T> batch){
+		int index = nodes.size();
+		for( T node: batch)
+			node.setLayerIndex( index++);
+		nodes.addAll( batch);
+	}
+
+	/**
+	 * <p>
+	 * remove given node, does nothing if it is not in this layer.</br>
+	 * </p>
+	 * @param node - node to be removed
+	 */
+	public void remove( T node){
+		int index = indexOf( node);
+		if( index < 0)
+			return;
+		int last = nodes.size() - 1;
+		if( ordered){
+			nodes.remove( index);
+			renumber( index);
+		}else if( index == last){
+			nodes.remove( last);
+		}else{
+			// move last member into the hole so nothing is shifted
+			Node moved = nodes.remove( last);
+			nodes.set( index, moved);
+			Member.class.cast( moved).setLayerIndex( index);
+		}
+		node.setLayerIndex( -1);
+	}
+
+	/**
+	 * <p>
+	 * remove all given nodes in one pass and one change event. nodes not in this layer are ignored.</br>
+	 * </p>
+	 * @param batch - nodes to be removed
+	 */
+	public void removeAll( Collection< ? extends T> batch){
+		BitSet marked = new BitSet();
+		Set< Node> removed = new HashSet<>();
+		for( T node: batch){
+			int index = indexOf( node);
+			if( index >= 0){
+				marked.set( index);
+				removed.add( node);
+			}
+		}
+		if( removed.isEmpty())
+			return;
+		nodes.removeAll( removed);
+		for( Node node: removed)
+			Member.class.cast( node).setLayerIndex( -1);
+		renumber( marked.nextSetBit( 0));
+	}
+
+	/**
+	 * <p>
+	 * remove all members of this layer.</br>
+	 * </p>
+	 */
+	public void clear(){
+		for( Node node: nodes)
+			Member.class.cast( node).setLayerIndex( -1);
+		nodes.clear();
+	}
+
+	public boolean contains( T node){
+		return indexOf( node) >= 0;
+	}
+
+	public T get( int index){
+		return cast( nodes.get( index));
+	}
+
+	public int size(){
+		return nodes.size();
+	}
+
+	/**
+	 * @return read only list of members in paint order
+	 */
+	public List< T> getMembers(){
+		@SuppressWarnings( "unchecked")
+		List< T> members = (List< T>) (List< ?>) nodes;
+		return Collections.unmodifiableList( members);
+	}
+
+	private int indexOf( T node){
+		int index = node.getLayerIndex();
+		return index >= 0 && index < nodes.size() && nodes.get( index) == node ? index : -1;
+	}
+
+	private void renumber( int from){
+		for( int i = from; i < nodes.size(); i++)
+			Member.class.cast( nodes.get( i)).setLayerIndex( i);
+	}
+
+	@SuppressWarnings( "unchecked")
+	private T cast( Node node){
+		return (T) node;
+	}
+}
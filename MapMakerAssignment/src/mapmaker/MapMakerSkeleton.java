@@ -3,39 +3,74 @@ package mapmaker;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.binding.Bindings;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.geometry.Side;
+import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.RadioMenuItem;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Separator;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TextInputDialog;
+import javafx.scene.control.ToggleGroup;
 import javafx.scene.control.ToolBar;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.FileChooser.ExtensionFilter;
 import mapmaker.MapAreaSkeleton;
 import mapmaker.ToolStateSkeleton;
+import mapmaker.io.MapCodec;
+import mapmaker.io.MapCodecs;
+import mapmaker.io.MapExporter;
+import mapmaker.io.MapIndex;
+import mapmaker.io.SvgExporter;
+import mapmaker.model.CoordinatePrecision;
+import mapmaker.model.MapChanges;
+import mapmaker.model.MapSnapshot;
+import mapmaker.model.MapStats;
+import mapmaker.model.RoomFingerprint;
+import mapmaker.model.RoomRecord;
+import mapmaker.preview.PreviewCache;
+import mapmaker.session.SessionFile;
+import mapmaker.sync.SyncServer;
 
 /**
  * <p>
@@ -77,32 +112,122 @@ public class MapMakerSkeleton extends Application {
 	public static final String INFO_PATH = "resources/info.txt";
 	public static final String HELP_PATH = "resources/help.txt";
 	public static final String CREDITS_PATH = "resources/icons/credits.txt";
+	/**
+	 * <p>
+	 * factor of one zoom step, a menu item or one notch of mouse wheel.</br>
+	 * </p>
+	 */
+	private static final double ZOOM_STEP = 1.25;
 
 	private MapAreaSkeleton map;
+	private PreviewCache previews;
+	private SessionRecorder recorder;
+	private SyncLink sync;
+	/**
+	 * <p>
+	 * saves and exports snapshots in order they were asked for. its thread is not
+	 * a daemon, so a file being written when window closes is finished.</br>
+	 * </p>
+	 */
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> new Thread(r, "writer"));
 
 	@Override
 	public void init() throws Exception {
 		super.init();
+		StartupProfile.mark("launch");
 	}
 
 	@Override
 	public void start(Stage primaryStage) throws Exception {
 		map = new MapAreaSkeleton();
+		previews = new PreviewCache(PreviewCache.defaultDirectory(), Platform::runLater);
+		// filled when opened, so start up does not check every recent file exists
+		Menu recentMenu = lazyMenu("Open Recent", this::recentItems);
 
 		BorderPane root = new BorderPane();
-		MenuBar menuBar = new MenuBar(new Menu("File", null, createMenuItemAndIcon("New", (e) -> {
-		}), createMenuItemAndIcon("Open", (e) -> {
-		}), createMenuItemAndIcon("Save", (e) -> {
-		}), createMenuItemAndIcon("Clear", (e) -> {
+		MenuBar menuBar = new MenuBar(new Menu("File", null, createMenuItemAndIcon("New", "new-file", (e) -> {
+			map.clearMap();
+		}), createMenuItemAndIcon("Open", "open-archive", (e) -> {
+			loadMap(primaryStage);
+		}), createMenuItem("Browse Maps", (e) -> {
+			browseMaps(primaryStage);
+		}, KeyCombination.valueOf("Shortcut+Shift+O")), recentMenu, createMenuItemAndIcon("Save", "save", (e) -> {
+			saveMap(primaryStage);
+		}), createMenuItem("Export", (e) -> {
+			exportMap(primaryStage);
+		}), createPrecisionMenu(), new SeparatorMenuItem(), createMenuItem("Connect", (e) -> {
+			showInputDialog("Connect", "host:port", "[\\w.-]*:?\\d{0,5}", this::connect);
+		}), createMenuItem("Disconnect", (e) -> {
+			disconnect();
+		}), new SeparatorMenuItem(), createMenuItemAndIcon("Clear", "clear", (e) -> {
 			map.clearMap();
-		}), new SeparatorMenuItem(), createMenuItemAndIcon("Exit", (e) -> {
+		}), new SeparatorMenuItem(), createMenuItemAndIcon("Exit", "exit", (e) -> {
 			primaryStage.hide();
-		})), new Menu("Help", null, createMenuItemAndIcon("Credit", (e) -> displayCredit()),
-				createMenuItemAndIcon("Info", (e) -> {
+		})), new Menu("Edit", null, createMenuItem("Select All", (e) -> {
+			map.selectAll();
+		}, KeyCombination.valueOf("Shortcut+A")), createMenuItem("Invert Selection", (e) -> {
+			map.invertSelection();
+		}, KeyCombination.valueOf("Shortcut+I")), createMenuItem("Clear Selection", (e) -> {
+			map.clearSelection();
+		}), new SeparatorMenuItem(), createMenuItem("Erase Selected", (e) -> {
+			map.eraseSelected();
+		}, new KeyCodeCombination(KeyCode.DELETE)), new SeparatorMenuItem(), createMenuItem("Merge Rooms", (e) -> {
+			map.mergeSelected();
+		}, KeyCombination.valueOf("Shortcut+M")), createMenuItem("Intersect Rooms", (e) -> {
+			map.intersectSelected();
+		}), createMenuItem("Cut Rooms", (e) -> {
+			map.cutSelected();
+		}), new SeparatorMenuItem(), createMenuItem("Duplicate", (e) -> {
+			map.duplicateSelected(20, 20);
+		}, KeyCombination.valueOf("Shortcut+D")), createMenuItem("Array", (e) -> {
+			showInputDialog("Array", "rows columns spacingX spacingY", "\\d{1,3} ?(\\d{1,3} ?(\\d+\\.?\\d* ?(\\d+\\.?\\d*)?)?)?",
+					input -> {
+						String[] values = input.split(" ");
+						if (values.length == 4)
+							map.arraySelected(Integer.parseInt(values[0]), Integer.parseInt(values[1]),
+									Double.parseDouble(values[2]), Double.parseDouble(values[3]));
+					});
+		}), createMenuItem("Radial Array", (e) -> {
+			showInputDialog("Radial Array", "count radius", "\\d{1,4} ?(\\d+\\.?\\d*)?", input -> {
+				String[] values = input.split(" ");
+				if (values.length == 2)
+					map.radialArraySelected(Integer.parseInt(values[0]), Double.parseDouble(values[1]));
+			});
+		}), createMenuItem("Detach Instances", (e) -> {
+			map.detachSelected();
+		}), new SeparatorMenuItem(), createMenuItem("Rotate", (e) -> {
+			showInputDialog("Rotate", "degrees clockwise", "-?\\d*\\.?\\d*", input -> {
+				// dialog allows partial numbers such as "-" while typing
+				if (input.matches(".*\\d.*"))
+					map.rotateSelected(Double.parseDouble(input));
+			});
+		}, KeyCombination.valueOf("Shortcut+R")), createMenuItem("Scale", (e) -> {
+			showInputDialog("Scale", "factor", "\\d*\\.?\\d*", input -> {
+				if (input.matches(".*\\d.*") && Double.parseDouble(input) > 0)
+					map.scaleSelected(Double.parseDouble(input), Double.parseDouble(input));
+			});
+		}), createMenuItem("Mirror Horizontal", (e) -> {
+			map.scaleSelected(-1, 1);
+		}), createMenuItem("Mirror Vertical", (e) -> {
+			map.scaleSelected(1, -1);
+		})), new Menu("View", null, createMenuItem("Zoom In", (e) -> {
+			map.setZoom(map.getZoom() * ZOOM_STEP);
+		}, KeyCombination.valueOf("Shortcut+Equals")), createMenuItem("Zoom Out", (e) -> {
+			map.setZoom(map.getZoom() / ZOOM_STEP);
+		}, KeyCombination.valueOf("Shortcut+Minus")), createMenuItem("Actual Size", (e) -> {
+			map.setZoom(1);
+		}, KeyCombination.valueOf("Shortcut+0"))), lazyMenu("Help", () -> Arrays.asList(createMenuItemAndIcon("Credit", "open-book", (e) -> displayCredit()),
+				createMenuItemAndIcon("Info", "information", (e) -> {
 					displayInfo();
-				}), new SeparatorMenuItem(), createMenuItemAndIcon("Help", (e) -> {
+				}), new SeparatorMenuItem(), createMenuItemAndIcon("Help", "question", (e) -> {
 					displayHelp();
-				})));
+				}), createMenuItem("Diagnostics", (e) -> {
+					displayDiagnostics();
+				}), createMenuItem("Record Session", (e) -> {
+					startRecording(primaryStage);
+				}), createMenuItem("Stop Recording", (e) -> {
+					stopRecording();
+				}))));
 
 		Label statusLabel = new Label("Tool: " + map.activeTool());
 		Label option = new Label("Option: " + getOption());
@@ -110,8 +235,44 @@ public class MapMakerSkeleton extends Application {
 		statusBar.getItems().add(statusLabel);
 		statusBar.getItems().add(new Separator());
 		statusBar.getItems().add(option);
+		Label roomCount = new Label("Rooms: 0");
+		statusBar.getItems().add(new Separator());
+		statusBar.getItems().add(roomCount);
+		Label zoom = new Label("Zoom: 100%");
+		statusBar.getItems().add(new Separator());
+		statusBar.getItems().add(zoom);
+		map.zoomProperty().addListener((o, a, b) -> zoom.setText("Zoom: " + Math.round(b.doubleValue() * 100) + "%"));
+		// count follows changes instead of recounting rooms
+		long[] rooms = { 0 };
+		map.addMapChangeListener((changes) -> {
+			rooms[0] += changes.count(MapChanges.Kind.ADDED) - changes.count(MapChanges.Kind.REMOVED);
+			roomCount.setText("Rooms: " + rooms[0]);
+		});
+
+		// option of erase tool is radius of its brush in screen pixels
+		MenuButton eraseBtn = new MenuButton(null, Icons.large("eraser"), createMenuItem("Small Brush", (e) -> {
+			ToolStateSkeleton.state().setTool(Tools.Erase);
+			ToolStateSkeleton.state().setOption(3);
+			statusLabel.setText("Tool: " + map.activeTool());
+			option.setText("Option: " + getOption());
+		}), createMenuItem("Medium Brush", (e) -> {
+			ToolStateSkeleton.state().setTool(Tools.Erase);
+			ToolStateSkeleton.state().setOption(MapAreaSkeleton.ERASE_RADIUS);
+			statusLabel.setText("Tool: " + map.activeTool());
+			option.setText("Option: " + getOption());
+		}), createMenuItem("Large Brush", (e) -> {
+			ToolStateSkeleton.state().setTool(Tools.Erase);
+			ToolStateSkeleton.state().setOption(24);
+			statusLabel.setText("Tool: " + map.activeTool());
+			option.setText("Option: " + getOption());
+		}), createMenuItem("Huge Brush", (e) -> {
+			ToolStateSkeleton.state().setTool(Tools.Erase);
+			ToolStateSkeleton.state().setOption(64);
+			statusLabel.setText("Tool: " + map.activeTool());
+			option.setText("Option: " + getOption());
+		}));
 
-		MenuButton mnuBtn = new MenuButton(null, null, createMenuItem("Line", (e) -> {
+		MenuButton mnuBtn = new MenuButton(null, Icons.large("plans"), createMenuItem("Line", (e) -> {
 
 			ToolStateSkeleton.state().setTool(Tools.Room);
 			ToolStateSkeleton.state().setOption(2);
@@ -134,24 +295,20 @@ public class MapMakerSkeleton extends Application {
 			statusLabel.setText("Tool: " + map.activeTool());
 		}));
 
-		ToolBar tool = new ToolBar(createButton("Select", (e) -> {
+		ToolBar tool = new ToolBar(createButton("Select", "cursor", (e) -> {
 
 			ToolStateSkeleton.state().setTool(Tools.Select);
 			statusLabel.setText("Tool: " + map.activeTool());
 			option.setText("Option: " + getOption());
-		}), createButton("Move", (e) -> {
+		}), createButton("Move", "move", (e) -> {
 			ToolStateSkeleton.state().setTool(Tools.Move);
 			statusLabel.setText("Tool: " + map.activeTool());
 			option.setText("Option: " + getOption());
-		}), mnuBtn, createButton("Path", (e) -> {
+		}), mnuBtn, createButton("Path", "road", (e) -> {
 			ToolStateSkeleton.state().setTool(Tools.Path);
 			statusLabel.setText("Tool: " + map.activeTool());
 			option.setText("Option: " + getOption());
-		}), createButton("Erase", (e) -> {
-			ToolStateSkeleton.state().setTool(Tools.Erase);
-			statusLabel.setText("Tool: " + map.activeTool());
-			option.setText("Option: " + getOption());
-		}), createButton("Door", (e) -> {
+		}), eraseBtn, createButton("Door", "doorway", (e) -> {
 			ToolStateSkeleton.state().setTool(Tools.Door);
 			statusLabel.setText("Tool: " + map.activeTool());
 			option.setText("Option: " + getOption());
@@ -160,15 +317,49 @@ public class MapMakerSkeleton extends Application {
 		mnuBtn.setId("Room");
 		mnuBtn.setPopupSide(Side.RIGHT);
 		mnuBtn.setPadding(Insets.EMPTY);
+		eraseBtn.setId("Erase");
+		eraseBtn.setPopupSide(Side.RIGHT);
+		eraseBtn.setPadding(Insets.EMPTY);
 		tool.setOrientation(Orientation.VERTICAL);
 		tool.setPrefWidth(50);
 		
 		
 
-		root.setBottom(statusBar);
+		// statistics fold out above the status bar
+		root.setBottom(new VBox(new StatsPanel(map), statusBar));
 		root.setLeft(tool);
 		root.setTop(menuBar);
-		root.setCenter(map);
+		// map scrolls when rooms are drawn past the window, minimap shows where.
+		// map is zoomed by scaling it, a group makes scroll pane measure it scaled
+		ScrollPane scroll = new ScrollPane(new Group(map));
+		// map fills visible area at any zoom and grows past it with its rooms
+		map.minWidthProperty().bind(Bindings.createDoubleBinding(
+				() -> scroll.getViewportBounds().getWidth() / map.getZoom(), scroll.viewportBoundsProperty(),
+				map.zoomProperty()));
+		map.minHeightProperty().bind(Bindings.createDoubleBinding(
+				() -> scroll.getViewportBounds().getHeight() / map.getZoom(), scroll.viewportBoundsProperty(),
+				map.zoomProperty()));
+		InvalidationListener visible = (o) -> {
+			Bounds view = scroll.getViewportBounds();
+			double scale = map.getZoom();
+			double x = scroll.getHvalue() * Math.max(0, map.getWidth() * scale - view.getWidth());
+			double y = scroll.getVvalue() * Math.max(0, map.getHeight() * scale - view.getHeight());
+			map.setViewport(new BoundingBox(x / scale, y / scale, view.getWidth() / scale, view.getHeight() / scale));
+		};
+		scroll.hvalueProperty().addListener(visible);
+		scroll.vvalueProperty().addListener(visible);
+		scroll.viewportBoundsProperty().addListener(visible);
+		map.layoutBoundsProperty().addListener(visible);
+		map.zoomProperty().addListener(visible);
+		// shortcut and mouse wheel zooms instead of scrolling
+		scroll.addEventFilter(ScrollEvent.SCROLL, (e) -> {
+			if (!e.isShortcutDown() || e.getDeltaY() == 0)
+				return;
+			map.setZoom(map.getZoom() * Math.pow(ZOOM_STEP, Math.signum(e.getDeltaY())));
+			e.consume();
+		});
+		root.setCenter(scroll);
+		root.setRight(new Minimap(map, scroll));
 
 		Scene scene = new Scene(root, 800, 800);
 		scene.getStylesheets().add(new File("resources/css/style.css").toURI().toString());
@@ -180,7 +371,10 @@ public class MapMakerSkeleton extends Application {
 
 		primaryStage.setTitle("Map Maker Skeleton");
 		primaryStage.setScene(scene);
+		StartupProfile.mark("build");
 		primaryStage.show();
+		StartupProfile.mark("show");
+		StartupProfile.awaitFirstFrame();
 	}
 
 	/**
@@ -190,6 +384,11 @@ public class MapMakerSkeleton extends Application {
 	 */
 	@Override
 	public void stop() throws Exception {
+		stopRecording();
+		disconnect();
+		map.dispose();
+		previews.shutdown();
+		writer.shutdown();
 		super.stop();
 	}
 
@@ -199,18 +398,23 @@ public class MapMakerSkeleton extends Application {
 	 * </p>
 	 * 
 	 * @param id      - used as {@link Button#setId(String)} for CSS.
+	 * @param icon    - name of icon in {@link Icons} atlas.
 	 * @param handler - {@link EventHandler} object be called when {@link Button} is
 	 *                clicked.
 	 * @return created {@link Button}.
 	 */
-	private Button createButton(String id, EventHandler<MouseEvent> event) {
-		Button button = new Button();
+	private Button createButton(String id, String icon, EventHandler<MouseEvent> event) {
+		Button button = new Button(null, Icons.large(icon));
 		button.setOnMouseClicked(event);
 		button.setId(id);
 		return button;
 	}
 
 	String getOption() {
+		if (ToolStateSkeleton.state().getTool() == Tools.Erase) {
+			int radius = ToolStateSkeleton.state().getOption();
+			return "Brush " + (radius > 0 ? radius : MapAreaSkeleton.ERASE_RADIUS) + " px";
+		}
 		String option;
 		switch (ToolStateSkeleton.state().getOption()) {
 
@@ -233,23 +437,65 @@ public class MapMakerSkeleton extends Application {
 
 	/**
 	 * <p>
-	 * create a {@link MenuItem} with an icon as {@link Label}.</br>
+	 * create a {@link MenuItem} with an icon from {@link Icons} atlas.</br>
 	 * </p>
 	 * 
 	 * @param name    - name to be displayed on {@link MenuItem} and used as
 	 *                {@link MenuItem#setId(String)} for CSS.
+	 * @param icon    - name of icon in {@link Icons} atlas.
 	 * @param handler - {@link EventHandler} object be called when {@link MenuItem}
 	 *                is clicked.
-	 * @return created {@link MenuItem} with an icon as {@link Label}.
+	 * @return created {@link MenuItem} with an icon.
 	 */
-	private MenuItem createMenuItemAndIcon(String name, EventHandler<ActionEvent> handler) {
-		Label icon = new Label();
-		icon.setId(name + "-icon");
+	private MenuItem createMenuItemAndIcon(String name, String icon, EventHandler<ActionEvent> handler) {
 		MenuItem item = createMenuItem(name, handler);
-		item.setGraphic(icon);
+		item.setGraphic(Icons.small(icon));
 		return item;
 	}
 
+	/**
+	 * <p>
+	 * create a {@link Menu} whose items are built when it is opened, for menus
+	 * rarely used. not for items with accelerators, which only work once their
+	 * item is in menu bar.</br>
+	 * </p>
+	 * 
+	 * @param name  - name to be displayed on {@link Menu}.
+	 * @param items - builds items of menu, called again every time menu opens.
+	 * @return created {@link Menu}.
+	 */
+	private Menu lazyMenu(String name, Supplier<List<MenuItem>> items) {
+		// a menu without items never shows, so it could never fill itself
+		MenuItem placeholder = new MenuItem("...");
+		placeholder.setDisable(true);
+		Menu menu = new Menu(name, null, placeholder);
+		menu.setOnShowing((e) -> menu.getItems().setAll(items.get()));
+		return menu;
+	}
+
+	/**
+	 * <p>
+	 * create a {@link Menu} choosing {@link CoordinatePrecision} of the open map,
+	 * see {@link MapAreaSkeleton#setPrecision(CoordinatePrecision)}.</br>
+	 * </p>
+	 * 
+	 * @return created {@link Menu}.
+	 */
+	private Menu createPrecisionMenu() {
+		Menu menu = new Menu("Precision");
+		ToggleGroup group = new ToggleGroup();
+		for (CoordinatePrecision precision : CoordinatePrecision.values()) {
+			String name = precision.name().charAt(0) + precision.name().substring(1).toLowerCase();
+			RadioMenuItem item = new RadioMenuItem(name);
+			item.setId(name);
+			item.setToggleGroup(group);
+			item.setSelected(precision == map.getPrecision());
+			item.setOnAction((e) -> map.setPrecision(precision));
+			menu.getItems().add(item);
+		}
+		return menu;
+	}
+
 	/**
 	 * <p>
 	 * create a {@link MenuItem}.</br>
@@ -268,6 +514,24 @@ public class MapMakerSkeleton extends Application {
 		return item;
 	}
 
+	/**
+	 * <p>
+	 * create a {@link MenuItem} with a keyboard shortcut.</br>
+	 * </p>
+	 * 
+	 * @param name        - name to be displayed on {@link MenuItem} and used as
+	 *                    {@link MenuItem#setId(String)} for CSS.
+	 * @param handler     - {@link EventHandler} object be called when
+	 *                    {@link MenuItem} is clicked.
+	 * @param accelerator - key combination which also triggers handler.
+	 * @return created {@link MenuItem}.
+	 */
+	private MenuItem createMenuItem(String name, EventHandler<ActionEvent> handler, KeyCombination accelerator) {
+		MenuItem item = createMenuItem(name, handler);
+		item.setAccelerator(accelerator);
+		return item;
+	}
+
 	/**
 	 * <p>
 	 * load content of {@link MapMakerSkleton#CREDITS_PATH} and display it in an
@@ -286,6 +550,87 @@ public class MapMakerSkeleton extends Application {
 		displayAlert("Help", loadFile(HELP_PATH, System.lineSeparator()));
 	}
 
+	/**
+	 * <p>
+	 * display estimated heap footprint of current map from
+	 * {@link MapAreaSkeleton#memoryReport()} and heap used by JVM.</br>
+	 * </p>
+	 */
+	private void displayDiagnostics() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+		displayAlert("Diagnostics", map.memoryReport().toText() + System.lineSeparator() + System.lineSeparator()
+				+ "JVM heap used: " + used + " MB of " + runtime.maxMemory() / (1024 * 1024) + " MB");
+	}
+
+	/**
+	 * <p>
+	 * ask for a session file and record tool changes and mouse events of map to
+	 * it until {@link #stopRecording()}, see {@link SessionReplay}.</br>
+	 * </p>
+	 * 
+	 * @param primary - {@link Stage} object that will own the {@link FileChooser}.
+	 */
+	private void startRecording(Stage primary) {
+		stopRecording();
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.getExtensionFilters()
+				.add(new ExtensionFilter("Sessions", "*." + SessionFile.EXTENSION));
+		fileChooser.setInitialDirectory(Paths.get(MAPS_DIRECTORY).toFile());
+		File file = fileChooser.showSaveDialog(primary);
+		if (file == null)
+			return;
+		try {
+			recorder = new SessionRecorder(map, file.toPath());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void stopRecording() {
+		if (recorder == null)
+			return;
+		try {
+			recorder.stop();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		recorder = null;
+	}
+
+	/**
+	 * <p>
+	 * share map with a {@link mapmaker.sync.SyncServer}, such as one started by
+	 * {@link mapmaker.cli.MapServer}. a map already shared is disconnected
+	 * first.</br>
+	 * </p>
+	 * 
+	 * @param address - host and port as "host:port", port is
+	 *                {@link SyncServer#DEFAULT_PORT} when left out
+	 */
+	private void connect(String address) {
+		disconnect();
+		int colon = address.lastIndexOf(':');
+		String host = colon < 0 ? address : address.substring(0, colon);
+		String port = colon < 0 ? "" : address.substring(colon + 1);
+		try {
+			sync = new SyncLink(map, host.isEmpty() ? "localhost" : host,
+					port.isEmpty() ? SyncServer.DEFAULT_PORT : Integer.parseInt(port), () -> {
+						sync = null;
+						displayAlert("Connection", "Connection to " + address + " was lost.");
+					});
+		} catch (IOException | RuntimeException e) {
+			displayAlert("Connection", "Could not connect to " + address + ": " + e.getMessage());
+		}
+	}
+
+	private void disconnect() {
+		if (sync == null)
+			return;
+		sync.stop();
+		sync = null;
+	}
+
 	/**
 	 * <p>
 	 * display an {@link Alert} to show {@link AlertType#INFORMATION}.</br>
@@ -311,9 +656,9 @@ public class MapMakerSkeleton extends Application {
 	 * @param separator - {@link String} object containing the separator
 	 */
 	private String loadFile(String path, String separator) {
-		try {
+		try (Stream<String> lines = Files.lines(Paths.get(path))) {
 			// for each line in given file combine lines using the separator
-			return Files.lines(Paths.get(path)).reduce("", (a, b) -> a + separator + b);
+			return lines.collect(Collectors.joining(separator, separator, ""));
 		} catch (IOException e) {
 			e.printStackTrace();
 			return "\"" + path + "\" was probably not found" + "\nmessage: " + e.getMessage();
@@ -322,8 +667,9 @@ public class MapMakerSkeleton extends Application {
 
 	/**
 	 * <p>
-	 * ask the user where they need to save then get the content to write from
-	 * {@link MapAreaSkeleton#convertToString()}.</br>
+	 * ask the user where they need to save then write a
+	 * {@link MapAreaSkeleton#snapshot()} of map on {@link #writer}, so editing
+	 * goes on while it is written.</br>
 	 * </p>
 	 * 
 	 * @param primary - {@link Stage} object that will own the {@link FileChooser}.
@@ -333,19 +679,75 @@ public class MapMakerSkeleton extends Application {
 		File file = getFileChooser(primary, true);
 		if (file == null)
 			return;
-		try {
-			if (!file.exists())
-				file.createNewFile();
-			Files.write(file.toPath(), map.convertToString().getBytes());
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		Path path = file.toPath();
+		MapSnapshot snapshot = map.snapshot();
+		writer.execute(() -> {
+			try {
+				// format is picked by extension of file, .map is the original text format
+				MapCodecs.forPath(path).writeAll(path, snapshot.inPaintOrder());
+				// sidecar index of old content is now stale
+				if (MapIndex.supports(path))
+					MapIndex.open(path);
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
+			}
+			Platform.runLater(() -> {
+				previews.addRecent(path);
+				// build preview now so browsing shows it at once
+				previews.request(path, (p) -> {
+				});
+			});
+		});
+	}
+
+	/**
+	 * <p>
+	 * ask the user where to export the map as SVG or GeoJSON for other tools, then
+	 * stream a {@link MapAreaSkeleton#snapshot()} to chosen {@link MapExporter} on
+	 * {@link #writer}.</br>
+	 * </p>
+	 * 
+	 * @param primary - {@link Stage} object that will own the {@link FileChooser}.
+	 */
+	private void exportMap(Stage primary) {
+		FileChooser fileChooser = new FileChooser();
+		for (MapExporter exporter : MapCodecs.exporters())
+			fileChooser.getExtensionFilters()
+					.add(new ExtensionFilter(exporter.name() + " files", "*." + exporter.extension()));
+		fileChooser.setInitialDirectory(Paths.get(MAPS_DIRECTORY).toFile());
+		File file = fileChooser.showSaveDialog(primary);
+		if (file == null)
+			return;
+		// extension typed by user wins over selected filter
+		int index = Math.max(0, fileChooser.getExtensionFilters().indexOf(fileChooser.getSelectedExtensionFilter()));
+		MapExporter exporter = MapCodecs.exporters().get(index);
+		for (MapExporter candidate : MapCodecs.exporters())
+			if (file.getName().toLowerCase().endsWith("." + candidate.extension()))
+				exporter = candidate;
+		MapExporter chosen = exporter;
+		MapSnapshot snapshot = map.snapshot();
+		writer.execute(() -> {
+			List<RoomRecord> records = snapshot.inPaintOrder();
+			MapExporter target = chosen;
+			if (target instanceof SvgExporter) {
+				// svg header needs bounds of map before first room
+				MapStats stats = new MapStats();
+				records.forEach(stats::add);
+				target = ((SvgExporter) target).withBounds(stats.getBounds());
+			}
+			try {
+				target.writeAll(file.toPath(), records);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		});
 	}
 
 	/**
 	 * <p>
 	 * ask the user what file they need to open then pass the content to
-	 * {@link MapAreaSkeleton#convertFromString(java.util.Map)}.</br>
+	 * {@link MapAreaSkeleton#loadRecords(Iterable)}.</br>
 	 * </p>
 	 * 
 	 * @param primary - {@link Stage} object that will own the {@link FileChooser}.
@@ -355,19 +757,71 @@ public class MapMakerSkeleton extends Application {
 		File file = getFileChooser(primary, false);
 		if (file == null || !file.exists())
 			return;
+		loadMap(file.toPath());
+	}
+
+	/**
+	 * <p>
+	 * load given map and add it to recent maps. if some rooms repeat an earlier
+	 * room exactly user is asked whether to leave them out.</br>
+	 * </p>
+	 * 
+	 * @param path - path of map to be loaded.
+	 */
+	private void loadMap(Path path) {
 		try {
-			// no parallel (threading) here but this is safer
-			AtomicInteger index = new AtomicInteger(0);
-			// index.getAndIncrement()/5 means every 5 elements increases by 1
-			// allowing for every 5 element placed in the same key
-			// for each line in file group every 5 and pass to map area
-			map.convertFromString(
-					Files.lines(file.toPath()).collect(Collectors.groupingBy(l -> index.getAndIncrement() / 5)));
+			// codec streams the file one record at a time
+			List<RoomRecord> records = MapCodecs.forPath(path).readAll(path);
+			int duplicates = RoomFingerprint.duplicates(records).cardinality();
+			if (duplicates > 0) {
+				Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+				alert.setTitle("Duplicate Rooms");
+				alert.setHeaderText(null);
+				alert.setContentText(duplicates + " room/s repeat an earlier room exactly, remove them?");
+				if (alert.showAndWait().filter(ButtonType.OK::equals).isPresent())
+					records = RoomFingerprint.dedupe(records);
+			}
+			map.loadRecords(records);
+			previews.addRecent(path);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * <p>
+	 * show {@link MapBrowser} with previews of recent maps and maps in
+	 * {@link MapMakerSkleton#MAPS_DIRECTORY}, then load the chosen one.</br>
+	 * </p>
+	 * 
+	 * @param primary - {@link Stage} object that will own the {@link MapBrowser}.
+	 */
+	private void browseMaps(Stage primary) {
+		new MapBrowser(primary, previews, Paths.get(MAPS_DIRECTORY)).showAndWait().ifPresent(this::loadMap);
+	}
+
+	/**
+	 * <p>
+	 * create one item for each recent map which still exists.</br>
+	 * </p>
+	 * 
+	 * @return items of recent menu.
+	 */
+	private List<MenuItem> recentItems() {
+		List<MenuItem> items = new ArrayList<>();
+		for (Path recent : previews.getRecent())
+			if (Files.isRegularFile(recent))
+				items.add(createMenuItem(recent.getFileName().toString(), (e) -> {
+					loadMap(recent);
+				}));
+		if (items.isEmpty()) {
+			MenuItem none = new MenuItem("No Recent Maps");
+			none.setDisable(true);
+			items.add(none);
+		}
+		return items;
+	}
+
 	/**
 	 * <p>
 	 * using the {@link FileChooser} open a new window only showing .map extension;
@@ -385,6 +839,10 @@ public class MapMakerSkeleton extends Application {
 	private File getFileChooser(Stage primary, boolean save) {
 		FileChooser fileChooser = new FileChooser();
 		fileChooser.getExtensionFilters().add(new ExtensionFilter("Maps", "*.map"));
+		for (MapCodec codec : MapCodecs.all())
+			if (!codec.extension().equals(MapCodecs.TEXT.extension()))
+				fileChooser.getExtensionFilters()
+						.add(new ExtensionFilter(codec.name() + " maps", "*." + codec.extension()));
 		fileChooser.setInitialDirectory(Paths.get(MAPS_DIRECTORY).toFile());
 		return save ? fileChooser.showSaveDialog(primary) : fileChooser.showOpenDialog(primary);
 	}
@@ -421,6 +879,7 @@ public class MapMakerSkeleton extends Application {
 	}
 
 	public static void main(String[] args) {
+		StartupProfile.begin(args);
 		launch(args);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package mapmaker;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import javafx.geometry.Bounds;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import mapmaker.geom.Polygons;
+import mapmaker.model.MapChanges;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * low resolution overview of a whole {@link MapAreaSkeleton} with a rectangle showing part of map visible in its
+ * {@link ScrollPane}, {@link MapAreaSkeleton#getViewport()}. pressing or dragging on overview scrolls map to center on that point.</br>
+ * each pixel of overview is a cell of map holding number of rooms covering its center and sum of their fill
+ * colors, and is drawn with their average color. a change of one room only subtracts its old cells and adds its
+ * new ones, then rewrites those pixels, so cost of an edit depends on size of room on overview and never on
+ * number of rooms in map. rooms are followed through {@link MapChanges}, one batch per pulse.</br>
+ * overview covers a square from origin whose side doubles when a room goes past it. only then all rooms are drawn
+ * again, which happens a few times in life of a map.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class Minimap extends Pane{
+
+	/**
+	 * <p>
+	 * width and height of overview in pixels.</br>
+	 * </p>
+	 */
+	public static final int SIZE = 192;
+	private static final double INITIAL_EXTENT = 1024;
+
+	private final MapAreaSkeleton map;
+	private final ScrollPane scroll;
+	private final WritableImage image = new WritableImage( SIZE, SIZE);
+	private final PixelWriter pixels = image.getPixelWriter();
+	private final Rectangle viewport = new Rectangle();
+	/**
+	 * <p>
+	 * number of rooms and sums of their fill color channels for each cell.</br>
+	 * </p>
+	 */
+	private final int[] count = new int[SIZE * SIZE];
+	private final long[] red = new long[SIZE * SIZE];
+	private final long[] green = new long[SIZE * SIZE];
+	private final long[] blue = new long[SIZE * SIZE];
+	private final BitSet dirtyCells = new BitSet( SIZE * SIZE);
+	/**
+	 * <p>
+	 * record each room was last drawn with by id, needed to take it off overview again.</br>
+	 * </p>
+	 */
+	private RoomRecord[] known = new RoomRecord[16];
+	/**
+	 * <p>
+	 * side of square of map covered by overview.</br>
+	 * </p>
+	 */
+	private double extent = INITIAL_EXTENT;
+	private boolean outside;
+
+	/**
+	 * @param map - map to be shown
+	 * @param scroll - scroll pane holding map
+	 */
+	public Minimap( MapAreaSkeleton map, ScrollPane scroll){
+		super();
+		this.map = map;
+		this.scroll = scroll;
+		getStyleClass().add( "minimap");
+		viewport.getStyleClass().add( "minimap-viewport");
+		viewport.setMouseTransparent( true);
+		getChildren().addAll( new ImageView( image), viewport);
+		setMinSize( SIZE, SIZE);
+		setPrefSize( SIZE, SIZE);
+		setMaxSize( SIZE, SIZE);
+		setClip( new Rectangle( SIZE, SIZE));
+		addEventHandler( MouseEvent.MOUSE_PRESSED, this::navigate);
+		addEventHandler( MouseEvent.MOUSE_DRAGGED, this::navigate);
+		map.viewportProperty().addListener( ( o, a, b) -> updateViewport());
+		map.addMapChangeListener( this::mapChanged);
+		BitSet ids = map.getRoomIds();
+		for( int id = ids.nextSetBit( 0); id >= 0; id = ids.nextSetBit( id + 1))
+			update( id);
+		redraw();
+	}
+
+	/**
+	 * <p>
+	 * take removed and changed rooms off overview, put added and changed ones on it and rewrite touched
+	 * pixels.</br>
+	 * </p>
+	 */
+	private void mapChanged( MapChanges changes){
+		changes.forEach( MapChanges.Kind.REMOVED, id -> {
+			if( id < known.length && known[id] != null){
+				cover( known[id], -1);
+				known[id] = null;
+			}
+		});
+		changes.forEach( MapChanges.Kind.ADDED, this::update);
+		changes.forEach( MapChanges.Kind.GEOMETRY, this::update);
+		// fill color is part of each cell
+		changes.forEach( MapChanges.Kind.STYLE, this::update);
+		redraw();
+	}
+
+	private void update( int id){
+		RoomRecord record = map.getRecord( id);
+		if( id >= known.length)
+			known = Arrays.copyOf( known, Math.max( id + 1, known.length * 2));
+		if( known[id] != null)
+			cover( known[id], -1);
+		known[id] = record;
+		if( record != null)
+			cover( record, 1);
+	}
+
+	/**
+	 * <p>
+	 * add or subtract a room from cells whose center it covers, or from the cell of its first point when it is
+	 * smaller than a cell. same record always touches same cells, so subtracting undoes adding exactly.</br>
+	 * </p>
+	 */
+	private void cover( RoomRecord record, int sign){
+		if( record.getPointCount() == 0)
+			return;
+		double[] points = record.copyPoints();
+		double[] bounds = Polygons.bounds( points);
+		double scale = SIZE / extent;
+		// rooms left of or above origin are clamped to edge, growing would not help them
+		if( bounds[2] >= extent || bounds[3] >= extent)
+			outside = true;
+		int c0 = cell( bounds[0] * scale), c1 = cell( bounds[2] * scale);
+		int r0 = cell( bounds[1] * scale), r1 = cell( bounds[3] * scale);
+		int rgb = record.getFill().getRGB();
+		boolean any = false;
+		for( int r = r0; r <= r1; r++){
+			for( int c = c0; c <= c1; c++){
+				if( Polygons.contains( points, (c + 0.5) / scale, (r + 0.5) / scale)){
+					add( r * SIZE + c, rgb, sign);
+					any = true;
+				}
+			}
+		}
+		if( !any)
+			add( cell( points[1] * scale) * SIZE + cell( points[0] * scale), rgb, sign);
+	}
+
+	private void add( int cell, int rgb, int sign){
+		count[cell] += sign;
+		red[cell] += sign * ((rgb >> 16) & 0xFF);
+		green[cell] += sign * ((rgb >> 8) & 0xFF);
+		blue[cell] += sign * (rgb & 0xFF);
+		dirtyCells.set( cell);
+	}
+
+	private static int cell( double value){
+		int cell = (int) Math.floor( value);
+		return cell < 0 ? 0 : cell >= SIZE ? SIZE - 1 : cell;
+	}
+
+	/**
+	 * <p>
+	 * rewrite pixels of changed cells. if a room went past covered square, square grows and every room is drawn
+	 * again.</br>
+	 * </p>
+	 */
+	private void redraw(){
+		if( outside)
+			grow();
+		for( int cell = dirtyCells.nextSetBit( 0); cell >= 0; cell = dirtyCells.nextSetBit( cell + 1)){
+			int n = count[cell];
+			int argb = n == 0 ? 0
+					: 0xFF000000 | (int) (red[cell] / n) << 16 | (int) (green[cell] / n) << 8 | (int) (blue[cell] / n);
+			pixels.setArgb( cell % SIZE, cell / SIZE, argb);
+		}
+		dirtyCells.clear();
+		updateViewport();
+	}
+
+	private void grow(){
+		double[] all = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+		for( RoomRecord record: known)
+			if( record != null)
+				for( int i = 0; i < record.getPointCount(); i++)
+					Polygons.include( all, record.getX( i), record.getY( i));
+		while( !Double.isNaN( all[0]) && Math.max( all[2], all[3]) >= extent)
+			extent *= 2;
+		outside = false;
+		Arrays.fill( count, 0);
+		Arrays.fill( red, 0);
+		Arrays.fill( green, 0);
+		Arrays.fill( blue, 0);
+		dirtyCells.set( 0, SIZE * SIZE);
+		for( RoomRecord record: known)
+			if( record != null)
+				cover( record, 1);
+	}
+
+	/**
+	 * <p>
+	 * move viewport rectangle to part of map visible in scroll pane.</br>
+	 * </p>
+	 */
+	private void updateViewport(){
+		Bounds view = map.getViewport();
+		double scale = SIZE / extent;
+		viewport.setX( view.getMinX() * scale);
+		viewport.setY( view.getMinY() * scale);
+		viewport.setWidth( view.getWidth() * scale);
+		viewport.setHeight( view.getHeight() * scale);
+	}
+
+	/**
+	 * <p>
+	 * scroll map so point under mouse is in center of viewport.</br>
+	 * </p>
+	 */
+	private void navigate( MouseEvent e){
+		e.consume();
+		// scroll pane measures map scaled by zoom
+		Bounds view = scroll.getViewportBounds();
+		double scale = SIZE / extent, zoom = map.getZoom();
+		double x = e.getX() / scale * zoom - view.getWidth() / 2;
+		double y = e.getY() / scale * zoom - view.getHeight() / 2;
+		double width = map.getWidth() * zoom - view.getWidth(), height = map.getHeight() * zoom - view.getHeight();
+		if( width > 0)
+			scroll.setHvalue( Math.min( 1, Math.max( 0, x / width)));
+		if( height > 0)
+			scroll.setVvalue( Math.min( 1, Math.max( 0, y / height)));
+	}
+}
@@ -2,16 +2,18 @@ package mapmaker;
 
 import java.util.List;
 import java.util.function.DoubleUnaryOperator;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javafx.collections.ObservableList;
-import javafx.scene.Node;
+import javafx.css.PseudoClass;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
 import javafx.scene.shape.Polygon;
 import mapmaker.MapAreaSkeleton;
+import mapmaker.geom.PackedPolygons;
+import mapmaker.io.MapFormatException;
+import mapmaker.io.TextMapCodec;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
 import mapmaker.ControlPointSkeleton;
 
 /**
@@ -20,12 +22,15 @@ import mapmaker.ControlPointSkeleton;
  * this class is meant to be used in 3 phases.
  * <ol>
  * 	<li>create a new PolyShape in {@link MouseEvent#MOUSE_PRESSED} 
- * 		stage then add it to the {@link MapAreaSkeleton#getChildren()}</li>
+ * 		stage then add it to room layer of {@link MapAreaSkeleton}</li>
  * 	<li>during the {@link MouseEvent#MOUSE_DRAGGED} stage call 
  * 		{@link PolyShapeSkeleton2#reDraw(double, double, double, double, boolean)}</li>
  * 	<li>finally in {@link MouseEvent#MOUSE_RELEASED} stage call {@link PolyShapeSkeleton2#registerControlPoints()} 
- * 		then add {@link PolyShapeSkeleton2#getControlPoints()} to {@link MapAreaSkeleton#getChildren()}</li>
+ * 		then add {@link PolyShapeSkeleton2#getControlPoints()} to control handle layer of {@link MapAreaSkeleton}</li>
  * </ol>  
+ * a shape made from a record or loaded has no control points until it is about to be edited, see
+ * {@link PolyShapeSkeleton2#releaseControlPoints()} and {@link PolyShapeSkeleton2#park(RoomRecord)} for how a
+ * shape nobody edits gives up its handles and boxed points.</br>
  * </p>
  * @see <a href="http://dimitroff.bg/generating-vertices-of-regular-n-sided-polygonspolyhedra-and-circlesspheres/">
  * Generating vertices of regular n-sided polygons/polyhedra and circles/spheres</a>
@@ -33,19 +38,7 @@ import mapmaker.ControlPointSkeleton;
  * @author Shahriar (Shawn) Emami
  * @version Sep 27, 2018
  */
-public class PolyShapeSkeleton2 extends Polygon{
-
-	/**
-	 * <p>
-	 * use these static final variables to convert form and to string.</br>
-	 * allowing changes for key words to be in one place.</br>
-	 * </p>
-	 */
-	private static final String POINTS_COUNT = "sides";
-	private static final String FILL = "fill";
-	private static final String STROKE = "stroke";
-	private static final String WIDTH = "strokeWidth";
-	private static final String POINTS = "points";
+public class PolyShapeSkeleton2 extends Polygon implements MapLayer.Member{
 
 	/**
 	 * <p>
@@ -98,6 +91,61 @@ public class PolyShapeSkeleton2 extends Polygon{
 	 */
 	private ControlPointSkeleton[] cPoints;
 
+	private static final ControlPointSkeleton[] NO_CONTROL_POINTS = {};
+
+	/**
+	 * <p>
+	 * shared points this shape is an instance of, null once it has its own points. an instance is positioned by
+	 * its translate and creates control points only when they are asked for.</br>
+	 * </p>
+	 */
+	private RoomTemplate template;
+
+	/**
+	 * <p>
+	 * shared style this shape is bound to, null if shape holds its own colors.</br>
+	 * </p>
+	 */
+	private ShapeStyle style;
+
+	/**
+	 * <p>
+	 * dense id given by {@link MapAreaSkeleton} when shape is added to map, -1 before that.</br>
+	 * </p>
+	 */
+	private int roomId = -1;
+
+	/**
+	 * <p>
+	 * index of this node in its {@link MapLayer}, -1 when it is not in one.</br>
+	 * </p>
+	 */
+	private int layerIndex = -1;
+
+	/**
+	 * <p>
+	 * true while points are changed in one batch, control point listeners ignore changes during it.</br>
+	 * </p>
+	 */
+	private boolean batchUpdate;
+
+	/**
+	 * <p>
+	 * record this shape keeps its points in while it is hidden by level of detail, the one its map holds at
+	 * precision of map. null while points are in {@link Polygon#getPoints()}.</br>
+	 * </p>
+	 */
+	private RoomRecord parked;
+
+	/**
+	 * <p>
+	 * CSS pseudo classes of a selected room and a room inside selection area, see <code>.room:selected</code>
+	 * and <code>.room:candidate</code> in style.css.</br>
+	 * </p>
+	 */
+	private static final PseudoClass SELECTED = PseudoClass.getPseudoClass( "selected");
+	private static final PseudoClass CANDIDATE = PseudoClass.getPseudoClass( "candidate");
+
 	/**
 	 * <p>
 	 * create a PolyShape with specific number of sides.</br>
@@ -125,8 +173,40 @@ public class PolyShapeSkeleton2 extends Polygon{
 	public PolyShapeSkeleton2( List< String> list){
 		this();
 		convertFromString( list);
-		//shape is complete so registerControlPoints is called in constructor
-		registerControlPoints();
+	}
+
+	/**
+	 * <p>
+	 * create a PolyShape from a headless {@link RoomRecord}, usually read by a {@link mapmaker.io.MapCodec}.</br>
+	 * control points are not created, call {@link PolyShapeSkeleton2#registerControlPoints()} when room is to be
+	 * edited.</br>
+	 * </p>
+	 * @param record - record representing a PolyShape
+	 */
+	public PolyShapeSkeleton2( RoomRecord record){
+		this();
+		apply( record);
+	}
+
+	/**
+	 * <p>
+	 * create an instance of given template moved by given offset, sharing points of template. control points are
+	 * not created, call {@link PolyShapeSkeleton2#registerControlPoints()} when room is to be edited.</br>
+	 * </p>
+	 * @param template - shared points
+	 * @param offsetX - distance from template in x direction
+	 * @param offsetY - distance from template in y direction
+	 */
+	public PolyShapeSkeleton2( RoomTemplate template, double offsetX, double offsetY){
+		this();
+		this.template = template;
+		sides = template.getRecord().getSides();
+		setFill( ShapeStyle.toColor( template.getRecord().getFill()));
+		setStroke( ShapeStyle.toColor( template.getRecord().getStroke()));
+		setStrokeWidth( template.getRecord().getStrokeWidth());
+		POLY_POINTS.setAll( template.getPoints());
+		setTranslateX( offsetX);
+		setTranslateY( offsetY);
 	}
 
 	/**
@@ -137,6 +217,7 @@ public class PolyShapeSkeleton2 extends Polygon{
 	private PolyShapeSkeleton2(){
 		super();
 		POLY_POINTS = getPoints();
+		getStyleClass().add( "room");
 	}
 
 	/**
@@ -188,17 +269,116 @@ public class PolyShapeSkeleton2 extends Polygon{
 	 * <p>
 	 * after shape is drawn call this method to initialize and set all ControlPoints.</br>
 	 * to be called in {@link MouseEvent#MOUSE_RELEASED} stage.</br>
+	 * control points of an instance are placed on its moved points, the first one dragged detaches it.</br>
+	 * a parked shape gets its points back first.</br>
 	 * </p>
 	 */
 	public void registerControlPoints(){
+		unpark();
 		cPoints = new ControlPointSkeleton[POLY_POINTS.size() / 2];
 		for( int i = 0; i < POLY_POINTS.size(); i += 2){
 			final int j = i;
-			cPoints[i / 2] = new ControlPointSkeleton( POLY_POINTS.get( i), POLY_POINTS.get( i + 1));
+			cPoints[i / 2] = new ControlPointSkeleton( POLY_POINTS.get( i) + getTranslateX(),
+					POLY_POINTS.get( i + 1) + getTranslateY(), this);
 			cPoints[i / 2].addChangeListener(
-					( value, vOld, vNew) -> POLY_POINTS.set( j, vNew.doubleValue()),
-					( value, vOld, vNew) -> POLY_POINTS.set( j + 1, vNew.doubleValue()));
+					( value, vOld, vNew) -> {
+						if( !batchUpdate){
+							detach();
+							POLY_POINTS.set( j, vNew.doubleValue());
+						}
+					},
+					( value, vOld, vNew) -> {
+						if( !batchUpdate){
+							detach();
+							POLY_POINTS.set( j + 1, vNew.doubleValue());
+						}
+					});
+		}
+	}
+
+	/**
+	 * <p>
+	 * drop control points of this shape, once it is no longer edited. listeners go with them.</br>
+	 * </p>
+	 * @return dropped control points, to be removed from control handle layer, empty if there were none
+	 */
+	public ControlPointSkeleton[] releaseControlPoints(){
+		ControlPointSkeleton[] released = getControlPoints();
+		cPoints = null;
+		return released;
+	}
+
+	/**
+	 * <p>
+	 * drop boxed points of a shape which is not shown and keep given record of it instead, so a hidden room costs
+	 * what its map already holds at its precision and not a Double for each coordinate. an instance, which shares
+	 * its boxed points, and a shape with control points keep their points.</br>
+	 * </p>
+	 * @param record - record of this shape from {@link MapAreaSkeleton#getRecord(int)}
+	 * @return true if shape is parked
+	 */
+	public boolean park( RoomRecord record){
+		if( template != null || cPoints != null || record == null || record.isInstance())
+			return false;
+		if( parked == null)
+			POLY_POINTS.clear();
+		parked = record;
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * give a parked shape its boxed points back, from its record. they have precision of map they were parked at.
+	 * nothing happens if shape is not parked.</br>
+	 * </p>
+	 */
+	public void unpark(){
+		if( parked == null)
+			return;
+		RoomRecord record = parked;
+		parked = null;
+		POLY_POINTS.setAll( boxed( record));
+	}
+
+	/**
+	 * @return true if points of this shape are kept in a record until it is shown again
+	 */
+	public boolean isParked(){
+		return parked != null;
+	}
+
+	/**
+	 * @return number of points this shape has, parked or not
+	 */
+	public int getPointCount(){
+		return parked != null ? parked.getPointCount() : POLY_POINTS.size() / 2;
+	}
+
+	/**
+	 * @return true if this shape shares points of a {@link RoomTemplate}
+	 */
+	public boolean isInstance(){
+		return template != null;
+	}
+
+	/**
+	 * <p>
+	 * give an instance its own points, moved to where it is shown, so they can be edited without changing its
+	 * template. nothing happens if this shape already has its own points.</br>
+	 * </p>
+	 */
+	public void detach(){
+		if( template == null)
+			return;
+		Double[] own = new Double[POLY_POINTS.size()];
+		for( int i = 0; i < own.length; i += 2){
+			own[i] = POLY_POINTS.get( i) + getTranslateX();
+			own[i + 1] = POLY_POINTS.get( i + 1) + getTranslateY();
 		}
+		template = null;
+		setTranslateX( 0);
+		setTranslateY( 0);
+		POLY_POINTS.setAll( own);
 	}
 
 	/**
@@ -211,9 +391,144 @@ public class PolyShapeSkeleton2 extends Polygon{
 		return Math.sqrt( (x2 - x1) * (x2 - x1) + (y2 - y1) * (y2 - y1));
 	}
 
+	/**
+	 * <p>
+	 * move this shape and its control points by adding distance traveled, not new position.</br>
+	 * points are replaced in one batch so {@link Polygon#getPoints()} fires one change instead of
+	 * one for each coordinate.</br>
+	 * </p>
+	 * @param deltaX - distance traveled in x direction
+	 * @param deltaY - distance traveled in y direction
+	 */
 	public void translate( double deltaX, double deltaY){
-	for(ControlPointSkeleton c: cPoints)
-		c.translate(deltaX, deltaY);
+		if( template != null){
+			// an instance only changes its offset and keeps sharing points
+			setTranslateX( getTranslateX() + deltaX);
+			setTranslateY( getTranslateY() + deltaY);
+			batchUpdate = true;
+			try{
+				if( cPoints != null)
+					for( ControlPointSkeleton c: cPoints)
+						c.translate( deltaX, deltaY);
+			}finally{
+				batchUpdate = false;
+			}
+			return;
+		}
+		if( parked != null){
+			// a hidden room is moved in its record, it has no control points
+			try{
+				parked = parked.translate( deltaX, deltaY);
+				return;
+			}catch( IllegalArgumentException e){
+				// moved out of range of its precision, continue with boxed points
+				unpark();
+			}
+		}
+		Double[] moved = new Double[POLY_POINTS.size()];
+		for( int i = 0; i < moved.length; i += 2){
+			moved[i] = POLY_POINTS.get( i) + deltaX;
+			moved[i + 1] = POLY_POINTS.get( i + 1) + deltaY;
+		}
+		batchUpdate = true;
+		try{
+			if( cPoints != null)
+				for( ControlPointSkeleton c: cPoints)
+					c.translate( deltaX, deltaY);
+		}finally{
+			batchUpdate = false;
+		}
+		POLY_POINTS.setAll( moved);
+	}
+
+	/**
+	 * <p>
+	 * add points of this shape, where they are shown, as one polygon of given batch.</br>
+	 * </p>
+	 * @param packed - batch to add to
+	 * @return index of polygon in batch
+	 */
+	public int pack( PackedPolygons packed){
+		if( parked != null)
+			return packed.add( parked.copyPoints());
+		int polygon = packed.add( POLY_POINTS.size() / 2);
+		int start = packed.start( polygon);
+		for( int i = 0; i < POLY_POINTS.size(); i += 2)
+			packed.set( start + i / 2, POLY_POINTS.get( i) + getTranslateX(), POLY_POINTS.get( i + 1) + getTranslateY());
+		return polygon;
+	}
+
+	/**
+	 * <p>
+	 * replace points of this shape and its control points with a polygon of given batch, points are replaced in
+	 * one batch like {@link PolyShapeSkeleton2#translate(double, double)} does. an instance is detached first.</br>
+	 * </p>
+	 * @param packed - batch holding new points
+	 * @param polygon - index of polygon in batch, same number of points as this shape
+	 */
+	public void unpack( PackedPolygons packed, int polygon){
+		detach();
+		parked = null;
+		int start = packed.start( polygon);
+		Double[] moved = new Double[(packed.end( polygon) - start) * 2];
+		for( int i = 0; i < moved.length; i += 2){
+			moved[i] = packed.getX( start + i / 2);
+			moved[i + 1] = packed.getY( start + i / 2);
+		}
+		batchUpdate = true;
+		try{
+			if( cPoints != null)
+				for( int i = 0; i < cPoints.length; i++){
+					cPoints[i].setCenterX( moved[i * 2]);
+					cPoints[i].setCenterY( moved[i * 2 + 1]);
+				}
+		}finally{
+			batchUpdate = false;
+		}
+		POLY_POINTS.setAll( moved);
+	}
+
+	/**
+	 * @return dense id of this room in its {@link MapAreaSkeleton}, -1 if it is not added yet
+	 */
+	public int getRoomId(){
+		return roomId;
+	}
+
+	/**
+	 * <p>
+	 * called by {@link MapAreaSkeleton} when this shape is added or removed.</br>
+	 * </p>
+	 * @param roomId - dense id of this room, -1 when removed
+	 */
+	void setRoomId( int roomId){
+		if( style != null){
+			if( this.roomId >= 0)
+				style.getRooms().clear( this.roomId);
+			if( roomId >= 0)
+				style.getRooms().set( roomId);
+		}
+		this.roomId = roomId;
+	}
+
+	/**
+	 * <p>
+	 * show or hide this shape as selected.</br>
+	 * </p>
+	 * @param selected - true if this room is selected
+	 */
+	public void setSelected( boolean selected){
+		pseudoClassStateChanged( SELECTED, selected);
+	}
+
+	/**
+	 * <p>
+	 * show or hide this shape as a room that would be selected if selection ended now.</br>
+	 * </p>
+	 * @param candidate - true if this room is inside selection area
+	 */
+	public void setCandidate( boolean candidate){
+		pseudoClassStateChanged( CANDIDATE, candidate);
 	}
 	/**
 	 * <p>
@@ -244,103 +559,128 @@ public class PolyShapeSkeleton2 extends Polygon{
 	 * convert current object to a string.</br>
 	 * each property is located in one line separated by {@link System#lineSeparator()}.</br>
 	 * each line starts with a name of property and its value/s in front of it all separated by space.</br>
+	 * format itself is defined in {@link TextMapCodec#format(RoomRecord)}.</br>
 	 * </p>
 	 * @return a single string with explained format.
 	 */
 	public String convertToString(){
-		String newLine = System.lineSeparator();
-		StringBuilder builder = new StringBuilder();
-		builder.append( POINTS_COUNT).append( " ").append( sides).append( newLine);
-		builder.append( FILL).append( " ").append( colorToString( getFill())).append( newLine);
-		builder.append( STROKE).append( " ").append( colorToString( getStroke())).append( newLine);
-		builder.append( WIDTH).append( " ").append( getStrokeWidth()).append( newLine);
-		//join every point in POLY_POINTS and add to builder 
-		builder.append( POINTS).append( " ").append( POLY_POINTS.stream().map( e -> Double.toString( e)).collect( Collectors.joining( " ")));
-
-		return builder.toString();
+		return TextMapCodec.format( toRecord());
 	}
 
 	/**
 	 * <p>
-	 * convert array of strings to a PolyShape. called from constructor.</br>
-	 * each property is located in one index of the list.</br>
-	 * each index starts with a name of property and its value/s in front of it all separated by space.</br>
+	 * create a headless copy of this shape.</br>
 	 * </p>
-	 * @param list - a list of properties for this shape
+	 * @return record holding sides, colors, stroke width and points of this shape, an instance gives a
+	 *         {@link RoomRecord#instance(double, double)} of its template
 	 */
-	private void convertFromString( List< String> list){
-		list.forEach( line -> {
-			String[] tokens = line.split( " ");
-			switch( tokens[0]){
-				case POINTS_COUNT:
-					sides = Integer.valueOf( tokens[1]);
-					break;
-				case FILL:
-					setFill( stringToColor( tokens[1], tokens[2]));
-					break;
-				case STROKE:
-					setStroke( stringToColor( tokens[1], tokens[2]));
-					break;
-				case WIDTH:
-					setStrokeWidth( Double.valueOf( tokens[1]));
-					break;
-				case POINTS:
-					//create a stream of line.split( " ") and skip the first element as it is the name, add the rest to POLY_POINTS
-					Stream.of( tokens).skip( 1).mapToDouble( Double::valueOf).forEach( POLY_POINTS::add);
-					break;
-				default:
-					throw new UnsupportedOperationException( "\"" + tokens[0] + "\" is not supported");
-			}
-		});
+	public RoomRecord toRecord(){
+		if( template != null){
+			MapStyle current = style != null ? style.get()
+					: new MapStyle( ShapeStyle.toMapColor( getFill()), ShapeStyle.toMapColor( getStroke()), getStrokeWidth());
+			return template.getRecord().withStyle( current).instance( getTranslateX(), getTranslateY());
+		}
+		if( parked != null){
+			MapStyle current = style != null ? style.get()
+					: new MapStyle( ShapeStyle.toMapColor( getFill()), ShapeStyle.toMapColor( getStroke()), getStrokeWidth());
+			return parked.withStyle( current);
+		}
+		double[] points = new double[POLY_POINTS.size()];
+		for( int i = 0; i < points.length; i++)
+			points[i] = POLY_POINTS.get( i);
+		if( style != null)
+			return new RoomRecord( sides, style.get(), points);
+		return new RoomRecord( sides, ShapeStyle.toMapColor( getFill()), ShapeStyle.toMapColor( getStroke()),
+				getStrokeWidth(), points);
 	}
 
 	/**
 	 * <p>
-	 * this method will return current control points used in this shape as and array.</br>
-	 * to be called in {@link MouseEvent#MOUSE_RELEASED} stage.</br>
+	 * bind fill, stroke and stroke width of this shape to a shared style. passing null unbinds the shape and it
+	 * keeps its current colors.</br>
 	 * </p>
-	 * @return array of ControlPoints returned as Node to easy addition to layout container
+	 * @param style - shared style or null
 	 */
-	public Node[] getControlPoints(){
-		return cPoints;
+	public void setShapeStyle( ShapeStyle style){
+		ShapeStyle.unbind( this);
+		if( this.style != null && roomId >= 0)
+			this.style.getRooms().clear( roomId);
+		this.style = style;
+		if( style != null){
+			style.bind( this);
+			if( roomId >= 0)
+				style.getRooms().set( roomId);
+		}
+	}
+
+	/**
+	 * @return shared style this shape is bound to, or null
+	 */
+	public ShapeStyle getShapeStyle(){
+		return style;
 	}
 
 	/**
 	 * <p>
-	 * convert a {@link Paint} to a string in hex format followed by a space and alpha channel.</br>
-	 * this method just calls {@link PolyShapeSkeleton2#colorToString(Color)}.</br>
+	 * convert array of strings to a PolyShape. called from constructor.</br>
+	 * each property is located in one index of the list.</br>
+	 * each index starts with a name of property and its value/s in front of it all separated by space.</br>
 	 * </p>
-	 * @param p - paint object to be converted
-	 * @return string format of {@link Paint} in hex format plus alpha
+	 * @param list - a list of properties for this shape
 	 */
-	private String colorToString( Paint p){
-		return colorToString( Color.class.cast( p));
+	private void convertFromString( List< String> list){
+		try{
+			apply( TextMapCodec.parse( list));
+		}catch( MapFormatException e){
+			throw new UnsupportedOperationException( e.getMessage(), e);
+		}
 	}
 
 	/**
 	 * <p>
-	 * convert a {@link Color} to a string in hex format followed by a space and alpha channel.</br>
+	 * copy sides, colors, stroke width and points of given record to this shape. called from constructor.</br>
 	 * </p>
-	 * @param c - color object to be converted
-	 * @return string format of {@link Color} in hex format plus alpha
+	 * @param record - record to copy from
 	 */
-	private String colorToString( Color c){
-		return String.format( "#%02X%02X%02X %f",
-				(int) (c.getRed() * 255),
-				(int) (c.getGreen() * 255),
-				(int) (c.getBlue() * 255),
-				c.getOpacity());
+	private void apply( RoomRecord record){
+		sides = record.getSides();
+		setFill( ShapeStyle.toColor( record.getFill()));
+		setStroke( ShapeStyle.toColor( record.getStroke()));
+		setStrokeWidth( record.getStrokeWidth());
+		POLY_POINTS.setAll( boxed( record));
+	}
+
+	/**
+	 * @param record - record to copy from
+	 * @return points of record as x and y pairs, the way {@link Polygon#getPoints()} holds them
+	 */
+	private static Double[] boxed( RoomRecord record){
+		Double[] points = new Double[record.getPointCount() * 2];
+		for( int i = 0; i < record.getPointCount(); i++){
+			points[i * 2] = record.getX( i);
+			points[i * 2 + 1] = record.getY( i);
+		}
+		return points;
 	}
 
 	/**
 	 * <p>
-	 * convert a string and given alpha to a {@link Color} object using {@link Color#web(String, double)}.</br>
+	 * this method will return current control points used in this shape as and array.</br>
+	 * to be called in {@link MouseEvent#MOUSE_RELEASED} stage.</br>
 	 * </p>
-	 * @param color - hex value of a color in #ffffff
-	 * @param alpha - alpha value of color between 0 and 1
-	 * @return color object created from input
+	 * @return array of ControlPoints to easy addition to a {@link MapLayer}, empty if they are not created yet
 	 */
-	private Color stringToColor( String color, String alpha){
-		return Color.web( color, Double.valueOf( alpha));
+	public ControlPointSkeleton[] getControlPoints(){
+		return cPoints == null ? NO_CONTROL_POINTS : cPoints;
+	}
+
+	@Override
+	public int getLayerIndex(){
+		return layerIndex;
+	}
+
+	@Override
+	public void setLayerIndex( int index){
+		layerIndex = index;
 	}
 }
@@ -0,0 +1,110 @@
+package mapmaker;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>
+ * set of selected rooms keyed by their dense room id, see {@link PolyShapeSkeleton2#getRoomId()}.</br>
+ * backed by a {@link BitSet} so adding, removing and testing a room is constant time and bulk operations like
+ * invert work on 64 rooms at a time.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class RoomSelection{
+
+	private final BitSet selected = new BitSet();
+
+	public void add( int id){
+		selected.set( id);
+	}
+
+	/**
+	 * @param ids - ids to be added to selection
+	 */
+	public void addAll( BitSet ids){
+		selected.or( ids);
+	}
+
+	public void remove( int id){
+		selected.clear( id);
+	}
+
+	/**
+	 * @param ids - ids to be removed from selection
+	 */
+	public void removeAll( BitSet ids){
+		selected.andNot( ids);
+	}
+
+	public void toggle( int id){
+		selected.flip( id);
+	}
+
+	/**
+	 * @param ids - ids to be flipped
+	 */
+	public void toggleAll( BitSet ids){
+		selected.xor( ids);
+	}
+
+	/**
+	 * <p>
+	 * select every live room that is not selected and unselect every room that is.</br>
+	 * </p>
+	 * @param live - ids of all rooms that exist
+	 */
+	public void invert( BitSet live){
+		selected.xor( live);
+		selected.and( live);
+	}
+
+	/**
+	 * <p>
+	 * replace selection with given ids.</br>
+	 * </p>
+	 * @param ids - new selection
+	 */
+	public void set( BitSet ids){
+		selected.clear();
+		selected.or( ids);
+	}
+
+	public void clear(){
+		selected.clear();
+	}
+
+	public boolean contains( int id){
+		return id >= 0 && selected.get( id);
+	}
+
+	public boolean isEmpty(){
+		return selected.isEmpty();
+	}
+
+	/**
+	 * @return number of selected rooms
+	 */
+	public int size(){
+		return selected.cardinality();
+	}
+
+	/**
+	 * <p>
+	 * call given consumer with each selected id in increasing order.</br>
+	 * </p>
+	 * @param action - consumer of ids
+	 */
+	public void forEach( IntConsumer action){
+		for( int id = selected.nextSetBit( 0); id >= 0; id = selected.nextSetBit( id + 1))
+			action.accept( id);
+	}
+
+	/**
+	 * @return copy of selected ids
+	 */
+	public BitSet toBitSet(){
+		return (BitSet) selected.clone();
+	}
+}
@@ -0,0 +1,46 @@
+package mapmaker;
+
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * points shared by every {@link PolyShapeSkeleton2} instance copied from one room. points are boxed once here and
+ * each instance puts same {@link Double}s in its polygon and is moved by its translate, so a copy costs a node and
+ * a list of references instead of its own points and control points.</br>
+ * template is immutable, an instance edited point by point gets its own points first, see
+ * {@link PolyShapeSkeleton2#detach()}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class RoomTemplate{
+
+	private final RoomRecord record;
+	private final Double[] points;
+
+	/**
+	 * @param record - room to share points of, if it is an instance its template is used
+	 */
+	public RoomTemplate( RoomRecord record){
+		this.record = record.template();
+		points = new Double[this.record.getPointCount() * 2];
+		for( int i = 0; i < this.record.getPointCount(); i++){
+			points[i * 2] = this.record.getX( i);
+			points[i * 2 + 1] = this.record.getY( i);
+		}
+	}
+
+	/**
+	 * @return record of shared points, not moved by any offset
+	 */
+	public RoomRecord getRecord(){
+		return record;
+	}
+
+	/**
+	 * @return shared boxed points, must not be changed
+	 */
+	Double[] getPoints(){
+		return points;
+	}
+}
@@ -0,0 +1,94 @@
+package mapmaker;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javafx.event.EventHandler;
+import javafx.scene.input.MouseEvent;
+import mapmaker.session.SessionEvent;
+import mapmaker.session.SessionFile;
+
+/**
+ * <p>
+ * records tool changes of {@link ToolStateSkeleton} and mouse press, drag and release events reaching a
+ * {@link MapAreaSkeleton} to a {@link SessionFile}, to be replayed by {@link SessionReplay}. current tool is written
+ * first, so replay starts with same tool.</br>
+ * events are seen by a filter before map handles them, so recording adds one small append to each event. a
+ * recording only replays to same map if it starts from same rooms, an empty map or the map given to replay.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class SessionRecorder{
+
+	private final MapAreaSkeleton map;
+	private final SessionFile.Writer writer;
+	private final long start = System.nanoTime();
+	private final ToolStateSkeleton.ToolListener toolListener = this::toolChanged;
+	private final EventHandler< MouseEvent> mouseFilter = this::mouseEvent;
+	private IOException failure;
+
+	/**
+	 * <p>
+	 * start recording given map to given file.</br>
+	 * </p>
+	 * @param map - map whose events are recorded
+	 * @param file - session file to create, replaced if it exists
+	 * @throws IOException if file cannot be created
+	 */
+	public SessionRecorder( MapAreaSkeleton map, Path file) throws IOException{
+		this.map = map;
+		writer = new SessionFile.Writer( file);
+		ToolStateSkeleton state = ToolStateSkeleton.state();
+		toolChanged( state.getTool(), state.getOption());
+		state.addToolListener( toolListener);
+		map.addEventFilter( MouseEvent.ANY, mouseFilter);
+	}
+
+	private void toolChanged( Tools tool, int option){
+		append( SessionEvent.tool( System.nanoTime() - start, tool.name(), option));
+	}
+
+	private void mouseEvent( MouseEvent e){
+		SessionEvent.Type type;
+		if( e.getEventType() == MouseEvent.MOUSE_PRESSED)
+			type = SessionEvent.Type.PRESS;
+		else if( e.getEventType() == MouseEvent.MOUSE_DRAGGED)
+			type = SessionEvent.Type.DRAG;
+		else if( e.getEventType() == MouseEvent.MOUSE_RELEASED)
+			type = SessionEvent.Type.RELEASE;
+		else
+			return;
+		int modifiers = (e.isShiftDown() ? SessionEvent.SHIFT : 0) | (e.isShortcutDown() ? SessionEvent.SHORTCUT : 0)
+				| (e.isAltDown() ? SessionEvent.ALT : 0);
+		int[] target = map.describeTarget( e.getTarget());
+		// filter is on map, so coordinates are already local to map
+		append( SessionEvent.mouse( type, System.nanoTime() - start, e.getX(), e.getY(), e.getButton().ordinal(),
+				modifiers, target[0], target[1], target[2]));
+	}
+
+	private void append( SessionEvent event){
+		if( failure != null)
+			return;
+		try{
+			writer.append( event);
+		}catch( IOException e){
+			// keep editing working, report once when recording stops
+			failure = e;
+		}
+	}
+
+	/**
+	 * <p>
+	 * stop recording and close file.</br>
+	 * </p>
+	 * @throws IOException if an event or file could not be written
+	 */
+	public void stop() throws IOException{
+		ToolStateSkeleton.state().removeToolListener( toolListener);
+		map.removeEventFilter( MouseEvent.ANY, mouseFilter);
+		writer.close();
+		if( failure != null)
+			throw failure;
+	}
+}
@@ -0,0 +1,217 @@
+package mapmaker;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+import mapmaker.io.MapCodecs;
+import mapmaker.io.RecordWriter;
+import mapmaker.model.RoomRecord;
+import mapmaker.session.SessionEvent;
+import mapmaker.session.SessionFile;
+
+/**
+ * <p>
+ * replay a {@link SessionFile} recorded by {@link SessionRecorder} into a new {@link MapAreaSkeleton} that is never
+ * shown, then report latency of each event type and checksums of final map, so a reported interaction becomes a
+ * repeatable benchmark.</br>
+ * each mouse event is fired at node its recorded target resolves to, so handlers see same target as during
+ * recording. next event is only sent once queries started by previous one published their results, which makes
+ * replay deterministic even though selection and room editing queries run off JavaFX thread. latency of an event
+ * is time from firing it until then.</br>
+ * by default events are sent as fast as they settle, with <code>--realtime</code> each waits until its recorded
+ * time. <code>--map file</code> loads rooms session started from.</br>
+ * JavaFX needs a toolkit, on a machine without display run with OpenJFX Monocle on class path and
+ * <code>-Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw</code>.</br>
+ * usage: <code>SessionReplay file.session [--map start.map] [--realtime]</code></br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class SessionReplay extends Application{
+
+	private MapAreaSkeleton map;
+	private List< SessionEvent> events;
+	private boolean realtime;
+	private final Timer timer = new Timer( "replay", true);
+	private final Map< SessionEvent.Type, List< Long>> latencies = new EnumMap<>( SessionEvent.Type.class);
+	/**
+	 * <p>
+	 * index of next event to fire, and time in nanoseconds replay and last fired event started.</br>
+	 * </p>
+	 */
+	private int next;
+	private long replayStart;
+	private long fired = -1;
+
+	public static void main( String[] args){
+		launch( args);
+	}
+
+	@Override
+	public void start( Stage primaryStage) throws Exception{
+		List< String> args = getParameters().getRaw();
+		Path session = null, start = null;
+		for( int i = 0; i < args.size(); i++){
+			String arg = args.get( i);
+			if( "--realtime".equals( arg))
+				realtime = true;
+			else if( "--map".equals( arg) && i + 1 < args.size())
+				start = Paths.get( args.get( ++i));
+			else if( session == null && !arg.startsWith( "--"))
+				session = Paths.get( arg);
+			else{
+				session = null;
+				break;
+			}
+		}
+		if( session == null){
+			System.err.println( "usage: SessionReplay file.session [--map start.map] [--realtime]");
+			exit( 2);
+			return;
+		}
+		events = SessionFile.read( session);
+		map = new MapAreaSkeleton();
+		// never shown, scene only gives map same coordinate space it had in a window
+		new Scene( map, 800, 800);
+		if( start != null)
+			map.loadRecords( MapCodecs.forPath( start).readAll( start));
+		replayStart = System.nanoTime();
+		step();
+	}
+
+	/**
+	 * <p>
+	 * wait for last event to settle, then fire next one or report when all are done.</br>
+	 * </p>
+	 */
+	private void step(){
+		if( !map.isSettled()){
+			// let published results run first
+			Platform.runLater( this::step);
+			return;
+		}
+		long now = System.nanoTime();
+		if( fired >= 0){
+			latencies.computeIfAbsent( events.get( next - 1).getType(), k -> new ArrayList<>()).add( now - fired);
+			fired = -1;
+		}
+		if( next == events.size()){
+			report( System.out, now - replayStart);
+			exit( 0);
+			return;
+		}
+		SessionEvent event = events.get( next);
+		long wait = replayStart + event.getTime() - now;
+		if( realtime && wait > 1_000_000){
+			timer.schedule( new TimerTask(){
+				@Override
+				public void run(){
+					Platform.runLater( SessionReplay.this::step);
+				}
+			}, wait / 1_000_000);
+			return;
+		}
+		next++;
+		fired = System.nanoTime();
+		fire( event);
+		Platform.runLater( this::step);
+	}
+
+	private void fire( SessionEvent event){
+		if( event.getType() == SessionEvent.Type.TOOL){
+			ToolStateSkeleton.state().setTool( Tools.valueOf( event.getTool()));
+			ToolStateSkeleton.state().setOption( event.getOption());
+			return;
+		}
+		EventType< MouseEvent> type = event.getType() == SessionEvent.Type.PRESS ? MouseEvent.MOUSE_PRESSED
+				: event.getType() == SessionEvent.Type.DRAG ? MouseEvent.MOUSE_DRAGGED : MouseEvent.MOUSE_RELEASED;
+		MouseButton button = MouseButton.values()[event.getButton()];
+		boolean shortcut = event.isDown( SessionEvent.SHORTCUT);
+		Node target = map.targetNode( event.getTargetKind(), event.getRoom(), event.getPoint());
+		// event coordinates are in scene, each node on its way gets them local to itself
+		Point2D scene = map.localToScene( event.getX(), event.getY());
+		boolean down = type != MouseEvent.MOUSE_RELEASED;
+		MouseEvent mouse = new MouseEvent( map, target, type, scene.getX(), scene.getY(), scene.getX(), scene.getY(),
+				button, 1, event.isDown( SessionEvent.SHIFT), shortcut, event.isDown( SessionEvent.ALT), shortcut,
+				down && button == MouseButton.PRIMARY, down && button == MouseButton.MIDDLE,
+				down && button == MouseButton.SECONDARY, true, false, false, null);
+		Event.fireEvent( target, mouse);
+	}
+
+	/**
+	 * <p>
+	 * print latency of each event type in milliseconds, number of rooms and selected rooms, and CRC32 of final map
+	 * written in text format, which is same for two replays exactly when they ended with same rooms.</br>
+	 * </p>
+	 */
+	private void report( PrintStream out, long wall){
+		out.printf( "events: %d, wall: %.1f ms%n", events.size(), wall / 1e6);
+		out.printf( "%-8s %8s %9s %9s %9s %9s %9s%n", "event", "count", "mean", "p50", "p95", "p99", "max");
+		for( Map.Entry< SessionEvent.Type, List< Long>> entry: latencies.entrySet()){
+			long[] times = entry.getValue().stream().mapToLong( Long::longValue).sorted().toArray();
+			out.printf( "%-8s %8d %9.3f %9.3f %9.3f %9.3f %9.3f%n", entry.getKey(), times.length,
+					Arrays.stream( times).average().orElse( 0) / 1e6, percentile( times, 0.5) / 1e6,
+					percentile( times, 0.95) / 1e6, percentile( times, 0.99) / 1e6, times[times.length - 1] / 1e6);
+		}
+		List< RoomRecord> rooms = map.toRecords();
+		out.printf( "rooms: %d, selected: %d%n", rooms.size(), map.getSelection().size());
+		try{
+			out.printf( "checksum: %08x%n", checksum( rooms));
+		}catch( IOException e){
+			out.println( "checksum: failed, " + e.getMessage());
+		}
+	}
+
+	private static long percentile( long[] sorted, double fraction){
+		return sorted[Math.min( sorted.length - 1, (int) Math.ceil( fraction * sorted.length) - 1)];
+	}
+
+	private static long checksum( List< RoomRecord> rooms) throws IOException{
+		CRC32 crc = new CRC32();
+		OutputStream discard = new OutputStream(){
+			@Override
+			public void write( int b){
+			}
+
+			@Override
+			public void write( byte[] b, int off, int len){
+			}
+		};
+		try( RecordWriter writer = MapCodecs.TEXT.writer( new CheckedOutputStream( discard, crc))){
+			for( RoomRecord room: rooms)
+				writer.accept( room);
+		}
+		return crc.getValue();
+	}
+
+	private void exit( int status){
+		timer.cancel();
+		if( map != null)
+			map.dispose();
+		Platform.exit();
+		// geometry and preview threads are daemons, exit code is only kept by exiting here
+		System.exit( status);
+	}
+}
@@ -0,0 +1,118 @@
+package mapmaker;
+
+import java.util.BitSet;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.Shape;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+
+/**
+ * <p>
+ * JavaFX side of a shared {@link MapStyle}. every {@link PolyShapeSkeleton2} using this style binds its fill, stroke
+ * and stroke width to the properties of this object, so all of them share one {@link Color} instance for each
+ * color and changing this style with {@link #set(MapStyle)} restyles all of them at once.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class ShapeStyle{
+
+	private final ObjectProperty< Paint> fill = new SimpleObjectProperty<>();
+	private final ObjectProperty< Paint> stroke = new SimpleObjectProperty<>();
+	private final DoubleProperty strokeWidth = new SimpleDoubleProperty();
+	private MapStyle style;
+	/**
+	 * <p>
+	 * ids of rooms bound to this style, kept by {@link PolyShapeSkeleton2} so a restyle finds its rooms without
+	 * walking all shapes.</br>
+	 * </p>
+	 */
+	private final BitSet rooms = new BitSet();
+
+	/**
+	 * @param style - headless style this object represents
+	 */
+	public ShapeStyle( MapStyle style){
+		set( style);
+	}
+
+	/**
+	 * <p>
+	 * change this style, every bound shape is updated.</br>
+	 * </p>
+	 * @param style - new headless style
+	 */
+	public void set( MapStyle style){
+		this.style = style;
+		fill.set( toColor( style.getFill()));
+		stroke.set( toColor( style.getStroke()));
+		strokeWidth.set( style.getStrokeWidth());
+	}
+
+	/**
+	 * @return headless style this object currently represents
+	 */
+	public MapStyle get(){
+		return style;
+	}
+
+	/**
+	 * @return ids of rooms bound to this style, not to be changed
+	 */
+	BitSet getRooms(){
+		return rooms;
+	}
+
+	/**
+	 * <p>
+	 * bind fill, stroke and stroke width of given shape to this style.</br>
+	 * </p>
+	 * @param shape - shape to be bound
+	 */
+	public void bind( Shape shape){
+		shape.fillProperty().bind( fill);
+		shape.strokeProperty().bind( stroke);
+		shape.strokeWidthProperty().bind( strokeWidth);
+	}
+
+	/**
+	 * <p>
+	 * remove bindings created by {@link #bind(Shape)}, shape keeps its current values.</br>
+	 * </p>
+	 * @param shape - shape to be unbound
+	 */
+	public static void unbind( Shape shape){
+		shape.fillProperty().unbind();
+		shape.strokeProperty().unbind();
+		shape.strokeWidthProperty().unbind();
+	}
+
+	/**
+	 * <p>
+	 * convert a {@link MapColor} to a {@link Color} object using {@link Color#rgb(int, int, int, double)}.</br>
+	 * </p>
+	 * @param color - headless color to be converted
+	 * @return color object created from input
+	 */
+	public static Color toColor( MapColor color){
+		return Color.rgb( color.getRed(), color.getGreen(), color.getBlue(), color.getOpacity());
+	}
+
+	/**
+	 * <p>
+	 * convert a {@link Paint} to a {@link MapColor}. only {@link Color} is supported.</br>
+	 * </p>
+	 * @param p - paint object to be converted
+	 * @return headless color with same channels
+	 */
+	public static MapColor toMapColor( Paint p){
+		Color c = Color.class.cast( p);
+		return MapColor.of( c.getRed(), c.getGreen(), c.getBlue(), c.getOpacity());
+	}
+}
@@ -0,0 +1,98 @@
+package mapmaker;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+/**
+ * <p>
+ * startup profile mode, turned on by <code>--profile</code> argument of {@link MapMakerSkeleton}. time from JVM
+ * start to main, to each marked phase of start up and to first frame on screen is written to standard output as
+ * one line, then application exits so start up can be measured many times by a script, see
+ * <code>scripts/startup-cds.sh</code>.</br>
+ * first frame is taken as the second pulse after window is shown. {@link AnimationTimer}s run at beginning of a
+ * pulse and scene is drawn at its end, so second pulse starting means first one has drawn window.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class StartupProfile{
+
+	public static final String ARGUMENT = "--profile";
+
+	private static boolean enabled;
+	private static long jvmStart;
+	private static long last;
+	private static final List< String> phases = new ArrayList<>();
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private StartupProfile(){
+	}
+
+	/**
+	 * <p>
+	 * turn profile on if arguments ask for it, called first thing in main.</br>
+	 * </p>
+	 * @param args - command line arguments of application
+	 */
+	public static void begin( String[] args){
+		for( String arg: args)
+			enabled |= ARGUMENT.equals( arg);
+		if( !enabled)
+			return;
+		long wall = System.currentTimeMillis();
+		last = System.nanoTime();
+		jvmStart = last - (wall - ManagementFactory.getRuntimeMXBean().getStartTime()) * 1000000;
+		phases.add( "jvm " + millis( jvmStart, last));
+	}
+
+	/**
+	 * <p>
+	 * end a phase of start up, time since previous phase is reported under given name.</br>
+	 * </p>
+	 * @param phase - short name of phase just finished
+	 */
+	public static void mark( String phase){
+		if( !enabled)
+			return;
+		long now = System.nanoTime();
+		phases.add( phase + " " + millis( last, now));
+		last = now;
+	}
+
+	/**
+	 * <p>
+	 * report and exit once window has been drawn, called right after stage is shown.</br>
+	 * </p>
+	 */
+	public static void awaitFirstFrame(){
+		if( !enabled)
+			return;
+		new AnimationTimer(){
+
+			private int pulses;
+
+			@Override
+			public void handle( long now){
+				if( ++pulses < 2)
+					return;
+				stop();
+				mark( "frame");
+				System.out.println( "startup: " + String.join( ", ", phases) + ", first frame "
+						+ millis( jvmStart, System.nanoTime()));
+				Platform.exit();
+			}
+		}.start();
+	}
+
+	private static String millis( long from, long to){
+		return (to - from) / 1000000 + " ms";
+	}
+}
@@ -0,0 +1,94 @@
+package mapmaker;
+
+import java.util.Map;
+
+import javafx.scene.control.Label;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import mapmaker.model.IncrementalMapStats;
+import mapmaker.model.MapChanges;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+
+/**
+ * <p>
+ * collapsible panel with live statistics of a {@link MapAreaSkeleton}, total rooms, rooms for each sides count,
+ * total and per style area and perimeter, and bounds of map.</br>
+ * numbers come from an {@link IncrementalMapStats} fed with {@link MapChanges} of map, so an edit costs vertices of
+ * changed rooms and redrawing panel costs number of styles and sides counts in use, never number of rooms.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class StatsPanel extends TitledPane{
+
+	private static final String[] SIDES = { "", "", "Line", "Triangle", "Rectangle", "Pentagon", "Hexagon" };
+
+	private final IncrementalMapStats stats;
+	private final Label rooms = new Label();
+	private final Label sides = new Label();
+	private final Label size = new Label();
+	private final Label bounds = new Label();
+	private final GridPane styles = new GridPane();
+
+	/**
+	 * @param map - map whose statistics are shown
+	 */
+	public StatsPanel( MapAreaSkeleton map){
+		super();
+		stats = new IncrementalMapStats( map::getRecord);
+		setText( "Statistics");
+		setExpanded( false);
+		getStyleClass().add( "stats");
+		styles.getStyleClass().add( "stats-styles");
+		GridPane totals = new GridPane();
+		totals.getStyleClass().add( "stats-totals");
+		totals.addRow( 0, new Label( "Rooms:"), rooms);
+		totals.addRow( 1, new Label( "Sides:"), sides);
+		totals.addRow( 2, new Label( "Total:"), size);
+		totals.addRow( 3, new Label( "Extent:"), bounds);
+		setContent( new HBox( 24, totals, styles));
+		map.addMapChangeListener( this::mapChanged);
+		map.getRoomIds().stream().forEach( stats::update);
+		refresh();
+	}
+
+	private void mapChanged( MapChanges changes){
+		stats.mapChanged( changes);
+		refresh();
+	}
+
+	private void refresh(){
+		rooms.setText( stats.getRooms() + " (" + stats.getVertices() + " vertices)");
+		StringBuilder text = new StringBuilder();
+		for( Map.Entry< Integer, Long> entry: stats.getRoomsPerSides().entrySet()){
+			if( text.length() > 0)
+				text.append( ", ");
+			int n = entry.getKey();
+			text.append( n < SIDES.length && !SIDES[n].isEmpty() ? SIDES[n] : n + " sides").append( ' ')
+					.append( entry.getValue());
+		}
+		sides.setText( text.toString());
+		size.setText( format( stats.getArea(), stats.getPerimeter()));
+		double[] b = stats.getBounds();
+		bounds.setText( Double.isNaN( b[0]) ? "empty"
+				: String.format( "%.0f x %.0f at (%.0f, %.0f)", b[2] - b[0], b[3] - b[1], b[0], b[1]));
+		styles.getChildren().clear();
+		int row = 0;
+		for( Map.Entry< MapStyle, IncrementalMapStats.StyleStats> entry: stats.getStyles().entrySet()){
+			MapColor fill = entry.getKey().getFill();
+			Rectangle swatch = new Rectangle( 12, 12,
+					Color.rgb( fill.getRed(), fill.getGreen(), fill.getBlue(), fill.getOpacity()));
+			IncrementalMapStats.StyleStats style = entry.getValue();
+			styles.addRow( row++, swatch, new Label( style.getRooms() + " rooms"),
+					new Label( format( style.getArea(), style.getPerimeter())));
+		}
+	}
+
+	private static String format( double area, double perimeter){
+		return String.format( "area %.1f, perimeter %.1f", area, perimeter);
+	}
+}
@@ -0,0 +1,295 @@
+package mapmaker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.application.Platform;
+import mapmaker.model.MapChangeListener;
+import mapmaker.model.MapChanges;
+import mapmaker.model.RoomRecord;
+import mapmaker.sync.SyncClient;
+import mapmaker.sync.SyncOp;
+
+/**
+ * <p>
+ * keeps a {@link MapAreaSkeleton} in sync with a shared map of a {@link mapmaker.sync.SyncServer}. changes of map
+ * arrive as one {@link MapChanges} batch per pulse and go out as one batch of {@link SyncOp}, rooms moved by same
+ * distance, such as a dragged selection, as a single {@link SyncOp.Kind#MOVE}. changes of other editors are applied
+ * on JavaFX thread, all rooms they add in one {@link MapAreaSkeleton#loadRecords(Iterable)}.</br>
+ * a map joining a server with rooms is replaced by them, a map joining an empty server gives it its rooms.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class SyncLink{
+
+	/**
+	 * <p>
+	 * largest difference between points of a room and its last synced points moved by one distance for a change to
+	 * still be sent as a move. moves of a drag add up one frame at a time, so they are off by rounding.</br>
+	 * </p>
+	 */
+	private static final double MOVE_TOLERANCE = 1e-9;
+
+	private final MapAreaSkeleton map;
+	private final SyncClient client;
+	private final Runnable closed;
+	private final MapChangeListener changeListener = this::mapChanged;
+	private final Map< Long, Integer> localOf = new HashMap<>();
+	private long[] globalOf = new long[0];
+	private RoomRecord[] synced = new RoomRecord[0];
+	private boolean applyingRemote;
+	private boolean stopped;
+
+	/**
+	 * <p>
+	 * connect given map to a server and start syncing it.</br>
+	 * </p>
+	 * @param map - map to be shared
+	 * @param host - host of server
+	 * @param port - port of server
+	 * @param closed - called on JavaFX thread once connection is lost, not after {@link #stop()}
+	 * @throws IOException if server cannot be reached
+	 */
+	public SyncLink( MapAreaSkeleton map, String host, int port, Runnable closed) throws IOException{
+		this.map = map;
+		this.closed = closed;
+		client = new SyncClient( host, port);
+		map.flushChanges();
+		if( client.getServerRooms() > 0)
+			// snapshot of server adds its rooms
+			map.clearMap();
+		else{
+			List< SyncOp> ops = new ArrayList<>();
+			BitSet ids = map.getRoomIds();
+			for( int id = ids.nextSetBit( 0); id >= 0; id = ids.nextSetBit( id + 1)){
+				long room = client.newRoomId();
+				RoomRecord record = map.getRecord( id);
+				remember( id, room, record);
+				ops.add( SyncOp.add( room, record));
+			}
+			client.send( ops);
+		}
+		map.flushChanges();
+		map.addMapChangeListener( changeListener);
+		client.start( Platform::runLater, this::apply, this::connectionClosed);
+	}
+
+	/**
+	 * <p>
+	 * send local changes of one pulse as one batch.</br>
+	 * </p>
+	 */
+	private void mapChanged( MapChanges changes){
+		if( applyingRemote || stopped)
+			return;
+		List< SyncOp> ops = new ArrayList<>();
+		changes.forEach( MapChanges.Kind.REMOVED, id -> {
+			long room = forget( id);
+			if( room >= 0)
+				ops.add( SyncOp.remove( room));
+		});
+		changes.forEach( MapChanges.Kind.ADDED, id -> {
+			long room = client.newRoomId();
+			RoomRecord record = map.getRecord( id);
+			remember( id, room, record);
+			ops.add( SyncOp.add( room, record));
+		});
+		// rooms moved by same distance share one operation
+		Map< List< Double>, List< Long>> moves = new LinkedHashMap<>();
+		changes.forEach( MapChanges.Kind.GEOMETRY, id -> {
+			RoomRecord before = syncedRecord( id);
+			if( before == null)
+				return;
+			RoomRecord after = map.getRecord( id);
+			synced[id] = after;
+			double[] distance = distance( before, after);
+			if( distance == null)
+				ops.add( SyncOp.geometry( globalOf[id], after.copyPoints()));
+			else
+				moves.computeIfAbsent( Arrays.asList( distance[0], distance[1]), k -> new ArrayList<>()).add( globalOf[id]);
+		});
+		for( Map.Entry< List< Double>, List< Long>> move: moves.entrySet()){
+			long[] rooms = new long[move.getValue().size()];
+			for( int i = 0; i < rooms.length; i++)
+				rooms[i] = move.getValue().get( i);
+			ops.add( SyncOp.move( move.getKey().get( 0), move.getKey().get( 1), rooms));
+		}
+		changes.forEach( MapChanges.Kind.STYLE, id -> {
+			RoomRecord before = syncedRecord( id);
+			if( before == null)
+				return;
+			RoomRecord after = map.getRecord( id);
+			synced[id] = after;
+			if( !after.getStyle().equals( before.getStyle()))
+				ops.add( SyncOp.style( globalOf[id], after.getStyle()));
+		});
+		client.send( ops);
+	}
+
+	/**
+	 * @return distance every point of before moved to be at after, null if room changed in another way
+	 */
+	private static double[] distance( RoomRecord before, RoomRecord after){
+		if( before.getPointCount() != after.getPointCount() || before.getPointCount() == 0)
+			return null;
+		double deltaX = after.getX( 0) - before.getX( 0), deltaY = after.getY( 0) - before.getY( 0);
+		for( int i = 1; i < before.getPointCount(); i++)
+			if( Math.abs( before.getX( i) + deltaX - after.getX( i)) > MOVE_TOLERANCE
+					|| Math.abs( before.getY( i) + deltaY - after.getY( i)) > MOVE_TOLERANCE)
+				return null;
+		return new double[]{ deltaX, deltaY};
+	}
+
+	/**
+	 * <p>
+	 * apply a batch of other editors, or corrections of server, to map. local changes not yet sent are sent first
+	 * and changes made here are not sent back.</br>
+	 * </p>
+	 */
+	private void apply( List< SyncOp> ops){
+		if( stopped)
+			return;
+		map.flushChanges();
+		applyingRemote = true;
+		try{
+			BitSet erase = new BitSet();
+			BitSet touched = new BitSet();
+			List< Long> addRooms = new ArrayList<>();
+			List< RoomRecord> addRecords = new ArrayList<>();
+			for( SyncOp op: ops){
+				if( op.getKind() == SyncOp.Kind.MOVE){
+					BitSet moved = new BitSet();
+					for( long room: op.getRooms()){
+						Integer id = localOf.get( room);
+						if( id != null)
+							moved.set( id);
+					}
+					map.moveRooms( moved, op.getDeltaX(), op.getDeltaY());
+					touched.or( moved);
+					continue;
+				}
+				Integer id = localOf.get( op.getRoom());
+				switch( op.getKind()){
+					case REMOVE:
+						if( id != null){
+							forget( id);
+							erase.set( id);
+						}
+						break;
+					case ADD:
+					case SET:
+						if( id != null && map.getRecord( id).getPointCount() == op.getRecord().getPointCount()){
+							map.setPoints( id, op.getRecord().copyPoints());
+							map.setStyle( id, op.getRecord().getStyle());
+							touched.set( id);
+							break;
+						}
+						if( id != null){
+							forget( id);
+							erase.set( id);
+						}
+						addRooms.add( op.getRoom());
+						addRecords.add( op.getRecord());
+						break;
+					case GEOMETRY:
+						if( id == null)
+							break;
+						if( !map.setPoints( id, op.getPoints())){
+							RoomRecord record = map.getRecord( id);
+							forget( id);
+							erase.set( id);
+							addRooms.add( op.getRoom());
+							addRecords.add( new RoomRecord( record.getSides(), record.getStyle(), op.getPoints()));
+							break;
+						}
+						touched.set( id);
+						break;
+					case STYLE:
+						if( id != null && map.setStyle( id, op.getStyle()))
+							touched.set( id);
+						break;
+					default:
+						break;
+				}
+			}
+			map.eraseRooms( erase);
+			touched.andNot( erase);
+			int[] added = map.loadRecords( addRecords);
+			for( int i = 0; i < added.length; i++)
+				remember( added[i], addRooms.get( i), addRecords.get( i));
+			for( int id = touched.nextSetBit( 0); id >= 0; id = touched.nextSetBit( id + 1))
+				synced[id] = map.getRecord( id);
+			map.flushChanges();
+		}finally{
+			applyingRemote = false;
+		}
+	}
+
+	private void remember( int id, long room, RoomRecord record){
+		if( id >= globalOf.length){
+			int length = Math.max( id + 1, globalOf.length * 2);
+			int start = globalOf.length;
+			globalOf = Arrays.copyOf( globalOf, length);
+			Arrays.fill( globalOf, start, length, -1);
+			synced = Arrays.copyOf( synced, length);
+		}
+		globalOf[id] = room;
+		synced[id] = record;
+		localOf.put( room, id);
+	}
+
+	/**
+	 * @return global id local room had, -1 if it was not synced
+	 */
+	private long forget( int id){
+		if( id >= globalOf.length || globalOf[id] < 0)
+			return -1;
+		long room = globalOf[id];
+		globalOf[id] = -1;
+		synced[id] = null;
+		localOf.remove( room);
+		return room;
+	}
+
+	private RoomRecord syncedRecord( int id){
+		return id < synced.length ? synced[id] : null;
+	}
+
+	private void connectionClosed(){
+		if( stopped)
+			return;
+		stop();
+		closed.run();
+	}
+
+	/**
+	 * @return bytes sent to server so far
+	 */
+	public long getBytesSent(){
+		return client.getBytesSent();
+	}
+
+	/**
+	 * <p>
+	 * stop syncing and close connection, map keeps its rooms.</br>
+	 * </p>
+	 */
+	public void stop(){
+		if( stopped)
+			return;
+		stopped = true;
+		map.removeMapChangeListener( changeListener);
+		try{
+			client.close();
+		}catch( IOException e){
+			// nothing left to sync
+		}
+	}
+}
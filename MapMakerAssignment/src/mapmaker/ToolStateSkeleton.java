@@ -1,5 +1,8 @@
 package mapmaker;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * <p>
  * this is a singleton class meant as single location to hold all active {@link Tools} information.</br>
@@ -30,6 +33,19 @@ public final class ToolStateSkeleton{
 	 */
 	private int option = 0;
 
+	/**
+	 * <p>
+	 * listener of every change of tool or option, such as a session recorder.</br>
+	 * </p>
+	 */
+	@FunctionalInterface
+	public interface ToolListener{
+
+		void toolChanged( Tools tool, int option);
+	}
+
+	private final List< ToolListener> listeners = new ArrayList<>();
+
 	/**
 	 * <p>
 	 * private default constructor to prevent creation of this object.</br>
@@ -57,6 +73,7 @@ public final class ToolStateSkeleton{
 	public void setTool( Tools tool){
 		this.tool = tool;
 		option = 0;
+		fireToolChanged();
 	}
 
 	/**
@@ -77,6 +94,7 @@ public final class ToolStateSkeleton{
 	 */
 	public void setOption( int option){
 		this.option = option;
+		fireToolChanged();
 	}
 
 	/**
@@ -89,5 +107,18 @@ public final class ToolStateSkeleton{
 		return option;
 	}
 
+	public void addToolListener( ToolListener listener){
+		listeners.add( listener);
+	}
+
+	public void removeToolListener( ToolListener listener){
+		listeners.remove( listener);
+	}
+
+	private void fireToolChanged(){
+		for( ToolListener listener: listeners)
+			listener.toolChanged( tool, option);
+	}
+
 
 }
@@ -0,0 +1,794 @@
+package mapmaker.cli;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import mapmaker.geom.Affine;
+import mapmaker.geom.PackedPolygons;
+import mapmaker.geom.PolygonBooleans;
+import mapmaker.io.CompactMapCodec;
+import mapmaker.io.Json;
+import mapmaker.io.MapCodec;
+import mapmaker.io.MapCodecs;
+import mapmaker.io.MapExporter;
+import mapmaker.io.MapFormatException;
+import mapmaker.io.MapIndex;
+import mapmaker.io.RecordWriter;
+import mapmaker.io.SvgExporter;
+import mapmaker.model.CoordinatePrecision;
+import mapmaker.model.MapDocument;
+import mapmaker.model.MapStats;
+import mapmaker.model.MemoryReport;
+import mapmaker.model.RoomFingerprint;
+import mapmaker.model.RoomRecord;
+import mapmaker.render.MapRasterizer;
+import mapmaker.render.RasterExport;
+
+/**
+ * <p>
+ * headless command line entry point for processing many map files at once. it only uses the headless model and
+ * {@link MapCodec}s so JavaFX toolkit is never started.</br>
+ * files are processed in parallel, one file per worker thread. every file is streamed record by record so memory
+ * is bounded by number of threads times size of one record, not by size of files.</br>
+ * a JSON summary with timing and error of each file is written to standard output or to <code>--report</code>.</br>
+ * </p>
+ * <pre>
+ * java -cp bin mapmaker.cli.MapBatch &lt;command&gt; [options] &lt;file or directory&gt;...
+ *
+ * commands:
+ *   validate   parse every file and report errors
+ *   stats      report rooms, vertices, rooms per sides, area, perimeter and bounds
+ *   normalize  rewrite every file in canonical form of its own format
+ *   convert    convert every file to format given by --format
+ *   memory     load every file with --memory precision and report estimated heap of rooms, coordinates
+ *              and styles
+ *   roundtrip  load every file with --memory precision, save it as text, read it back and check
+ *              every coordinate is within documented error of that precision
+ *   merge      union all rooms of every file and report time taken and outlines created, merged
+ *              map is written to --out when given
+ *   render     draw every file into a PNG next to it or in --out, or into a directory of tiles with
+ *              --pyramid, tiles are rendered in parallel on --threads threads
+ *   index      build or refresh sidecar .idx of every text map, then read rooms inside --region, or all
+ *              rooms, by seeking through index
+ *   transform  apply --transform to every room, once on one thread and once split across cores, report
+ *              best time of each and check both give same points, transformed map is written to --out when
+ *              given. run with --threads 1 so files do not compete with parallel transform for cores
+ *   dedupe     rewrite every file without rooms which repeat an earlier room, in place or to --out, in its
+ *              own format. files without duplicates are left alone, see
+ *              MapCompare to diff or merge two or three versions of a map
+ * options:
+ *   --threads N      number of worker threads, default is number of cores
+ *   --format NAME    target format of convert, text, legacy( text without style table), binary, compact,
+ *                    or export only svg and geojson
+ *   --precision P    quantization step of compact format in pixels, default 0.001
+ *   --no-deflate     do not compress body of compact format
+ *   --memory NAME    coordinate precision of memory and roundtrip, double, float or fixed
+ *   --out DIR        directory to write converted, normalized or deduped files to,
+ *                    default is next to input for convert and in place for normalize and dedupe
+ *   --scale S        pixels per map unit of render, default 1
+ *   --tile N         width and height of render tiles in pixels, default 256
+ *   --pyramid        render a z/x/y.png tile pyramid instead of one PNG
+ *   --region R       minX,minY,maxX,maxY of rooms read by index
+ *   --transform T    transform of transform command, rotate:DEG[,CX,CY], scale:S[,SY[,CX,CY]],
+ *                    mirror:h or mirror:v across axis through origin, or translate:DX,DY
+ *   --report FILE    write JSON summary to file instead of standard output
+ * </pre>
+ * exit code is 0 when every file succeeded, 1 when any file failed and 2 for wrong usage.</br>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapBatch{
+
+	/**
+	 * <p>
+	 * commands supported by this tool.</br>
+	 * </p>
+	 */
+	enum Command{
+		validate, stats, normalize, convert, memory, roundtrip, merge, render, index, transform, dedupe;
+	}
+
+	/**
+	 * <p>
+	 * runs of each path of transform command, best one is reported so JIT warm up is not measured.</br>
+	 * </p>
+	 */
+	private static final int TRANSFORM_RUNS = 5;
+
+	private final Command command;
+	private final List< Path> files;
+	private final int threads;
+	private final MapExporter target;
+	private final Path out;
+	private final CoordinatePrecision memory;
+	private final double scale;
+	private final int tileSize;
+	private final boolean pyramid;
+	private final double[] region;
+	private final Affine transform;
+	/**
+	 * <p>
+	 * threads rendering tiles of render command, shared by all files.</br>
+	 * </p>
+	 */
+	private ExecutorService tiles;
+	/**
+	 * <p>
+	 * number of files that failed, updated by worker threads while holding lock of this object.</br>
+	 * </p>
+	 */
+	private long failed;
+
+	private MapBatch( Command command, List< Path> files, int threads, MapExporter target, Path out,
+			CoordinatePrecision memory, double scale, int tileSize, boolean pyramid, double[] region, Affine transform){
+		this.command = command;
+		this.files = files;
+		this.threads = threads;
+		this.target = target;
+		this.out = out;
+		this.memory = memory;
+		this.scale = scale;
+		this.tileSize = tileSize;
+		this.pyramid = pyramid;
+		this.region = region;
+		this.transform = transform;
+	}
+
+	public static void main( String[] args){
+		System.exit( run( args, System.out, System.err));
+	}
+
+	/**
+	 * <p>
+	 * parse arguments, process all files and write the summary.</br>
+	 * </p>
+	 * @param args - command line arguments
+	 * @param stdout - where summary is written when there is no --report
+	 * @param stderr - where usage and short progress messages are written
+	 * @return exit code
+	 */
+	static int run( String[] args, PrintStream stdout, PrintStream stderr){
+		if( args.length < 2){
+			usage( stderr);
+			return 2;
+		}
+		Command command;
+		try{
+			command = Command.valueOf( args[0]);
+		}catch( IllegalArgumentException e){
+			stderr.println( "unknown command \"" + args[0] + "\"");
+			usage( stderr);
+			return 2;
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		MapExporter target = null;
+		double precision = CompactMapCodec.DEFAULT_PRECISION;
+		boolean deflate = true;
+		CoordinatePrecision memory = CoordinatePrecision.DOUBLE;
+		Path out = null;
+		Path report = null;
+		double scale = 1;
+		int tileSize = 256;
+		boolean pyramid = false;
+		double[] region = null;
+		Affine transform = null;
+		List< Path> inputs = new ArrayList<>();
+		try{
+			for( int i = 1; i < args.length; i++){
+				switch( args[i]){
+					case "--threads":
+						threads = Math.max( 1, Integer.parseInt( args[++i]));
+						break;
+					case "--format":
+						target = MapCodecs.exporterByName( args[++i]);
+						break;
+					case "--precision":
+						precision = Double.parseDouble( args[++i]);
+						break;
+					case "--no-deflate":
+						deflate = false;
+						break;
+					case "--memory":
+						memory = CoordinatePrecision.valueOf( args[++i].toUpperCase());
+						break;
+					case "--out":
+						out = Paths.get( args[++i]);
+						break;
+					case "--report":
+						report = Paths.get( args[++i]);
+						break;
+					case "--scale":
+						scale = Double.parseDouble( args[++i]);
+						break;
+					case "--tile":
+						tileSize = Integer.parseInt( args[++i]);
+						break;
+					case "--pyramid":
+						pyramid = true;
+						break;
+					case "--region":
+						region = parseRegion( args[++i]);
+						break;
+					case "--transform":
+						transform = parseTransform( args[++i]);
+						break;
+					default:
+						if( args[i].startsWith( "--"))
+							throw new IllegalArgumentException( "unknown option \"" + args[i] + "\"");
+						inputs.add( Paths.get( args[i]));
+				}
+			}
+			if( command == Command.convert && target == null)
+				throw new IllegalArgumentException( "convert needs --format");
+			if( command == Command.transform && transform == null)
+				throw new IllegalArgumentException( "transform needs --transform");
+			if( !(scale > 0) || tileSize < 1)
+				throw new IllegalArgumentException( "--scale and --tile must be positive");
+			if( target == MapCodecs.COMPACT)
+				target = new CompactMapCodec( precision, deflate);
+		}catch( ArrayIndexOutOfBoundsException e){
+			stderr.println( "option \"" + args[args.length - 1] + "\" needs a value");
+			return 2;
+		}catch( IllegalArgumentException e){
+			stderr.println( e.getMessage());
+			usage( stderr);
+			return 2;
+		}
+		try{
+			if( out != null)
+				Files.createDirectories( out);
+			List< Path> files = expand( inputs);
+			if( command == Command.render)
+				System.setProperty( "java.awt.headless", "true");
+			MapBatch batch = new MapBatch( command, files, threads, target, out, memory, scale, tileSize, pyramid, region,
+					transform);
+			String summary = batch.process();
+			if( report == null)
+				stdout.println( summary);
+			else
+				Files.write( report, summary.getBytes( StandardCharsets.UTF_8));
+			long failed = batch.failed;
+			stderr.println( command + ": " + files.size() + " file/s, " + failed + " failed");
+			return failed == 0 ? 0 : 1;
+		}catch( IOException e){
+			stderr.println( e.getMessage());
+			return 1;
+		}
+	}
+
+	private static void usage( PrintStream stderr){
+		stderr.println( "usage: MapBatch <validate|stats|normalize|convert|memory|roundtrip|merge|render|index|transform|dedupe> [--threads N] [--format text|legacy|binary|compact|svg|geojson]"
+				+ " [--precision P] [--no-deflate]"
+				+ " [--memory double|float|fixed] [--out DIR] [--report FILE] [--scale S] [--tile N] [--pyramid]"
+				+ " [--region minX,minY,maxX,maxY] [--transform rotate:DEG|scale:S|mirror:h|mirror:v|translate:DX,DY]"
+				+ " <file or directory>...");
+	}
+
+	/**
+	 * <p>
+	 * replace every directory in given list with all map files inside of it, recursively.</br>
+	 * </p>
+	 * @param inputs - files and directories given on command line
+	 * @return sorted list of files
+	 * @throws IOException if a directory cannot be walked
+	 */
+	private static List< Path> expand( List< Path> inputs) throws IOException{
+		List< Path> files = new ArrayList<>();
+		for( Path input: inputs){
+			if( Files.isDirectory( input)){
+				try( Stream< Path> walk = Files.walk( input)){
+					walk.filter( Files::isRegularFile).filter( MapCodecs::isMapFile).sorted().forEach( files::add);
+				}
+			}else
+				files.add( input);
+		}
+		return files;
+	}
+
+	/**
+	 * <p>
+	 * process all files on a fixed pool of threads and build the JSON summary in order of files.</br>
+	 * </p>
+	 * @return JSON summary
+	 */
+	private String process(){
+		long start = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool( threads, r -> {
+			Thread thread = new Thread( r, "map-batch");
+			thread.setDaemon( true);
+			return thread;
+		});
+		if( command == Command.render)
+			tiles = Executors.newFixedThreadPool( threads, r -> {
+				Thread thread = new Thread( r, "map-batch-tile");
+				thread.setDaemon( true);
+				return thread;
+			});
+		List< Future< String>> results = new ArrayList<>( files.size());
+		try{
+			for( Path file: files)
+				results.add( pool.submit( () -> processFile( file)));
+			List< String> entries = new ArrayList<>( results.size());
+			for( Future< String> result: results)
+				entries.add( result.get());
+			long wall = System.nanoTime() - start;
+			StringBuilder builder = new StringBuilder();
+			builder.append( "{\"command\":").append( Json.quote( command.name()));
+			builder.append( ",\"threads\":").append( threads);
+			builder.append( ",\"files\":").append( files.size());
+			builder.append( ",\"failed\":").append( failed);
+			builder.append( ",\"wallMillis\":").append( Json.number( wall / 1e6));
+			builder.append( ",\"results\":[");
+			builder.append( entries.stream().collect( Collectors.joining( ",\n")));
+			return builder.append( "]}").toString();
+		}catch( InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException( e);
+		}catch( ExecutionException e){
+			// processFile catches everything it expects, anything else is a bug
+			throw new IllegalStateException( e.getCause());
+		}finally{
+			pool.shutdownNow();
+			if( tiles != null)
+				tiles.shutdownNow();
+		}
+	}
+
+	/**
+	 * <p>
+	 * run the command on one file and return its JSON entry. errors are reported in the entry, not thrown.</br>
+	 * </p>
+	 * @param file - file to be processed
+	 * @return JSON entry of file
+	 */
+	private String processFile( Path file){
+		long start = System.nanoTime();
+		StringBuilder entry = new StringBuilder();
+		entry.append( "{\"file\":").append( Json.quote( file.toString()));
+		MapStats stats = new MapStats();
+		try{
+			MapCodec codec = MapCodecs.forPath( file);
+			entry.append( ",\"format\":").append( Json.quote( codec.name()));
+			entry.append( ",\"bytes\":").append( Files.size( file));
+			switch( command){
+				case validate:
+				case stats:
+					try( InputStream in = open( file)){
+						codec.read( in, stats::add);
+					}
+					break;
+				case normalize:
+					rewrite( file, codec, codec, out == null ? file : out.resolve( file.getFileName()), stats);
+					break;
+				case convert:
+					rewrite( file, codec, exporterFor( file, codec), outputFor( file), stats);
+					break;
+				case memory:
+					MapDocument document = codec.readDocument( file, memory);
+					document.forEach( stats::add);
+					appendMemory( entry, MemoryReport.of( file.toString(), document));
+					break;
+				case roundtrip:
+					roundtrip( file, codec, stats, entry);
+					break;
+				case merge:
+					merge( file, codec, stats, entry);
+					break;
+				case render:
+					render( file, codec, stats, entry);
+					break;
+				case index:
+					index( file, stats, entry);
+					break;
+				case transform:
+					transform( file, codec, stats, entry);
+					break;
+				case dedupe:
+					dedupe( file, codec, stats, entry);
+					break;
+			}
+			entry.append( ",\"status\":\"ok\"");
+			entry.append( ",\"rooms\":").append( stats.getRooms());
+			entry.append( ",\"vertices\":").append( stats.getVertices());
+			if( command == Command.stats)
+				appendStats( entry, stats);
+		}catch( IOException | RuntimeException e){
+			synchronized( this){
+				failed++;
+			}
+			entry.append( ",\"status\":\"error\"");
+			entry.append( ",\"roomsRead\":").append( stats.getRooms());
+			entry.append( ",\"error\":").append( Json.quote( String.valueOf( e.getMessage())));
+		}
+		entry.append( ",\"millis\":").append( Json.number( (System.nanoTime() - start) / 1e6));
+		return entry.append( "}").toString();
+	}
+
+	private InputStream open( Path file) throws IOException{
+		return new BufferedInputStream( Files.newInputStream( file), 1 << 16);
+	}
+
+	/**
+	 * <p>
+	 * stream records of source to destination. output is first written to a temporary file next to destination
+	 * and moved over it only when complete, so a failed run never leaves a half written or truncated map.</br>
+	 * </p>
+	 */
+	private void rewrite( Path source, MapCodec from, MapExporter to, Path destination, MapStats stats)
+			throws IOException{
+		rewrite( source, from, to, destination, stats, record -> true);
+	}
+
+	/**
+	 * <p>
+	 * same as {@link #rewrite(Path, MapCodec, MapExporter, Path, MapStats)} but only records given filter keeps are
+	 * written and counted.</br>
+	 * </p>
+	 */
+	private void rewrite( Path source, MapCodec from, MapExporter to, Path destination, MapStats stats,
+			Predicate< RoomRecord> keep) throws IOException{
+		// not Files.createTempFile, it would give the final file owner only permissions
+		Path temp = destination.resolveSibling( destination.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+		try{
+			try( InputStream in = open( source);
+					RecordWriter writer = to.writer( new BufferedOutputStream( Files.newOutputStream( temp), 1 << 16))){
+				from.read( in, record -> {
+					if( !keep.test( record))
+						return;
+					stats.add( record);
+					writer.accept( record);
+				});
+			}
+			Files.move( temp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}finally{
+			Files.deleteIfExists( temp);
+		}
+	}
+
+	/**
+	 * <p>
+	 * {@link #target} ready for given file. SVG needs bounds of map in its header before any room, so file is read
+	 * once more to find them, still streaming.</br>
+	 * </p>
+	 */
+	private MapExporter exporterFor( Path file, MapCodec codec) throws IOException{
+		if( !(target instanceof SvgExporter))
+			return target;
+		MapStats bounds = new MapStats();
+		try( InputStream in = open( file)){
+			codec.read( in, bounds::add);
+		}
+		return ((SvgExporter) target).withBounds( bounds.getBounds());
+	}
+
+	/**
+	 * <p>
+	 * load file into a {@link MapDocument} of {@link #memory} precision, write it with {@link MapCodecs#TEXT} and read
+	 * it back. every coordinate must be within {@link CoordinatePrecision#maxError(double)} of the original one.
+	 * entry gets heap used by coordinates in both precisions and largest error found.</br>
+	 * </p>
+	 */
+	private void roundtrip( Path file, MapCodec codec, MapStats stats, StringBuilder entry) throws IOException{
+		List< RoomRecord> original = codec.readAll( file);
+		MapDocument document = new MapDocument( memory);
+		original.forEach( document::add);
+		ByteArrayOutputStream saved = new ByteArrayOutputStream();
+		try( RecordWriter writer = MapCodecs.TEXT.writer( saved)){
+			for( RoomRecord record: document)
+				writer.accept( record);
+		}
+		List< RoomRecord> loaded = new ArrayList<>( original.size());
+		MapCodecs.TEXT.read( new ByteArrayInputStream( saved.toByteArray()), loaded::add);
+		if( loaded.size() != original.size())
+			throw new MapFormatException( "read back " + loaded.size() + " of " + original.size() + " rooms");
+		double maxError = 0;
+		double magnitude = 0;
+		long doubleBytes = 0;
+		for( int i = 0; i < original.size(); i++){
+			RoomRecord before = original.get( i);
+			RoomRecord after = loaded.get( i);
+			stats.add( after);
+			doubleBytes += before.getCoordinates().estimatedBytes();
+			if( before.getPointCount() != after.getPointCount() || before.getSides() != after.getSides()
+					|| !before.getFill().equals( after.getFill()) || !before.getStroke().equals( after.getStroke()))
+				throw new MapFormatException( "room " + i + " changed in more than its coordinates");
+			for( int p = 0; p < before.getPointCount(); p++){
+				magnitude = Math.max( magnitude, Math.max( Math.abs( before.getX( p)), Math.abs( before.getY( p))));
+				maxError = Math.max( maxError, Math.abs( before.getX( p) - after.getX( p)));
+				maxError = Math.max( maxError, Math.abs( before.getY( p) - after.getY( p)));
+			}
+		}
+		double tolerance = memory.maxError( magnitude);
+		entry.append( ",\"memory\":").append( Json.quote( memory.name().toLowerCase()));
+		entry.append( ",\"coordinateBytes\":").append( document.estimatedCoordinateBytes());
+		entry.append( ",\"doubleCoordinateBytes\":").append( doubleBytes);
+		entry.append( ",\"maxError\":").append( Json.number( maxError));
+		entry.append( ",\"tolerance\":").append( Json.number( tolerance));
+		if( maxError > tolerance)
+			throw new MapFormatException( "largest error " + maxError + " is more than tolerance " + tolerance);
+	}
+
+	/**
+	 * <p>
+	 * union all rooms of file with {@link PolygonBooleans}. entry gets time taken by union, number of outlines
+	 * and their vertices and area before and after, area after is smaller when rooms overlap.</br>
+	 * </p>
+	 */
+	private void merge( Path file, MapCodec codec, MapStats stats, StringBuilder entry) throws IOException{
+		List< RoomRecord> rooms = codec.readAll( file);
+		List< double[]> polygons = new ArrayList<>( rooms.size());
+		for( RoomRecord room: rooms){
+			stats.add( room);
+			polygons.add( room.copyPoints());
+		}
+		long start = System.nanoTime();
+		List< double[]> merged = new PolygonBooleans().union( polygons);
+		long millis = System.nanoTime() - start;
+		List< RoomRecord> outlines = new ArrayList<>( merged.size());
+		MapStats after = new MapStats();
+		for( double[] points: merged){
+			RoomRecord outline = new RoomRecord( points.length / 2, rooms.get( 0).getStyle(), points);
+			after.add( outline);
+			outlines.add( outline);
+		}
+		entry.append( ",\"mergeMillis\":").append( Json.number( millis / 1e6));
+		entry.append( ",\"outlines\":").append( after.getRooms());
+		entry.append( ",\"outlineVertices\":").append( after.getVertices());
+		entry.append( ",\"area\":").append( Json.number( stats.getArea()));
+		entry.append( ",\"mergedArea\":").append( Json.number( after.getArea()));
+		if( out != null)
+			codec.writeAll( out.resolve( file.getFileName()), outlines);
+	}
+
+	/**
+	 * <p>
+	 * draw file with {@link MapRasterizer} into a PNG, or a tile pyramid with --pyramid. entry gets size of image,
+	 * time taken and number of tiles or bytes written.</br>
+	 * </p>
+	 */
+	private void render( Path file, MapCodec codec, MapStats stats, StringBuilder entry) throws IOException{
+		List< RoomRecord> rooms = codec.readAll( file);
+		rooms.forEach( stats::add);
+		long start = System.nanoTime();
+		MapRasterizer rasterizer = new MapRasterizer( rooms, scale);
+		entry.append( ",\"width\":").append( rasterizer.getWidth());
+		entry.append( ",\"height\":").append( rasterizer.getHeight());
+		if( pyramid){
+			Path directory = outputFor( file, "tiles");
+			entry.append( ",\"tiles\":").append( RasterExport.writePyramid( rasterizer, directory, tileSize, tiles));
+			entry.append( ",\"output\":").append( Json.quote( directory.toString()));
+		}else{
+			Path png = outputFor( file, "png");
+			Path temp = png.resolveSibling( png.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+			try{
+				RasterExport.writePng( rasterizer, new BufferedOutputStream( Files.newOutputStream( temp), 1 << 16),
+						tileSize, tiles);
+				Files.move( temp, png, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}finally{
+				Files.deleteIfExists( temp);
+			}
+			entry.append( ",\"pngBytes\":").append( Files.size( png));
+			entry.append( ",\"output\":").append( Json.quote( png.toString()));
+		}
+		entry.append( ",\"renderMillis\":").append( Json.number( (System.nanoTime() - start) / 1e6));
+	}
+
+	/**
+	 * <p>
+	 * use sidecar index of file if it is still valid, else build and write it, then read rooms of region through
+	 * it. entry tells if index was rebuilt and how long opening index and reading took.</br>
+	 * </p>
+	 */
+	private void index( Path file, MapStats stats, StringBuilder entry) throws IOException{
+		if( !MapIndex.supports( file))
+			throw new MapFormatException( "only text maps can be indexed");
+		long start = System.nanoTime();
+		MapIndex index = MapIndex.load( file);
+		boolean rebuilt = index == null;
+		if( rebuilt)
+			index = MapIndex.open( file);
+		entry.append( ",\"rebuilt\":").append( rebuilt);
+		entry.append( ",\"indexedRooms\":").append( index.size());
+		entry.append( ",\"styles\":").append( index.getStyleCount());
+		entry.append( ",\"indexBytes\":").append( Files.size( MapIndex.sidecarOf( file)));
+		entry.append( ",\"openMillis\":").append( Json.number( (System.nanoTime() - start) / 1e6));
+		start = System.nanoTime();
+		if( region == null)
+			index.read( file, 0, index.size(), stats::add);
+		else
+			index.read( file, index.query( region[0], region[1], region[2], region[3]), stats::add);
+		entry.append( ",\"readMillis\":").append( Json.number( (System.nanoTime() - start) / 1e6));
+	}
+
+	/**
+	 * <p>
+	 * transform every room with {@link PackedPolygons#transformSequential(Affine)} and
+	 * {@link PackedPolygons#transformParallel(Affine)}, each run starts from original points and only transforming
+	 * is timed. entry gets best time of both paths and fails if they did not give bit for bit same points.</br>
+	 * </p>
+	 */
+	private void transform( Path file, MapCodec codec, MapStats stats, StringBuilder entry) throws IOException{
+		List< RoomRecord> rooms = codec.readAll( file);
+		int points = 0;
+		for( RoomRecord room: rooms){
+			stats.add( room);
+			points += room.getPointCount();
+		}
+		long sequential = Long.MAX_VALUE, parallel = Long.MAX_VALUE;
+		PackedPolygons one = null, all = null;
+		for( int run = 0; run < TRANSFORM_RUNS; run++){
+			one = pack( rooms, points);
+			long start = System.nanoTime();
+			one.transformSequential( transform);
+			sequential = Math.min( sequential, System.nanoTime() - start);
+			all = pack( rooms, points);
+			start = System.nanoTime();
+			all.transformParallel( transform);
+			parallel = Math.min( parallel, System.nanoTime() - start);
+		}
+		boolean same = true;
+		for( int p = 0; p < points && same; p++)
+			same = Double.doubleToRawLongBits( one.getX( p)) == Double.doubleToRawLongBits( all.getX( p))
+					&& Double.doubleToRawLongBits( one.getY( p)) == Double.doubleToRawLongBits( all.getY( p));
+		entry.append( ",\"transform\":").append( Json.quote( transform.toString()));
+		entry.append( ",\"sequentialMillis\":").append( Json.number( sequential / 1e6));
+		entry.append( ",\"parallelMillis\":").append( Json.number( parallel / 1e6));
+		entry.append( ",\"cores\":").append( Runtime.getRuntime().availableProcessors());
+		entry.append( ",\"same\":").append( same);
+		if( !same)
+			throw new IllegalStateException( "parallel transform differs from sequential one");
+		if( out != null){
+			List< RoomRecord> transformed = new ArrayList<>( rooms.size());
+			for( int i = 0; i < rooms.size(); i++){
+				RoomRecord room = rooms.get( i);
+				transformed.add( new RoomRecord( room.getSides(), room.getStyle(), one.toArray( i))
+						.withPrecision( room.getCoordinates().precision()));
+			}
+			codec.writeAll( out.resolve( file.getFileName()), transformed);
+		}
+	}
+
+	/**
+	 * <p>
+	 * stream file to its destination leaving out every room whose {@link RoomFingerprint} was already seen, first
+	 * of each is kept. entry gets number of rooms removed.</br>
+	 * duplicates are counted first, a file without any is not written at all, only copied as it is when --out is
+	 * given. otherwise it is written in format it is in, so a legacy text map stays legacy.</br>
+	 * </p>
+	 */
+	private void dedupe( Path file, MapCodec codec, MapStats stats, StringBuilder entry) throws IOException{
+		Set< Long> seen = new HashSet<>();
+		long[] removed = { 0 };
+		try( InputStream in = open( file)){
+			codec.read( in, record -> {
+				if( seen.add( RoomFingerprint.of( record)))
+					stats.add( record);
+				else
+					removed[0]++;
+			});
+		}
+		entry.append( ",\"duplicates\":").append( removed[0]);
+		Path destination = out == null ? file : out.resolve( file.getFileName());
+		if( removed[0] == 0){
+			if( !destination.toAbsolutePath().normalize().equals( file.toAbsolutePath().normalize()))
+				Files.copy( file, destination, StandardCopyOption.REPLACE_EXISTING);
+			return;
+		}
+		seen.clear();
+		// rooms kept were counted above
+		rewrite( file, codec, MapCodecs.forContent( file), destination, new MapStats(),
+				record -> seen.add( RoomFingerprint.of( record)));
+	}
+
+	private static PackedPolygons pack( List< RoomRecord> rooms, int points){
+		PackedPolygons packed = new PackedPolygons( rooms.size(), points);
+		for( RoomRecord room: rooms){
+			int start = packed.start( packed.add( room.getPointCount()));
+			for( int p = 0; p < room.getPointCount(); p++)
+				packed.set( start + p, room.getX( p), room.getY( p));
+		}
+		return packed;
+	}
+
+	private static Affine parseTransform( String value){
+		int colon = value.indexOf( ':');
+		String[] parts = colon < 0 ? new String[0] : value.substring( colon + 1).split( ",");
+		double[] numbers = new double[parts.length];
+		String name = colon < 0 ? value : value.substring( 0, colon);
+		if( !"mirror".equals( name))
+			for( int i = 0; i < parts.length; i++)
+				numbers[i] = Double.parseDouble( parts[i].trim());
+		switch( name + ":" + parts.length){
+			case "rotate:1":
+				return Affine.rotate( numbers[0], 0, 0);
+			case "rotate:3":
+				return Affine.rotate( numbers[0], numbers[1], numbers[2]);
+			case "scale:1":
+				return Affine.scale( numbers[0], numbers[0], 0, 0);
+			case "scale:2":
+				return Affine.scale( numbers[0], numbers[1], 0, 0);
+			case "scale:4":
+				return Affine.scale( numbers[0], numbers[1], numbers[2], numbers[3]);
+			case "translate:2":
+				return Affine.translate( numbers[0], numbers[1]);
+			case "mirror:1":
+				if( "h".equals( parts[0]))
+					return Affine.mirrorHorizontal( 0);
+				if( "v".equals( parts[0]))
+					return Affine.mirrorVertical( 0);
+				break;
+		}
+		throw new IllegalArgumentException( "--transform needs rotate:DEG[,CX,CY], scale:S[,SY[,CX,CY]], mirror:h,"
+				+ " mirror:v or translate:DX,DY");
+	}
+
+	private static double[] parseRegion( String value){
+		String[] parts = value.split( ",");
+		if( parts.length != 4)
+			throw new IllegalArgumentException( "--region needs minX,minY,maxX,maxY");
+		double[] region = new double[4];
+		for( int i = 0; i < 4; i++)
+			region[i] = Double.parseDouble( parts[i].trim());
+		return region;
+	}
+
+	private Path outputFor( Path file){
+		return outputFor( file, target.extension());
+	}
+
+	private Path outputFor( Path file, String extension){
+		String name = file.getFileName().toString();
+		int dot = name.lastIndexOf( '.');
+		String converted = (dot < 0 ? name : name.substring( 0, dot)) + "." + extension;
+		return out == null ? file.resolveSibling( converted) : out.resolve( converted);
+	}
+
+	private void appendMemory( StringBuilder entry, MemoryReport report){
+		entry.append( ",\"totalBytes\":").append( report.getTotalBytes()).append( ",\"memory\":[");
+		for( int i = 0; i < report.getEntries().size(); i++){
+			MemoryReport.Entry line = report.getEntries().get( i);
+			entry.append( i == 0 ? "" : ",").append( "{\"name\":").append( Json.quote( line.getName()));
+			entry.append( ",\"count\":").append( line.getCount()).append( ",\"bytes\":").append( line.getBytes()).append( "}");
+		}
+		entry.append( "]");
+	}
+
+	private void appendStats( StringBuilder entry, MapStats stats){
+		double[] bounds = stats.getBounds();
+		entry.append( ",\"area\":").append( Json.number( stats.getArea()));
+		entry.append( ",\"perimeter\":").append( Json.number( stats.getPerimeter()));
+		entry.append( ",\"bounds\":[");
+		for( int i = 0; i < bounds.length; i++)
+			entry.append( i == 0 ? "" : ",").append( Json.number( bounds[i]));
+		entry.append( "],\"roomsPerSides\":{");
+		boolean first = true;
+		for( Map.Entry< Integer, Long> sides: stats.getRoomsPerSides().entrySet()){
+			entry.append( first ? "" : ",").append( Json.quote( sides.getKey().toString())).append( ":")
+					.append( sides.getValue());
+			first = false;
+		}
+		entry.append( "}");
+	}
+}
@@ -0,0 +1,150 @@
+package mapmaker.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import mapmaker.io.Json;
+import mapmaker.io.MapCodecs;
+import mapmaker.model.MapDiff;
+import mapmaker.model.MapMerge;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * headless command line entry point to compare versions of one map, built on {@link MapDiff} and
+ * {@link MapMerge}. a JSON summary with counts and time taken is written to standard output.</br>
+ * </p>
+ * <pre>
+ * java -cp bin mapmaker.cli.MapCompare diff &lt;before&gt; &lt;after&gt;
+ * java -cp bin mapmaker.cli.MapCompare merge &lt;base&gt; &lt;ours&gt; &lt;theirs&gt; [--out FILE]
+ *
+ * commands:
+ *   diff    report rooms unchanged, modified, removed and added from before to after, with index of each
+ *           changed room
+ *   merge   three way merge of ours and theirs, both edited from base, merged map is written to --out when
+ *           given in format of its extension. each conflict is reported with index of its room in base
+ * </pre>
+ * exit code is 0 on success, 1 when a merge has conflicts or a file cannot be read and 2 for wrong usage.</br>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapCompare{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private MapCompare(){
+	}
+
+	public static void main( String[] args){
+		System.exit( run( args, System.out, System.err));
+	}
+
+	/**
+	 * @param args - command line arguments
+	 * @param stdout - where summary is written
+	 * @param stderr - where usage and errors are written
+	 * @return exit code
+	 */
+	static int run( String[] args, PrintStream stdout, PrintStream stderr){
+		Path out = null;
+		List< Path> inputs = new ArrayList<>();
+		for( int i = 1; i < args.length; i++){
+			if( "--out".equals( args[i]) && i + 1 < args.length)
+				out = Paths.get( args[++i]);
+			else if( args[i].startsWith( "--")){
+				stderr.println( "unknown option \"" + args[i] + "\"");
+				usage( stderr);
+				return 2;
+			}else
+				inputs.add( Paths.get( args[i]));
+		}
+		String command = args.length == 0 ? "" : args[0];
+		if( !("diff".equals( command) && inputs.size() == 2) && !("merge".equals( command) && inputs.size() == 3)){
+			usage( stderr);
+			return 2;
+		}
+		try{
+			List< List< RoomRecord>> maps = new ArrayList<>( inputs.size());
+			long start = System.nanoTime();
+			for( Path input: inputs)
+				maps.add( MapCodecs.forPath( input).readAll( input));
+			long read = System.nanoTime() - start;
+			StringBuilder summary = new StringBuilder();
+			summary.append( "{\"command\":").append( Json.quote( command));
+			summary.append( ",\"files\":[");
+			for( int i = 0; i < inputs.size(); i++){
+				summary.append( i == 0 ? "" : ",").append( "{\"file\":").append( Json.quote( inputs.get( i).toString()));
+				summary.append( ",\"rooms\":").append( maps.get( i).size()).append( "}");
+			}
+			summary.append( "],\"readMillis\":").append( Json.number( read / 1e6));
+			int exit = 0;
+			start = System.nanoTime();
+			if( "diff".equals( command)){
+				MapDiff diff = MapDiff.compare( maps.get( 0), maps.get( 1));
+				summary.append( ",\"compareMillis\":").append( Json.number( (System.nanoTime() - start) / 1e6));
+				appendDiff( summary.append( ","), diff, true);
+			}else{
+				MapMerge merge = MapMerge.merge( maps.get( 0), maps.get( 1), maps.get( 2));
+				summary.append( ",\"mergeMillis\":").append( Json.number( (System.nanoTime() - start) / 1e6));
+				appendDiff( summary.append( ",\"ours\":{"), merge.getOursDiff(), false);
+				appendDiff( summary.append( "},\"theirs\":{"), merge.getTheirsDiff(), false);
+				summary.append( "},\"mergedRooms\":").append( merge.getRooms().size());
+				summary.append( ",\"conflicts\":[");
+				for( int i = 0; i < merge.getConflicts().size(); i++){
+					MapMerge.Conflict conflict = merge.getConflicts().get( i);
+					summary.append( i == 0 ? "" : ",").append( "{\"base\":").append( conflict.getBase());
+					summary.append( ",\"ours\":").append( Json.quote( conflict.getOurs() == null ? "removed" : "modified"));
+					summary.append( ",\"theirs\":").append( Json.quote( conflict.getTheirs() == null ? "removed" : "modified"));
+					summary.append( "}");
+				}
+				summary.append( "]");
+				if( out != null){
+					MapCodecs.forPath( out).writeAll( out, merge.getRooms());
+					summary.append( ",\"output\":").append( Json.quote( out.toString()));
+				}
+				exit = merge.getConflicts().isEmpty() ? 0 : 1;
+			}
+			stdout.println( summary.append( "}"));
+			return exit;
+		}catch( IOException | RuntimeException e){
+			stderr.println( e.getMessage());
+			return 1;
+		}
+	}
+
+	private static void usage( PrintStream stderr){
+		stderr.println( "usage: MapCompare diff <before> <after> | MapCompare merge <base> <ours> <theirs> [--out FILE]");
+	}
+
+	/**
+	 * <p>
+	 * append counts of diff, and indices of changed rooms when asked, as fields of an object already opened.</br>
+	 * </p>
+	 */
+	private static void appendDiff( StringBuilder summary, MapDiff diff, boolean indices){
+		summary.append( "\"unchanged\":").append( diff.getUnchangedCount());
+		summary.append( ",\"modified\":").append( diff.getModified().cardinality());
+		summary.append( ",\"removed\":").append( diff.getRemoved().cardinality());
+		summary.append( ",\"added\":").append( diff.getAdded().cardinality());
+		if( !indices)
+			return;
+		appendIndices( summary.append( ",\"modifiedRooms\":"), diff.getModified());
+		appendIndices( summary.append( ",\"removedRooms\":"), diff.getRemoved());
+		appendIndices( summary.append( ",\"addedRooms\":"), diff.getAdded());
+	}
+
+	private static void appendIndices( StringBuilder summary, BitSet indices){
+		summary.append( "[");
+		for( int i = indices.nextSetBit( 0); i >= 0; i = indices.nextSetBit( i + 1))
+			summary.append( summary.charAt( summary.length() - 1) == '[' ? "" : ",").append( i);
+		summary.append( "]");
+	}
+}
@@ -0,0 +1,116 @@
+package mapmaker.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import mapmaker.io.Json;
+import mapmaker.io.MapCodecs;
+import mapmaker.model.RoomRecord;
+import mapmaker.sync.SyncServer;
+
+/**
+ * <p>
+ * headless command line entry point running a {@link SyncServer} so several editors on same machine, or same
+ * network when bound to another address, can edit one map together. a JSON line with address and rooms is written
+ * to standard output once it listens, it then runs until killed and writes shared map to --save when it stops.</br>
+ * </p>
+ * <pre>
+ * java -cp bin mapmaker.cli.MapServer [--port N] [--bind ADDRESS] [--save FILE] [map file]
+ *
+ * options:
+ *   --port   port to listen on, default 47113, 0 for any free port
+ *   --bind   address to listen on, default loopback so only this machine can connect
+ *   --save   file shared map is written to on exit, in format of its extension
+ * </pre>
+ * map file is read as first state of shared map, map starts empty without it. exit code is 1 when a file cannot be
+ * read or port cannot be opened and 2 for wrong usage.</br>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapServer{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private MapServer(){
+	}
+
+	public static void main( String[] args){
+		System.exit( run( args, System.out, System.err));
+	}
+
+	/**
+	 * @param args - command line arguments
+	 * @param stdout - where summary is written
+	 * @param stderr - where usage and errors are written
+	 * @return exit code
+	 */
+	static int run( String[] args, PrintStream stdout, PrintStream stderr){
+		int port = SyncServer.DEFAULT_PORT;
+		String bind = null;
+		Path save = null;
+		Path input = null;
+		try{
+			for( int i = 0; i < args.length; i++){
+				if( "--port".equals( args[i]) && i + 1 < args.length)
+					port = Integer.parseInt( args[++i]);
+				else if( "--bind".equals( args[i]) && i + 1 < args.length)
+					bind = args[++i];
+				else if( "--save".equals( args[i]) && i + 1 < args.length)
+					save = Paths.get( args[++i]);
+				else if( args[i].startsWith( "--") || input != null){
+					stderr.println( "unknown argument \"" + args[i] + "\"");
+					usage( stderr);
+					return 2;
+				}else
+					input = Paths.get( args[i]);
+			}
+		}catch( NumberFormatException e){
+			stderr.println( "port is not a number, " + e.getMessage());
+			usage( stderr);
+			return 2;
+		}
+		SyncServer server;
+		try{
+			List< RoomRecord> initial = input == null ? Collections.emptyList() : MapCodecs.forPath( input).readAll( input);
+			InetAddress address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName( bind);
+			server = new SyncServer( address, port, initial);
+			server.start();
+			stdout.println( "{\"address\":" + Json.quote( address.getHostAddress()) + ",\"port\":" + server.getPort() +
+					",\"rooms\":" + initial.size() + "}");
+		}catch( IOException | RuntimeException e){
+			stderr.println( e.getMessage());
+			return 1;
+		}
+		Path target = save;
+		Runtime.getRuntime().addShutdownHook( new Thread( () -> {
+			try{
+				server.close();
+				if( target != null)
+					MapCodecs.forPath( target).writeAll( target, server.getRecords());
+				stdout.println( "{\"version\":" + server.getVersion() + ",\"rooms\":" + server.getRecords().size() +
+						",\"bytesSent\":" + server.getBytesSent() + (target == null ? "" : ",\"output\":" +
+						Json.quote( target.toString())) + "}");
+			}catch( IOException e){
+				stderr.println( e.getMessage());
+			}
+		}, "sync-save"));
+		try{
+			server.awaitClose();
+		}catch( InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		return 0;
+	}
+
+	private static void usage( PrintStream stderr){
+		stderr.println( "usage: MapServer [--port N] [--bind ADDRESS] [--save FILE] [map file]");
+	}
+}
@@ -0,0 +1,47 @@
+package mapmaker.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.imageio.ImageIO;
+
+import mapmaker.render.IconSheet;
+
+/**
+ * <p>
+ * headless command line entry point packing icons into atlas of {@link IconSheet}. separate icons live in
+ * <code>icons</code> next to <code>resources</code>, they are only input of this command and are not shipped, the
+ * application only reads atlas.</br>
+ * </p>
+ * <pre>
+ * java -cp bin mapmaker.cli.PackIcons [icons directory, default icons] [atlas, default resources/icons/atlas.png]
+ * </pre>
+ * exit code is 0 when atlas was written and 1 otherwise.</br>
+ *
+ * @version Oct 19, 2026
+ */
+public final class PackIcons{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private PackIcons(){
+	}
+
+	public static void main( String[] args){
+		System.setProperty( "java.awt.headless", "true");
+		Path icons = Paths.get( args.length > 0 ? args[0] : "icons");
+		Path atlas = Paths.get( args.length > 1 ? args[1] : "resources/icons/" + IconSheet.ATLAS);
+		try{
+			if( !ImageIO.write( IconSheet.pack( icons), "png", atlas.toFile()))
+				throw new IOException( "no PNG writer");
+			System.err.println( "wrote " + atlas);
+		}catch( IOException e){
+			System.err.println( e.getMessage());
+			System.exit( 1);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package mapmaker.geom;
+
+/**
+ * <p>
+ * immutable 2D affine transform, x' = a * x + b * y + tx and y' = c * x + d * y + ty. created by static factories
+ * and combined with {@link #then(Affine)}, applied to many rooms at once by {@link PackedPolygons}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class Affine{
+
+	public static final Affine IDENTITY = new Affine( 1, 0, 0, 1, 0, 0);
+
+	private final double a, b, c, d, tx, ty;
+
+	private Affine( double a, double b, double c, double d, double tx, double ty){
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		this.d = d;
+		this.tx = tx;
+		this.ty = ty;
+	}
+
+	/**
+	 * @param deltaX - distance in x direction
+	 * @param deltaY - distance in y direction
+	 * @return transform moving every point by given distance
+	 */
+	public static Affine translate( double deltaX, double deltaY){
+		return new Affine( 1, 0, 0, 1, deltaX, deltaY);
+	}
+
+	/**
+	 * <p>
+	 * rotation around given center. on screen, where y grows down, a positive angle turns clockwise.</br>
+	 * </p>
+	 * @param degrees - angle of rotation
+	 * @param centerX - x of center
+	 * @param centerY - y of center
+	 * @return transform rotating every point around center
+	 */
+	public static Affine rotate( double degrees, double centerX, double centerY){
+		double radians = Math.toRadians( degrees);
+		double cos = Math.cos( radians), sin = Math.sin( radians);
+		// exact values for right angles, so rotating by 90 four times gives back same points
+		if( degrees % 90 == 0){
+			cos = Math.rint( cos);
+			sin = Math.rint( sin);
+		}
+		return new Affine( cos, -sin, sin, cos, centerX - cos * centerX + sin * centerY,
+				centerY - sin * centerX - cos * centerY);
+	}
+
+	/**
+	 * @param scaleX - factor in x direction, negative mirrors
+	 * @param scaleY - factor in y direction, negative mirrors
+	 * @param centerX - x of point which stays in place
+	 * @param centerY - y of point which stays in place
+	 * @return transform scaling every point away from center
+	 */
+	public static Affine scale( double scaleX, double scaleY, double centerX, double centerY){
+		return new Affine( scaleX, 0, 0, scaleY, centerX - scaleX * centerX, centerY - scaleY * centerY);
+	}
+
+	/**
+	 * @param centerX - x of vertical line points are mirrored across
+	 * @return transform flipping every point left to right
+	 */
+	public static Affine mirrorHorizontal( double centerX){
+		return scale( -1, 1, centerX, 0);
+	}
+
+	/**
+	 * @param centerY - y of horizontal line points are mirrored across
+	 * @return transform flipping every point top to bottom
+	 */
+	public static Affine mirrorVertical( double centerY){
+		return scale( 1, -1, 0, centerY);
+	}
+
+	/**
+	 * @param next - transform applied after this one
+	 * @return transform same as applying this one then next
+	 */
+	public Affine then( Affine next){
+		return new Affine( next.a * a + next.b * c, next.a * b + next.b * d, next.c * a + next.d * c,
+				next.c * b + next.d * d, next.a * tx + next.b * ty + next.tx, next.c * tx + next.d * ty + next.ty);
+	}
+
+	/**
+	 * @return true if this transform only moves points, so shapes keep their size, angle and side
+	 */
+	public boolean isTranslation(){
+		return a == 1 && b == 0 && c == 0 && d == 1;
+	}
+
+	public double getA(){
+		return a;
+	}
+
+	public double getB(){
+		return b;
+	}
+
+	public double getC(){
+		return c;
+	}
+
+	public double getD(){
+		return d;
+	}
+
+	public double getTx(){
+		return tx;
+	}
+
+	public double getTy(){
+		return ty;
+	}
+
+	/**
+	 * @return new x of given point
+	 */
+	public double x( double x, double y){
+		return a * x + b * y + tx;
+	}
+
+	/**
+	 * @return new y of given point
+	 */
+	public double y( double x, double y){
+		return c * x + d * y + ty;
+	}
+
+	@Override
+	public String toString(){
+		return "Affine[" + a + ", " + b + ", " + tx + "; " + c + ", " + d + ", " + ty + "]";
+	}
+}
@@ -0,0 +1,191 @@
+package mapmaker.geom;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * points of many polygons packed into two arrays, all x in one and all y in other, so an {@link Affine} is applied
+ * to every point of every polygon by one flat loop. a loop over separate x and y arrays, with no calls and no
+ * branches inside, is what HotSpot's C2 compiler turns into SIMD instructions on its own, while x and y pairs in
+ * one array or points boxed in {@link Double}s are not.</br>
+ * large batches are cut into chunks of {@value #CHUNK} points and transformed in parallel on the common
+ * fork-join pool. every point is computed by same expression in both paths, so results are bit for bit same.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class PackedPolygons{
+
+	/**
+	 * <p>
+	 * points in one parallel task, big enough that splitting costs much less than transforming.</br>
+	 * </p>
+	 */
+	public static final int CHUNK = 1 << 14;
+	/**
+	 * <p>
+	 * fewest points {@link #transform(Affine)} splits across cores.</br>
+	 * </p>
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	private double[] xs;
+	private double[] ys;
+	/**
+	 * <p>
+	 * index of first point of each polygon, one more entry holds end of last polygon.</br>
+	 * </p>
+	 */
+	private int[] starts;
+	private int polygons;
+
+	/**
+	 * @param polygons - expected number of polygons
+	 * @param points - expected number of points of all polygons
+	 */
+	public PackedPolygons( int polygons, int points){
+		xs = new double[Math.max( 16, points)];
+		ys = new double[xs.length];
+		starts = new int[Math.max( 16, polygons + 1)];
+	}
+
+	/**
+	 * <p>
+	 * add a polygon stored as x and y pairs.</br>
+	 * </p>
+	 * @param points - x and y pairs
+	 * @return index of polygon
+	 */
+	public int add( double[] points){
+		int polygon = add( points.length / 2);
+		int start = starts[polygon];
+		for( int i = 0; i < points.length / 2; i++){
+			xs[start + i] = points[i * 2];
+			ys[start + i] = points[i * 2 + 1];
+		}
+		return polygon;
+	}
+
+	/**
+	 * <p>
+	 * add a polygon whose points are to be set with {@link #set(int, double, double)}.</br>
+	 * </p>
+	 * @param count - number of points
+	 * @return index of polygon
+	 */
+	public int add( int count){
+		if( polygons + 2 > starts.length)
+			starts = Arrays.copyOf( starts, starts.length * 2);
+		int end = starts[polygons] + count;
+		if( end > xs.length){
+			xs = Arrays.copyOf( xs, Math.max( end, xs.length * 2));
+			ys = Arrays.copyOf( ys, xs.length);
+		}
+		starts[polygons + 1] = end;
+		return polygons++;
+	}
+
+	/**
+	 * @param point - index of point in whole batch, see {@link #start(int)}
+	 */
+	public void set( int point, double x, double y){
+		xs[point] = x;
+		ys[point] = y;
+	}
+
+	public double getX( int point){
+		return xs[point];
+	}
+
+	public double getY( int point){
+		return ys[point];
+	}
+
+	/**
+	 * @return index of first point of given polygon
+	 */
+	public int start( int polygon){
+		return starts[polygon];
+	}
+
+	/**
+	 * @return index after last point of given polygon
+	 */
+	public int end( int polygon){
+		return starts[polygon + 1];
+	}
+
+	public int getPolygonCount(){
+		return polygons;
+	}
+
+	public int getPointCount(){
+		return starts[polygons];
+	}
+
+	/**
+	 * @param polygon - index of polygon
+	 * @return new array of x and y pairs of given polygon
+	 */
+	public double[] toArray( int polygon){
+		int start = starts[polygon];
+		double[] points = new double[(starts[polygon + 1] - start) * 2];
+		for( int i = 0; i < points.length / 2; i++){
+			points[i * 2] = xs[start + i];
+			points[i * 2 + 1] = ys[start + i];
+		}
+		return points;
+	}
+
+	/**
+	 * <p>
+	 * transform every point, in parallel when there are at least {@value #PARALLEL_THRESHOLD} of them and more
+	 * than one core to run them on.</br>
+	 * </p>
+	 * @param transform - transform to apply
+	 */
+	public void transform( Affine transform){
+		if( getPointCount() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1)
+			transformParallel( transform);
+		else
+			transformSequential( transform);
+	}
+
+	/**
+	 * <p>
+	 * transform every point on calling thread.</br>
+	 * </p>
+	 */
+	public void transformSequential( Affine transform){
+		transform( transform, xs, ys, 0, getPointCount());
+	}
+
+	/**
+	 * <p>
+	 * transform every point in chunks of {@value #CHUNK} on common fork-join pool.</br>
+	 * </p>
+	 */
+	public void transformParallel( Affine transform){
+		int count = getPointCount();
+		IntStream.range( 0, (count + CHUNK - 1) / CHUNK).parallel()
+				.forEach( chunk -> transform( transform, xs, ys, chunk * CHUNK, Math.min( count, chunk * CHUNK + CHUNK)));
+	}
+
+	/**
+	 * <p>
+	 * kernel of both paths. coefficients are copied to locals and loop body is straight arithmetic so C2 can
+	 * vectorize it.</br>
+	 * </p>
+	 */
+	private static void transform( Affine transform, double[] xs, double[] ys, int from, int to){
+		double a = transform.getA(), b = transform.getB(), tx = transform.getTx();
+		double c = transform.getC(), d = transform.getD(), ty = transform.getTy();
+		for( int i = from; i < to; i++){
+			double x = xs[i], y = ys[i];
+			xs[i] = a * x + b * y + tx;
+			ys[i] = c * x + d * y + ty;
+		}
+	}
+}
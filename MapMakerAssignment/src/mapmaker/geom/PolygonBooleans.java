@@ -0,0 +1,395 @@
+package mapmaker.geom;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * union, intersection and difference of polygons stored as x and y pairs, same layout as {@link Polygons}.</br>
+ * clipping is done by {@link Area}, which is part of the standard library and handles overlapping, touching and
+ * shared edges exactly. to make shared edges of rooms really shared, every coordinate is snapped to a grid, by
+ * default {@value #DEFAULT_GRID} pixels, before and after clipping. results are simple outlines, a result with a
+ * hole is joined to its outline by a zero width bridge so it can still be drawn by one
+ * {@link javafx.scene.shape.Polygon}. collinear and repeated points are removed from results.</br>
+ * merging many polygons is done as a balanced tree of unions, each level of the tree in parallel, so every union
+ * works on two outlines of similar size instead of adding each room to one ever growing outline.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class PolygonBooleans{
+
+	public static final double DEFAULT_GRID = 1e-6;
+
+	private final double grid;
+	/**
+	 * <p>
+	 * inverse of grid, dividing by it instead of multiplying by grid gives the closest double to a decimal
+	 * grid point, for example 0.3 instead of 0.30000000000000004.</br>
+	 * </p>
+	 */
+	private final double scale;
+
+	public PolygonBooleans(){
+		this( DEFAULT_GRID);
+	}
+
+	/**
+	 * @param grid - coordinates are rounded to multiples of this, must be positive
+	 */
+	public PolygonBooleans( double grid){
+		if( !(grid > 0))
+			throw new IllegalArgumentException( "grid must be positive, was " + grid);
+		this.grid = grid;
+		this.scale = 1 / grid;
+	}
+
+	/**
+	 * @param a - first polygon
+	 * @param b - second polygon
+	 * @return outlines covered by a or b
+	 */
+	public List< double[]> union( double[] a, double[] b){
+		Area area = toArea( a);
+		area.add( toArea( b));
+		return toPolygons( area);
+	}
+
+	/**
+	 * <p>
+	 * merge all given polygons using a balanced tree of unions.</br>
+	 * </p>
+	 * @param polygons - polygons to be merged
+	 * @return outlines covered by any polygon
+	 */
+	public List< double[]> union( List< double[]> polygons){
+		return toPolygons( unionArea( polygons));
+	}
+
+	/**
+	 * @param a - first polygon
+	 * @param b - second polygon
+	 * @return outlines covered by both a and b
+	 */
+	public List< double[]> intersection( double[] a, double[] b){
+		Area area = toArea( a);
+		area.intersect( toArea( b));
+		return toPolygons( area);
+	}
+
+	/**
+	 * @param polygons - polygons to be intersected
+	 * @return outlines covered by every polygon
+	 */
+	public List< double[]> intersection( List< double[]> polygons){
+		if( polygons.isEmpty())
+			return new ArrayList<>();
+		Area area = toArea( polygons.get( 0));
+		for( int i = 1; i < polygons.size() && !area.isEmpty(); i++)
+			area.intersect( toArea( polygons.get( i)));
+		return toPolygons( area);
+	}
+
+	/**
+	 * @param a - polygon to be cut
+	 * @param b - polygon to cut with
+	 * @return outlines covered by a and not by b
+	 */
+	public List< double[]> difference( double[] a, double[] b){
+		Area area = toArea( a);
+		area.subtract( toArea( b));
+		return toPolygons( area);
+	}
+
+	/**
+	 * @param a - polygon to be cut
+	 * @param cutters - polygons to cut with, merged first
+	 * @return outlines covered by a and by none of cutters
+	 */
+	public List< double[]> difference( double[] a, List< double[]> cutters){
+		Area area = toArea( a);
+		area.subtract( unionArea( cutters));
+		return toPolygons( area);
+	}
+
+	private Area unionArea( List< double[]> polygons){
+		Area[] level = new Area[polygons.size()];
+		IntStream.range( 0, level.length).parallel().forEach( i -> level[i] = toArea( polygons.get( i)));
+		int size = level.length;
+		while( size > 1){
+			int half = size / 2;
+			int next = size - half;
+			// pairs of one level do not share any area so they are merged in parallel
+			IntStream.range( 0, half).parallel().forEach( i -> level[i].add( level[i + next]));
+			size = next;
+		}
+		return size == 0 ? new Area() : level[0];
+	}
+
+	/**
+	 * <p>
+	 * create an area of one polygon with coordinates snapped to grid.</br>
+	 * </p>
+	 * @param points - x and y pairs
+	 * @return new area, empty if polygon has less than 3 points
+	 */
+	public Area toArea( double[] points){
+		if( points.length < 6)
+			return new Area();
+		Path2D.Double path = new Path2D.Double( Path2D.WIND_NON_ZERO, points.length / 2);
+		path.moveTo( snap( points[0]), snap( points[1]));
+		for( int i = 2; i < points.length; i += 2)
+			path.lineTo( snap( points[i]), snap( points[i + 1]));
+		path.closePath();
+		return new Area( path);
+	}
+
+	/**
+	 * <p>
+	 * convert an area to simple outlines. every hole is bridged into outline containing it.</br>
+	 * </p>
+	 * @param area - area made of straight lines
+	 * @return one array of x and y pairs for each separate part of area
+	 */
+	public List< double[]> toPolygons( Area area){
+		List< double[]> rings = new ArrayList<>();
+		double[] segment = new double[6];
+		double[] ring = new double[16];
+		int length = 0;
+		for( PathIterator it = area.getPathIterator( null); !it.isDone(); it.next()){
+			switch( it.currentSegment( segment)){
+				case PathIterator.SEG_MOVETO:
+					addRing( rings, ring, length);
+					length = 0;
+					ring = append( ring, length, segment);
+					length += 2;
+					break;
+				case PathIterator.SEG_LINETO:
+					ring = append( ring, length, segment);
+					length += 2;
+					break;
+				case PathIterator.SEG_CLOSE:
+					addRing( rings, ring, length);
+					length = 0;
+					break;
+				default:
+					throw new IllegalArgumentException( "only straight lines are supported");
+			}
+		}
+		addRing( rings, ring, length);
+		if( rings.isEmpty())
+			return rings;
+		// largest ring is always an outline, holes have opposite orientation
+		double outerSign = Math.signum( Polygons.signedArea(
+				rings.stream().max( Comparator.comparingDouble( Polygons::area)).get()));
+		List< double[]> outers = new ArrayList<>();
+		List< double[]> holes = new ArrayList<>();
+		for( double[] r: rings)
+			(Math.signum( Polygons.signedArea( r)) == outerSign ? outers : holes).add( r);
+		return bridge( outers, holes);
+	}
+
+	/**
+	 * <p>
+	 * put snapped end point of a segment at given length of ring, growing ring if it is full.</br>
+	 * </p>
+	 * @return ring holding the point, a new array if it grew
+	 */
+	private double[] append( double[] ring, int length, double[] segment){
+		if( length + 2 > ring.length)
+			ring = Arrays.copyOf( ring, ring.length * 2);
+		ring[length] = snap( segment[0]);
+		ring[length + 1] = snap( segment[1]);
+		return ring;
+	}
+
+	/**
+	 * <p>
+	 * remove repeated and collinear points and add ring to list if anything is left of it.</br>
+	 * </p>
+	 */
+	private void addRing( List< double[]> rings, double[] ring, int length){
+		double[] clean = new double[length];
+		int n = 0;
+		for( int i = 0; i < length; i += 2){
+			if( n >= 2 && clean[n - 2] == ring[i] && clean[n - 1] == ring[i + 1])
+				continue;
+			clean[n++] = ring[i];
+			clean[n++] = ring[i + 1];
+		}
+		// closing point equal to first one
+		while( n >= 4 && clean[n - 2] == clean[0] && clean[n - 1] == clean[1])
+			n -= 2;
+		boolean removed = true;
+		while( removed && n >= 6){
+			removed = false;
+			for( int i = 0; i < n && n >= 6; i += 2){
+				int prev = (i - 2 + n) % n, next = (i + 2) % n;
+				if( collinear( clean[prev], clean[prev + 1], clean[i], clean[i + 1], clean[next], clean[next + 1])){
+					System.arraycopy( clean, i + 2, clean, i, n - i - 2);
+					n -= 2;
+					removed = true;
+					i -= 2;
+				}
+			}
+		}
+		if( n >= 6 && Polygons.area( Arrays.copyOf( clean, n)) > grid * grid)
+			rings.add( Arrays.copyOf( clean, n));
+	}
+
+	private boolean collinear( double ax, double ay, double bx, double by, double cx, double cy){
+		double cross = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+		// distance of b from line a c is within half a grid step
+		double length = Math.hypot( cx - ax, cy - ay);
+		return Math.abs( cross) <= grid * 0.5 * Math.max( length, grid);
+	}
+
+	/**
+	 * <p>
+	 * join every hole to the outline containing it. holes are joined rightmost first, from their rightmost point to
+	 * the closest point of outline that can be reached without crossing any edge.</br>
+	 * </p>
+	 */
+	private List< double[]> bridge( List< double[]> outers, List< double[]> holes){
+		if( holes.isEmpty())
+			return outers;
+		List< List< double[]>> holesOf = new ArrayList<>();
+		for( int i = 0; i < outers.size(); i++)
+			holesOf.add( new ArrayList<>());
+		for( double[] hole: holes){
+			int owner = -1;
+			double ownerArea = Double.POSITIVE_INFINITY;
+			for( int i = 0; i < outers.size(); i++){
+				double area = Polygons.area( outers.get( i));
+				if( area < ownerArea && containsAny( outers.get( i), hole)){
+					owner = i;
+					ownerArea = area;
+				}
+			}
+			if( owner >= 0)
+				holesOf.get( owner).add( hole);
+		}
+		List< double[]> result = new ArrayList<>( outers.size());
+		for( int i = 0; i < outers.size(); i++){
+			List< double[]> pending = holesOf.get( i);
+			pending.sort( Comparator.comparingDouble( h -> -h[maxXIndex( h)]));
+			double[] outer = outers.get( i);
+			while( !pending.isEmpty())
+				outer = join( outer, pending.remove( 0), pending);
+			result.add( outer);
+		}
+		return result;
+	}
+
+	private double[] join( double[] outer, double[] hole, List< double[]> others){
+		int m = maxXIndex( hole);
+		double mx = hole[m], my = hole[m + 1];
+		Integer[] order = new Integer[outer.length / 2];
+		for( int i = 0; i < order.length; i++)
+			order[i] = i * 2;
+		Arrays.sort( order, Comparator.comparingDouble( v -> distance2( outer[v], outer[v + 1], mx, my)));
+		int target = order[0];
+		for( int v: order){
+			if( visible( mx, my, outer[v], outer[v + 1], outer, v, hole, m, others)){
+				target = v;
+				break;
+			}
+		}
+		// outer up to target, hole starting and ending at m, back to target, rest of outer
+		double[] joined = new double[outer.length + hole.length + 4];
+		int n = 0;
+		System.arraycopy( outer, 0, joined, n, target + 2);
+		n += target + 2;
+		System.arraycopy( hole, m, joined, n, hole.length - m);
+		n += hole.length - m;
+		System.arraycopy( hole, 0, joined, n, m + 2);
+		n += m + 2;
+		joined[n++] = outer[target];
+		joined[n++] = outer[target + 1];
+		System.arraycopy( outer, target + 2, joined, n, outer.length - target - 2);
+		return joined;
+	}
+
+	private boolean visible( double ax, double ay, double bx, double by, double[] outer, int b, double[] hole, int a,
+			List< double[]> others){
+		if( crossesAny( ax, ay, bx, by, outer, b) || crossesAny( ax, ay, bx, by, hole, a))
+			return false;
+		for( double[] other: others)
+			if( crossesAny( ax, ay, bx, by, other, -1))
+				return false;
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * check if segment a b crosses any edge of ring other than edges touching given point of ring.</br>
+	 * </p>
+	 */
+	private boolean crossesAny( double ax, double ay, double bx, double by, double[] ring, int skip){
+		for( int i = 0; i < ring.length; i += 2){
+			int j = (i + 2) % ring.length;
+			if( i == skip || j == skip)
+				continue;
+			if( properlyCross( ax, ay, bx, by, ring[i], ring[i + 1], ring[j], ring[j + 1]))
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean properlyCross( double ax, double ay, double bx, double by, double cx, double cy, double dx,
+			double dy){
+		double d1 = orient( cx, cy, dx, dy, ax, ay);
+		double d2 = orient( cx, cy, dx, dy, bx, by);
+		double d3 = orient( ax, ay, bx, by, cx, cy);
+		double d4 = orient( ax, ay, bx, by, dx, dy);
+		return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+	}
+
+	private static double orient( double ax, double ay, double bx, double by, double cx, double cy){
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	private static boolean containsAny( double[] ring, double[] points){
+		for( int i = 0; i < points.length; i += 2)
+			if( contains( ring, points[i], points[i + 1]))
+				return true;
+		return false;
+	}
+
+	/**
+	 * <p>
+	 * even odd point in polygon test.</br>
+	 * </p>
+	 */
+	private static boolean contains( double[] ring, double x, double y){
+		boolean inside = false;
+		for( int i = 0, j = ring.length - 2; i < ring.length; j = i, i += 2){
+			if( (ring[i + 1] > y) != (ring[j + 1] > y)
+					&& x < (ring[j] - ring[i]) * (y - ring[i + 1]) / (ring[j + 1] - ring[i + 1]) + ring[i])
+				inside = !inside;
+		}
+		return inside;
+	}
+
+	private static int maxXIndex( double[] ring){
+		int best = 0;
+		for( int i = 2; i < ring.length; i += 2)
+			if( ring[i] > ring[best])
+				best = i;
+		return best;
+	}
+
+	private static double distance2( double ax, double ay, double bx, double by){
+		return (ax - bx) * (ax - bx) + (ay - by) * (ay - by);
+	}
+
+	private double snap( double value){
+		return Math.rint( value * scale) / scale;
+	}
+}
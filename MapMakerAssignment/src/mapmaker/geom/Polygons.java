@@ -0,0 +1,321 @@
+package mapmaker.geom;
+
+/**
+ * <p>
+ * static helper functions for polygons stored as x and y pairs in one array, same as
+ * {@link javafx.scene.shape.Polygon#getPoints()}. polygon is always treated as closed.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class Polygons{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private Polygons(){
+	}
+
+	/**
+	 * <p>
+	 * signed area using the shoelace formula. positive when points are counter clockwise in a y up system,
+	 * which is clockwise on screen.</br>
+	 * </p>
+	 * @see <a href="https://en.wikipedia.org/wiki/Shoelace_formula">Shoelace formula</a>
+	 * @param points - x and y pairs
+	 * @return signed area
+	 */
+	public static double signedArea( double[] points){
+		return signedArea( points, 0, points.length);
+	}
+
+	/**
+	 * <p>
+	 * signed area of a polygon stored in part of an array.</br>
+	 * </p>
+	 * @param points - array holding x and y pairs
+	 * @param offset - index of first x
+	 * @param length - number of coordinates, twice the number of points
+	 * @return signed area
+	 */
+	public static double signedArea( double[] points, int offset, int length){
+		if( length < 6)
+			return 0;
+		double sum = 0;
+		double px = points[offset + length - 2];
+		double py = points[offset + length - 1];
+		for( int i = offset; i < offset + length; i += 2){
+			sum += px * points[i + 1] - points[i] * py;
+			px = points[i];
+			py = points[i + 1];
+		}
+		return sum / 2;
+	}
+
+	/**
+	 * @param points - x and y pairs
+	 * @return absolute area
+	 */
+	public static double area( double[] points){
+		return Math.abs( signedArea( points));
+	}
+
+	/**
+	 * <p>
+	 * length of all edges including the closing edge. a polygon of 2 points( a line) counts its edge twice,
+	 * just like its outline is drawn.</br>
+	 * </p>
+	 * @param points - x and y pairs
+	 * @return perimeter
+	 */
+	public static double perimeter( double[] points){
+		return perimeter( points, 0, points.length);
+	}
+
+	/**
+	 * @param points - array holding x and y pairs
+	 * @param offset - index of first x
+	 * @param length - number of coordinates, twice the number of points
+	 * @return perimeter
+	 */
+	public static double perimeter( double[] points, int offset, int length){
+		if( length < 4)
+			return 0;
+		double sum = 0;
+		double px = points[offset + length - 2];
+		double py = points[offset + length - 1];
+		for( int i = offset; i < offset + length; i += 2){
+			sum += Math.hypot( points[i] - px, points[i + 1] - py);
+			px = points[i];
+			py = points[i + 1];
+		}
+		return sum;
+	}
+
+	/**
+	 * <p>
+	 * generate points of a regular polygon using the same parametric equations as
+	 * {@link mapmaker.PolyShapeSkeleton2}, so a room drawn by it can be regenerated from its parameters.</br>
+	 * </p>
+	 * @param cx - x of center
+	 * @param cy - y of center
+	 * @param radius - radius of the circle encapsulating the points
+	 * @param angle - radian angle of first point
+	 * @param sides - number of points
+	 * @return new array of x and y pairs
+	 */
+	public static double[] regular( double cx, double cy, double radius, double angle, int sides){
+		double[] points = new double[sides * 2];
+		for( int side = 0; side < sides; side++){
+			points[side * 2] = radius * Math.cos( angle + side * 2.0 * Math.PI / sides) + cx;
+			points[side * 2 + 1] = radius * Math.sin( angle + side * 2.0 * Math.PI / sides) + cy;
+		}
+		return points;
+	}
+
+	/**
+	 * <p>
+	 * bounding box of points as {minX, minY, maxX, maxY}. empty polygon returns NaN values.</br>
+	 * </p>
+	 * @param points - x and y pairs
+	 * @return new array with 4 values
+	 */
+	public static double[] bounds( double[] points){
+		double[] bounds = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+		for( int i = 0; i < points.length; i += 2)
+			include( bounds, points[i], points[i + 1]);
+		return bounds;
+	}
+
+	/**
+	 * <p>
+	 * grow given bounds {minX, minY, maxX, maxY} to contain given point.
+	 * bounds holding NaN are treated as empty.</br>
+	 * </p>
+	 * @param bounds - array with 4 values to be updated
+	 * @param x - x of point
+	 * @param y - y of point
+	 */
+	public static void include( double[] bounds, double x, double y){
+		if( Double.isNaN( bounds[0])){
+			bounds[0] = bounds[2] = x;
+			bounds[1] = bounds[3] = y;
+			return;
+		}
+		bounds[0] = Math.min( bounds[0], x);
+		bounds[1] = Math.min( bounds[1], y);
+		bounds[2] = Math.max( bounds[2], x);
+		bounds[3] = Math.max( bounds[3], y);
+	}
+
+	/**
+	 * <p>
+	 * check if a point is inside polygon using even odd rule, a ray is cast to the right and its crossings with
+	 * edges are counted.</br>
+	 * </p>
+	 * @see <a href="https://wrfranklin.org/Research/Short_Notes/pnpoly.html">PNPOLY</a>
+	 * @param points - x and y pairs
+	 * @param x - x of point
+	 * @param y - y of point
+	 * @return true if point is inside
+	 */
+	public static boolean contains( double[] points, double x, double y){
+		boolean inside = false;
+		for( int i = 0, j = points.length - 2; i < points.length; j = i, i += 2){
+			double xi = points[i], yi = points[i + 1], xj = points[j], yj = points[j + 1];
+			if( (yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi)
+				inside = !inside;
+		}
+		return inside;
+	}
+
+	/**
+	 * <p>
+	 * check if a polygon comes within given distance of a segment, in other words if it intersects the capsule
+	 * swept by a circle moved along the segment. true when segment starts inside polygon or an edge of polygon is
+	 * close enough to segment, two segments are as close as their crossing or their closest end point.</br>
+	 * </p>
+	 * @param points - x and y pairs
+	 * @param ax - x of start of segment
+	 * @param ay - y of start of segment
+	 * @param bx - x of end of segment, same as start for a circle
+	 * @param by - y of end of segment, same as start for a circle
+	 * @param radius - radius of capsule
+	 * @return true if polygon and capsule intersect
+	 */
+	public static boolean nearSegment( double[] points, double ax, double ay, double bx, double by, double radius){
+		if( points.length < 2)
+			return false;
+		if( contains( points, ax, ay))
+			return true;
+		double limit = radius * radius;
+		for( int i = 0, j = points.length - 2; i < points.length; j = i, i += 2){
+			double cx = points[j], cy = points[j + 1], dx = points[i], dy = points[i + 1];
+			if( crosses( ax, ay, bx, by, cx, cy, dx, dy) || distance( ax, ay, cx, cy, dx, dy) <= limit
+					|| distance( bx, by, cx, cy, dx, dy) <= limit || distance( cx, cy, ax, ay, bx, by) <= limit
+					|| distance( dx, dy, ax, ay, bx, by) <= limit)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if segment ab and segment cd cross, touching counts as crossing
+	 */
+	private static boolean crosses( double ax, double ay, double bx, double by, double cx, double cy, double dx,
+			double dy){
+		double d1 = cross( cx, cy, dx, dy, ax, ay), d2 = cross( cx, cy, dx, dy, bx, by);
+		double d3 = cross( ax, ay, bx, by, cx, cy), d4 = cross( ax, ay, bx, by, dx, dy);
+		// collinear segments are found by distance of their end points instead
+		return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+	}
+
+	private static double cross( double ax, double ay, double bx, double by, double px, double py){
+		return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+	}
+
+	/**
+	 * <p>
+	 * simplify a closed polygon with the Douglas Peucker algorithm, points closer than tolerance to the outline
+	 * of points kept are dropped. ring is split at its first point and the point farthest from it, each half is
+	 * simplified alone and at least 3 points are kept.</br>
+	 * </p>
+	 * @see <a href="https://en.wikipedia.org/wiki/Ramer%E2%80%93Douglas%E2%80%93Peucker_algorithm">Ramer Douglas
+	 *      Peucker algorithm</a>
+	 * @param points - x and y pairs
+	 * @param tolerance - largest distance of a dropped point from simplified outline
+	 * @return simplified x and y pairs, given array if no point is dropped
+	 */
+	public static double[] simplify( double[] points, double tolerance){
+		int count = points.length / 2;
+		if( count <= 3)
+			return points;
+		int far = 0;
+		double farthest = -1;
+		for( int i = 1; i < count; i++){
+			double dx = points[i * 2] - points[0], dy = points[i * 2 + 1] - points[1];
+			if( dx * dx + dy * dy > farthest){
+				farthest = dx * dx + dy * dy;
+				far = i;
+			}
+		}
+		boolean[] keep = new boolean[count + 1];
+		keep[0] = keep[far] = keep[count] = true;
+		simplify( points, 0, far, tolerance * tolerance, keep);
+		simplify( points, far, count, tolerance * tolerance, keep);
+		int kept = 0;
+		for( int i = 0; i < count; i++)
+			if( keep[i])
+				kept++;
+		if( kept == count)
+			return points;
+		if( kept < 3){
+			// a sliver whose points all lie near one line, keep the point farthest from it too
+			int third = -1;
+			double best = -1;
+			for( int i = 1; i < count; i++){
+				double distance = segmentDistance( points, i, 0, far);
+				if( i != far && distance > best){
+					best = distance;
+					third = i;
+				}
+			}
+			keep[third] = true;
+		}
+		double[] simplified = new double[Math.max( kept, 3) * 2];
+		for( int i = 0, j = 0; i < count; i++)
+			if( keep[i]){
+				simplified[j++] = points[i * 2];
+				simplified[j++] = points[i * 2 + 1];
+			}
+		return simplified;
+	}
+
+	/**
+	 * <p>
+	 * mark points to keep between first and last, both already kept. index count stands for point 0 again.</br>
+	 * </p>
+	 */
+	private static void simplify( double[] points, int first, int last, double tolerance, boolean[] keep){
+		if( last - first < 2)
+			return;
+		int far = -1;
+		double farthest = tolerance;
+		for( int i = first + 1; i < last; i++){
+			double distance = segmentDistance( points, i, first, last);
+			if( distance > farthest){
+				farthest = distance;
+				far = i;
+			}
+		}
+		if( far < 0)
+			return;
+		keep[far] = true;
+		simplify( points, first, far, tolerance, keep);
+		simplify( points, far, last, tolerance, keep);
+	}
+
+	/**
+	 * @return squared distance of point from segment between points a and b, indices wrap around
+	 */
+	private static double segmentDistance( double[] points, int point, int a, int b){
+		int count = points.length / 2;
+		a %= count;
+		b %= count;
+		return distance( points[point * 2], points[point * 2 + 1], points[a * 2], points[a * 2 + 1], points[b * 2],
+				points[b * 2 + 1]);
+	}
+
+	/**
+	 * @return squared distance of point p from segment ab
+	 */
+	private static double distance( double px, double py, double ax, double ay, double bx, double by){
+		double dx = bx - ax, dy = by - ay;
+		double length = dx * dx + dy * dy;
+		double t = length == 0 ? 0 : Math.max( 0, Math.min( 1, ((px - ax) * dx + (py - ay) * dy) / length));
+		double ex = ax + t * dx - px, ey = ay + t * dy - py;
+		return ex * ex + ey * ey;
+	}
+}
@@ -0,0 +1,124 @@
+package mapmaker.geom;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * <p>
+ * uniform grid of square cells over a rectangle, each cell holding indices of items whose bounds touch it.
+ * used to find items near a rectangle without testing every item.</br>
+ * items are added in increasing index order so each cell is sorted, and query results are {@link BitSet}s so
+ * they can be walked in the same order, which is paint order of rooms.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class SpatialGrid{
+
+	private final double minX, minY, cellSize;
+	private final int columns, rows;
+	private final int[][] cells;
+	private final int[] sizes;
+
+	/**
+	 * @param minX - left of grid
+	 * @param minY - top of grid
+	 * @param cellSize - width and height of one cell
+	 * @param columns - number of cells in x direction
+	 * @param rows - number of cells in y direction
+	 */
+	public SpatialGrid( double minX, double minY, double cellSize, int columns, int rows){
+		if( !(cellSize > 0) || columns < 1 || rows < 1)
+			throw new IllegalArgumentException( "grid needs a positive cell size and at least one cell");
+		this.minX = minX;
+		this.minY = minY;
+		this.cellSize = cellSize;
+		this.columns = columns;
+		this.rows = rows;
+		cells = new int[columns * rows][];
+		sizes = new int[columns * rows];
+	}
+
+	/**
+	 * <p>
+	 * create a grid over given bounds and add every item to it. cell size is chosen so there are about as many
+	 * cells as items.</br>
+	 * </p>
+	 * @param bounds - {minX, minY, maxX, maxY} of each item one after another, NaN for empty items
+	 * @return new grid
+	 */
+	public static SpatialGrid of( double[] bounds){
+		double[] all = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+		int count = bounds.length / 4;
+		for( int i = 0; i < count; i++){
+			if( !Double.isNaN( bounds[i * 4])){
+				Polygons.include( all, bounds[i * 4], bounds[i * 4 + 1]);
+				Polygons.include( all, bounds[i * 4 + 2], bounds[i * 4 + 3]);
+			}
+		}
+		if( Double.isNaN( all[0]))
+			return new SpatialGrid( 0, 0, 1, 1, 1);
+		double width = Math.max( all[2] - all[0], 1e-9);
+		double height = Math.max( all[3] - all[1], 1e-9);
+		double cellSize = Math.max( Math.sqrt( width * height / Math.max( count, 1)), 1e-9);
+		int columns = (int) Math.min( 4096, Math.ceil( width / cellSize) + 1);
+		int rows = (int) Math.min( 4096, Math.ceil( height / cellSize) + 1);
+		cellSize = Math.max( width / (columns - 0.5), height / (rows - 0.5));
+		SpatialGrid grid = new SpatialGrid( all[0], all[1], cellSize, columns, rows);
+		for( int i = 0; i < count; i++)
+			if( !Double.isNaN( bounds[i * 4]))
+				grid.add( i, bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+		return grid;
+	}
+
+	/**
+	 * <p>
+	 * add an item to every cell its bounds touch. items must be added in increasing index order.</br>
+	 * </p>
+	 */
+	public void add( int item, double minX, double minY, double maxX, double maxY){
+		int c0 = column( minX), c1 = column( maxX), r0 = row( minY), r1 = row( maxY);
+		for( int r = r0; r <= r1; r++){
+			for( int c = c0; c <= c1; c++){
+				int cell = r * columns + c;
+				if( cells[cell] == null)
+					cells[cell] = new int[4];
+				else if( sizes[cell] == cells[cell].length)
+					cells[cell] = Arrays.copyOf( cells[cell], sizes[cell] * 2);
+				cells[cell][sizes[cell]++] = item;
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * find items in cells touched by given rectangle. result may contain items whose bounds do not touch
+	 * rectangle but share a cell with it.</br>
+	 * </p>
+	 * @return indices of items
+	 */
+	public BitSet query( double minX, double minY, double maxX, double maxY){
+		BitSet found = new BitSet();
+		int c0 = column( minX), c1 = column( maxX), r0 = row( minY), r1 = row( maxY);
+		for( int r = r0; r <= r1; r++){
+			for( int c = c0; c <= c1; c++){
+				int cell = r * columns + c;
+				for( int i = 0; i < sizes[cell]; i++)
+					found.set( cells[cell][i]);
+			}
+		}
+		return found;
+	}
+
+	private int column( double x){
+		return clamp( (int) Math.floor( (x - minX) / cellSize), columns);
+	}
+
+	private int row( double y){
+		return clamp( (int) Math.floor( (y - minY) / cellSize), rows);
+	}
+
+	private static int clamp( int value, int count){
+		return value < 0 ? 0 : value >= count ? count - 1 : value;
+	}
+}
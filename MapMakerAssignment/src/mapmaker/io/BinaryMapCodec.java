@@ -0,0 +1,148 @@
+package mapmaker.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+import mapmaker.model.StylePalette;
+
+/**
+ * <p>
+ * lossless binary format of a map. it holds exactly the same information as {@link TextMapCodec}
+ * but skips all number parsing and formatting.</br>
+ * layout, all numbers in big endian as written by {@link DataOutputStream}:
+ * <ol>
+ * 	<li>header, 4 bytes {@value #MAGIC} and one byte version</li>
+ * 	<li>for each record a byte 1, sides as int, fill and stroke as rgb int plus opacity double,
+ * 		stroke width double, number of points as int followed by x and y doubles</li>
+ * 	<li>a byte 0 marking end of file</li>
+ * </ol>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class BinaryMapCodec implements MapCodec{
+
+	public static final String MAGIC = "MAPB";
+	private static final int VERSION = 1;
+	/**
+	 * <p>
+	 * most coordinates allocated for a record before any of them is read. larger records grow their array as
+	 * values arrive, so a broken point count ends as a truncated file instead of taking all memory.</br>
+	 * </p>
+	 */
+	private static final int FIRST_BLOCK = 1 << 12;
+
+	@Override
+	public String name(){
+		return "binary";
+	}
+
+	@Override
+	public String extension(){
+		return "mapb";
+	}
+
+	@Override
+	public void read( InputStream in, RecordSink sink) throws IOException{
+		DataInputStream data = new DataInputStream( in);
+		try{
+			byte[] magic = new byte[4];
+			data.readFully( magic);
+			if( !MAGIC.equals( new String( magic, "US-ASCII")))
+				throw new MapFormatException( "not a binary map, header is missing");
+			int version = data.readUnsignedByte();
+			if( version != VERSION)
+				throw new MapFormatException( "binary map version " + version + " is not supported");
+			// rooms with equal style share one instance
+			StylePalette palette = new StylePalette();
+			int index = 0;
+			while( data.readUnsignedByte() == 1){
+				try{
+					int sides = data.readInt();
+					MapColor fill = readColor( data);
+					MapColor stroke = readColor( data);
+					double width = data.readDouble();
+					int count = data.readInt();
+					if( count < 0)
+						throw new MapFormatException( "record " + index + ": negative point count " + count);
+					if( count > Integer.MAX_VALUE / 2)
+						throw new MapFormatException( "record " + index + ": point count " + count + " is too large");
+					double[] points = readPoints( data, count * 2);
+					sink.accept( new RoomRecord( sides, palette.canonical( new MapStyle( fill, stroke, width)), points));
+					index++;
+				}catch( IllegalArgumentException e){
+					throw new MapFormatException( "record " + index + ": " + e.getMessage(), e);
+				}
+			}
+		}catch( EOFException e){
+			throw new MapFormatException( "binary map is truncated", e);
+		}
+	}
+
+	/**
+	 * <p>
+	 * read given number of doubles, growing array by doubling from {@value #FIRST_BLOCK} so memory taken is never
+	 * more than twice what was actually read.</br>
+	 * </p>
+	 * @param data - stream positioned at first value
+	 * @param length - number of values
+	 * @return values read
+	 * @throws EOFException if stream ends before all values
+	 */
+	private double[] readPoints( DataInputStream data, int length) throws IOException{
+		double[] points = new double[Math.min( length, FIRST_BLOCK)];
+		for( int i = 0; i < length; i++){
+			if( i == points.length)
+				points = Arrays.copyOf( points, (int) Math.min( length, points.length * 2L));
+			points[i] = data.readDouble();
+		}
+		return points;
+	}
+
+	private MapColor readColor( DataInputStream data) throws IOException{
+		int rgb = data.readInt();
+		return new MapColor( rgb, data.readDouble());
+	}
+
+	@Override
+	public RecordWriter writer( OutputStream out) throws IOException{
+		DataOutputStream data = new DataOutputStream( out);
+		data.writeBytes( MAGIC);
+		data.writeByte( VERSION);
+		return new RecordWriter(){
+
+			@Override
+			public void accept( RoomRecord record) throws IOException{
+				data.writeByte( 1);
+				data.writeInt( record.getSides());
+				writeColor( data, record.getFill());
+				writeColor( data, record.getStroke());
+				data.writeDouble( record.getStrokeWidth());
+				data.writeInt( record.getPointCount());
+				for( int i = 0; i < record.getPointCount(); i++){
+					data.writeDouble( record.getX( i));
+					data.writeDouble( record.getY( i));
+				}
+			}
+
+			@Override
+			public void close() throws IOException{
+				data.writeByte( 0);
+				data.close();
+			}
+		};
+	}
+
+	private void writeColor( DataOutputStream data, MapColor color) throws IOException{
+		data.writeInt( color.getRGB());
+		data.writeDouble( color.getOpacity());
+	}
+}
@@ -0,0 +1,386 @@
+package mapmaker.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import mapmaker.geom.Polygons;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+import mapmaker.model.StylePalette;
+
+/**
+ * <p>
+ * compact, lossy binary format of a map. coordinates are quantized to fixed point at a configurable precision
+ * and each coordinate is stored as zig-zag varint of its difference to the previous one, so nearby vertices take
+ * one or two bytes instead of a full double. regular rooms that were never edited are stored by their center,
+ * radius and angle instead of their points. body can optionally be compressed with {@link Deflater}.</br>
+ * every decoded coordinate is within half of precision of the original one.</br>
+ * layout:
+ * <ol>
+ * 	<li>header, 4 bytes {@value #MAGIC}, one byte version, one byte flags and scale as double.
+ * 		scale is one over precision, a coordinate is stored as <code>round( value * scale)</code></li>
+ * 	<li>body, deflated if flag {@value #FLAG_DEFLATE} is set, holding a tag byte for each record.
+ * 		tag 0 ends the file, {@value #TAG_POLYGON} is a polygon and {@value #TAG_REGULAR} a regular room.
+ * 		if {@value #TAG_SAME_STYLE} is added to tag the record has the same colors and width as the one before</li>
+ * </ol>
+ * </p>
+ * @see <a href="https://developers.google.com/protocol-buffers/docs/encoding">varint and zig-zag encoding</a>
+ *
+ * @version Oct 19, 2026
+ */
+public class CompactMapCodec implements MapCodec{
+
+	public static final String MAGIC = "MAPZ";
+	private static final int VERSION = 1;
+	private static final int FLAG_DEFLATE = 1;
+
+	private static final int TAG_END = 0;
+	private static final int TAG_POLYGON = 1;
+	private static final int TAG_REGULAR = 2;
+	private static final int TAG_SAME_STYLE = 0x10;
+
+	/**
+	 * <p>
+	 * angle of regular rooms is quantized separately from coordinates to this many steps per radian.</br>
+	 * </p>
+	 */
+	private static final double ANGLE_SCALE = 1e7;
+
+	/**
+	 * <p>
+	 * number of coordinates a polygon is read into before its array grows, so a broken point count cannot
+	 * allocate more than twice what the file holds.</br>
+	 * </p>
+	 */
+	private static final int FIRST_BLOCK = 1 << 12;
+
+	/**
+	 * <p>
+	 * precision used when none is given, a thousandth of a pixel.</br>
+	 * </p>
+	 */
+	public static final double DEFAULT_PRECISION = 0.001;
+
+	private final double scale;
+	private final boolean deflate;
+
+	/**
+	 * <p>
+	 * create a codec with {@link #DEFAULT_PRECISION} and deflate on.</br>
+	 * </p>
+	 */
+	public CompactMapCodec(){
+		this( DEFAULT_PRECISION, true);
+	}
+
+	/**
+	 * <p>
+	 * create a codec writing with given precision. precision is only used for writing,
+	 * reading always uses the precision stored in the file.</br>
+	 * </p>
+	 * @param precision - size of one quantization step in pixels, for example 0.01
+	 * @param deflate - if true body of file is compressed using {@link Deflater}
+	 */
+	public CompactMapCodec( double precision, boolean deflate){
+		if( !(precision > 0) || Double.isInfinite( precision))
+			throw new IllegalArgumentException( "precision must be a positive number, was " + precision);
+		this.scale = 1 / precision;
+		this.deflate = deflate;
+	}
+
+	@Override
+	public String name(){
+		return "compact";
+	}
+
+	@Override
+	public String extension(){
+		return "mapz";
+	}
+
+	@Override
+	public void read( InputStream in, RecordSink sink) throws IOException{
+		DataInputStream header = new DataInputStream( in);
+		Inflater inflater = null;
+		try{
+			byte[] magic = new byte[4];
+			header.readFully( magic);
+			if( !MAGIC.equals( new String( magic, "US-ASCII")))
+				throw new MapFormatException( "not a compact map, header is missing");
+			int version = header.readUnsignedByte();
+			if( version != VERSION)
+				throw new MapFormatException( "compact map version " + version + " is not supported");
+			int flags = header.readUnsignedByte();
+			double fileScale = header.readDouble();
+			if( !(fileScale > 0) || Double.isInfinite( fileScale))
+				throw new MapFormatException( "compact map has invalid scale " + fileScale);
+			DataInputStream body = header;
+			if( (flags & FLAG_DEFLATE) != 0){
+				inflater = new Inflater();
+				body = new DataInputStream( new BufferedInputStream( new InflaterInputStream( in, inflater, 1 << 16), 1 << 16));
+			}
+			new Decoder( body, fileScale).readAll( sink);
+		}catch( EOFException e){
+			throw new MapFormatException( "compact map is truncated", e);
+		}finally{
+			if( inflater != null)
+				inflater.end();
+		}
+	}
+
+	@Override
+	public RecordWriter writer( OutputStream out) throws IOException{
+		DataOutputStream header = new DataOutputStream( out);
+		header.writeBytes( MAGIC);
+		header.writeByte( VERSION);
+		header.writeByte( deflate ? FLAG_DEFLATE : 0);
+		header.writeDouble( scale);
+		Deflater deflater = deflate ? new Deflater( Deflater.DEFAULT_COMPRESSION) : null;
+		DataOutputStream body = deflate
+				? new DataOutputStream( new BufferedOutputStream( new DeflaterOutputStream( out, deflater, 1 << 16), 1 << 16))
+				: header;
+		Encoder encoder = new Encoder( body, scale);
+		return new RecordWriter(){
+
+			@Override
+			public void accept( RoomRecord record) throws IOException{
+				encoder.write( record);
+			}
+
+			@Override
+			public void close() throws IOException{
+				try{
+					body.writeByte( TAG_END);
+					body.close();
+				}finally{
+					if( deflater != null)
+						deflater.end();
+				}
+			}
+		};
+	}
+
+	/**
+	 * <p>
+	 * write zig-zag varint of a signed value. small positive and negative values take fewer bytes.</br>
+	 * </p>
+	 */
+	static void writeSigned( DataOutputStream out, long value) throws IOException{
+		writeUnsigned( out, (value << 1) ^ (value >> 63));
+	}
+
+	static void writeUnsigned( DataOutputStream out, long value) throws IOException{
+		while( (value & ~0x7FL) != 0){
+			out.writeByte( (int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte( (int) value);
+	}
+
+	static long readSigned( DataInputStream in) throws IOException{
+		long value = readUnsigned( in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static long readUnsigned( DataInputStream in) throws IOException{
+		long value = 0;
+		for( int shift = 0; shift < 64; shift += 7){
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if( (b & 0x80) == 0)
+				return value;
+		}
+		throw new MapFormatException( "varint is longer than 64 bits");
+	}
+
+	/**
+	 * <p>
+	 * state shared while writing one file, last written position and style.</br>
+	 * </p>
+	 */
+	private static class Encoder{
+
+		private final DataOutputStream out;
+		private final double scale;
+		private long lastX, lastY;
+		private MapStyle lastStyle;
+
+		Encoder( DataOutputStream out, double scale){
+			this.out = out;
+			this.scale = scale;
+		}
+
+		void write( RoomRecord record) throws IOException{
+			boolean sameStyle = record.getStyle().equals( lastStyle);
+			double[] regular = regularParameters( record);
+			out.writeByte( (regular != null ? TAG_REGULAR : TAG_POLYGON) | (sameStyle ? TAG_SAME_STYLE : 0));
+			if( !sameStyle){
+				writeColor( record.getFill());
+				writeColor( record.getStroke());
+				out.writeDouble( record.getStrokeWidth());
+				lastStyle = record.getStyle();
+			}
+			writeUnsigned( out, record.getSides());
+			if( regular != null){
+				writeX( regular[0]);
+				writeY( regular[1]);
+				writeSigned( out, quantize( regular[2]));
+				writeSigned( out, Math.round( regular[3] * ANGLE_SCALE));
+				return;
+			}
+			writeUnsigned( out, record.getPointCount());
+			for( int i = 0; i < record.getPointCount(); i++){
+				writeX( record.getX( i));
+				writeY( record.getY( i));
+			}
+		}
+
+		private long quantize( double value){
+			return Math.round( value * scale);
+		}
+
+		private void writeX( double x) throws IOException{
+			long q = quantize( x);
+			writeSigned( out, q - lastX);
+			lastX = q;
+		}
+
+		private void writeY( double y) throws IOException{
+			long q = quantize( y);
+			writeSigned( out, q - lastY);
+			lastY = q;
+		}
+
+		private void writeColor( MapColor color) throws IOException{
+			out.writeByte( color.getRed());
+			out.writeByte( color.getGreen());
+			out.writeByte( color.getBlue());
+			out.writeDouble( color.getOpacity());
+		}
+
+		/**
+		 * <p>
+		 * check if record is a regular polygon, the way {@link mapmaker.PolyShapeSkeleton2} draws it before any
+		 * control point is moved. center is mean of all points, radius and angle come from first point.</br>
+		 * parameters are quantized the same way they will be stored and only accepted if every regenerated point
+		 * is within half of precision of the original point.</br>
+		 * </p>
+		 * @return {center x, center y, radius, angle} or null if record must be stored as polygon
+		 */
+		private double[] regularParameters( RoomRecord record){
+			int count = record.getPointCount();
+			if( count < 2 || count != record.getSides())
+				return null;
+			double cx = 0, cy = 0;
+			for( int i = 0; i < count; i++){
+				cx += record.getX( i);
+				cy += record.getY( i);
+			}
+			cx = quantize( cx / count) / scale;
+			cy = quantize( cy / count) / scale;
+			double radius = quantize( Math.hypot( record.getX( 0) - cx, record.getY( 0) - cy)) / scale;
+			double angle = Math.round( Math.atan2( record.getY( 0) - cy, record.getX( 0) - cx) * ANGLE_SCALE) / ANGLE_SCALE;
+			double[] points = Polygons.regular( cx, cy, radius, angle, count);
+			double tolerance = 0.5 / scale;
+			for( int i = 0; i < count; i++)
+				if( Math.abs( points[i * 2] - record.getX( i)) > tolerance
+						|| Math.abs( points[i * 2 + 1] - record.getY( i)) > tolerance)
+					return null;
+			return new double[]{ cx, cy, radius, angle };
+		}
+	}
+
+	/**
+	 * <p>
+	 * state shared while reading one file, last read position and style.</br>
+	 * </p>
+	 */
+	private static class Decoder{
+
+		private final DataInputStream in;
+		private final double scale;
+		private long lastX, lastY;
+		private MapStyle style;
+		private final StylePalette palette = new StylePalette();
+
+		Decoder( DataInputStream in, double scale){
+			this.in = in;
+			this.scale = scale;
+		}
+
+		void readAll( RecordSink sink) throws IOException{
+			int index = 0;
+			int tag;
+			while( (tag = in.readUnsignedByte()) != TAG_END){
+				try{
+					sink.accept( read( tag, index));
+				}catch( IllegalArgumentException e){
+					throw new MapFormatException( "record " + index + ": " + e.getMessage(), e);
+				}
+				index++;
+			}
+		}
+
+		private RoomRecord read( int tag, int index) throws IOException{
+			if( (tag & TAG_SAME_STYLE) == 0){
+				MapColor fill = readColor();
+				MapColor stroke = readColor();
+				style = palette.canonical( new MapStyle( fill, stroke, in.readDouble()));
+			}else if( style == null)
+				throw new MapFormatException( "record " + index + ": refers to style of a previous record but it is first");
+			int sides = (int) readUnsigned( in);
+			switch( tag & ~TAG_SAME_STYLE){
+				case TAG_REGULAR:
+					double cx = readX();
+					double cy = readY();
+					double radius = readSigned( in) / scale;
+					double angle = readSigned( in) / ANGLE_SCALE;
+					if( sides < 2)
+						throw new MapFormatException( "record " + index + ": regular room with " + sides + " sides");
+					return new RoomRecord( sides, style, Polygons.regular( cx, cy, radius, angle, sides));
+				case TAG_POLYGON:
+					long count = readUnsigned( in);
+					if( count > Integer.MAX_VALUE / 2)
+						throw new MapFormatException( "record " + index + ": point count " + count + " is too large");
+					int length = (int) count * 2;
+					double[] points = new double[Math.min( length, FIRST_BLOCK)];
+					for( int i = 0; i < length; i += 2){
+						if( i == points.length)
+							points = Arrays.copyOf( points, (int) Math.min( length, points.length * 2L));
+						points[i] = readX();
+						points[i + 1] = readY();
+					}
+					return new RoomRecord( sides, style, points);
+				default:
+					throw new MapFormatException( "record " + index + ": unknown tag " + tag);
+			}
+		}
+
+		private double readX() throws IOException{
+			lastX += readSigned( in);
+			return lastX / scale;
+		}
+
+		private double readY() throws IOException{
+			lastY += readSigned( in);
+			return lastY / scale;
+		}
+
+		private MapColor readColor() throws IOException{
+			int rgb = in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+			return new MapColor( rgb, in.readDouble());
+		}
+	}
+}
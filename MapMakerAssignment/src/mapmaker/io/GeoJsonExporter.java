@@ -0,0 +1,101 @@
+package mapmaker.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import mapmaker.model.MapColor;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * writes a map as a GeoJSON <code>FeatureCollection</code>, one <code>Polygon</code> feature for each room in
+ * paint order, streamed as records arrive.</br>
+ * map coordinates have y growing down, GIS tools expect it growing up, so every y is written negated and rings are
+ * written counter clockwise as RFC 7946 asks. first point of every ring is repeated at its end. style of each room
+ * is written as <code>fill</code>, <code>stroke</code>, their opacities and <code>stroke-width</code> properties
+ * which web viewers following the simplestyle convention draw directly, plus number of sides.</br>
+ * </p>
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc7946">RFC 7946</a>
+ *
+ * @version Oct 19, 2026
+ */
+public class GeoJsonExporter implements MapExporter{
+
+	@Override
+	public String name(){
+		return "geojson";
+	}
+
+	@Override
+	public String extension(){
+		return "geojson";
+	}
+
+	@Override
+	public RecordWriter writer( OutputStream out) throws IOException{
+		Writer writer = new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8), 1 << 16);
+		writer.write( "{\"type\":\"FeatureCollection\",\"features\":[");
+		return new RecordWriter(){
+
+			private final StringBuilder builder = new StringBuilder();
+			private boolean first = true;
+
+			@Override
+			public void accept( RoomRecord record) throws IOException{
+				builder.setLength( 0);
+				builder.append( first ? "\n" : ",\n");
+				first = false;
+				builder.append( "{\"type\":\"Feature\",\"properties\":{\"sides\":").append( record.getSides());
+				appendColor( builder, "fill", record.getFill());
+				appendColor( builder, "stroke", record.getStroke());
+				Json.appendNumber( builder.append( ",\"stroke-width\":"), record.getStrokeWidth());
+				builder.append( "},\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[");
+				int count = record.getPointCount();
+				// negative area in y down is counter clockwise once y is flipped
+				boolean reverse = signedArea( record) > 0;
+				for( int i = 0; i <= count && count > 0; i++){
+					int p = reverse ? (count - i) % count : i % count;
+					builder.append( i == 0 ? "[" : ",[");
+					Json.appendNumber( builder, record.getX( p)).append( ',');
+					Json.appendNumber( builder, -record.getY( p)).append( ']');
+				}
+				builder.append( "]]}}");
+				writer.write( builder.toString());
+			}
+
+			@Override
+			public void close() throws IOException{
+				writer.write( "\n]}\n");
+				writer.close();
+			}
+		};
+	}
+
+	private static void appendColor( StringBuilder builder, String property, MapColor color){
+		builder.append( ",\"").append( property).append( "\":\"").append( color.toHex()).append( '"');
+		Json.appendNumber( builder.append( ",\"").append( property).append( "-opacity\":"), color.getOpacity());
+	}
+
+	/**
+	 * <p>
+	 * shoelace formula on record without copying its points, same as {@link mapmaker.geom.Polygons#signedArea(double[])}.</br>
+	 * </p>
+	 */
+	private static double signedArea( RoomRecord record){
+		int count = record.getPointCount();
+		if( count < 3)
+			return 0;
+		double sum = 0;
+		double px = record.getX( count - 1), py = record.getY( count - 1);
+		for( int i = 0; i < count; i++){
+			sum += px * record.getY( i) - record.getX( i) * py;
+			px = record.getX( i);
+			py = record.getY( i);
+		}
+		return sum / 2;
+	}
+}
@@ -0,0 +1,87 @@
+package mapmaker.io;
+
+/**
+ * <p>
+ * minimal helpers to write JSON by hand. there is no JSON library in this project and all machine readable
+ * output is flat enough to be written with a {@link StringBuilder} or {@link java.io.Writer}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class Json{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private Json(){
+	}
+
+	/**
+	 * <p>
+	 * create a quoted and escaped JSON string.</br>
+	 * </p>
+	 * @param text - text to be quoted, null is written as null
+	 * @return JSON string literal
+	 */
+	public static String quote( String text){
+		if( text == null)
+			return "null";
+		StringBuilder builder = new StringBuilder( text.length() + 2);
+		builder.append( '"');
+		for( int i = 0; i < text.length(); i++){
+			char c = text.charAt( i);
+			switch( c){
+				case '"':
+					builder.append( "\\\"");
+					break;
+				case '\\':
+					builder.append( "\\\\");
+					break;
+				case '\n':
+					builder.append( "\\n");
+					break;
+				case '\r':
+					builder.append( "\\r");
+					break;
+				case '\t':
+					builder.append( "\\t");
+					break;
+				default:
+					if( c < 0x20)
+						builder.append( String.format( "\\u%04x", (int) c));
+					else
+						builder.append( c);
+			}
+		}
+		return builder.append( '"').toString();
+	}
+
+	/**
+	 * <p>
+	 * JSON has no NaN or infinity, they are written as null.</br>
+	 * </p>
+	 * @param value - number to be written
+	 * @return JSON number literal
+	 */
+	public static String number( double value){
+		return appendNumber( new StringBuilder(), value).toString();
+	}
+
+	/**
+	 * <p>
+	 * same as {@link #number(double)} without creating a string, for writers of many numbers.</br>
+	 * </p>
+	 * @param builder - where number is appended
+	 * @param value - number to be written
+	 * @return given builder
+	 */
+	public static StringBuilder appendNumber( StringBuilder builder, double value){
+		if( Double.isNaN( value) || Double.isInfinite( value))
+			return builder.append( "null");
+		if( value == Math.rint( value) && Math.abs( value) < 1e15)
+			return builder.append( (long) value);
+		return builder.append( value);
+	}
+}
@@ -0,0 +1,71 @@
+package mapmaker.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import mapmaker.model.CoordinatePrecision;
+import mapmaker.model.MapDocument;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * one on disk format of a map. implementations read and write {@link RoomRecord}s one at a time
+ * so a file never has to be held in memory as a whole.</br>
+ * implementations must be stateless so one instance can be shared between threads.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public interface MapCodec extends MapExporter{
+
+	/**
+	 * <p>
+	 * read all records in given stream and pass each one to sink as soon as it is complete.
+	 * given stream is not closed.</br>
+	 * </p>
+	 * @param in - stream to read from
+	 * @param sink - receiver of each record
+	 * @throws MapFormatException if content does not follow the format
+	 * @throws IOException if stream cannot be read or sink fails
+	 */
+	void read( InputStream in, RecordSink sink) throws IOException;
+
+	/**
+	 * <p>
+	 * helper to read every record of a file to a list.</br>
+	 * </p>
+	 * @param path - file to read
+	 * @return list of all records in file
+	 * @throws IOException if file cannot be read or does not follow the format
+	 */
+	default List< RoomRecord> readAll( Path path) throws IOException{
+		List< RoomRecord> records = new ArrayList<>();
+		try( InputStream in = new BufferedInputStream( Files.newInputStream( path), 1 << 16)){
+			read( in, records::add);
+		}
+		return records;
+	}
+
+	/**
+	 * <p>
+	 * helper to read every record of a file to a {@link MapDocument}. each record is converted to given precision
+	 * as soon as it is read, so a full precision copy of the map is never held.</br>
+	 * </p>
+	 * @param path - file to read
+	 * @param precision - how coordinates are stored in returned document
+	 * @return document holding all records in file
+	 * @throws IOException if file cannot be read or does not follow the format
+	 */
+	default MapDocument readDocument( Path path, CoordinatePrecision precision) throws IOException{
+		MapDocument document = new MapDocument( precision);
+		try( InputStream in = new BufferedInputStream( Files.newInputStream( path), 1 << 16)){
+			read( in, document::add);
+		}
+		return document;
+	}
+}
@@ -0,0 +1,139 @@
+package mapmaker.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * registry of all available {@link MapCodec}s. a codec can be found by its name or by extension of a file.</br>
+ * {@link MapExporter}s which can only write, like SVG and GeoJSON, are registered separately so they are never
+ * picked to open a file.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapCodecs{
+
+	public static final MapCodec TEXT = new TextMapCodec();
+	public static final MapCodec LEGACY_TEXT = new TextMapCodec( false);
+	public static final MapCodec BINARY = new BinaryMapCodec();
+	public static final MapCodec COMPACT = new CompactMapCodec();
+
+	public static final MapExporter SVG = new SvgExporter();
+	public static final MapExporter GEOJSON = new GeoJsonExporter();
+
+	private static final List< MapCodec> ALL = Collections.unmodifiableList( Arrays.asList( TEXT, LEGACY_TEXT, BINARY, COMPACT));
+	private static final List< MapExporter> EXPORTERS = Collections.unmodifiableList( Arrays.asList( SVG, GEOJSON));
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private MapCodecs(){
+	}
+
+	/**
+	 * @return all registered codecs
+	 */
+	public static List< MapCodec> all(){
+		return ALL;
+	}
+
+	/**
+	 * <p>
+	 * find codec with given name.</br>
+	 * </p>
+	 * @param name - name of codec like "text"
+	 * @return codec with given name
+	 * @throws IllegalArgumentException if no codec has given name
+	 */
+	public static MapCodec byName( String name){
+		for( MapCodec codec: ALL)
+			if( codec.name().equalsIgnoreCase( name))
+				return codec;
+		throw new IllegalArgumentException( "\"" + name + "\" is not a known map format");
+	}
+
+	/**
+	 * @return all registered exporters which are not codecs
+	 */
+	public static List< MapExporter> exporters(){
+		return EXPORTERS;
+	}
+
+	/**
+	 * <p>
+	 * find codec or exporter with given name.</br>
+	 * </p>
+	 * @param name - name like "text" or "svg"
+	 * @return codec or exporter with given name
+	 * @throws IllegalArgumentException if nothing has given name
+	 */
+	public static MapExporter exporterByName( String name){
+		for( MapExporter exporter: EXPORTERS)
+			if( exporter.name().equalsIgnoreCase( name))
+				return exporter;
+		return byName( name);
+	}
+
+	/**
+	 * <p>
+	 * find codec for given file using its extension. files with unknown extension are treated as text.</br>
+	 * </p>
+	 * @param path - path of file
+	 * @return codec for file
+	 */
+	public static MapCodec forPath( Path path){
+		String name = path.getFileName().toString();
+		int dot = name.lastIndexOf( '.');
+		String extension = dot < 0 ? "" : name.substring( dot + 1);
+		for( MapCodec codec: ALL)
+			if( codec.extension().equalsIgnoreCase( extension))
+				return codec;
+		return TEXT;
+	}
+
+	/**
+	 * <p>
+	 * find codec which writes given file back in format it is already in. same as {@link #forPath(Path)} except a
+	 * text file without a style table is {@link #LEGACY_TEXT}. a style table file always starts with definition of
+	 * style of its first record, so only first line is read.</br>
+	 * </p>
+	 * @param path - path of an existing file
+	 * @return codec for file
+	 * @throws IOException if file cannot be read
+	 */
+	public static MapCodec forContent( Path path) throws IOException{
+		MapCodec codec = forPath( path);
+		if( codec != TEXT)
+			return codec;
+		try( BufferedReader reader = Files.newBufferedReader( path, StandardCharsets.UTF_8)){
+			for( String line; (line = reader.readLine()) != null;)
+				if( !line.trim().isEmpty())
+					return line.startsWith( TextMapCodec.STYLE + " ") ? TEXT : LEGACY_TEXT;
+		}
+		return TEXT;
+	}
+
+	/**
+	 * <p>
+	 * check if given file has an extension of any registered codec.</br>
+	 * </p>
+	 * @param path - path of file
+	 * @return true if file looks like a map
+	 */
+	public static boolean isMapFile( Path path){
+		String name = path.getFileName().toString().toLowerCase();
+		for( MapCodec codec: ALL)
+			if( name.endsWith( "." + codec.extension()))
+				return true;
+		return false;
+	}
+}
@@ -0,0 +1,62 @@
+package mapmaker.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * a format maps can be written to one {@link RoomRecord} at a time. every {@link MapCodec} is an exporter, formats
+ * for other tools such as {@link SvgExporter} and {@link GeoJsonExporter} can only be written.</br>
+ * implementations must be stateless so one instance can be shared between threads.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public interface MapExporter{
+
+	/**
+	 * <p>
+	 * short name of this format, used on command line.</br>
+	 * </p>
+	 * @return name of format
+	 */
+	String name();
+
+	/**
+	 * <p>
+	 * file extension of this format without the dot.</br>
+	 * </p>
+	 * @return extension of format
+	 */
+	String extension();
+
+	/**
+	 * <p>
+	 * create a writer that writes records to given stream as they are given.</br>
+	 * </p>
+	 * @param out - stream to write to, closed by {@link RecordWriter#close()}
+	 * @return new writer
+	 * @throws IOException if stream cannot be written
+	 */
+	RecordWriter writer( OutputStream out) throws IOException;
+
+	/**
+	 * <p>
+	 * helper to write all given records to a file, replacing its content.</br>
+	 * </p>
+	 * @param path - file to write
+	 * @param records - records to be written in order
+	 * @throws IOException if file cannot be written
+	 */
+	default void writeAll( Path path, Iterable< RoomRecord> records) throws IOException{
+		try( RecordWriter writer = writer( new BufferedOutputStream( Files.newOutputStream( path), 1 << 16))){
+			for( RoomRecord record: records)
+				writer.accept( record);
+		}
+	}
+}
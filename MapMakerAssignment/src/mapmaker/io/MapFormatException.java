@@ -0,0 +1,30 @@
+package mapmaker.io;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * thrown when content of a map file does not follow its format.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapFormatException extends IOException{
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param message - description of the problem, including where it was found
+	 */
+	public MapFormatException( String message){
+		super( message);
+	}
+
+	/**
+	 * @param message - description of the problem, including where it was found
+	 * @param cause - original exception
+	 */
+	public MapFormatException( String message, Throwable cause){
+		super( message, cause);
+	}
+}
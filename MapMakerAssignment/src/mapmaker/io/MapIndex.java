@@ -0,0 +1,525 @@
+package mapmaker.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import mapmaker.geom.Polygons;
+import mapmaker.geom.SpatialGrid;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+import mapmaker.model.StylePalette;
+
+/**
+ * <p>
+ * sidecar index of a text .map file, stored next to it as <code>name.map.idx</code>. for each record it holds byte
+ * offset and length in map, bounding box and id of its style in a style table of index, so rooms inside a region
+ * or an id range can be read by seeking straight to them instead of parsing whole file.</br>
+ * index remembers size and CRC32 of map it was built from. {@link #open(Path)} checks both and rebuilds a stale or
+ * broken index, so an index never describes another version of its map. checking CRC reads whole map once, which is
+ * still much cheaper than parsing it.</br>
+ * only {@link TextMapCodec} files can be indexed, compact format is deflated and cannot be seeked into.</br>
+ * layout, all numbers in big endian as written by {@link DataOutputStream}:
+ * <ol>
+ * 	<li>header, 4 bytes {@value #MAGIC} and one byte version</li>
+ * 	<li>size of map as long and its CRC32 as int</li>
+ * 	<li>number of styles as int, each style same as a record of {@link BinaryMapCodec}, fill and stroke as rgb int
+ * 		plus opacity double then stroke width double</li>
+ * 	<li>number of records as int, each record offset as long, length and style as int, then min x, min y, max x
+ * 		and max y doubles</li>
+ * 	<li>number of template definitions as int, each template id as int, offset of its line as long and length as
+ * 		int. instance records are parsed with their template read from there</li>
+ * </ol>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapIndex{
+
+	public static final String MAGIC = "MIDX";
+	public static final String EXTENSION = "idx";
+	private static final int VERSION = 2;
+	/**
+	 * <p>
+	 * bytes of header, map size, checksum and style count, then bytes of each style, record and template. counts
+	 * read from a sidecar are checked against bytes left in it before anything is allocated.</br>
+	 * </p>
+	 */
+	private static final int HEADER_BYTES = 4 + 1 + 8 + 4 + 4;
+	private static final int STYLE_BYTES = 4 + 8 + 4 + 8 + 8;
+	private static final int RECORD_BYTES = 8 + 4 + 4 + 4 * 8;
+	private static final int TEMPLATE_BYTES = 4 + 8 + 4;
+
+	private final long mapSize;
+	private final int checksum;
+	private final MapStyle[] styles;
+	private final long[] offsets;
+	private final int[] lengths;
+	private final int[] styleIds;
+	private final double[] bounds;
+	private final int[] templateIds;
+	private final long[] templateOffsets;
+	private final int[] templateLengths;
+	private SpatialGrid grid;
+
+	private MapIndex( long mapSize, int checksum, MapStyle[] styles, long[] offsets, int[] lengths, int[] styleIds,
+			double[] bounds, int[] templateIds, long[] templateOffsets, int[] templateLengths){
+		this.mapSize = mapSize;
+		this.checksum = checksum;
+		this.styles = styles;
+		this.offsets = offsets;
+		this.lengths = lengths;
+		this.styleIds = styleIds;
+		this.bounds = bounds;
+		this.templateIds = templateIds;
+		this.templateOffsets = templateOffsets;
+		this.templateLengths = templateLengths;
+	}
+
+	/**
+	 * @param map - path of a map
+	 * @return path of sidecar index of given map
+	 */
+	public static Path sidecarOf( Path map){
+		return map.resolveSibling( map.getFileName() + "." + EXTENSION);
+	}
+
+	/**
+	 * @param map - path of a map
+	 * @return true if given map is in a format which can be indexed
+	 */
+	public static boolean supports( Path map){
+		return MapCodecs.forPath( map) instanceof TextMapCodec;
+	}
+
+	/**
+	 * <p>
+	 * get a valid index of given map. sidecar index is used if it matches size and checksum of map, else a new
+	 * index is built and written over it. when sidecar cannot be written, new index is still returned.</br>
+	 * </p>
+	 * @param map - path of a text map
+	 * @return index matching current content of map
+	 * @throws IOException if map cannot be read or is not valid
+	 */
+	public static MapIndex open( Path map) throws IOException{
+		MapIndex index = load( map);
+		if( index != null)
+			return index;
+		index = build( map);
+		Path sidecar = sidecarOf( map);
+		if( Files.isWritable( map.toAbsolutePath().getParent()))
+			index.write( sidecar);
+		return index;
+	}
+
+	/**
+	 * <p>
+	 * read sidecar index of given map only if it is still valid. size of map is checked before rest of sidecar is
+	 * read, so a stale index costs only its header.</br>
+	 * </p>
+	 * @param map - path of a text map
+	 * @return index, or null if it is missing, broken or stale
+	 * @throws IOException if map cannot be read
+	 */
+	public static MapIndex load( Path map) throws IOException{
+		MapIndex index;
+		try{
+			index = read( sidecarOf( map), Files.size( map));
+		}catch( NoSuchFileException | MapFormatException e){
+			return null;
+		}
+		return index.matches( map) ? index : null;
+	}
+
+	/**
+	 * <p>
+	 * parse whole map once and record where each record is. checksum is computed in same pass.</br>
+	 * </p>
+	 * @param map - path of a text map
+	 * @return new index, not written anywhere
+	 * @throws IOException if map cannot be read or is not valid
+	 */
+	public static MapIndex build( Path map) throws IOException{
+		Builder builder = new Builder();
+		CRC32 crc = new CRC32();
+		try( CheckedInputStream in = new CheckedInputStream( Files.newInputStream( map), crc)){
+			TextMapCodec.readLocated( in, builder);
+			// whole stream was read, size is exactly what checksum covers
+			return builder.build( Files.size( map), (int) crc.getValue());
+		}
+	}
+
+	/**
+	 * <p>
+	 * read an index file without checking it against its map.</br>
+	 * </p>
+	 * @param sidecar - path of index file
+	 * @return index
+	 * @throws MapFormatException if file is not an index
+	 */
+	public static MapIndex read( Path sidecar) throws IOException{
+		return read( sidecar, -1);
+	}
+
+	/**
+	 * <p>
+	 * read an index file built from a map of given size. every count is checked against bytes left in file before
+	 * arrays for it are allocated, so a broken sidecar is rejected instead of running out of memory.</br>
+	 * </p>
+	 * @param sidecar - path of index file
+	 * @param expectedMapSize - size of map index must have been built from, negative to accept any
+	 * @return index
+	 * @throws MapFormatException if file is not an index or was built from a map of another size
+	 */
+	private static MapIndex read( Path sidecar, long expectedMapSize) throws IOException{
+		long remaining = Files.size( sidecar) - HEADER_BYTES;
+		try( DataInputStream data = new DataInputStream( new BufferedInputStream( Files.newInputStream( sidecar), 1 << 16))){
+			byte[] magic = new byte[4];
+			data.readFully( magic);
+			if( !MAGIC.equals( new String( magic, StandardCharsets.US_ASCII)))
+				throw new MapFormatException( "not a map index, header is missing");
+			int version = data.readUnsignedByte();
+			if( version != VERSION)
+				throw new MapFormatException( "map index version " + version + " is not supported");
+			long mapSize = data.readLong();
+			if( expectedMapSize >= 0 && mapSize != expectedMapSize)
+				throw new MapFormatException( "map index is stale, it was built for " + mapSize + " bytes of map");
+			int checksum = data.readInt();
+			int styleCount = checkCount( "style", data.readInt(), STYLE_BYTES, remaining);
+			remaining -= (long) styleCount * STYLE_BYTES + 4;
+			MapStyle[] styles = new MapStyle[styleCount];
+			for( int i = 0; i < styleCount; i++){
+				MapColor fill = new MapColor( data.readInt(), data.readDouble());
+				MapColor stroke = new MapColor( data.readInt(), data.readDouble());
+				styles[i] = new MapStyle( fill, stroke, data.readDouble());
+			}
+			int records = checkCount( "record", data.readInt(), RECORD_BYTES, remaining);
+			// bounds take 4 values for each record
+			if( records > Integer.MAX_VALUE / 4)
+				throw new MapFormatException( "record count " + records + " is too large");
+			remaining -= (long) records * RECORD_BYTES + 4;
+			long[] offsets = new long[records];
+			int[] lengths = new int[records];
+			int[] styleIds = new int[records];
+			double[] bounds = new double[records * 4];
+			for( int i = 0; i < records; i++){
+				offsets[i] = data.readLong();
+				lengths[i] = data.readInt();
+				styleIds[i] = data.readInt();
+				if( styleIds[i] < 0 || styleIds[i] >= styleCount)
+					throw new MapFormatException( "record " + i + ": style " + styleIds[i] + " is not defined");
+				for( int b = 0; b < 4; b++)
+					bounds[i * 4 + b] = data.readDouble();
+			}
+			int templates = checkCount( "template", data.readInt(), TEMPLATE_BYTES, remaining);
+			int[] templateIds = new int[templates];
+			long[] templateOffsets = new long[templates];
+			int[] templateLengths = new int[templates];
+			for( int i = 0; i < templates; i++){
+				templateIds[i] = data.readInt();
+				templateOffsets[i] = data.readLong();
+				templateLengths[i] = data.readInt();
+			}
+			return new MapIndex( mapSize, checksum, styles, offsets, lengths, styleIds, bounds, templateIds,
+					templateOffsets, templateLengths);
+		}catch( EOFException e){
+			throw new MapFormatException( "map index is truncated", e);
+		}catch( IllegalArgumentException e){
+			throw new MapFormatException( "map index is not valid: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * <p>
+	 * check a count read from a sidecar fits in bytes left after it.</br>
+	 * </p>
+	 * @param what - what is counted, for message
+	 * @param count - count read
+	 * @param bytesEach - bytes of each counted entry
+	 * @param remaining - bytes of sidecar after count
+	 * @return count
+	 * @throws MapFormatException if count is negative or its entries cannot fit
+	 */
+	private static int checkCount( String what, int count, int bytesEach, long remaining) throws MapFormatException{
+		if( count < 0)
+			throw new MapFormatException( "negative " + what + " count " + count);
+		if( (long) count * bytesEach > remaining)
+			throw new MapFormatException( what + " count " + count + " does not fit in " + remaining + " bytes left");
+		return count;
+	}
+
+	/**
+	 * <p>
+	 * write index to a temporary file and move it over given path when complete, so a reader never finds a half
+	 * written index.</br>
+	 * </p>
+	 * @param sidecar - path of index file
+	 * @throws IOException if index cannot be written
+	 */
+	public void write( Path sidecar) throws IOException{
+		Path temp = sidecar.resolveSibling( sidecar.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+		try{
+			try( DataOutputStream data = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( temp), 1 << 16))){
+				data.writeBytes( MAGIC);
+				data.writeByte( VERSION);
+				data.writeLong( mapSize);
+				data.writeInt( checksum);
+				data.writeInt( styles.length);
+				for( MapStyle style: styles){
+					data.writeInt( style.getFill().getRGB());
+					data.writeDouble( style.getFill().getOpacity());
+					data.writeInt( style.getStroke().getRGB());
+					data.writeDouble( style.getStroke().getOpacity());
+					data.writeDouble( style.getStrokeWidth());
+				}
+				data.writeInt( offsets.length);
+				for( int i = 0; i < offsets.length; i++){
+					data.writeLong( offsets[i]);
+					data.writeInt( lengths[i]);
+					data.writeInt( styleIds[i]);
+					for( int b = 0; b < 4; b++)
+						data.writeDouble( bounds[i * 4 + b]);
+				}
+				data.writeInt( templateIds.length);
+				for( int i = 0; i < templateIds.length; i++){
+					data.writeInt( templateIds[i]);
+					data.writeLong( templateOffsets[i]);
+					data.writeInt( templateLengths[i]);
+				}
+			}
+			Files.move( temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}finally{
+			Files.deleteIfExists( temp);
+		}
+	}
+
+	/**
+	 * <p>
+	 * check if this index was built from current content of given map. size is compared first so most stale
+	 * indices are found without reading map.</br>
+	 * </p>
+	 * @param map - path of a text map
+	 * @return true if size and CRC32 of map are same as when index was built
+	 * @throws IOException if map cannot be read
+	 */
+	public boolean matches( Path map) throws IOException{
+		if( Files.size( map) != mapSize)
+			return false;
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[1 << 16];
+		try( InputStream in = Files.newInputStream( map)){
+			int read;
+			while( (read = in.read( buffer)) >= 0)
+				crc.update( buffer, 0, read);
+		}
+		return (int) crc.getValue() == checksum;
+	}
+
+	/**
+	 * @return number of records in map
+	 */
+	public int size(){
+		return offsets.length;
+	}
+
+	public long getMapSize(){
+		return mapSize;
+	}
+
+	/**
+	 * @return number of distinct styles in map
+	 */
+	public int getStyleCount(){
+		return styles.length;
+	}
+
+	public MapStyle getStyle( int styleId){
+		return styles[styleId];
+	}
+
+	public int getStyleId( int record){
+		return styleIds[record];
+	}
+
+	public long getOffset( int record){
+		return offsets[record];
+	}
+
+	/**
+	 * @return copy of bounds of record as {minX, minY, maxX, maxY}, NaN if it has no points
+	 */
+	public double[] getBounds( int record){
+		return Arrays.copyOfRange( bounds, record * 4, record * 4 + 4);
+	}
+
+	/**
+	 * <p>
+	 * find records whose bounding box touches given rectangle.</br>
+	 * </p>
+	 * @return ids of records in file order
+	 */
+	public BitSet query( double minX, double minY, double maxX, double maxY){
+		if( grid == null)
+			grid = SpatialGrid.of( bounds);
+		BitSet found = grid.query( minX, minY, maxX, maxY);
+		for( int i = found.nextSetBit( 0); i >= 0; i = found.nextSetBit( i + 1)){
+			int b = i * 4;
+			if( bounds[b] > maxX || bounds[b + 2] < minX || bounds[b + 1] > maxY || bounds[b + 3] < minY)
+				found.clear( i);
+		}
+		return found;
+	}
+
+	/**
+	 * <p>
+	 * read records with ids from <code>from</code> inclusive to <code>to</code> exclusive.</br>
+	 * </p>
+	 * @param map - path of map this index was built from
+	 * @param sink - receiver of records in file order
+	 */
+	public void read( Path map, int from, int to, RecordSink sink) throws IOException{
+		BitSet range = new BitSet();
+		range.set( Math.max( 0, from), Math.min( to, size()));
+		read( map, range, sink);
+	}
+
+	/**
+	 * <p>
+	 * read only given records by seeking to each one. records next to each other in file are read with one
+	 * read call. template of an instance record is read once, the first time one of its instances is.</br>
+	 * </p>
+	 * @param map - path of map this index was built from, see {@link #matches(Path)}
+	 * @param records - ids of records to be read
+	 * @param sink - receiver of records in file order
+	 * @throws MapFormatException if a record is not valid, for example because map changed after index was built
+	 */
+	public void read( Path map, BitSet records, RecordSink sink) throws IOException{
+		ByteBuffer buffer = ByteBuffer.allocate( 1 << 16);
+		Map< Integer, RoomRecord> templates = new HashMap<>();
+		try( FileChannel channel = FileChannel.open( map, StandardOpenOption.READ)){
+			int first = records.nextSetBit( 0);
+			while( first >= 0 && first < size()){
+				// grow run while records follow each other and fit in buffer
+				int last = first;
+				while( last + 1 < size() && records.get( last + 1)
+						&& offsets[last + 1] + lengths[last + 1] - offsets[first] <= buffer.capacity())
+					last++;
+				long start = offsets[first];
+				int length = (int) (offsets[last] + lengths[last] - start);
+				if( length > buffer.capacity())
+					buffer = ByteBuffer.allocate( Integer.highestOneBit( length) << 1);
+				buffer.clear().limit( length);
+				while( buffer.hasRemaining())
+					if( channel.read( buffer, start + buffer.position()) < 0)
+						throw new MapFormatException( "record " + last + " is past end of map, index is stale");
+				for( int i = first; i <= last; i++){
+					String text = new String( buffer.array(), (int) (offsets[i] - start), lengths[i], StandardCharsets.UTF_8);
+					try{
+						int template = TextMapCodec.templateOf( text);
+						if( template >= 0 && !templates.containsKey( template))
+							templates.put( template, readTemplate( channel, template));
+						sink.accept( TextMapCodec.parseRecord( text, styles[styleIds[i]], templates));
+					}catch( MapFormatException e){
+						throw new MapFormatException( "record " + i + ": " + e.getMessage(), e);
+					}
+				}
+				first = records.nextSetBit( last + 1);
+			}
+		}
+	}
+
+	private RoomRecord readTemplate( FileChannel channel, int id) throws IOException{
+		// written files number templates in order they are defined, others are searched
+		int first = id >= 0 && id < templateIds.length && templateIds[id] == id ? id : 0;
+		for( int i = first; i < templateIds.length; i++){
+			if( templateIds[i] != id)
+				continue;
+			ByteBuffer line = ByteBuffer.allocate( templateLengths[i]);
+			while( line.hasRemaining())
+				if( channel.read( line, templateOffsets[i] + line.position()) < 0)
+					throw new MapFormatException( "template " + id + " is past end of map, index is stale");
+			return TextMapCodec.parseTemplate( new String( line.array(), StandardCharsets.UTF_8));
+		}
+		// parseRecord reports it as not defined
+		return null;
+	}
+
+	/**
+	 * <p>
+	 * collects ranges, styles and bounds of records while a map is parsed.</br>
+	 * </p>
+	 */
+	private static final class Builder implements TextMapCodec.LocatedSink{
+
+		private final StylePalette palette = new StylePalette();
+		private long[] offsets = new long[1024];
+		private int[] lengths = new int[1024];
+		private int[] styleIds = new int[1024];
+		private double[] bounds = new double[4096];
+		private int count;
+		private int[] templateIds = new int[16];
+		private long[] templateOffsets = new long[16];
+		private int[] templateLengths = new int[16];
+		private int templates;
+
+		@Override
+		public void accept( RoomRecord record, long offset, int length){
+			if( count == offsets.length){
+				offsets = Arrays.copyOf( offsets, count * 2);
+				lengths = Arrays.copyOf( lengths, count * 2);
+				styleIds = Arrays.copyOf( styleIds, count * 2);
+				bounds = Arrays.copyOf( bounds, count * 8);
+			}
+			offsets[count] = offset;
+			lengths[count] = length;
+			styleIds[count] = palette.intern( record.getStyle());
+			int b = count * 4;
+			double[] room = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+			for( int p = 0; p < record.getPointCount(); p++)
+				Polygons.include( room, record.getX( p), record.getY( p));
+			System.arraycopy( room, 0, bounds, b, 4);
+			count++;
+		}
+
+		@Override
+		public void template( int id, long offset, int length){
+			if( templates == templateIds.length){
+				templateIds = Arrays.copyOf( templateIds, templates * 2);
+				templateOffsets = Arrays.copyOf( templateOffsets, templates * 2);
+				templateLengths = Arrays.copyOf( templateLengths, templates * 2);
+			}
+			templateIds[templates] = id;
+			templateOffsets[templates] = offset;
+			templateLengths[templates] = length;
+			templates++;
+		}
+
+		MapIndex build( long mapSize, int checksum){
+			MapStyle[] styles = new MapStyle[palette.size()];
+			for( int i = 0; i < styles.length; i++)
+				styles[i] = palette.get( i);
+			return new MapIndex( mapSize, checksum, styles, Arrays.copyOf( offsets, count), Arrays.copyOf( lengths, count),
+					Arrays.copyOf( styleIds, count), Arrays.copyOf( bounds, count * 4), Arrays.copyOf( templateIds, templates),
+					Arrays.copyOf( templateOffsets, templates), Arrays.copyOf( templateLengths, templates));
+		}
+	}
+}
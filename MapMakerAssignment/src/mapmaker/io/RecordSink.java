@@ -0,0 +1,24 @@
+package mapmaker.io;
+
+import java.io.IOException;
+
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * receiver of {@link RoomRecord}s as they are read, one at a time.</br>
+ * unlike {@link java.util.function.Consumer} it is allowed to throw {@link IOException}
+ * so a reader can be connected directly to a {@link RecordWriter}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+@FunctionalInterface
+public interface RecordSink{
+
+	/**
+	 * @param record - record that was just read
+	 * @throws IOException if record could not be handled
+	 */
+	void accept( RoomRecord record) throws IOException;
+}
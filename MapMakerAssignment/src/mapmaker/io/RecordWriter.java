@@ -0,0 +1,14 @@
+package mapmaker.io;
+
+import java.io.Closeable;
+
+/**
+ * <p>
+ * streaming writer created by {@link MapCodec#writer(java.io.OutputStream)}.
+ * records are written as they are accepted, {@link #close()} finishes the file and closes the stream.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public interface RecordWriter extends RecordSink, Closeable{
+}
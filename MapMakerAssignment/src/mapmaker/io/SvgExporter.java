@@ -0,0 +1,123 @@
+package mapmaker.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+import mapmaker.model.StylePalette;
+
+/**
+ * <p>
+ * writes a map as an SVG document, one <code>polygon</code> element for each room in paint order. document is
+ * written as records arrive, no DOM or string of whole map is built.</br>
+ * like the style table of {@link TextMapCodec}, each distinct style is written once as a CSS class in a
+ * <code>style</code> element right before the first room using it, and rooms only refer to their class.</br>
+ * a streamed document cannot know its size before its last room, so size and view box are only written when
+ * bounds are given with {@link #withBounds(double[])}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class SvgExporter implements MapExporter{
+
+	private final double[] bounds;
+
+	/**
+	 * <p>
+	 * create an exporter which writes no size or view box.</br>
+	 * </p>
+	 */
+	public SvgExporter(){
+		this( null);
+	}
+
+	private SvgExporter( double[] bounds){
+		this.bounds = bounds;
+	}
+
+	/**
+	 * @param bounds - {minX, minY, maxX, maxY} of map, for example from {@link mapmaker.model.MapStats#getBounds()}
+	 * @return exporter writing given bounds as view box of document
+	 */
+	public SvgExporter withBounds( double[] bounds){
+		return new SvgExporter( bounds == null || Double.isNaN( bounds[0]) ? null : bounds.clone());
+	}
+
+	@Override
+	public String name(){
+		return "svg";
+	}
+
+	@Override
+	public String extension(){
+		return "svg";
+	}
+
+	@Override
+	public RecordWriter writer( OutputStream out) throws IOException{
+		Writer writer = new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8), 1 << 16);
+		StringBuilder header = new StringBuilder( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		header.append( "<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\"");
+		if( bounds != null){
+			double width = bounds[2] - bounds[0], height = bounds[3] - bounds[1];
+			Json.appendNumber( header.append( " width=\""), width).append( '"');
+			Json.appendNumber( header.append( " height=\""), height).append( '"');
+			Json.appendNumber( header.append( " viewBox=\""), bounds[0]).append( ' ');
+			Json.appendNumber( header, bounds[1]).append( ' ');
+			Json.appendNumber( header, width).append( ' ');
+			Json.appendNumber( header, height).append( '"');
+		}
+		// JavaFX draws square caps and miter joins with miter limit 10
+		header.append( ">\n<style>polygon{stroke-linecap:square;stroke-linejoin:miter;stroke-miterlimit:10}</style>\n");
+		writer.write( header.toString());
+		return new RecordWriter(){
+
+			private final StylePalette palette = new StylePalette();
+			private final StringBuilder builder = new StringBuilder();
+
+			@Override
+			public void accept( RoomRecord record) throws IOException{
+				builder.setLength( 0);
+				int style = palette.indexOf( record.getStyle());
+				if( style < 0){
+					style = palette.intern( record.getStyle());
+					appendStyle( builder, style, record.getStyle());
+				}
+				builder.append( "<polygon class=\"s").append( style).append( "\" points=\"");
+				for( int i = 0; i < record.getPointCount(); i++){
+					if( i > 0)
+						builder.append( ' ');
+					Json.appendNumber( builder, record.getX( i)).append( ',');
+					Json.appendNumber( builder, record.getY( i));
+				}
+				builder.append( "\"/>\n");
+				writer.write( builder.toString());
+			}
+
+			@Override
+			public void close() throws IOException{
+				writer.write( "</svg>\n");
+				writer.close();
+			}
+		};
+	}
+
+	private static void appendStyle( StringBuilder builder, int index, MapStyle style){
+		builder.append( "<style>.s").append( index).append( "{");
+		appendColor( builder, "fill", style.getFill());
+		appendColor( builder, "stroke", style.getStroke());
+		Json.appendNumber( builder.append( "stroke-width:"), style.getStrokeWidth()).append( "}</style>\n");
+	}
+
+	private static void appendColor( StringBuilder builder, String property, MapColor color){
+		builder.append( property).append( ':').append( color.toHex()).append( ';');
+		if( color.getOpacity() != 1)
+			Json.appendNumber( builder.append( property).append( "-opacity:"), color.getOpacity()).append( ';');
+	}
+}
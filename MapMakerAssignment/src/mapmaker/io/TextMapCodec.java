@@ -0,0 +1,605 @@
+package mapmaker.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import mapmaker.model.Coordinates;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+import mapmaker.model.StylePalette;
+
+/**
+ * <p>
+ * the original text format of .map files. each room is one record and each property of a record is located in one
+ * line. each line starts with a name of property and its value/s in front of it all separated by space.</br>
+ * a record starts at its {@value #POINTS_COUNT} line, so records do not have to be exactly 5 lines long.</br>
+ * colors and stroke width of a record are either given in its own lines, the original format, or by a reference to
+ * a style defined once in the file. a style definition line holds id, fill, stroke and stroke width and is written
+ * right before the first record using it. both kinds of records can be mixed in one file.</br>
+ * an {@value #INSTANCE} record is one line holding a template id, a style id and an offset, it is a copy of the
+ * template's points moved by that offset, see {@link RoomRecord#instance(double, double)}. a template definition
+ * line holds id, sides and points and is written right before the first instance of it, instances of one template
+ * share its points when read back. only written with a style table, legacy files hold every copy in full.</br>
+ * </p>
+ * <pre>
+ * sides 3
+ * fill #90EE90 1.000000
+ * stroke #006400 1.000000
+ * strokeWidth 1.0
+ * points 146.9519052838329 123.5 17.0480947161671 123.5 82.0 11.0
+ * style 0 #90EE90 1.000000 #006400 1.000000 1.0
+ * sides 5
+ * style 0
+ * points 126.08389392193544 297.676274578121 37.91610607806456 297.676274578121 10.670761277863448 ...
+ * template 0 3 146.9519052838329 123.5 17.0480947161671 123.5 82.0 11.0
+ * instance 0 0 40.0 0.0
+ * instance 0 0 80.0 0.0
+ * </pre>
+ *
+ * @version Oct 19, 2026
+ */
+public class TextMapCodec implements MapCodec{
+
+	/**
+	 * <p>
+	 * use these static final variables to convert form and to string.</br>
+	 * allowing changes for key words to be in one place.</br>
+	 * </p>
+	 */
+	public static final String POINTS_COUNT = "sides";
+	public static final String FILL = "fill";
+	public static final String STROKE = "stroke";
+	public static final String WIDTH = "strokeWidth";
+	public static final String POINTS = "points";
+	public static final String STYLE = "style";
+	public static final String TEMPLATE = "template";
+	public static final String INSTANCE = "instance";
+
+	/**
+	 * <p>
+	 * if true styles are written once as a table and records refer to them, else every record holds its own colors
+	 * in the original 5 line format.</br>
+	 * </p>
+	 */
+	private final boolean styleTable;
+
+	/**
+	 * <p>
+	 * create a codec writing a style table.</br>
+	 * </p>
+	 */
+	public TextMapCodec(){
+		this( true);
+	}
+
+	/**
+	 * @param styleTable - if true styles are written once as a table, else in the original 5 line format
+	 */
+	public TextMapCodec( boolean styleTable){
+		this.styleTable = styleTable;
+	}
+
+	@Override
+	public String name(){
+		return styleTable ? "text" : "legacy";
+	}
+
+	@Override
+	public String extension(){
+		return "map";
+	}
+
+	@Override
+	public void read( InputStream in, RecordSink sink) throws IOException{
+		BufferedReader reader = new BufferedReader( new InputStreamReader( in, StandardCharsets.UTF_8));
+		RecordParser parser = new RecordParser();
+		String line;
+		int lineNumber = 0;
+		while( (line = reader.readLine()) != null){
+			lineNumber++;
+			if( line.trim().isEmpty())
+				continue;
+			// style and template definitions are not part of any record
+			if( parser.defineStyle( line, lineNumber) || parser.defineTemplate( line, lineNumber) >= 0)
+				continue;
+			// a new sides or instance line means previous record is complete
+			if( startsRecord( line) && parser.started())
+				sink.accept( parser.build());
+			parser.parse( line, lineNumber);
+		}
+		if( parser.started())
+			sink.accept( parser.build());
+	}
+
+	/**
+	 * <p>
+	 * receiver of records together with where each one is located in file.</br>
+	 * </p>
+	 */
+	@FunctionalInterface
+	interface LocatedSink{
+
+		/**
+		 * @param record - record that was just read
+		 * @param offset - byte offset of first line of record
+		 * @param length - number of bytes from first line of record to start of next record or end of file
+		 */
+		void accept( RoomRecord record, long offset, int length) throws IOException;
+
+		/**
+		 * @param id - id of template defined in file
+		 * @param offset - byte offset of its definition line
+		 * @param length - number of bytes of definition line
+		 */
+		default void template( int id, long offset, int length) throws IOException{
+		}
+	}
+
+	private static boolean startsRecord( String line){
+		return line.startsWith( POINTS_COUNT + " ") || line.startsWith( INSTANCE + " ");
+	}
+
+	/**
+	 * <p>
+	 * same as {@link #read(InputStream, RecordSink)} but also gives byte range of every record, used to build a
+	 * {@link MapIndex}. lines are split on bytes instead of characters so offsets are exact in any encoding.</br>
+	 * range of a record may include style and template definitions of next record,
+	 * {@link #parseRecord(String, MapStyle, Map)} ignores them.</br>
+	 * </p>
+	 * @param in - stream of whole file
+	 * @param sink - receiver of records and their ranges
+	 */
+	static void readLocated( InputStream in, LocatedSink sink) throws IOException{
+		LineLocator locator = new LineLocator( sink);
+		byte[] buffer = new byte[1 << 16];
+		byte[] line = new byte[256];
+		int lineLength = 0;
+		long position = 0;
+		long lineStart = 0;
+		int read;
+		while( (read = in.read( buffer)) >= 0){
+			for( int i = 0; i < read; i++){
+				if( buffer[i] != '\n'){
+					if( lineLength == line.length)
+						line = Arrays.copyOf( line, lineLength * 2);
+					line[lineLength++] = buffer[i];
+					continue;
+				}
+				locator.line( line, lineLength, lineStart);
+				lineStart = position + i + 1;
+				lineLength = 0;
+			}
+			position += read;
+		}
+		if( lineLength > 0)
+			locator.line( line, lineLength, lineStart);
+		locator.finish( position);
+	}
+
+	/**
+	 * <p>
+	 * parse one record cut out of a file using its range in a {@link MapIndex}. style references and definitions
+	 * in text are ignored and given style is used instead, so record does not need the style table before it.
+	 * an instance record takes its template from given table, see {@link #templateOf(String)}.</br>
+	 * </p>
+	 * @param text - lines of one record
+	 * @param style - style of record, usually from index
+	 * @param templates - templates by id parsed with {@link #parseTemplate(String)}, only read for instances
+	 * @return parsed record
+	 * @throws MapFormatException if text is not a valid record
+	 */
+	static RoomRecord parseRecord( String text, MapStyle style, Map< Integer, RoomRecord> templates)
+			throws MapFormatException{
+		RecordParser parser = new RecordParser();
+		parser.preset = style;
+		parser.templates.putAll( templates);
+		int lineNumber = 0;
+		for( String line: text.split( "\r?\n")){
+			lineNumber++;
+			if( line.trim().isEmpty() || line.startsWith( STYLE + " ") || line.startsWith( TEMPLATE + " "))
+				continue;
+			parser.parse( line, lineNumber);
+		}
+		return parser.build();
+	}
+
+	/**
+	 * @param text - lines of one record
+	 * @return id of template if text is an instance record, else -1
+	 */
+	static int templateOf( String text){
+		if( !text.startsWith( INSTANCE + " "))
+			return -1;
+		int end = text.indexOf( ' ', INSTANCE.length() + 1);
+		try{
+			return Integer.parseInt( text.substring( INSTANCE.length() + 1, end < 0 ? text.length() : end));
+		}catch( NumberFormatException e){
+			// parseRecord reports it with a line number
+			return -1;
+		}
+	}
+
+	/**
+	 * <p>
+	 * parse one template definition line cut out of a file using its range in a {@link MapIndex}.</br>
+	 * </p>
+	 * @param line - definition line
+	 * @return template, its style is a placeholder as each instance holds its own
+	 * @throws MapFormatException if line is not a template definition
+	 */
+	static RoomRecord parseTemplate( String line) throws MapFormatException{
+		RecordParser parser = new RecordParser();
+		int id = parser.defineTemplate( line.trim(), 1);
+		if( id < 0)
+			throw new MapFormatException( "not a template definition: " + line);
+		return parser.templates.get( id);
+	}
+
+	@Override
+	public RecordWriter writer( OutputStream out){
+		Writer writer = new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8), 1 << 16);
+		return new RecordWriter(){
+
+			private final String newLine = System.lineSeparator();
+			private final StylePalette palette = new StylePalette();
+			/**
+			 * <p>
+			 * id of each template written so far, by identity of points instances share.</br>
+			 * </p>
+			 */
+			private final Map< Coordinates, Integer> templates = new IdentityHashMap<>();
+			private final StringBuilder builder = new StringBuilder();
+			private boolean first = true;
+
+			@Override
+			public void accept( RoomRecord record) throws IOException{
+				// records are separated, not terminated, by a new line
+				if( !first)
+					writer.write( newLine);
+				first = false;
+				if( !styleTable){
+					writer.write( format( record));
+					return;
+				}
+				builder.setLength( 0);
+				int style = palette.indexOf( record.getStyle());
+				if( style < 0){
+					style = palette.intern( record.getStyle());
+					builder.append( STYLE).append( " ").append( style).append( " ").append( record.getStyle()).append( newLine);
+				}
+				if( record.isInstance()){
+					appendInstance( record, style);
+					writer.write( builder.toString());
+					return;
+				}
+				builder.append( POINTS_COUNT).append( " ").append( record.getSides()).append( newLine);
+				builder.append( STYLE).append( " ").append( style).append( newLine);
+				appendPoints( builder, record);
+				writer.write( builder.toString());
+			}
+
+			private void appendInstance( RoomRecord record, int style){
+				Coordinates points = record.getCoordinates();
+				Integer template = templates.get( points.base());
+				if( template == null){
+					template = templates.size();
+					templates.put( points.base(), template);
+					builder.append( TEMPLATE).append( " ").append( template).append( " ").append( record.getSides());
+					for( int i = 0; i < points.size(); i++)
+						builder.append( " ").append( points.base().get( i));
+					builder.append( newLine);
+				}
+				builder.append( INSTANCE).append( " ").append( template).append( " ").append( style).append( " ")
+						.append( points.offsetX()).append( " ").append( points.offsetY());
+			}
+
+			@Override
+			public void close() throws IOException{
+				writer.close();
+			}
+		};
+	}
+
+	/**
+	 * <p>
+	 * convert one record to a string.</br>
+	 * each property is located in one line separated by {@link System#lineSeparator()}.</br>
+	 * </p>
+	 * @param record - record to be converted
+	 * @return a single string with explained format.
+	 */
+	public static String format( RoomRecord record){
+		String newLine = System.lineSeparator();
+		StringBuilder builder = new StringBuilder( 64 + record.getPointCount() * 40);
+		builder.append( POINTS_COUNT).append( " ").append( record.getSides()).append( newLine);
+		builder.append( FILL).append( " ").append( record.getFill()).append( newLine);
+		builder.append( STROKE).append( " ").append( record.getStroke()).append( newLine);
+		builder.append( WIDTH).append( " ").append( record.getStrokeWidth()).append( newLine);
+		appendPoints( builder, record);
+		return builder.toString();
+	}
+
+	private static void appendPoints( StringBuilder builder, RoomRecord record){
+		builder.append( POINTS);
+		for( int i = 0; i < record.getPointCount(); i++)
+			builder.append( " ").append( record.getX( i)).append( " ").append( record.getY( i));
+	}
+
+	/**
+	 * <p>
+	 * convert list of strings to a record. each property is located in one index of the list.</br>
+	 * </p>
+	 * @param list - a list of properties for one room
+	 * @return record created from list
+	 * @throws MapFormatException if list is not a valid record
+	 */
+	public static RoomRecord parse( List< String> list) throws MapFormatException{
+		RecordParser parser = new RecordParser();
+		int lineNumber = 0;
+		for( String line: list)
+			parser.parse( line, ++lineNumber);
+		return parser.build();
+	}
+
+	/**
+	 * <p>
+	 * feeds lines to a {@link RecordParser} like {@link TextMapCodec#read(InputStream, RecordSink)} does while
+	 * remembering where current record started.</br>
+	 * </p>
+	 */
+	private static class LineLocator{
+
+		private final RecordParser parser = new RecordParser();
+		private final LocatedSink sink;
+		private int lineNumber;
+		private long recordStart;
+
+		LineLocator( LocatedSink sink){
+			this.sink = sink;
+		}
+
+		void line( byte[] bytes, int length, long start) throws IOException{
+			if( length > 0 && bytes[length - 1] == '\r')
+				length--;
+			String line = new String( bytes, 0, length, StandardCharsets.UTF_8);
+			lineNumber++;
+			if( line.trim().isEmpty() || parser.defineStyle( line, lineNumber))
+				return;
+			int template = parser.defineTemplate( line, lineNumber);
+			if( template >= 0){
+				sink.template( template, start, length);
+				return;
+			}
+			if( startsRecord( line) && parser.started())
+				sink.accept( parser.build(), recordStart, (int) (start - recordStart));
+			if( !parser.started())
+				recordStart = start;
+			parser.parse( line, lineNumber);
+		}
+
+		void finish( long end) throws IOException{
+			if( parser.started())
+				sink.accept( parser.build(), recordStart, (int) (end - recordStart));
+		}
+	}
+
+	/**
+	 * <p>
+	 * collects properties of one record line by line. also holds style table and caches shared by all records of
+	 * one file, so each distinct color is parsed once and rooms with equal style share one {@link MapStyle}.</br>
+	 * </p>
+	 */
+	private static class RecordParser{
+
+		private final Map< Integer, MapStyle> table = new HashMap<>();
+		private final Map< String, MapColor> colors = new HashMap<>();
+		private final StylePalette palette = new StylePalette();
+		private final Map< Integer, RoomRecord> templates = new HashMap<>();
+
+		/**
+		 * <p>
+		 * if not null, style of every record no matter what its lines say.</br>
+		 * </p>
+		 */
+		private MapStyle preset;
+		private int firstLine;
+		private int sides = -1;
+		private MapStyle style;
+		private MapColor fill;
+		private MapColor stroke;
+		private double width = -1;
+		private double[] points;
+		/**
+		 * <p>
+		 * template and offset of an instance record, template is null for a record with its own points.</br>
+		 * </p>
+		 */
+		private RoomRecord template;
+		private double offsetX;
+		private double offsetY;
+
+		boolean started(){
+			return firstLine > 0;
+		}
+
+		/**
+		 * <p>
+		 * if given line is a style definition add it to table.</br>
+		 * </p>
+		 * @return true if line was a style definition
+		 */
+		boolean defineStyle( String line, int lineNumber) throws MapFormatException{
+			if( !line.startsWith( STYLE + " "))
+				return false;
+			String[] tokens = line.trim().split( " ");
+			// a reference only has the id
+			if( tokens.length == 2)
+				return false;
+			expect( tokens, 7, lineNumber);
+			try{
+				MapStyle defined = new MapStyle( color( tokens[2], tokens[3]), color( tokens[4], tokens[5]),
+						Double.parseDouble( tokens[6]));
+				if( table.put( Integer.valueOf( tokens[1]), palette.canonical( defined)) != null)
+					throw new MapFormatException( "line " + lineNumber + ": style " + tokens[1] + " is defined twice");
+			}catch( IllegalArgumentException e){
+				throw new MapFormatException( "line " + lineNumber + ": " + e.getMessage(), e);
+			}
+			return true;
+		}
+
+		/**
+		 * <p>
+		 * if given line is a template definition add it to templates.</br>
+		 * </p>
+		 * @return id of template if line was a template definition, else -1
+		 */
+		int defineTemplate( String line, int lineNumber) throws MapFormatException{
+			if( !line.startsWith( TEMPLATE + " "))
+				return -1;
+			String[] tokens = line.trim().split( " ");
+			if( tokens.length < 3 || tokens.length % 2 == 0)
+				throw new MapFormatException( "line " + lineNumber + ": \"" + TEMPLATE
+						+ "\" expects id, sides and x and y pairs but found " + (tokens.length - 1) + " value/s");
+			try{
+				int id = Integer.parseInt( tokens[1]);
+				double[] values = new double[tokens.length - 3];
+				for( int i = 0; i < values.length; i++){
+					values[i] = Double.parseDouble( tokens[i + 3]);
+					if( !Double.isFinite( values[i]))
+						throw new MapFormatException( "line " + lineNumber + ": coordinate " + values[i] + " is not finite");
+				}
+				RoomRecord defined = new RoomRecord( Integer.parseInt( tokens[2]), MapStyle.DEFAULT, values);
+				if( id < 0 || templates.put( id, defined) != null)
+					throw new MapFormatException( "line " + lineNumber + ": template " + id + " is defined twice or negative");
+				return id;
+			}catch( NumberFormatException e){
+				throw new MapFormatException( "line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+
+		private MapColor color( String hex, String alpha){
+			String key = hex + " " + alpha;
+			MapColor color = colors.get( key);
+			if( color == null){
+				color = MapColor.parse( hex, alpha);
+				colors.put( key, color);
+			}
+			return color;
+		}
+
+		void parse( String line, int lineNumber) throws MapFormatException{
+			if( firstLine == 0)
+				firstLine = lineNumber;
+			String[] tokens = line.trim().split( " ");
+			try{
+				switch( tokens[0]){
+					case POINTS_COUNT:
+						expect( tokens, 2, lineNumber);
+						sides = Integer.parseInt( tokens[1]);
+						break;
+					case STYLE:
+						expect( tokens, 2, lineNumber);
+						style = table.get( Integer.valueOf( tokens[1]));
+						if( style == null)
+							throw new MapFormatException( "line " + lineNumber + ": style " + tokens[1] + " is not defined");
+						break;
+					case FILL:
+						expect( tokens, 3, lineNumber);
+						fill = color( tokens[1], tokens[2]);
+						break;
+					case STROKE:
+						expect( tokens, 3, lineNumber);
+						stroke = color( tokens[1], tokens[2]);
+						break;
+					case WIDTH:
+						expect( tokens, 2, lineNumber);
+						width = Double.parseDouble( tokens[1]);
+						break;
+					case INSTANCE:
+						expect( tokens, 5, lineNumber);
+						template = templates.get( Integer.valueOf( tokens[1]));
+						if( template == null)
+							throw new MapFormatException( "line " + lineNumber + ": template " + tokens[1] + " is not defined");
+						sides = template.getSides();
+						if( preset == null){
+							style = table.get( Integer.valueOf( tokens[2]));
+							if( style == null)
+								throw new MapFormatException( "line " + lineNumber + ": style " + tokens[2] + " is not defined");
+						}
+						offsetX = Double.parseDouble( tokens[3]);
+						offsetY = Double.parseDouble( tokens[4]);
+						if( !Double.isFinite( offsetX) || !Double.isFinite( offsetY))
+							throw new MapFormatException( "line " + lineNumber + ": offset is not finite");
+						break;
+					case POINTS:
+						points = new double[tokens.length - 1];
+						for( int i = 1; i < tokens.length; i++)
+							points[i - 1] = Double.parseDouble( tokens[i]);
+						break;
+					default:
+						throw new MapFormatException( "line " + lineNumber + ": \"" + tokens[0] + "\" is not supported");
+				}
+			}catch( IllegalArgumentException e){
+				// NumberFormatException is an IllegalArgumentException
+				throw new MapFormatException( "line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+
+		private void expect( String[] tokens, int count, int lineNumber) throws MapFormatException{
+			if( tokens.length != count)
+				throw new MapFormatException( "line " + lineNumber + ": \"" + tokens[0] + "\" expects " + (count - 1)
+						+ " value/s but found " + (tokens.length - 1));
+		}
+
+		RoomRecord build() throws MapFormatException{
+			String where = "record at line " + firstLine + ": ";
+			if( preset != null)
+				style = preset;
+			if( template != null){
+				if( points != null || fill != null || stroke != null || width >= 0)
+					throw new MapFormatException( where + "an instance only has its \"" + INSTANCE + "\" line");
+				RoomRecord record = template.withStyle( style).instance( offsetX, offsetY);
+				firstLine = 0;
+				sides = -1;
+				style = null;
+				template = null;
+				return record;
+			}
+			if( sides < 0)
+				throw new MapFormatException( where + "missing \"" + POINTS_COUNT + "\"");
+			if( style == null && (fill == null || stroke == null || width < 0))
+				throw new MapFormatException( where + "missing \"" + STYLE + "\" or \"" + FILL + "\", \"" + STROKE
+						+ "\" and \"" + WIDTH + "\"");
+			if( points == null)
+				throw new MapFormatException( where + "missing \"" + POINTS + "\"");
+			if( points.length % 2 != 0)
+				throw new MapFormatException( where + "odd number of coordinates " + points.length);
+			for( double value: points)
+				if( !Double.isFinite( value))
+					throw new MapFormatException( where + "coordinate " + value + " is not finite");
+			if( style == null)
+				style = palette.canonical( new MapStyle( fill, stroke, width));
+			RoomRecord record = new RoomRecord( sides, style, points);
+			firstLine = 0;
+			sides = -1;
+			style = null;
+			fill = stroke = null;
+			width = -1;
+			points = null;
+			return record;
+		}
+	}
+}
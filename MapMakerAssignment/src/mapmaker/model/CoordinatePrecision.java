@@ -0,0 +1,68 @@
+package mapmaker.model;
+
+/**
+ * <p>
+ * how coordinates of rooms are stored in memory. a {@link MapDocument} stores every room with one precision.</br>
+ * <ul>
+ * 	<li>{@link #DOUBLE} 8 bytes per coordinate, exact. default and same as the scene graph.</li>
+ * 	<li>{@link #FLOAT} 4 bytes per coordinate. error is at most half a unit in the last place of a float,
+ * 		for example at most 0.00049 pixel for coordinates below 8192 and 0.0039 pixel below 65536.</li>
+ * 	<li>{@link #FIXED} 4 bytes per coordinate as int of {@link #FIXED_STEP} steps. error is at most half of a
+ * 		step, 0.0005 pixel, for any coordinate between -2,147,483 and 2,147,483 pixels. coordinates outside of
+ * 		that range are rejected.</li>
+ * </ul>
+ * maps drawn in this application use pixel coordinates, so both {@link #FLOAT} and {@link #FIXED} are well below
+ * what can be seen or what {@link mapmaker.io.TextMapCodec} users care about.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public enum CoordinatePrecision{
+	DOUBLE( 8), FLOAT( 4), FIXED( 4);
+
+	/**
+	 * <p>
+	 * size of one step of {@link #FIXED} in pixels. it matches default precision of
+	 * {@link mapmaker.io.CompactMapCodec} so a fixed document can be saved compactly without more error.</br>
+	 * </p>
+	 */
+	public static final double FIXED_STEP = 0.001;
+
+	/**
+	 * <p>
+	 * number of steps of {@link #FIXED} in one pixel.</br>
+	 * </p>
+	 */
+	public static final double FIXED_SCALE = 1000;
+
+	private final int bytesPerCoordinate;
+
+	private CoordinatePrecision( int bytesPerCoordinate){
+		this.bytesPerCoordinate = bytesPerCoordinate;
+	}
+
+	/**
+	 * @return size of one coordinate in memory
+	 */
+	public int bytesPerCoordinate(){
+		return bytesPerCoordinate;
+	}
+
+	/**
+	 * <p>
+	 * largest difference between a coordinate and the value stored for it with this precision.</br>
+	 * </p>
+	 * @param magnitude - largest absolute coordinate to be stored
+	 * @return maximum error in pixels
+	 */
+	public double maxError( double magnitude){
+		switch( this){
+			case FLOAT:
+				return Math.ulp( (float) Math.abs( magnitude)) / 2;
+			case FIXED:
+				return FIXED_STEP / 2;
+			default:
+				return 0;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package mapmaker.model;
+
+/**
+ * <p>
+ * immutable block of coordinates stored as x and y pairs with a {@link CoordinatePrecision}.</br>
+ * values are read back as double so code using {@link RoomRecord} does not care how they are stored.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public abstract class Coordinates{
+
+	/**
+	 * <p>
+	 * package private constructor, all implementations are in this class.</br>
+	 * </p>
+	 */
+	Coordinates(){
+	}
+
+	/**
+	 * <p>
+	 * store given values with given precision. values array is not copied when precision is
+	 * {@link CoordinatePrecision#DOUBLE}, caller must not change it afterwards.</br>
+	 * </p>
+	 * @param values - x and y pairs
+	 * @param precision - how values are to be stored
+	 * @return new block of coordinates
+	 * @throws IllegalArgumentException if a value is outside of range of {@link CoordinatePrecision#FIXED}
+	 */
+	static Coordinates of( double[] values, CoordinatePrecision precision){
+		switch( precision){
+			case FLOAT:
+				float[] floats = new float[values.length];
+				for( int i = 0; i < values.length; i++)
+					floats[i] = (float) values[i];
+				return new FloatCoordinates( floats);
+			case FIXED:
+				int[] ints = new int[values.length];
+				for( int i = 0; i < values.length; i++){
+					double q = Math.rint( values[i] * CoordinatePrecision.FIXED_SCALE);
+					if( q > Integer.MAX_VALUE || q < Integer.MIN_VALUE)
+						throw new IllegalArgumentException( values[i] + " is out of range of fixed coordinates");
+					ints[i] = (int) q;
+				}
+				return new FixedCoordinates( ints);
+			default:
+				return new DoubleCoordinates( values);
+		}
+	}
+
+	/**
+	 * <p>
+	 * view of given block moved by given distance, sharing its values instead of copying them. a view of a view
+	 * adds up distances and shares the innermost block, so copies of copies never nest.</br>
+	 * </p>
+	 * @param base - block to move
+	 * @param deltaX - distance in x direction
+	 * @param deltaY - distance in y direction
+	 * @return new moved view of base
+	 */
+	static Coordinates offset( Coordinates base, double deltaX, double deltaY){
+		return new OffsetCoordinates( base.base(), base.offsetX() + deltaX, base.offsetY() + deltaY);
+	}
+
+	/**
+	 * @return number of values, twice the number of points
+	 */
+	public abstract int size();
+
+	/**
+	 * @param index - index of value, even for x and odd for y
+	 * @return value at index
+	 */
+	public abstract double get( int index);
+
+	/**
+	 * @return precision values are stored with
+	 */
+	public abstract CoordinatePrecision precision();
+
+	/**
+	 * <p>
+	 * copy all values to a new double array.</br>
+	 * </p>
+	 * @return new array of x and y pairs
+	 */
+	public double[] toArray(){
+		double[] values = new double[size()];
+		for( int i = 0; i < values.length; i++)
+			values[i] = get( i);
+		return values;
+	}
+
+	/**
+	 * @return block this one shares its values with, this block if it holds its own values
+	 */
+	public Coordinates base(){
+		return this;
+	}
+
+	/**
+	 * @return distance in x this block is moved from its {@link #base()}
+	 */
+	public double offsetX(){
+		return 0;
+	}
+
+	/**
+	 * @return distance in y this block is moved from its {@link #base()}
+	 */
+	public double offsetY(){
+		return 0;
+	}
+
+	/**
+	 * <p>
+	 * estimated heap size of this block, object headers and array included.</br>
+	 * </p>
+	 * @return estimated bytes
+	 */
+	public long estimatedBytes(){
+		// 16 for this object, 16 for array header
+		return 32 + (long) size() * precision().bytesPerCoordinate();
+	}
+
+	private static final class DoubleCoordinates extends Coordinates{
+
+		private final double[] values;
+
+		DoubleCoordinates( double[] values){
+			this.values = values;
+		}
+
+		@Override
+		public int size(){
+			return values.length;
+		}
+
+		@Override
+		public double get( int index){
+			return values[index];
+		}
+
+		@Override
+		public CoordinatePrecision precision(){
+			return CoordinatePrecision.DOUBLE;
+		}
+
+		@Override
+		public double[] toArray(){
+			return values.clone();
+		}
+	}
+
+	private static final class FloatCoordinates extends Coordinates{
+
+		private final float[] values;
+
+		FloatCoordinates( float[] values){
+			this.values = values;
+		}
+
+		@Override
+		public int size(){
+			return values.length;
+		}
+
+		@Override
+		public double get( int index){
+			return values[index];
+		}
+
+		@Override
+		public CoordinatePrecision precision(){
+			return CoordinatePrecision.FLOAT;
+		}
+	}
+
+	private static final class FixedCoordinates extends Coordinates{
+
+		private final int[] values;
+
+		FixedCoordinates( int[] values){
+			this.values = values;
+		}
+
+		@Override
+		public int size(){
+			return values.length;
+		}
+
+		@Override
+		public double get( int index){
+			return values[index] / CoordinatePrecision.FIXED_SCALE;
+		}
+
+		@Override
+		public CoordinatePrecision precision(){
+			return CoordinatePrecision.FIXED;
+		}
+	}
+
+	private static final class OffsetCoordinates extends Coordinates{
+
+		private final Coordinates base;
+		private final double offsetX;
+		private final double offsetY;
+
+		OffsetCoordinates( Coordinates base, double offsetX, double offsetY){
+			this.base = base;
+			this.offsetX = offsetX;
+			this.offsetY = offsetY;
+		}
+
+		@Override
+		public int size(){
+			return base.size();
+		}
+
+		@Override
+		public double get( int index){
+			return base.get( index) + ((index & 1) == 0 ? offsetX : offsetY);
+		}
+
+		@Override
+		public CoordinatePrecision precision(){
+			return base.precision();
+		}
+
+		@Override
+		public Coordinates base(){
+			return base;
+		}
+
+		@Override
+		public double offsetX(){
+			return offsetX;
+		}
+
+		@Override
+		public double offsetY(){
+			return offsetY;
+		}
+
+		@Override
+		public long estimatedBytes(){
+			// 16 for this object, a reference and two doubles, values are counted once with base
+			return 40;
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package mapmaker.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import mapmaker.geom.Polygons;
+
+/**
+ * <p>
+ * statistics of a map kept up to date from {@link MapChanges}, unlike {@link MapStats} which only counts rooms
+ * read once. number of rooms, vertices, rooms per sides, total area and perimeter, same values for each style and
+ * bounds of all rooms are kept.</br>
+ * record of each room is remembered by id, so a removed or changed room takes off exactly what it added. a change
+ * costs vertices of changed rooms plus a logarithm of number of rooms for bounds, which are kept as sorted
+ * multisets of each room's edges so removing the outermost room finds the next one without a scan.</br>
+ * totals are sums of doubles, so after many edits they may differ from a fresh count in last digits. they are
+ * reset to exact zero whenever a map or style has no rooms left.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class IncrementalMapStats implements MapChangeListener{
+
+	/**
+	 * <p>
+	 * statistics of rooms sharing one style.</br>
+	 * </p>
+	 */
+	public static final class StyleStats{
+
+		private long rooms;
+		private double area;
+		private double perimeter;
+
+		public long getRooms(){
+			return rooms;
+		}
+
+		public double getArea(){
+			return area;
+		}
+
+		public double getPerimeter(){
+			return perimeter;
+		}
+	}
+
+	private final IntFunction< RoomRecord> records;
+	private RoomRecord[] known = new RoomRecord[16];
+	private long rooms;
+	private long vertices;
+	private double area;
+	private double perimeter;
+	private final Map< Integer, Long> roomsPerSides = new TreeMap<>();
+	private final Map< MapStyle, StyleStats> styles = new LinkedHashMap<>();
+	/**
+	 * <p>
+	 * left, top, right and bottom edge of every room with number of rooms having it.</br>
+	 * </p>
+	 */
+	private final TreeMap< Double, Integer> minX = new TreeMap<>();
+	private final TreeMap< Double, Integer> minY = new TreeMap<>();
+	private final TreeMap< Double, Integer> maxX = new TreeMap<>();
+	private final TreeMap< Double, Integer> maxY = new TreeMap<>();
+
+	/**
+	 * @param records - current record of a room by id, null if there is no room with id
+	 */
+	public IncrementalMapStats( IntFunction< RoomRecord> records){
+		this.records = records;
+	}
+
+	@Override
+	public void mapChanged( MapChanges changes){
+		changes.forEach( MapChanges.Kind.REMOVED, this::remove);
+		changes.forEach( MapChanges.Kind.ADDED, this::update);
+		changes.forEach( MapChanges.Kind.GEOMETRY, this::update);
+		changes.forEach( MapChanges.Kind.STYLE, this::update);
+	}
+
+	/**
+	 * <p>
+	 * replace what is known about a room with its current record.</br>
+	 * </p>
+	 * @param id - id of a room
+	 */
+	public void update( int id){
+		remove( id);
+		RoomRecord record = records.apply( id);
+		if( record == null)
+			return;
+		if( id >= known.length)
+			known = Arrays.copyOf( known, Math.max( id + 1, known.length * 2));
+		known[id] = record;
+		apply( record, 1);
+	}
+
+	/**
+	 * <p>
+	 * take a room off statistics.</br>
+	 * </p>
+	 * @param id - id of a room
+	 */
+	public void remove( int id){
+		if( id >= known.length || known[id] == null)
+			return;
+		apply( known[id], -1);
+		known[id] = null;
+	}
+
+	private void apply( RoomRecord record, int sign){
+		double[] points = record.copyPoints();
+		double roomArea = Polygons.area( points);
+		double roomPerimeter = Polygons.perimeter( points);
+		rooms += sign;
+		vertices += sign * record.getPointCount();
+		area += sign * roomArea;
+		perimeter += sign * roomPerimeter;
+		if( rooms == 0)
+			area = perimeter = 0;
+		roomsPerSides.merge( record.getSides(), (long) sign, ( a, b) -> a + b == 0 ? null : a + b);
+		StyleStats style = styles.computeIfAbsent( record.getStyle(), k -> new StyleStats());
+		style.rooms += sign;
+		style.area += sign * roomArea;
+		style.perimeter += sign * roomPerimeter;
+		if( style.rooms == 0)
+			styles.remove( record.getStyle());
+		if( points.length > 0){
+			double[] bounds = Polygons.bounds( points);
+			count( minX, bounds[0], sign);
+			count( minY, bounds[1], sign);
+			count( maxX, bounds[2], sign);
+			count( maxY, bounds[3], sign);
+		}
+	}
+
+	private static void count( TreeMap< Double, Integer> edges, double edge, int sign){
+		edges.merge( edge, sign, ( a, b) -> a + b == 0 ? null : a + b);
+	}
+
+	public long getRooms(){
+		return rooms;
+	}
+
+	public long getVertices(){
+		return vertices;
+	}
+
+	public double getArea(){
+		return area;
+	}
+
+	public double getPerimeter(){
+		return perimeter;
+	}
+
+	/**
+	 * @return number of rooms for each sides count, sorted by sides
+	 */
+	public Map< Integer, Long> getRoomsPerSides(){
+		return Collections.unmodifiableMap( roomsPerSides);
+	}
+
+	/**
+	 * @return statistics of each style in use, in order styles were first seen
+	 */
+	public Map< MapStyle, StyleStats> getStyles(){
+		return Collections.unmodifiableMap( styles);
+	}
+
+	/**
+	 * @return bounds of all rooms as {minX, minY, maxX, maxY}, NaN if there are no rooms
+	 */
+	public double[] getBounds(){
+		if( minX.isEmpty())
+			return new double[]{ Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+		return new double[]{ minX.firstKey(), minY.firstKey(), maxX.lastKey(), maxY.lastKey() };
+	}
+}
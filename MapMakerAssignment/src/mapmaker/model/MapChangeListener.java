@@ -0,0 +1,17 @@
+package mapmaker.model;
+
+/**
+ * <p>
+ * receiver of {@link MapChanges}, called at most once per pulse with all changes since its last call.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+@FunctionalInterface
+public interface MapChangeListener{
+
+	/**
+	 * @param changes - rooms added, removed or changed since last call
+	 */
+	void mapChanged( MapChanges changes);
+}
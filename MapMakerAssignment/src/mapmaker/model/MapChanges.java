@@ -0,0 +1,160 @@
+package mapmaker.model;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>
+ * one batch of changes to rooms of a map, by room id and kind of change. a map collects changes with a
+ * {@link Collector} and hands one batch to each {@link MapChangeListener} once per pulse, so a listener does work
+ * proportional to rooms that changed, not to size of map.</br>
+ * changes of one room are coalesced while collected. a room added and then moved or restyled is only
+ * {@link Kind#ADDED}, a room added and removed again is not in batch at all. a room removed and a new room given
+ * same id is both {@link Kind#REMOVED} and {@link Kind#ADDED}, so a listener keeping state per id should apply
+ * removed rooms before added ones, then changed geometry and style.</br>
+ * a batch never changes after it is created and may be shared by all listeners.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapChanges{
+
+	/**
+	 * <p>
+	 * kinds of change, in order a listener should apply them.</br>
+	 * </p>
+	 */
+	public enum Kind{
+		REMOVED, ADDED, GEOMETRY, STYLE;
+	}
+
+	private final Map< Kind, BitSet> ids;
+
+	private MapChanges( Map< Kind, BitSet> ids){
+		this.ids = ids;
+	}
+
+	/**
+	 * @return true if no room changed
+	 */
+	public boolean isEmpty(){
+		for( BitSet set: ids.values())
+			if( !set.isEmpty())
+				return false;
+		return true;
+	}
+
+	/**
+	 * @param kind - kind of change
+	 * @param id - id of a room
+	 * @return true if room has given kind of change in this batch
+	 */
+	public boolean contains( Kind kind, int id){
+		return ids.get( kind).get( id);
+	}
+
+	/**
+	 * @param kind - kind of change
+	 * @return number of rooms with given kind of change
+	 */
+	public int count( Kind kind){
+		return ids.get( kind).cardinality();
+	}
+
+	/**
+	 * @param kind - kind of change
+	 * @param action - called with id of each room with given kind of change, in increasing order
+	 */
+	public void forEach( Kind kind, IntConsumer action){
+		BitSet set = ids.get( kind);
+		for( int id = set.nextSetBit( 0); id >= 0; id = set.nextSetBit( id + 1))
+			action.accept( id);
+	}
+
+	/**
+	 * @param kind - kind of change
+	 * @return copy of ids of rooms with given kind of change
+	 */
+	public BitSet get( Kind kind){
+		return (BitSet) ids.get( kind).clone();
+	}
+
+	@Override
+	public String toString(){
+		return "MapChanges" + ids;
+	}
+
+	/**
+	 * <p>
+	 * mutable collector of changes, coalescing changes of each room as described in {@link MapChanges}.</br>
+	 * </p>
+	 */
+	public static final class Collector{
+
+		private final BitSet removed = new BitSet();
+		private final BitSet added = new BitSet();
+		private final BitSet geometry = new BitSet();
+		private final BitSet style = new BitSet();
+
+		public void added( int id){
+			added.set( id);
+			// a new room is already news, its later changes are not
+			geometry.clear( id);
+			style.clear( id);
+		}
+
+		public void removed( int id){
+			// a room added since last batch was never seen by listeners
+			if( added.get( id))
+				added.clear( id);
+			else
+				removed.set( id);
+			geometry.clear( id);
+			style.clear( id);
+		}
+
+		public void geometryChanged( int id){
+			if( !added.get( id))
+				geometry.set( id);
+		}
+
+		/**
+		 * @param ids - rooms whose geometry changed
+		 */
+		public void geometryChanged( BitSet ids){
+			BitSet changed = (BitSet) ids.clone();
+			changed.andNot( added);
+			geometry.or( changed);
+		}
+
+		public void styleChanged( int id){
+			if( !added.get( id))
+				style.set( id);
+		}
+
+		public boolean isEmpty(){
+			return removed.isEmpty() && added.isEmpty() && geometry.isEmpty() && style.isEmpty();
+		}
+
+		/**
+		 * <p>
+		 * create a batch of everything collected so far and start collecting a new one.</br>
+		 * </p>
+		 * @return new batch
+		 */
+		public MapChanges drain(){
+			Map< Kind, BitSet> ids = new EnumMap<>( Kind.class);
+			ids.put( Kind.REMOVED, (BitSet) removed.clone());
+			ids.put( Kind.ADDED, (BitSet) added.clone());
+			ids.put( Kind.GEOMETRY, (BitSet) geometry.clone());
+			ids.put( Kind.STYLE, (BitSet) style.clone());
+			removed.clear();
+			added.clear();
+			geometry.clear();
+			style.clear();
+			return new MapChanges( ids);
+		}
+	}
+}
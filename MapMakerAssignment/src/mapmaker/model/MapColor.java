@@ -0,0 +1,171 @@
+package mapmaker.model;
+
+import java.util.Locale;
+
+/**
+ * <p>
+ * immutable color value used by the headless map model. it holds the same information the map file does,
+ * a 24 bit rgb value and an opacity between 0 and 1.</br>
+ * this class does not depend on JavaFX so it can be used without starting the FX toolkit.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapColor{
+
+	public static final MapColor BLACK = new MapColor( 0x000000, 1);
+	public static final MapColor DARKGREEN = new MapColor( 0x006400, 1);
+	public static final MapColor LIGHTGREEN = new MapColor( 0x90EE90, 1);
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	/**
+	 * <p>
+	 * red, green and blue packed as 0xRRGGBB.</br>
+	 * </p>
+	 */
+	private final int rgb;
+
+	/**
+	 * <p>
+	 * alpha channel between 0 and 1.</br>
+	 * </p>
+	 */
+	private final double opacity;
+
+	/**
+	 * <p>
+	 * cached result of {@link #toString()}. colors are shared through {@link MapStyle}s so each distinct color
+	 * is formatted once instead of once for each room.</br>
+	 * </p>
+	 */
+	private String text;
+
+	/**
+	 * <p>
+	 * create a color from packed rgb and opacity.</br>
+	 * </p>
+	 * @param rgb - red, green and blue packed as 0xRRGGBB
+	 * @param opacity - alpha channel between 0 and 1
+	 */
+	public MapColor( int rgb, double opacity){
+		if( opacity < 0 || opacity > 1 || Double.isNaN( opacity))
+			throw new IllegalArgumentException( "opacity must be between 0 and 1, was " + opacity);
+		this.rgb = rgb & 0xFFFFFF;
+		this.opacity = opacity;
+	}
+
+	/**
+	 * <p>
+	 * create a color from red, green and blue channels between 0 and 1, the way JavaFX stores them.</br>
+	 * </p>
+	 * @param red - red channel between 0 and 1
+	 * @param green - green channel between 0 and 1
+	 * @param blue - blue channel between 0 and 1
+	 * @param opacity - alpha channel between 0 and 1
+	 * @return new color
+	 */
+	public static MapColor of( double red, double green, double blue, double opacity){
+		return new MapColor( channel( red) << 16 | channel( green) << 8 | channel( blue), opacity);
+	}
+
+	private static int channel( double value){
+		return (int) Math.round( value * 255);
+	}
+
+	/**
+	 * <p>
+	 * parse the two tokens used in map file, hex value like #90EE90 and alpha like 1.000000.</br>
+	 * both #RRGGBB and 0xRRGGBB are accepted.</br>
+	 * </p>
+	 * @param hex - hex value of color
+	 * @param alpha - alpha value of color between 0 and 1
+	 * @return new color
+	 * @throws IllegalArgumentException if tokens are not a valid color
+	 */
+	public static MapColor parse( String hex, String alpha){
+		String digits;
+		if( hex.startsWith( "#"))
+			digits = hex.substring( 1);
+		else if( hex.startsWith( "0x") || hex.startsWith( "0X"))
+			digits = hex.substring( 2);
+		else
+			throw new IllegalArgumentException( "\"" + hex + "\" is not a hex color");
+		if( digits.length() != 6)
+			throw new IllegalArgumentException( "\"" + hex + "\" is not a hex color");
+		return new MapColor( Integer.parseInt( digits, 16), Double.parseDouble( alpha));
+	}
+
+	public int getRGB(){
+		return rgb;
+	}
+
+	public int getRed(){
+		return rgb >> 16 & 0xFF;
+	}
+
+	public int getGreen(){
+		return rgb >> 8 & 0xFF;
+	}
+
+	public int getBlue(){
+		return rgb & 0xFF;
+	}
+
+	public double getOpacity(){
+		return opacity;
+	}
+
+	/**
+	 * <p>
+	 * packed 0xAARRGGBB value as used by {@link java.awt.image.BufferedImage#TYPE_INT_ARGB}.</br>
+	 * </p>
+	 * @return packed argb value
+	 */
+	public int getARGB(){
+		return (int) Math.round( opacity * 255) << 24 | rgb;
+	}
+
+	/**
+	 * <p>
+	 * hex part of this color in #RRGGBB format.</br>
+	 * </p>
+	 * @return hex value of color
+	 */
+	public String toHex(){
+		char[] chars = new char[7];
+		chars[0] = '#';
+		for( int i = 0; i < 6; i++)
+			chars[i + 1] = HEX[rgb >> (20 - i * 4) & 0xF];
+		return new String( chars);
+	}
+
+	/**
+	 * <p>
+	 * convert this color to the format used in map file, hex value followed by a space and alpha channel.</br>
+	 * </p>
+	 * @return string format of color in hex format plus alpha
+	 */
+	@Override
+	public String toString(){
+		// benign race, every thread computes the same string
+		if( text == null)
+			text = toHex() + " " + String.format( Locale.ROOT, "%f", opacity);
+		return text;
+	}
+
+	@Override
+	public boolean equals( Object obj){
+		if( this == obj)
+			return true;
+		if( !(obj instanceof MapColor))
+			return false;
+		MapColor other = (MapColor) obj;
+		return rgb == other.rgb && Double.compare( opacity, other.opacity) == 0;
+	}
+
+	@Override
+	public int hashCode(){
+		return 31 * rgb + Double.hashCode( opacity);
+	}
+}
@@ -0,0 +1,220 @@
+package mapmaker.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mapmaker.geom.Polygons;
+import mapmaker.geom.SpatialGrid;
+
+/**
+ * <p>
+ * difference between two versions of a map. rooms are matched in two passes, neither compares all pairs:
+ * <ol>
+ * 	<li>rooms with same {@link RoomFingerprint} are unchanged, found through a hash table. equal rooms repeated in
+ * 		a map are matched in paint order</li>
+ * 	<li>each room of new version left over is matched to a left over room of old version whose bounds overlap it
+ * 		most, found through a {@link SpatialGrid} of left over rooms. such a pair is a modified room, a room moved
+ * 		by less than its own size or restyled or with a corner dragged</li>
+ * </ol>
+ * old rooms still left are removed and new rooms still left are added. whole compare is linear in number of rooms
+ * plus the small number of changed rooms times rooms near each.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapDiff{
+
+	/**
+	 * <p>
+	 * smallest overlap of bounds, as area of intersection over area of union, for two rooms to be one modified
+	 * room instead of one removed and one added.</br>
+	 * </p>
+	 */
+	public static final double MIN_OVERLAP = 0.3;
+	/**
+	 * <p>
+	 * bounds are grown by this much on each side before overlap is measured, so lines and points, whose bounds
+	 * have no area, can still match.</br>
+	 * </p>
+	 */
+	private static final double MARGIN = 0.5;
+
+	private final int[] match;
+	private final BitSet modified;
+	private final BitSet added;
+
+	private MapDiff( int[] match, BitSet modified, BitSet added){
+		this.match = match;
+		this.modified = modified;
+		this.added = added;
+	}
+
+	/**
+	 * @param before - old version of map in paint order
+	 * @param after - new version of map in paint order
+	 * @return difference from before to after
+	 */
+	public static MapDiff compare( List< RoomRecord> before, List< RoomRecord> after){
+		int[] match = new int[before.size()];
+		Arrays.fill( match, -1);
+		// chains of old rooms with same fingerprint, first one in head
+		Map< Long, Integer> head = new HashMap<>( before.size() * 2);
+		int[] next = new int[before.size()];
+		for( int i = before.size() - 1; i >= 0; i--){
+			Integer first = head.put( RoomFingerprint.of( before.get( i)), i);
+			next[i] = first == null ? -1 : first;
+		}
+		BitSet added = new BitSet();
+		for( int i = 0; i < after.size(); i++){
+			long fingerprint = RoomFingerprint.of( after.get( i));
+			Integer old = head.get( fingerprint);
+			if( old == null){
+				added.set( i);
+				continue;
+			}
+			match[old] = i;
+			if( next[old] < 0)
+				head.remove( fingerprint);
+			else
+				head.put( fingerprint, next[old]);
+		}
+		BitSet modified = new BitSet();
+		if( !added.isEmpty())
+			matchNearby( before, after, match, modified, added);
+		return new MapDiff( match, modified, added);
+	}
+
+	/**
+	 * <p>
+	 * pair left over rooms by overlap of bounds, each new room takes best free old room in reach.</br>
+	 * </p>
+	 */
+	private static void matchNearby( List< RoomRecord> before, List< RoomRecord> after, int[] match, BitSet modified,
+			BitSet added){
+		int[] left = new int[before.size()];
+		int count = 0;
+		for( int i = 0; i < match.length; i++)
+			if( match[i] < 0)
+				left[count++] = i;
+		if( count == 0)
+			return;
+		double[] bounds = new double[count * 4];
+		for( int i = 0; i < count; i++)
+			System.arraycopy( boundsOf( before.get( left[i])), 0, bounds, i * 4, 4);
+		SpatialGrid grid = SpatialGrid.of( bounds);
+		BitSet taken = new BitSet();
+		for( int a = added.nextSetBit( 0); a >= 0; a = added.nextSetBit( a + 1)){
+			double[] room = boundsOf( after.get( a));
+			if( Double.isNaN( room[0]))
+				continue;
+			BitSet near = grid.query( room[0], room[1], room[2], room[3]);
+			near.andNot( taken);
+			int best = -1;
+			double bestOverlap = MIN_OVERLAP;
+			for( int n = near.nextSetBit( 0); n >= 0; n = near.nextSetBit( n + 1)){
+				double overlap = overlap( room, bounds, n * 4);
+				if( overlap >= bestOverlap){
+					bestOverlap = overlap;
+					best = n;
+				}
+			}
+			if( best < 0)
+				continue;
+			taken.set( best);
+			match[left[best]] = a;
+			modified.set( left[best]);
+			added.clear( a);
+		}
+	}
+
+	private static double[] boundsOf( RoomRecord room){
+		double[] bounds = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+		for( int p = 0; p < room.getPointCount(); p++)
+			Polygons.include( bounds, room.getX( p), room.getY( p));
+		if( !Double.isNaN( bounds[0])){
+			bounds[0] -= MARGIN;
+			bounds[1] -= MARGIN;
+			bounds[2] += MARGIN;
+			bounds[3] += MARGIN;
+		}
+		return bounds;
+	}
+
+	/**
+	 * @return area of intersection over area of union of two bounds
+	 */
+	private static double overlap( double[] a, double[] bounds, int b){
+		double width = Math.min( a[2], bounds[b + 2]) - Math.max( a[0], bounds[b]);
+		double height = Math.min( a[3], bounds[b + 3]) - Math.max( a[1], bounds[b + 1]);
+		if( width <= 0 || height <= 0)
+			return 0;
+		double intersection = width * height;
+		double union = (a[2] - a[0]) * (a[3] - a[1]) + (bounds[b + 2] - bounds[b]) * (bounds[b + 3] - bounds[b + 1])
+				- intersection;
+		return intersection / union;
+	}
+
+	/**
+	 * @param before - index of a room in old version
+	 * @return index of same or modified room in new version, -1 if it was removed
+	 */
+	public int matchOf( int before){
+		return match[before];
+	}
+
+	/**
+	 * @param before - index of a room in old version
+	 * @return true if room was matched to a room which is not equal to it
+	 */
+	public boolean isModified( int before){
+		return modified.get( before);
+	}
+
+	/**
+	 * @return indices in old version of modified rooms, a copy
+	 */
+	public BitSet getModified(){
+		return (BitSet) modified.clone();
+	}
+
+	/**
+	 * @return indices in old version of removed rooms
+	 */
+	public BitSet getRemoved(){
+		BitSet removed = new BitSet();
+		for( int i = 0; i < match.length; i++)
+			if( match[i] < 0)
+				removed.set( i);
+		return removed;
+	}
+
+	/**
+	 * @return indices in new version of added rooms, a copy
+	 */
+	public BitSet getAdded(){
+		return (BitSet) added.clone();
+	}
+
+	/**
+	 * @return number of rooms same in both versions
+	 */
+	public int getUnchangedCount(){
+		return match.length - getRemoved().cardinality() - modified.cardinality();
+	}
+
+	/**
+	 * @return true if both versions hold same rooms
+	 */
+	public boolean isEmpty(){
+		return added.isEmpty() && modified.isEmpty() && getRemoved().isEmpty();
+	}
+
+	@Override
+	public String toString(){
+		return "unchanged " + getUnchangedCount() + ", modified " + modified.cardinality() + ", removed "
+				+ getRemoved().cardinality() + ", added " + added.cardinality();
+	}
+}
@@ -0,0 +1,181 @@
+package mapmaker.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>
+ * headless in memory map, an ordered list of {@link RoomRecord}s. every record added to a document is stored with
+ * the {@link CoordinatePrecision} chosen when document was created, so a document of integer-ish pixel maps can
+ * use {@link CoordinatePrecision#FLOAT} or {@link CoordinatePrecision#FIXED} and take half the memory for its
+ * coordinates.</br>
+ * styles of rooms are held once in a {@link StylePalette} and each room refers to its palette slot by index, so
+ * {@link #restyle(int, MapStyle)} changes every room of a style in constant time. a room picks up its new style
+ * the next time it is read.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapDocument implements Iterable< RoomRecord>{
+
+	private final CoordinatePrecision precision;
+	private final List< RoomRecord> rooms = new ArrayList<>();
+	private final StylePalette palette = new StylePalette();
+
+	/**
+	 * <p>
+	 * palette index of each room, kept in a primitive array parallel to rooms.</br>
+	 * </p>
+	 */
+	private int[] styleOf = new int[16];
+
+	/**
+	 * <p>
+	 * create an empty document using {@link CoordinatePrecision#DOUBLE}.</br>
+	 * </p>
+	 */
+	public MapDocument(){
+		this( CoordinatePrecision.DOUBLE);
+	}
+
+	/**
+	 * <p>
+	 * create an empty document using given precision for all of its rooms.</br>
+	 * </p>
+	 * @param precision - how coordinates of rooms are stored
+	 */
+	public MapDocument( CoordinatePrecision precision){
+		this.precision = precision;
+	}
+
+	public CoordinatePrecision getPrecision(){
+		return precision;
+	}
+
+	/**
+	 * <p>
+	 * add a room to end of document, converting its coordinates to precision of this document.</br>
+	 * </p>
+	 * @param record - room to be added
+	 * @throws IllegalArgumentException if room cannot be stored with precision of this document
+	 */
+	public void add( RoomRecord record){
+		int style = palette.intern( record.getStyle());
+		if( rooms.size() == styleOf.length)
+			styleOf = Arrays.copyOf( styleOf, styleOf.length * 2);
+		styleOf[rooms.size()] = style;
+		rooms.add( record.withPrecision( precision).withStyle( palette.get( style)));
+	}
+
+	/**
+	 * <p>
+	 * replace a room, converting its coordinates to precision of this document.</br>
+	 * </p>
+	 * @param index - index of room to be replaced
+	 * @param record - new room
+	 * @return room that was replaced
+	 */
+	public RoomRecord set( int index, RoomRecord record){
+		RoomRecord old = get( index);
+		styleOf[index] = palette.intern( record.getStyle());
+		rooms.set( index, record.withPrecision( precision).withStyle( palette.get( styleOf[index])));
+		return old;
+	}
+
+	/**
+	 * <p>
+	 * get room at index with current style of its palette slot.</br>
+	 * </p>
+	 * @param index - index of room
+	 * @return room at index
+	 */
+	public RoomRecord get( int index){
+		RoomRecord record = rooms.get( index);
+		MapStyle style = palette.get( styleOf[index]);
+		if( record.getStyle() != style){
+			// slot was restyled since this room was last read, coordinates are shared
+			record = record.withStyle( style);
+			rooms.set( index, record);
+		}
+		return record;
+	}
+
+	public RoomRecord remove( int index){
+		RoomRecord old = get( index);
+		rooms.remove( index);
+		System.arraycopy( styleOf, index + 1, styleOf, index, rooms.size() - index);
+		return old;
+	}
+
+	/**
+	 * @param index - index of room
+	 * @return index of palette slot used by room
+	 */
+	public int getStyleIndex( int index){
+		if( index >= rooms.size())
+			throw new IndexOutOfBoundsException( "index " + index + " size " + rooms.size());
+		return styleOf[index];
+	}
+
+	/**
+	 * @return palette of all styles used in this document
+	 */
+	public StylePalette getPalette(){
+		return palette;
+	}
+
+	/**
+	 * <p>
+	 * give every room using given palette slot a new style. cost does not depend on number of rooms.</br>
+	 * </p>
+	 * @param styleIndex - palette slot to be changed
+	 * @param style - new style
+	 * @return old style of slot
+	 */
+	public MapStyle restyle( int styleIndex, MapStyle style){
+		return palette.set( styleIndex, style);
+	}
+
+	public int size(){
+		return rooms.size();
+	}
+
+	/**
+	 * @return read only view of all rooms in order
+	 */
+	public List< RoomRecord> getRooms(){
+		return new AbstractList< RoomRecord>(){
+
+			@Override
+			public RoomRecord get( int index){
+				return MapDocument.this.get( index);
+			}
+
+			@Override
+			public int size(){
+				return rooms.size();
+			}
+		};
+	}
+
+	@Override
+	public Iterator< RoomRecord> iterator(){
+		return getRooms().iterator();
+	}
+
+	/**
+	 * <p>
+	 * estimated heap used by coordinate blocks of all rooms.</br>
+	 * </p>
+	 * @return estimated bytes
+	 */
+	public long estimatedCoordinateBytes(){
+		long bytes = 0;
+		for( RoomRecord record: rooms)
+			bytes += record.getCoordinates().estimatedBytes();
+		return bytes;
+	}
+}
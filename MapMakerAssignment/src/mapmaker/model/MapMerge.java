@@ -0,0 +1,148 @@
+package mapmaker.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * three way merge of two maps edited from same base, built from a {@link MapDiff} of each against base. for every
+ * room of base:
+ * <ul>
+ * 	<li>changed or removed on one side only, that side is taken</li>
+ * 	<li>changed same way on both sides, or removed on both, that is taken</li>
+ * 	<li>changed differently on both sides, ours is taken and it is a {@link Conflict}</li>
+ * 	<li>changed on one side and removed on other, changed room is kept so no work is lost, also a conflict</li>
+ * </ul>
+ * merged rooms keep paint order of base, rooms added by ours and then by theirs go on top. a room both sides added
+ * is added once.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapMerge{
+
+	/**
+	 * <p>
+	 * a base room both sides changed in different ways. a side that removed it has null.</br>
+	 * </p>
+	 */
+	public static final class Conflict{
+
+		private final int base;
+		private final RoomRecord ours;
+		private final RoomRecord theirs;
+
+		Conflict( int base, RoomRecord ours, RoomRecord theirs){
+			this.base = base;
+			this.ours = ours;
+			this.theirs = theirs;
+		}
+
+		/**
+		 * @return index of room in base
+		 */
+		public int getBase(){
+			return base;
+		}
+
+		public RoomRecord getOurs(){
+			return ours;
+		}
+
+		public RoomRecord getTheirs(){
+			return theirs;
+		}
+	}
+
+	private final List< RoomRecord> rooms;
+	private final List< Conflict> conflicts;
+	private final MapDiff oursDiff;
+	private final MapDiff theirsDiff;
+
+	private MapMerge( List< RoomRecord> rooms, List< Conflict> conflicts, MapDiff oursDiff, MapDiff theirsDiff){
+		this.rooms = rooms;
+		this.conflicts = conflicts;
+		this.oursDiff = oursDiff;
+		this.theirsDiff = theirsDiff;
+	}
+
+	/**
+	 * @param base - version both sides started from
+	 * @param ours - our version
+	 * @param theirs - their version
+	 * @return merged map
+	 */
+	public static MapMerge merge( List< RoomRecord> base, List< RoomRecord> ours, List< RoomRecord> theirs){
+		MapDiff oursDiff = MapDiff.compare( base, ours);
+		MapDiff theirsDiff = MapDiff.compare( base, theirs);
+		List< RoomRecord> merged = new ArrayList<>( Math.max( ours.size(), theirs.size()));
+		List< Conflict> conflicts = new ArrayList<>();
+		for( int b = 0; b < base.size(); b++){
+			int o = oursDiff.matchOf( b), t = theirsDiff.matchOf( b);
+			RoomRecord our = o < 0 ? null : ours.get( o), their = t < 0 ? null : theirs.get( t);
+			boolean ourChange = o < 0 || oursDiff.isModified( b), theirChange = t < 0 || theirsDiff.isModified( b);
+			if( !theirChange)
+				// also keeps base when neither side changed, our copy equals it
+				addIfPresent( merged, our);
+			else if( !ourChange)
+				addIfPresent( merged, their);
+			else if( our == null || their == null){
+				// removed on one side, removed or changed on other
+				addIfPresent( merged, our == null ? their : our);
+				if( our != null || their != null)
+					conflicts.add( new Conflict( b, our, their));
+			}else{
+				merged.add( our);
+				if( RoomFingerprint.of( our) != RoomFingerprint.of( their))
+					conflicts.add( new Conflict( b, our, their));
+			}
+		}
+		// rooms added on both sides are counted so each pair is added once
+		Map< Long, Integer> oursAdded = new HashMap<>();
+		BitSet added = oursDiff.getAdded();
+		for( int i = added.nextSetBit( 0); i >= 0; i = added.nextSetBit( i + 1)){
+			merged.add( ours.get( i));
+			oursAdded.merge( RoomFingerprint.of( ours.get( i)), 1, Integer::sum);
+		}
+		added = theirsDiff.getAdded();
+		for( int i = added.nextSetBit( 0); i >= 0; i = added.nextSetBit( i + 1)){
+			long fingerprint = RoomFingerprint.of( theirs.get( i));
+			Integer same = oursAdded.get( fingerprint);
+			if( same == null)
+				merged.add( theirs.get( i));
+			else if( same == 1)
+				oursAdded.remove( fingerprint);
+			else
+				oursAdded.put( fingerprint, same - 1);
+		}
+		return new MapMerge( merged, conflicts, oursDiff, theirsDiff);
+	}
+
+	private static void addIfPresent( List< RoomRecord> merged, RoomRecord room){
+		if( room != null)
+			merged.add( room);
+	}
+
+	/**
+	 * @return merged rooms in paint order
+	 */
+	public List< RoomRecord> getRooms(){
+		return Collections.unmodifiableList( rooms);
+	}
+
+	public List< Conflict> getConflicts(){
+		return Collections.unmodifiableList( conflicts);
+	}
+
+	public MapDiff getOursDiff(){
+		return oursDiff;
+	}
+
+	public MapDiff getTheirsDiff(){
+		return theirsDiff;
+	}
+}
@@ -0,0 +1,87 @@
+package mapmaker.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * consistent version of a whole map, rooms by id and the order they are painted in, taken in constant time from
+ * an editor which keeps them in {@link PersistentVector}s. snapshot shares everything with editor and with other
+ * snapshots, only parts of vectors written after it are copied, so holding one costs memory proportional to what
+ * changed since. rooms are immutable {@link RoomRecord}s, so a snapshot can be saved, exported or analyzed on any
+ * thread while map keeps changing.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapSnapshot{
+
+	public static final MapSnapshot EMPTY = new MapSnapshot( PersistentVector.empty(), PersistentVector.empty(), 0);
+
+	private final PersistentVector< RoomRecord> rooms;
+	private final PersistentVector< Long> paintOrder;
+	private final int roomCount;
+
+	/**
+	 * @param rooms - room of each id, null for free ids
+	 * @param paintOrder - increasing stamp of each room, a room with a larger stamp is painted above. stamps must
+	 *            fit in 32 bits
+	 * @param roomCount - number of rooms
+	 */
+	public MapSnapshot( PersistentVector< RoomRecord> rooms, PersistentVector< Long> paintOrder, int roomCount){
+		this.rooms = rooms;
+		this.paintOrder = paintOrder;
+		this.roomCount = roomCount;
+	}
+
+	/**
+	 * @return highest room id plus one
+	 */
+	public int capacity(){
+		return rooms.size();
+	}
+
+	/**
+	 * @return number of rooms
+	 */
+	public int getRoomCount(){
+		return roomCount;
+	}
+
+	/**
+	 * @param id - room id
+	 * @return room with given id or null if id is free
+	 */
+	public RoomRecord get( int id){
+		return rooms.get( id);
+	}
+
+	/**
+	 * <p>
+	 * call given consumer with each room and its id in increasing id.</br>
+	 * </p>
+	 * @param action - consumer of id and room
+	 */
+	public void forEach( PersistentVector.IndexedConsumer< RoomRecord> action){
+		rooms.forEach( action);
+	}
+
+	/**
+	 * <p>
+	 * list rooms from bottom to top of paint order, the order a map file keeps them in. sorts all rooms, so it is
+	 * meant for thread reading snapshot, not the one editing map.</br>
+	 * </p>
+	 * @return new list of all rooms
+	 */
+	public List< RoomRecord> inPaintOrder(){
+		long[] keys = new long[roomCount];
+		int[] count = { 0 };
+		rooms.forEach( ( id, room) -> keys[count[0]++] = paintOrder.get( id) << 32 | id);
+		Arrays.sort( keys, 0, count[0]);
+		List< RoomRecord> ordered = new ArrayList<>( count[0]);
+		for( int i = 0; i < count[0]; i++)
+			ordered.add( rooms.get( (int) keys[i]));
+		return ordered;
+	}
+}
@@ -0,0 +1,71 @@
+package mapmaker.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import mapmaker.geom.Polygons;
+
+/**
+ * <p>
+ * accumulate statistics of a map one {@link RoomRecord} at a time, so a map never needs to be held in memory
+ * to be measured.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapStats{
+
+	private long rooms;
+	private long vertices;
+	private double area;
+	private double perimeter;
+	private final double[] bounds = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+	private final Map< Integer, Long> roomsPerSides = new TreeMap<>();
+
+	/**
+	 * <p>
+	 * add given room to statistics.</br>
+	 * </p>
+	 * @param record - room to be added
+	 */
+	public void add( RoomRecord record){
+		double[] points = record.copyPoints();
+		rooms++;
+		vertices += record.getPointCount();
+		area += Polygons.area( points);
+		perimeter += Polygons.perimeter( points);
+		for( int i = 0; i < points.length; i += 2)
+			Polygons.include( bounds, points[i], points[i + 1]);
+		roomsPerSides.merge( record.getSides(), 1L, Long::sum);
+	}
+
+	public long getRooms(){
+		return rooms;
+	}
+
+	public long getVertices(){
+		return vertices;
+	}
+
+	public double getArea(){
+		return area;
+	}
+
+	public double getPerimeter(){
+		return perimeter;
+	}
+
+	/**
+	 * @return copy of bounds as {minX, minY, maxX, maxY}, NaN if there are no rooms
+	 */
+	public double[] getBounds(){
+		return bounds.clone();
+	}
+
+	/**
+	 * @return number of rooms for each sides count, sorted by sides
+	 */
+	public Map< Integer, Long> getRoomsPerSides(){
+		return roomsPerSides;
+	}
+}
@@ -0,0 +1,72 @@
+package mapmaker.model;
+
+/**
+ * <p>
+ * immutable style of a room, its fill, stroke and stroke width. a real map uses only a handful of styles so
+ * styles are meant to be shared( flyweight) using a {@link StylePalette} instead of each room holding its own
+ * colors.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapStyle{
+
+	/**
+	 * <p>
+	 * style given to a new room, same as {@link mapmaker.PolyShapeSkeleton2#PolyShapeSkeleton2(int)}.</br>
+	 * </p>
+	 */
+	public static final MapStyle DEFAULT = new MapStyle( MapColor.LIGHTGREEN, MapColor.DARKGREEN, 2);
+
+	private final MapColor fill;
+	private final MapColor stroke;
+	private final double strokeWidth;
+
+	/**
+	 * @param fill - fill color
+	 * @param stroke - stroke color
+	 * @param strokeWidth - width of stroke, not negative
+	 */
+	public MapStyle( MapColor fill, MapColor stroke, double strokeWidth){
+		if( fill == null || stroke == null)
+			throw new IllegalArgumentException( "fill and stroke are required");
+		if( !(strokeWidth >= 0) || Double.isInfinite( strokeWidth))
+			throw new IllegalArgumentException( "stroke width must be a positive number, was " + strokeWidth);
+		this.fill = fill;
+		this.stroke = stroke;
+		this.strokeWidth = strokeWidth;
+	}
+
+	public MapColor getFill(){
+		return fill;
+	}
+
+	public MapColor getStroke(){
+		return stroke;
+	}
+
+	public double getStrokeWidth(){
+		return strokeWidth;
+	}
+
+	@Override
+	public boolean equals( Object obj){
+		if( this == obj)
+			return true;
+		if( !(obj instanceof MapStyle))
+			return false;
+		MapStyle other = (MapStyle) obj;
+		return fill.equals( other.fill) && stroke.equals( other.stroke)
+				&& Double.compare( strokeWidth, other.strokeWidth) == 0;
+	}
+
+	@Override
+	public int hashCode(){
+		return (31 * fill.hashCode() + stroke.hashCode()) * 31 + Double.hashCode( strokeWidth);
+	}
+
+	@Override
+	public String toString(){
+		return fill + " " + stroke + " " + strokeWidth;
+	}
+}
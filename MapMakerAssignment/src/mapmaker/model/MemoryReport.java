@@ -0,0 +1,160 @@
+package mapmaker.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>
+ * estimated heap footprint of a map, as count and estimated retained bytes for each kind of object.</br>
+ * estimates multiply counts by the constants below, which are rough shallow sizes on a 64 bit JVM with compressed
+ * references. they are meant to compare maps and find footprint regressions, not to replace a heap dump.
+ * building a report is one pass over the map without allocation per room, so it is cheap on 100k room maps.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MemoryReport{
+
+	/**
+	 * <p>
+	 * object header plus fields, rounded to 8 bytes, of headless classes.</br>
+	 * </p>
+	 */
+	public static final int RECORD_BYTES = 24;
+	public static final int STYLE_BYTES = 32;
+	public static final int COLOR_BYTES = 32;
+	public static final int REFERENCE_BYTES = 4;
+
+	/**
+	 * <p>
+	 * rough sizes of JavaFX objects. a {@link javafx.scene.Node} has a large number of fields and most of its
+	 * properties are created lazily, so these are estimates of a drawn and styled shape, not exact numbers.</br>
+	 * </p>
+	 */
+	public static final int FX_POLYGON_BYTES = 700;
+	public static final int FX_CIRCLE_BYTES = 600;
+	public static final int FX_NODE_BYTES = 500;
+	public static final int FX_BOXED_DOUBLE_BYTES = 16 + REFERENCE_BYTES;
+	public static final int FX_LISTENER_BYTES = 32;
+	public static final int FX_STYLE_BYTES = 200;
+
+	/**
+	 * <p>
+	 * one line of report.</br>
+	 * </p>
+	 */
+	public static final class Entry{
+
+		private final String name;
+		private final long count;
+		private final long bytes;
+
+		Entry( String name, long count, long bytes){
+			this.name = name;
+			this.count = count;
+			this.bytes = bytes;
+		}
+
+		public String getName(){
+			return name;
+		}
+
+		public long getCount(){
+			return count;
+		}
+
+		public long getBytes(){
+			return bytes;
+		}
+	}
+
+	private final String title;
+	private final List< Entry> entries = new ArrayList<>();
+
+	/**
+	 * @param title - what this report is about, for example name of map
+	 */
+	public MemoryReport( String title){
+		this.title = title;
+	}
+
+	/**
+	 * <p>
+	 * add one kind of object to this report.</br>
+	 * </p>
+	 * @param name - name of kind
+	 * @param count - number of objects
+	 * @param bytes - estimated retained bytes of all of them
+	 * @return this report for chaining
+	 */
+	public MemoryReport add( String name, long count, long bytes){
+		entries.add( new Entry( name, count, bytes));
+		return this;
+	}
+
+	public String getTitle(){
+		return title;
+	}
+
+	public List< Entry> getEntries(){
+		return Collections.unmodifiableList( entries);
+	}
+
+	public long getTotalBytes(){
+		long total = 0;
+		for( Entry entry: entries)
+			total += entry.bytes;
+		return total;
+	}
+
+	/**
+	 * <p>
+	 * estimate footprint of a headless document. rooms, coordinate blocks, document index arrays and styles are
+	 * reported separately.</br>
+	 * </p>
+	 * @param title - what this report is about
+	 * @param document - document to be measured
+	 * @return new report
+	 */
+	public static MemoryReport of( String title, MapDocument document){
+		long vertices = 0;
+		long coordinateBytes = 0;
+		for( int i = 0; i < document.size(); i++){
+			Coordinates coordinates = document.get( i).getCoordinates();
+			vertices += coordinates.size() / 2;
+			coordinateBytes += coordinates.estimatedBytes();
+		}
+		int styles = document.getPalette().size();
+		return new MemoryReport( title)
+				.add( "rooms", document.size(), (long) document.size() * RECORD_BYTES)
+				.add( "coordinates (" + document.getPrecision().name().toLowerCase() + ", vertices)", vertices,
+						coordinateBytes)
+				// list slot and style index of each room
+				.add( "document index", document.size(), (long) document.size() * (REFERENCE_BYTES + 4))
+				.add( "styles", styles, (long) styles * (STYLE_BYTES + 2 * COLOR_BYTES));
+	}
+
+	/**
+	 * <p>
+	 * human readable table of this report.</br>
+	 * </p>
+	 * @return text with one line for each entry and total
+	 */
+	public String toText(){
+		StringBuilder builder = new StringBuilder( title).append( System.lineSeparator());
+		for( Entry entry: entries)
+			builder.append( String.format( Locale.ROOT, "%-36s %10d %12s%n", entry.name, entry.count, size( entry.bytes)));
+		builder.append( String.format( Locale.ROOT, "%-36s %10s %12s", "total", "", size( getTotalBytes())));
+		return builder.toString();
+	}
+
+	private static String size( long bytes){
+		if( bytes < 1024)
+			return bytes + " B";
+		if( bytes < 1024 * 1024)
+			return String.format( Locale.ROOT, "%.1f KB", bytes / 1024.0);
+		return String.format( Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+	}
+}
@@ -0,0 +1,232 @@
+package mapmaker.model;
+
+/**
+ * <p>
+ * immutable vector indexed by int, a tree of nodes with {@value #WIDTH} slots each. changing a slot copies only
+ * the nodes on its path from root, at most a few for millions of slots, and shares all other nodes with the old
+ * vector. old and new vector stay valid and can be read from any thread.</br>
+ * a {@link Transient} edits same tree in place, as fast as an array, until its {@link Transient#persistent()} is
+ * taken. from then nodes reachable from that vector are copied on their next write, once, and owned by transient
+ * again. so taking a snapshot is constant time and costs memory only for nodes written after it.</br>
+ * slots never written are null, vector grows to any index written.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ * @param <T> - type of elements
+ */
+public final class PersistentVector< T>{
+
+	private static final int BITS = 5;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+
+	private static final PersistentVector< ?> EMPTY = new PersistentVector<>( 0, 0, new Node( null));
+
+	/**
+	 * <p>
+	 * one node of tree, edit is owner token of transient which may change it in place, null if no one may.</br>
+	 * </p>
+	 */
+	private static final class Node{
+
+		private final Object edit;
+		private final Object[] slots;
+
+		private Node( Object edit){
+			this( edit, new Object[WIDTH]);
+		}
+
+		private Node( Object edit, Object[] slots){
+			this.edit = edit;
+			this.slots = slots;
+		}
+	}
+
+	/**
+	 * <p>
+	 * consumer of a slot and its index.</br>
+	 * </p>
+	 */
+	@FunctionalInterface
+	public interface IndexedConsumer< T>{
+
+		void accept( int index, T value);
+	}
+
+	private final int size;
+	/**
+	 * <p>
+	 * bits of index used below root, {@link #BITS} per level.</br>
+	 * </p>
+	 */
+	private final int shift;
+	private final Node root;
+
+	private PersistentVector( int size, int shift, Node root){
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+	}
+
+	@SuppressWarnings( "unchecked")
+	public static < T> PersistentVector< T> empty(){
+		return (PersistentVector< T>) EMPTY;
+	}
+
+	/**
+	 * @return highest index written plus one
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * @param index - index of slot
+	 * @return value of slot, null if it was never written or index is out of range
+	 */
+	public T get( int index){
+		return index >= 0 && index < size ? get( root, shift, index) : null;
+	}
+
+	/**
+	 * @param index - index of slot
+	 * @param value - new value
+	 * @return vector with given slot changed, sharing all other nodes with this one
+	 */
+	public PersistentVector< T> set( int index, T value){
+		Transient< T> edit = new Transient<>( size, shift, root);
+		edit.set( index, value);
+		return edit.persistent();
+	}
+
+	/**
+	 * @return transient starting from this vector, this vector is not changed by it
+	 */
+	public Transient< T> asTransient(){
+		return new Transient<>( size, shift, root);
+	}
+
+	/**
+	 * <p>
+	 * call given consumer with each non null slot in increasing index, one leaf node at a time.</br>
+	 * </p>
+	 * @param action - consumer of index and value
+	 */
+	public void forEach( IndexedConsumer< ? super T> action){
+		forEach( root, shift, 0, size, action);
+	}
+
+	@SuppressWarnings( "unchecked")
+	private static < T> void forEach( Node node, int shift, int base, int size, IndexedConsumer< ? super T> action){
+		for( int i = 0; i < WIDTH; i++){
+			int index = base + (i << shift);
+			if( index >= size)
+				return;
+			Object slot = node.slots[i];
+			if( slot == null)
+				continue;
+			if( shift == 0)
+				action.accept( index, (T) slot);
+			else
+				forEach( (Node) slot, shift - BITS, index, size, action);
+		}
+	}
+
+	@SuppressWarnings( "unchecked")
+	private static < T> T get( Node node, int shift, int index){
+		for( int level = shift; level > 0; level -= BITS){
+			node = (Node) node.slots[(index >>> level) & MASK];
+			if( node == null)
+				return null;
+		}
+		return (T) node.slots[index & MASK];
+	}
+
+	/**
+	 * <p>
+	 * mutable vector which shares nodes with {@link PersistentVector}s taken from it. meant to be used from one
+	 * thread, vectors it returns can be read from any thread.</br>
+	 * </p>
+	 */
+	public static final class Transient< T>{
+
+		private Object edit = new Object();
+		private int size;
+		private int shift;
+		private Node root;
+
+		private Transient( int size, int shift, Node root){
+			this.size = size;
+			this.shift = shift;
+			this.root = root;
+		}
+
+		public int size(){
+			return size;
+		}
+
+		public T get( int index){
+			return index >= 0 && index < size ? PersistentVector.get( root, shift, index) : null;
+		}
+
+		/**
+		 * <p>
+		 * write a slot, growing vector if index is past its end. nodes on path not owned by this transient are
+		 * copied first.</br>
+		 * </p>
+		 * @param index - index of slot, not negative
+		 * @param value - new value
+		 */
+		public void set( int index, T value){
+			if( index < 0)
+				throw new IndexOutOfBoundsException( "negative index " + index);
+			if( index >= size && value == null)
+				return;
+			while( shift < 30 && (index >>> shift) >= WIDTH){
+				Node grown = new Node( edit);
+				grown.slots[0] = root;
+				root = grown;
+				shift += BITS;
+			}
+			root = owned( root);
+			Node node = root;
+			for( int level = shift; level > 0; level -= BITS){
+				int slot = (index >>> level) & MASK;
+				Node child = (Node) node.slots[slot];
+				child = child == null ? new Node( edit) : owned( child);
+				node.slots[slot] = child;
+				node = child;
+			}
+			node.slots[index & MASK] = value;
+			size = Math.max( size, index + 1);
+		}
+
+		private Node owned( Node node){
+			return node.edit == edit ? node : new Node( edit, node.slots.clone());
+		}
+
+		/**
+		 * <p>
+		 * remove all slots, nodes shared with taken vectors are left to them.</br>
+		 * </p>
+		 */
+		public void clear(){
+			size = 0;
+			shift = 0;
+			root = new Node( edit);
+		}
+
+		/**
+		 * <p>
+		 * take an immutable vector of current content in constant time. this transient keeps working, writing to
+		 * a node shared with returned vector copies that node first.</br>
+		 * </p>
+		 * @return vector of current content
+		 */
+		public PersistentVector< T> persistent(){
+			// new owner token, every node reachable so far now belongs to returned vector too
+			edit = new Object();
+			return new PersistentVector<>( size, shift, root);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package mapmaker.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * 64 bit content hash of a room, same for two rooms exactly when they have same sides, style and points after
+ * points are rounded to a grid of {@link #DEFAULT_QUANTUM}, so a map saved and read back, or copied by someone
+ * else, gives same fingerprints. rooms are matched by fingerprint in a hash table instead of being compared pair
+ * by pair, see {@link MapDiff}.</br>
+ * two different rooms share a fingerprint with probability about n^2 / 2^65 for n rooms, which is treated as
+ * never. points are hashed in order, so same outline starting from another corner is a different room.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class RoomFingerprint{
+
+	/**
+	 * <p>
+	 * grid points are rounded to, same as default precision of {@link mapmaker.io.CompactMapCodec}.</br>
+	 * </p>
+	 */
+	public static final double DEFAULT_QUANTUM = 0.001;
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private RoomFingerprint(){
+	}
+
+	/**
+	 * @param room - room to hash
+	 * @return fingerprint of sides, style and points rounded to {@link #DEFAULT_QUANTUM}
+	 */
+	public static long of( RoomRecord room){
+		return of( room, DEFAULT_QUANTUM);
+	}
+
+	/**
+	 * @param room - room to hash
+	 * @param quantum - grid points are rounded to, positive
+	 * @return fingerprint of sides, style and rounded points
+	 */
+	public static long of( RoomRecord room, double quantum){
+		long hash = mix( 0, room.getSides());
+		hash = mix( hash, room.getFill().getRGB());
+		hash = mix( hash, Double.doubleToLongBits( room.getFill().getOpacity()));
+		hash = mix( hash, room.getStroke().getRGB());
+		hash = mix( hash, Double.doubleToLongBits( room.getStroke().getOpacity()));
+		hash = mix( hash, Double.doubleToLongBits( room.getStrokeWidth()));
+		hash = mix( hash, room.getPointCount());
+		Coordinates points = room.getCoordinates();
+		for( int i = 0; i < points.size(); i++)
+			hash = mix( hash, Math.round( points.get( i) / quantum));
+		return finish( hash);
+	}
+
+	/**
+	 * <p>
+	 * find rooms which repeat an earlier room, for example rooms stacked on each other by pasting twice.</br>
+	 * </p>
+	 * @param rooms - rooms in paint order
+	 * @return indices of every room whose fingerprint already appeared before it
+	 */
+	public static BitSet duplicates( List< RoomRecord> rooms){
+		Set< Long> seen = new HashSet<>( rooms.size() * 2);
+		BitSet duplicates = new BitSet();
+		for( int i = 0; i < rooms.size(); i++)
+			if( !seen.add( of( rooms.get( i))))
+				duplicates.set( i);
+		return duplicates;
+	}
+
+	/**
+	 * @param rooms - rooms in paint order
+	 * @return new list of given rooms without {@link #duplicates(List)}, first of each kept
+	 */
+	public static List< RoomRecord> dedupe( List< RoomRecord> rooms){
+		BitSet duplicates = duplicates( rooms);
+		if( duplicates.isEmpty())
+			return rooms;
+		List< RoomRecord> kept = new ArrayList<>( rooms.size() - duplicates.cardinality());
+		for( int i = duplicates.nextClearBit( 0); i < rooms.size(); i = duplicates.nextClearBit( i + 1))
+			kept.add( rooms.get( i));
+		return kept;
+	}
+
+	private static long mix( long hash, long value){
+		return (hash ^ finish( value)) * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+	}
+
+	/**
+	 * <p>
+	 * final mixer of MurmurHash3, every input bit changes about half of output bits.</br>
+	 * </p>
+	 */
+	private static long finish( long hash){
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		return hash ^ hash >>> 33;
+	}
+}
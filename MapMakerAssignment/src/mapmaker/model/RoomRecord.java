@@ -0,0 +1,239 @@
+package mapmaker.model;
+
+/**
+ * <p>
+ * immutable headless representation of one room, holding exactly what one record of a map file holds.</br>
+ * this class does not depend on JavaFX. {@link mapmaker.PolyShapeSkeleton2} can be created from it and converted
+ * back to it, so parsing and serializing code can be shared between the UI and command line tools.</br>
+ * points are stored as x and y pairs, same as {@link javafx.scene.shape.Polygon#getPoints()}, in a {@link Coordinates}
+ * block whose {@link CoordinatePrecision} decides how much memory they take.</br>
+ * an instance is a record whose points are another record's points moved by an offset, see
+ * {@link #instance(double, double)}. copies made by duplicating a room are instances, they share one block of
+ * points and cost a few dozen bytes each.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class RoomRecord{
+
+	private final int sides;
+	/**
+	 * <p>
+	 * shared style of this room, rooms of one map are expected to share a few instances
+	 * through a {@link StylePalette}.</br>
+	 * </p>
+	 */
+	private final MapStyle style;
+	private final Coordinates points;
+
+	/**
+	 * <p>
+	 * create a new record. given points array is copied.</br>
+	 * </p>
+	 * @param sides - number of sides( corners) of the room
+	 * @param fill - fill color
+	 * @param stroke - stroke color
+	 * @param strokeWidth - width of stroke
+	 * @param points - x and y pairs of each corner
+	 * @throws IllegalArgumentException if points do not come in pairs
+	 */
+	public RoomRecord( int sides, MapColor fill, MapColor stroke, double strokeWidth, double[] points){
+		this( sides, new MapStyle( fill, stroke, strokeWidth), points);
+	}
+
+	/**
+	 * <p>
+	 * create a new record using a shared style. given points array is copied.</br>
+	 * </p>
+	 * @param sides - number of sides( corners) of the room
+	 * @param style - style of room, usually from a {@link StylePalette}
+	 * @param points - x and y pairs of each corner
+	 * @throws IllegalArgumentException if points do not come in pairs
+	 */
+	public RoomRecord( int sides, MapStyle style, double[] points){
+		this( sides, style, Coordinates.of( points.clone(), CoordinatePrecision.DOUBLE));
+	}
+
+	/**
+	 * <p>
+	 * shared constructor, trusted callers in this package pass coordinates they already created.</br>
+	 * </p>
+	 */
+	RoomRecord( int sides, MapStyle style, Coordinates points){
+		if( points.size() % 2 != 0)
+			throw new IllegalArgumentException( "points must come in x and y pairs, found " + points.size() + " values");
+		if( style == null)
+			throw new IllegalArgumentException( "style is required");
+		this.sides = sides;
+		this.style = style;
+		this.points = points;
+	}
+
+	public int getSides(){
+		return sides;
+	}
+
+	public MapStyle getStyle(){
+		return style;
+	}
+
+	public MapColor getFill(){
+		return style.getFill();
+	}
+
+	public MapColor getStroke(){
+		return style.getStroke();
+	}
+
+	public double getStrokeWidth(){
+		return style.getStrokeWidth();
+	}
+
+	/**
+	 * <p>
+	 * number of corners stored in this record, which is half of the number of coordinates.</br>
+	 * </p>
+	 * @return number of points
+	 */
+	public int getPointCount(){
+		return points.size() / 2;
+	}
+
+	/**
+	 * @param index - index of point
+	 * @return x of given point
+	 */
+	public double getX( int index){
+		return points.get( index * 2);
+	}
+
+	/**
+	 * @param index - index of point
+	 * @return y of given point
+	 */
+	public double getY( int index){
+		return points.get( index * 2 + 1);
+	}
+
+	/**
+	 * <p>
+	 * copy of all coordinates as x and y pairs.</br>
+	 * </p>
+	 * @return new array of coordinates
+	 */
+	public double[] copyPoints(){
+		return points.toArray();
+	}
+
+	/**
+	 * @return coordinates block of this record
+	 */
+	public Coordinates getCoordinates(){
+		return points;
+	}
+
+	/**
+	 * <p>
+	 * create a copy of this record with its coordinates stored with given precision.
+	 * if precision is already the same this record is returned.</br>
+	 * </p>
+	 * @param precision - how coordinates are to be stored
+	 * @return record using given precision
+	 * @throws IllegalArgumentException if a coordinate cannot be stored with given precision
+	 */
+	public RoomRecord withPrecision( CoordinatePrecision precision){
+		if( points.precision() == precision)
+			return this;
+		return new RoomRecord( sides, style, Coordinates.of( points.toArray(), precision));
+	}
+
+	/**
+	 * <p>
+	 * create a copy of this record sharing its coordinates but with given style.
+	 * if style is the same instance this record is returned.</br>
+	 * </p>
+	 * @param style - new style
+	 * @return record using given style
+	 */
+	public RoomRecord withStyle( MapStyle style){
+		return style == this.style ? this : new RoomRecord( sides, style, points);
+	}
+
+	/**
+	 * <p>
+	 * create a copy of this record moved by given distance. copy keeps the precision of this record.</br>
+	 * </p>
+	 * @param deltaX - distance traveled in x direction
+	 * @param deltaY - distance traveled in y direction
+	 * @return moved copy of this record
+	 */
+	public RoomRecord translate( double deltaX, double deltaY){
+		if( isInstance())
+			return new RoomRecord( sides, style, Coordinates.offset( points, deltaX, deltaY));
+		double[] moved = points.toArray();
+		for( int i = 0; i < moved.length; i += 2){
+			moved[i] += deltaX;
+			moved[i + 1] += deltaY;
+		}
+		return new RoomRecord( sides, style, Coordinates.of( moved, points.precision()));
+	}
+
+	/**
+	 * <p>
+	 * create a copy of this record moved by given distance which shares points of this record instead of copying
+	 * them, constant time and memory. an instance of an instance shares same points as the first one, so
+	 * {@link #template()} of all copies is same block.</br>
+	 * </p>
+	 * @param deltaX - distance in x direction
+	 * @param deltaY - distance in y direction
+	 * @return moved instance of this record
+	 */
+	public RoomRecord instance( double deltaX, double deltaY){
+		return new RoomRecord( sides, style, Coordinates.offset( points, deltaX, deltaY));
+	}
+
+	/**
+	 * @return true if points of this record are shared with other records and moved by an offset
+	 */
+	public boolean isInstance(){
+		return points.base() != points;
+	}
+
+	/**
+	 * <p>
+	 * record holding shared points this record is an instance of, same style and sides. offset of this record is
+	 * in {@link Coordinates#offsetX()} and {@link Coordinates#offsetY()} of {@link #getCoordinates()}.</br>
+	 * </p>
+	 * @return template of this record, this record if it is not an instance
+	 */
+	public RoomRecord template(){
+		return isInstance() ? new RoomRecord( sides, style, points.base()) : this;
+	}
+
+	@Override
+	public boolean equals( Object obj){
+		if( this == obj)
+			return true;
+		if( !(obj instanceof RoomRecord))
+			return false;
+		RoomRecord other = (RoomRecord) obj;
+		return sides == other.sides && style.equals( other.style) && samePoints( other);
+	}
+
+	private boolean samePoints( RoomRecord other){
+		if( points.size() != other.points.size())
+			return false;
+		for( int i = 0; i < points.size(); i++)
+			if( Double.compare( points.get( i), other.points.get( i)) != 0)
+				return false;
+		return true;
+	}
+
+	@Override
+	public int hashCode(){
+		int hash = 31 * sides + style.hashCode();
+		for( int i = 0; i < points.size(); i++)
+			hash = 31 * hash + Double.hashCode( points.get( i));
+		return hash;
+	}
+}
@@ -0,0 +1,93 @@
+package mapmaker.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * document level table of {@link MapStyle}s. each distinct style is stored once and referred to by its index,
+ * which is also how it is written in a map file.</br>
+ * a slot can be changed with {@link #set(int, MapStyle)}, restyling every room that refers to it at once.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class StylePalette{
+
+	private final List< MapStyle> styles = new ArrayList<>();
+	private final Map< MapStyle, Integer> indices = new HashMap<>();
+
+	/**
+	 * <p>
+	 * find index of given style, adding it to end of palette if it is new.</br>
+	 * </p>
+	 * @param style - style to be found or added
+	 * @return index of style
+	 */
+	public int intern( MapStyle style){
+		Integer index = indices.get( style);
+		if( index != null)
+			return index;
+		styles.add( style);
+		indices.put( style, styles.size() - 1);
+		return styles.size() - 1;
+	}
+
+	/**
+	 * <p>
+	 * shared instance equal to given style, so equal styles of many rooms are one object in memory.</br>
+	 * </p>
+	 * @param style - style to be interned
+	 * @return instance stored in palette
+	 */
+	public MapStyle canonical( MapStyle style){
+		return styles.get( intern( style));
+	}
+
+	public MapStyle get( int index){
+		return styles.get( index);
+	}
+
+	/**
+	 * @param style - style to be found
+	 * @return index of style or -1 if it is not in palette
+	 */
+	public int indexOf( MapStyle style){
+		Integer index = indices.get( style);
+		return index == null ? -1 : index;
+	}
+
+	public int size(){
+		return styles.size();
+	}
+
+	/**
+	 * <p>
+	 * replace style in given slot. every room referring to this slot now has the new style.
+	 * if another slot already holds an equal style both slots stay, {@link #intern(MapStyle)} keeps
+	 * returning the lower one.</br>
+	 * </p>
+	 * @param index - slot to be changed
+	 * @param style - new style
+	 * @return old style of slot
+	 */
+	public MapStyle set( int index, MapStyle style){
+		MapStyle old = styles.set( index, style);
+		Integer oldIndex = indices.get( old);
+		if( oldIndex != null && oldIndex == index){
+			indices.remove( old);
+			// an equal style may still live in another slot
+			for( int i = 0; i < styles.size(); i++)
+				if( styles.get( i).equals( old)){
+					indices.put( old, i);
+					break;
+				}
+		}
+		Integer current = indices.get( style);
+		if( current == null || current > index)
+			indices.put( style, index);
+		return old;
+	}
+}
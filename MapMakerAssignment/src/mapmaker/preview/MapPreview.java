@@ -0,0 +1,86 @@
+package mapmaker.preview;
+
+import java.nio.file.Path;
+
+/**
+ * <p>
+ * what is known about a map file without loading it, room and vertex count, bounds, file size, last modified time
+ * and a downscaled thumbnail image. created by {@link PreviewCache}.</br>
+ * a preview belongs to one version of a map, it is only valid while size and last modified time of file are same
+ * as the ones stored here.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MapPreview{
+
+	private final Path map;
+	private final long size;
+	private final long lastModified;
+	private final long rooms;
+	private final long vertices;
+	private final double[] bounds;
+	private final Path thumbnail;
+
+	/**
+	 * @param map - path of map file
+	 * @param size - size of map file in bytes
+	 * @param lastModified - last modified time of map file in milliseconds
+	 * @param rooms - number of rooms in map
+	 * @param vertices - number of vertices of all rooms
+	 * @param bounds - {minX, minY, maxX, maxY} of all rooms, NaN if there are no rooms
+	 * @param thumbnail - path of PNG thumbnail, null if map has no rooms
+	 */
+	MapPreview( Path map, long size, long lastModified, long rooms, long vertices, double[] bounds, Path thumbnail){
+		this.map = map;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.rooms = rooms;
+		this.vertices = vertices;
+		this.bounds = bounds.clone();
+		this.thumbnail = thumbnail;
+	}
+
+	public Path getMap(){
+		return map;
+	}
+
+	public long getSize(){
+		return size;
+	}
+
+	public long getLastModified(){
+		return lastModified;
+	}
+
+	public long getRooms(){
+		return rooms;
+	}
+
+	public long getVertices(){
+		return vertices;
+	}
+
+	/**
+	 * @return copy of bounds as {minX, minY, maxX, maxY}, NaN if there are no rooms
+	 */
+	public double[] getBounds(){
+		return bounds.clone();
+	}
+
+	/**
+	 * @return path of PNG thumbnail, null if map has no rooms
+	 */
+	public Path getThumbnail(){
+		return thumbnail;
+	}
+
+	/**
+	 * @param size - current size of map file
+	 * @param lastModified - current last modified time of map file
+	 * @return true if preview still describes map
+	 */
+	boolean matches( long size, long lastModified){
+		return this.size == size && this.lastModified == lastModified;
+	}
+}
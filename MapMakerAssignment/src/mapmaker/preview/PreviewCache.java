@@ -0,0 +1,326 @@
+package mapmaker.preview;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+
+import mapmaker.io.MapCodecs;
+import mapmaker.model.MapStats;
+import mapmaker.model.RoomRecord;
+import mapmaker.render.MapRasterizer;
+
+/**
+ * <p>
+ * cache of {@link MapPreview}s kept in a local directory, plus list of recently used maps.</br>
+ * for each map two files are stored, named by SHA-1 of its absolute path: <code>.properties</code> with metadata
+ * and <code>.png</code> with a thumbnail no larger than {@value #THUMBNAIL_SIZE} pixels. a preview is valid while size
+ * and last modified time of its map are unchanged, so {@link #get(Path)} only needs file attributes and a small
+ * properties file, never parsing map again.</br>
+ * missing or stale previews are built on one background thread by {@link #request(Path, Consumer)}, and results
+ * are handed to a publisher, usually <code>Platform::runLater</code>. this class does not depend on JavaFX.</br>
+ * recent list is meant to be used from one thread, the UI thread.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class PreviewCache{
+
+	/**
+	 * <p>
+	 * largest width or height of a thumbnail in pixels.</br>
+	 * </p>
+	 */
+	public static final int THUMBNAIL_SIZE = 160;
+	public static final int MAX_RECENT = 10;
+	private static final String RECENT_FILE = "recent.txt";
+
+	private final Path directory;
+	private final Consumer< Runnable> publisher;
+	private final ExecutorService worker;
+	private final Map< Path, MapPreview> previews = new ConcurrentHashMap<>();
+	/**
+	 * <p>
+	 * callbacks of maps being built, so requesting same map twice builds it once. guarded by its own lock.</br>
+	 * </p>
+	 */
+	private final Map< Path, List< Consumer< MapPreview>>> pending = new HashMap<>();
+	private final List< Path> recent = new ArrayList<>();
+
+	/**
+	 * @param directory - directory holding cache, created if missing
+	 * @param publisher - runs result callbacks on UI thread, for example <code>Platform::runLater</code>
+	 */
+	public PreviewCache( Path directory, Consumer< Runnable> publisher){
+		this.directory = directory;
+		this.publisher = publisher;
+		worker = Executors.newSingleThreadExecutor( r -> {
+			Thread thread = new Thread( r, "preview");
+			thread.setDaemon( true);
+			return thread;
+		});
+		try{
+			for( String line: Files.readAllLines( directory.resolve( RECENT_FILE), StandardCharsets.UTF_8))
+				if( !line.trim().isEmpty())
+					recent.add( Paths.get( line.trim()));
+		}catch( IOException e){
+			// no recent files yet
+		}
+	}
+
+	/**
+	 * @return <code>.mapmaker/previews</code> in home directory of user
+	 */
+	public static Path defaultDirectory(){
+		return Paths.get( System.getProperty( "user.home"), ".mapmaker", "previews");
+	}
+
+	/**
+	 * <p>
+	 * get cached preview of given map if it is still valid, without reading map.</br>
+	 * </p>
+	 * @param map - path of map file
+	 * @return valid preview, or null if none is cached or map changed since
+	 */
+	public MapPreview get( Path map){
+		Path key = map.toAbsolutePath().normalize();
+		long size, lastModified;
+		try{
+			size = Files.size( key);
+			lastModified = Files.getLastModifiedTime( key).toMillis();
+		}catch( IOException e){
+			return null;
+		}
+		MapPreview preview = previews.get( key);
+		if( preview == null){
+			preview = readMetadata( key);
+			if( preview == null)
+				return null;
+			previews.put( key, preview);
+		}
+		return preview.matches( size, lastModified) ? preview : null;
+	}
+
+	/**
+	 * <p>
+	 * get preview of given map, building it on background thread if it is missing or stale.</br>
+	 * </p>
+	 * @param map - path of map file
+	 * @param done - called through publisher with preview, or not at all if map cannot be read
+	 */
+	public void request( Path map, Consumer< MapPreview> done){
+		MapPreview cached = get( map);
+		if( cached != null){
+			publisher.accept( () -> done.accept( cached));
+			return;
+		}
+		Path key = map.toAbsolutePath().normalize();
+		synchronized( pending){
+			List< Consumer< MapPreview>> running = pending.get( key);
+			if( running != null){
+				running.add( done);
+				return;
+			}
+			running = new ArrayList<>();
+			running.add( done);
+			pending.put( key, running);
+		}
+		worker.execute( () -> {
+			MapPreview preview = null;
+			try{
+				preview = build( key);
+			}catch( IOException | RuntimeException e){
+				System.err.println( "preview of " + key + " failed: " + e.getMessage());
+			}
+			List< Consumer< MapPreview>> callbacks;
+			synchronized( pending){
+				callbacks = pending.remove( key);
+			}
+			if( preview == null)
+				return;
+			MapPreview built = preview;
+			publisher.accept( () -> callbacks.forEach( callback -> callback.accept( built)));
+		});
+	}
+
+	/**
+	 * <p>
+	 * read given map, render its thumbnail and store both in cache, replacing any older preview.</br>
+	 * </p>
+	 * @param map - path of map file
+	 * @return new preview
+	 * @throws IOException if map cannot be read or cache cannot be written
+	 */
+	public MapPreview build( Path map) throws IOException{
+		Path key = map.toAbsolutePath().normalize();
+		// attributes first, a map saved while it is read only makes this preview stale, never wrong
+		long size = Files.size( key);
+		long lastModified = Files.getLastModifiedTime( key).toMillis();
+		List< RoomRecord> rooms = MapCodecs.forPath( key).readAll( key);
+		MapStats stats = new MapStats();
+		rooms.forEach( stats::add);
+		Files.createDirectories( directory);
+		String name = nameOf( key);
+		Path thumbnail = null;
+		if( !rooms.isEmpty()){
+			thumbnail = directory.resolve( name + ".png");
+			writeAtomically( thumbnail, out -> ImageIO.write( renderThumbnail( rooms), "png", out));
+		}
+		MapPreview preview = new MapPreview( key, size, lastModified, stats.getRooms(), stats.getVertices(),
+				stats.getBounds(), thumbnail);
+		writeAtomically( directory.resolve( name + ".properties"), out -> toProperties( preview).store( out, null));
+		previews.put( key, preview);
+		return preview;
+	}
+
+	private static BufferedImage renderThumbnail( List< RoomRecord> rooms){
+		MapRasterizer rasterizer = new MapRasterizer( rooms, 1);
+		double scale = (double) THUMBNAIL_SIZE / Math.max( rasterizer.getWidth(), rasterizer.getHeight());
+		rasterizer = rasterizer.withScale( scale);
+		return rasterizer.renderTile( 0, 0, rasterizer.getWidth(), rasterizer.getHeight());
+	}
+
+	/**
+	 * <p>
+	 * output of a file written by {@link PreviewCache#writeAtomically(Path, Output)}.</br>
+	 * </p>
+	 */
+	@FunctionalInterface
+	private interface Output{
+
+		void write( OutputStream out) throws IOException;
+	}
+
+	/**
+	 * <p>
+	 * write to a temporary file then move it over given path, so {@link #get(Path)} never reads half a file.</br>
+	 * </p>
+	 */
+	private static void writeAtomically( Path path, Output output) throws IOException{
+		Path temp = path.resolveSibling( path.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+		try{
+			try( OutputStream out = Files.newOutputStream( temp)){
+				output.write( out);
+			}
+			Files.move( temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}finally{
+			Files.deleteIfExists( temp);
+		}
+	}
+
+	private static Properties toProperties( MapPreview preview){
+		Properties properties = new Properties();
+		double[] bounds = preview.getBounds();
+		properties.setProperty( "map", preview.getMap().toString());
+		properties.setProperty( "size", Long.toString( preview.getSize()));
+		properties.setProperty( "lastModified", Long.toString( preview.getLastModified()));
+		properties.setProperty( "rooms", Long.toString( preview.getRooms()));
+		properties.setProperty( "vertices", Long.toString( preview.getVertices()));
+		properties.setProperty( "bounds", bounds[0] + " " + bounds[1] + " " + bounds[2] + " " + bounds[3]);
+		if( preview.getThumbnail() != null)
+			properties.setProperty( "thumbnail", preview.getThumbnail().getFileName().toString());
+		return properties;
+	}
+
+	/**
+	 * @return preview stored for given map, or null if there is none or it cannot be read
+	 */
+	private MapPreview readMetadata( Path map){
+		Properties properties = new Properties();
+		try( InputStream in = Files.newInputStream( directory.resolve( nameOf( map) + ".properties"))){
+			properties.load( in);
+		}catch( IOException e){
+			return null;
+		}
+		try{
+			// same hash of another path is not this map
+			if( !map.toString().equals( properties.getProperty( "map")))
+				return null;
+			String[] tokens = properties.getProperty( "bounds").split( " ");
+			double[] bounds = new double[4];
+			for( int i = 0; i < 4; i++)
+				bounds[i] = Double.parseDouble( tokens[i]);
+			String thumbnail = properties.getProperty( "thumbnail");
+			Path image = thumbnail == null ? null : directory.resolve( thumbnail);
+			if( image != null && !Files.exists( image))
+				return null;
+			return new MapPreview( map, Long.parseLong( properties.getProperty( "size")),
+					Long.parseLong( properties.getProperty( "lastModified")), Long.parseLong( properties.getProperty( "rooms")),
+					Long.parseLong( properties.getProperty( "vertices")), bounds, image);
+		}catch( RuntimeException e){
+			// missing key or broken number, treat as not cached
+			return null;
+		}
+	}
+
+	private static String nameOf( Path map){
+		try{
+			byte[] hash = MessageDigest.getInstance( "SHA-1").digest( map.toString().getBytes( StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder( hash.length * 2);
+			for( byte b: hash)
+				name.append( Character.forDigit( (b >> 4) & 0xF, 16)).append( Character.forDigit( b & 0xF, 16));
+			return name.toString();
+		}catch( NoSuchAlgorithmException e){
+			// every Java platform is required to support SHA-1
+			throw new IllegalStateException( e);
+		}
+	}
+
+	/**
+	 * @return recently opened or saved maps, most recent first
+	 */
+	public List< Path> getRecent(){
+		return Collections.unmodifiableList( recent);
+	}
+
+	/**
+	 * <p>
+	 * move given map to front of recent list, drop oldest ones over {@value #MAX_RECENT} and save list.</br>
+	 * </p>
+	 * @param map - path of map just opened or saved
+	 */
+	public void addRecent( Path map){
+		Path key = map.toAbsolutePath().normalize();
+		recent.remove( key);
+		recent.add( 0, key);
+		while( recent.size() > MAX_RECENT)
+			recent.remove( recent.size() - 1);
+		List< String> lines = new ArrayList<>();
+		for( Path path: recent)
+			lines.add( path.toString());
+		try{
+			Files.createDirectories( directory);
+			Files.write( directory.resolve( RECENT_FILE), lines, StandardCharsets.UTF_8);
+		}catch( IOException e){
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * <p>
+	 * stop background thread, a preview being built is abandoned.</br>
+	 * </p>
+	 */
+	public void shutdown(){
+		worker.shutdownNow();
+	}
+}
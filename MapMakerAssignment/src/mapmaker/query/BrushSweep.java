@@ -0,0 +1,69 @@
+package mapmaker.query;
+
+import java.util.BitSet;
+
+import mapmaker.geom.Polygons;
+import mapmaker.geom.SpatialGrid;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * rooms touched by a round brush dragged over a {@link GeometrySnapshot}, as used by erase tool. rooms are put in a
+ * {@link SpatialGrid} once when stroke starts, each segment of stroke then only tests rooms sharing a cell with
+ * bounds of its capsule, the area swept by brush along segment, and skips rooms already touched. so a long stroke
+ * over many rooms costs about the rooms it touches, not all rooms for every mouse event.</br>
+ * a sweep is created on a worker by {@link GeometryService} and used after on JavaFX thread only.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class BrushSweep{
+
+	private final GeometrySnapshot snapshot;
+	private final double[] bounds;
+	private final SpatialGrid grid;
+	private final BitSet touched = new BitSet();
+
+	/**
+	 * @param snapshot - rooms to be swept
+	 */
+	public BrushSweep( GeometrySnapshot snapshot){
+		this.snapshot = snapshot;
+		bounds = snapshot.bounds();
+		grid = SpatialGrid.of( bounds);
+	}
+
+	/**
+	 * <p>
+	 * sweep brush from a to b, a click is a segment whose ends are the same.</br>
+	 * </p>
+	 * @param radius - radius of brush
+	 * @return ids of rooms touched for first time by this segment
+	 */
+	public BitSet sweep( double ax, double ay, double bx, double by, double radius){
+		double minX = Math.min( ax, bx) - radius, minY = Math.min( ay, by) - radius;
+		double maxX = Math.max( ax, bx) + radius, maxY = Math.max( ay, by) + radius;
+		BitSet found = grid.query( minX, minY, maxX, maxY);
+		found.andNot( touched);
+		for( int id = found.nextSetBit( 0); id >= 0; id = found.nextSetBit( id + 1)){
+			int i = id * 4;
+			// cells hold rooms near capsule, bounds and then outline decide
+			if( !(bounds[i] <= maxX && bounds[i + 2] >= minX && bounds[i + 1] <= maxY && bounds[i + 3] >= minY))
+				found.clear( id);
+			else{
+				RoomRecord room = snapshot.get( id);
+				if( !Polygons.nearSegment( room.copyPoints(), ax, ay, bx, by, radius))
+					found.clear( id);
+			}
+		}
+		touched.or( found);
+		return found;
+	}
+
+	/**
+	 * @return ids of all rooms touched so far, not to be changed
+	 */
+	public BitSet getTouched(){
+		return touched;
+	}
+}
@@ -0,0 +1,181 @@
+package mapmaker.query;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * runs geometry queries on a pool of worker threads so the UI thread never waits on a query over all rooms.</br>
+ * queries run against the latest {@link GeometrySnapshot} given to {@link #update(GeometrySnapshot)}. each query
+ * belongs to a channel, for example "select" or "snap", and a new query on a channel cancels the older one still
+ * waiting or running there, so a stream of drag events only ever computes the latest request.</br>
+ * results are handed to a publisher, usually <code>Platform::runLater</code>, and the result callback runs only if
+ * its query is still the latest of its channel when publisher runs it. this class does not depend on JavaFX.</br>
+ * all methods except {@link #shutdown()} are meant to be called from one thread, the UI thread.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class GeometryService{
+
+	/**
+	 * <p>
+	 * latest query of one channel.</br>
+	 * </p>
+	 */
+	private static final class Latest{
+
+		private long generation;
+		private Future< ?> future;
+		/**
+		 * <p>
+		 * true from submit until result of latest query is published, dropped or cancelled.</br>
+		 * </p>
+		 */
+		private boolean pending;
+	}
+
+	private final ExecutorService pool;
+	private final Consumer< Runnable> publisher;
+	private final Map< String, Latest> channels = new HashMap<>();
+	private volatile GeometrySnapshot snapshot = GeometrySnapshot.EMPTY;
+
+	/**
+	 * <p>
+	 * create a service with one worker less than available processors, at least one.</br>
+	 * </p>
+	 * @param publisher - runs result callbacks on UI thread, for example <code>Platform::runLater</code>
+	 */
+	public GeometryService( Consumer< Runnable> publisher){
+		this( Math.max( 1, Runtime.getRuntime().availableProcessors() - 1), publisher);
+	}
+
+	/**
+	 * @param threads - number of worker threads
+	 * @param publisher - runs result callbacks on UI thread, for example <code>Platform::runLater</code>
+	 */
+	public GeometryService( int threads, Consumer< Runnable> publisher){
+		AtomicInteger count = new AtomicInteger();
+		this.publisher = publisher;
+		pool = Executors.newFixedThreadPool( threads, r -> {
+			Thread thread = new Thread( r, "geometry-" + count.incrementAndGet());
+			thread.setDaemon( true);
+			return thread;
+		});
+	}
+
+	/**
+	 * <p>
+	 * set snapshot used by queries submitted from now on. queries already running keep their snapshot.</br>
+	 * </p>
+	 * @param snapshot - current geometry of map
+	 */
+	public void update( GeometrySnapshot snapshot){
+		this.snapshot = snapshot;
+	}
+
+	public GeometrySnapshot getSnapshot(){
+		return snapshot;
+	}
+
+	/**
+	 * <p>
+	 * run given query on a worker and publish its result, cancelling older query of same channel. a query that
+	 * fails has its stack trace printed, see {@link #submit(String, Function, Consumer, Consumer)}.</br>
+	 * </p>
+	 * @param channel - name of channel
+	 * @param query - query to be run on current snapshot
+	 * @param result - called with result through publisher if query is still the latest of its channel
+	 * @param <T> - type of result
+	 */
+	public < T> void submit( String channel, Function< GeometrySnapshot, T> query, Consumer< T> result){
+		submit( channel, query, result, Throwable::printStackTrace);
+	}
+
+	/**
+	 * <p>
+	 * run given query on a worker and publish its result or its failure, cancelling older query of same
+	 * channel.</br>
+	 * </p>
+	 * @param channel - name of channel
+	 * @param query - query to be run on current snapshot
+	 * @param result - called with result through publisher if query is still the latest of its channel
+	 * @param failed - called instead of result through publisher if query threw an exception and is still the
+	 *            latest of its channel
+	 * @param <T> - type of result
+	 */
+	public < T> void submit( String channel, Function< GeometrySnapshot, T> query, Consumer< T> result,
+			Consumer< RuntimeException> failed){
+		Latest latest = channels.computeIfAbsent( channel, k -> new Latest());
+		if( latest.future != null)
+			latest.future.cancel( true);
+		long generation = ++latest.generation;
+		latest.pending = true;
+		GeometrySnapshot current = snapshot;
+		latest.future = pool.submit( () -> {
+			T value;
+			try{
+				value = query.apply( current);
+			}catch( CancellationException e){
+				return;
+			}catch( RuntimeException e){
+				// nobody reads future, failure is handed on like a result
+				publisher.accept( () -> {
+					if( latest.generation == generation){
+						latest.pending = false;
+						failed.accept( e);
+					}
+				});
+				return;
+			}
+			publisher.accept( () -> {
+				// a newer query may have been submitted while this result was waiting
+				if( latest.generation == generation){
+					latest.pending = false;
+					result.accept( value);
+				}
+			});
+		});
+	}
+
+	/**
+	 * <p>
+	 * cancel latest query of given channel, its result will not be published.</br>
+	 * </p>
+	 * @param channel - name of channel
+	 */
+	public void cancel( String channel){
+		Latest latest = channels.get( channel);
+		if( latest != null && latest.future != null){
+			latest.future.cancel( true);
+			latest.generation++;
+			latest.pending = false;
+		}
+	}
+
+	/**
+	 * @return true if no channel has a query whose result is still to be published
+	 */
+	public boolean isIdle(){
+		for( Latest latest: channels.values())
+			if( latest.pending)
+				return false;
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * stop all workers, running queries are interrupted.</br>
+	 * </p>
+	 */
+	public void shutdown(){
+		pool.shutdownNow();
+	}
+}
@@ -0,0 +1,192 @@
+package mapmaker.query;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+
+import mapmaker.geom.Polygons;
+import mapmaker.model.MapSnapshot;
+import mapmaker.model.MapStats;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * immutable copy of geometry of all rooms of a map, indexed by dense room id. a snapshot can be queried from any
+ * thread while the map keeps changing.</br>
+ * creating a snapshot only wraps a {@link MapSnapshot}, bounds of rooms are computed by the first query that needs
+ * them, on the thread running that query. queries check for interruption every {@value #CHECK_INTERVAL}
+ * rooms and throw {@link CancellationException} when their thread was interrupted.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class GeometrySnapshot{
+
+	private static final int CHECK_INTERVAL = 1024;
+
+	public static final GeometrySnapshot EMPTY = new GeometrySnapshot( MapSnapshot.EMPTY);
+
+	private final MapSnapshot rooms;
+
+	/**
+	 * <p>
+	 * {minX, minY, maxX, maxY} of each room, created lazily. NaN for free ids, so they match no query.</br>
+	 * </p>
+	 */
+	private volatile double[] bounds;
+
+	private GeometrySnapshot( MapSnapshot rooms){
+		this.rooms = rooms;
+	}
+
+	/**
+	 * @param rooms - consistent version of a map
+	 * @return new snapshot
+	 */
+	public static GeometrySnapshot of( MapSnapshot rooms){
+		return new GeometrySnapshot( rooms);
+	}
+
+	/**
+	 * @return highest room id plus one
+	 */
+	public int capacity(){
+		return rooms.capacity();
+	}
+
+	/**
+	 * @param id - room id
+	 * @return room with given id or null if id is free
+	 */
+	public RoomRecord get( int id){
+		return rooms.get( id);
+	}
+
+	/**
+	 * <p>
+	 * find rooms fully inside given rectangle.</br>
+	 * </p>
+	 * @return ids of rooms inside
+	 */
+	public BitSet inside( double minX, double minY, double maxX, double maxY){
+		double[] b = bounds();
+		BitSet found = new BitSet();
+		for( int id = 0; id < b.length / 4; id++){
+			checkCancelled( id);
+			int i = id * 4;
+			if( b[i] >= minX && b[i + 1] >= minY && b[i + 2] <= maxX && b[i + 3] <= maxY)
+				found.set( id);
+		}
+		return found;
+	}
+
+	/**
+	 * <p>
+	 * find rooms whose bounds touch given rectangle.</br>
+	 * </p>
+	 * @return ids of rooms touching rectangle
+	 */
+	public BitSet intersecting( double minX, double minY, double maxX, double maxY){
+		double[] b = bounds();
+		BitSet found = new BitSet();
+		for( int id = 0; id < b.length / 4; id++){
+			checkCancelled( id);
+			int i = id * 4;
+			if( b[i] <= maxX && b[i + 2] >= minX && b[i + 1] <= maxY && b[i + 3] >= minY)
+				found.set( id);
+		}
+		return found;
+	}
+
+	/**
+	 * <p>
+	 * find rooms whose bounds overlap bounds of given room.</br>
+	 * </p>
+	 * @param id - room to be checked
+	 * @return ids of overlapping rooms, not including given room
+	 */
+	public BitSet overlapping( int id){
+		if( get( id) == null)
+			return new BitSet();
+		double[] b = bounds();
+		int i = id * 4;
+		BitSet found = intersecting( b[i], b[i + 1], b[i + 2], b[i + 3]);
+		found.clear( id);
+		return found;
+	}
+
+	/**
+	 * <p>
+	 * find vertex closest to given point, for snapping.</br>
+	 * </p>
+	 * @param x - x of point
+	 * @param y - y of point
+	 * @param maxDistance - vertices further than this are ignored
+	 * @return {x, y} of closest vertex or null if there is none within max distance
+	 */
+	public double[] nearestVertex( double x, double y, double maxDistance){
+		double[] b = bounds();
+		double best = maxDistance * maxDistance;
+		double[] found = null;
+		for( int id = 0; id < b.length / 4; id++){
+			checkCancelled( id);
+			int i = id * 4;
+			// skip free ids and rooms whose bounds are too far away
+			if( !(x >= b[i] - maxDistance && x <= b[i + 2] + maxDistance && y >= b[i + 1] - maxDistance
+					&& y <= b[i + 3] + maxDistance))
+				continue;
+			RoomRecord room = rooms.get( id);
+			for( int p = 0; p < room.getPointCount(); p++){
+				double dx = room.getX( p) - x;
+				double dy = room.getY( p) - y;
+				if( dx * dx + dy * dy <= best){
+					best = dx * dx + dy * dy;
+					found = new double[]{ room.getX( p), room.getY( p) };
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * <p>
+	 * area, perimeter and counts of all rooms.</br>
+	 * </p>
+	 * @return new statistics
+	 */
+	public MapStats stats(){
+		MapStats stats = new MapStats();
+		rooms.forEach( ( id, room) -> {
+			checkCancelled( id);
+			stats.add( room);
+		});
+		return stats;
+	}
+
+	/**
+	 * @return {minX, minY, maxX, maxY} of each room one after another, NaN for free ids. not to be changed
+	 */
+	double[] bounds(){
+		double[] b = bounds;
+		if( b == null){
+			// computed at most a few times when queries race, result is always the same
+			double[] all = new double[rooms.capacity() * 4];
+			Arrays.fill( all, Double.NaN);
+			double[] one = new double[4];
+			rooms.forEach( ( id, room) -> {
+				checkCancelled( id);
+				Arrays.fill( one, Double.NaN);
+				for( int p = 0; p < room.getPointCount(); p++)
+					Polygons.include( one, room.getX( p), room.getY( p));
+				System.arraycopy( one, 0, all, id * 4, 4);
+			});
+			bounds = b = all;
+		}
+		return b;
+	}
+
+	private static void checkCancelled( int index){
+		if( index % CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted())
+			throw new CancellationException( "query was replaced by a newer one");
+	}
+}
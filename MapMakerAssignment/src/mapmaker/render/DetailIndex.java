@@ -0,0 +1,537 @@
+package mapmaker.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import mapmaker.geom.Polygons;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * level of detail of every room of a map, kept up to date one room at a time so an edit costs only rooms it
+ * touches. how a room is drawn depends on its extent, larger side of its bounds, in pixels at current zoom, see
+ * {@link Level}. at a zoom of 1 or more every room is {@link Level#DETAIL}, so editing at natural size is never
+ * changed.</br>
+ * everything a level needs is made when a room is added or changed, never while drawing:
+ * <ul>
+ * 	<li>bounds and a simplified outline, from {@link Polygons#simplify(double[], double)}</li>
+ * 	<li>a class by extent, each class doubling size of previous one. rooms of a class are in a spatial hash whose
+ * 		cells are about 4 times their extent, so finding rooms in a viewport costs number of cells it covers on
+ * 		screen and not number of rooms</li>
+ * 	<li>a pyramid of density cells, each level doubling size of previous one. a room adds its fill color to cell
+ * 		of its center on every level whose cells are larger than its class, so a level holds exactly rooms too
+ * 		small to be drawn alone when its cells are a few pixels wide</li>
+ * </ul>
+ * drawing a viewport therefore visits density cells of one pyramid level and rooms of the few classes between
+ * density and full detail. both are bounded by pixels of viewport, so time of a frame stays about same at any
+ * zoom.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class DetailIndex{
+
+	/**
+	 * <p>
+	 * how a room is drawn, from most to least detail.</br>
+	 * </p>
+	 */
+	public enum Level{
+		/**
+		 * shape itself with stroke and control points
+		 */
+		DETAIL,
+		/**
+		 * simplified outline filled, no stroke
+		 */
+		OUTLINE,
+		/**
+		 * bounding box filled, no stroke
+		 */
+		BOX,
+		/**
+		 * part of a density cell with other rooms too small to be seen alone
+		 */
+		DENSITY;
+	}
+
+	/**
+	 * <p>
+	 * receives rooms of a viewport with their level, see {@link DetailIndex#visit}.</br>
+	 * </p>
+	 */
+	public interface RoomVisitor{
+
+		/**
+		 * @param id - id of room
+		 * @param level - {@link Level#OUTLINE} or {@link Level#BOX}
+		 */
+		void room( int id, Level level);
+	}
+
+	/**
+	 * <p>
+	 * extent in pixels from which a room is drawn in full.</br>
+	 * </p>
+	 */
+	public static final double DETAIL_PIXELS = 16;
+	/**
+	 * <p>
+	 * extent in pixels from which a room is drawn as its outline instead of its bounding box.</br>
+	 * </p>
+	 */
+	public static final double OUTLINE_PIXELS = 6;
+	/**
+	 * <p>
+	 * largest side of a density cell in pixels, a cell is between half of this and this.</br>
+	 * </p>
+	 */
+	public static final double CELL_PIXELS = 4;
+	/**
+	 * <p>
+	 * simplified outline is off by at most this part of extent of its room, under a pixel at
+	 * {@link #DETAIL_PIXELS}.</br>
+	 * </p>
+	 */
+	private static final double SIMPLIFY = 1 / 24.0;
+	/**
+	 * <p>
+	 * side of smallest density cell and smallest extent of class 1 in map units.</br>
+	 * </p>
+	 */
+	private static final double BASE = 0.25;
+	/**
+	 * <p>
+	 * number of classes, last one holds every larger room.</br>
+	 * </p>
+	 */
+	private static final int CLASSES = 24;
+	/**
+	 * <p>
+	 * number of pyramid levels, enough for cells of {@link #CELL_PIXELS} at
+	 * {@link mapmaker.MapAreaSkeleton#MIN_ZOOM}. a room of a larger class is never in a density cell.</br>
+	 * </p>
+	 */
+	private static final int LEVELS = 11;
+	/**
+	 * <p>
+	 * odd constant cell keys are multiplied by and its inverse. {@link Long#hashCode()} of a plain column and row
+	 * key is column xor row, equal for whole diagonals of neighboring cells, so keys are mixed to spread them over a
+	 * {@link HashMap}.</br>
+	 * </p>
+	 */
+	private static final long MIX = 0x9E3779B97F4A7C15L;
+	private static final long UNMIX = 0xF1DE83E19937733DL;
+
+	/**
+	 * <p>
+	 * ids of rooms touching one cell of a spatial hash.</br>
+	 * </p>
+	 */
+	private static final class Cell{
+
+		private int[] ids = new int[4];
+		private int size;
+
+		void add( int id){
+			if( size == ids.length)
+				ids = Arrays.copyOf( ids, size * 2);
+			ids[size++] = id;
+		}
+
+		/**
+		 * @return true if cell is empty after removing
+		 */
+		boolean remove( int id){
+			for( int i = 0; i < size; i++)
+				if( ids[i] == id){
+					ids[i] = ids[--size];
+					break;
+				}
+			return size == 0;
+		}
+	}
+
+	/**
+	 * <p>
+	 * number of rooms and sums of their fill color channels in one density cell.</br>
+	 * </p>
+	 */
+	private static final class Density{
+
+		private int count;
+		private long red, green, blue;
+
+		/**
+		 * @return true if cell is empty after adding
+		 */
+		boolean add( int rgb, int sign){
+			count += sign;
+			red += sign * ((rgb >> 16) & 0xFF);
+			green += sign * ((rgb >> 8) & 0xFF);
+			blue += sign * (rgb & 0xFF);
+			return count == 0;
+		}
+
+		int argb(){
+			return 0xFF000000 | (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+		}
+	}
+
+	/**
+	 * <p>
+	 * by room id: {minX, minY, maxX, maxY}, simplified outline, fill color with opacity and class, -1 when there
+	 * is no such room.</br>
+	 * </p>
+	 */
+	private double[] bounds = new double[64];
+	private double[][] outlines = new double[16][];
+	private int[] colors = new int[16];
+	private byte[] classes = new byte[16];
+	/**
+	 * <p>
+	 * stamp of last {@link #visit} which reported each room, so a room touching many cells is reported once.</br>
+	 * </p>
+	 */
+	private int[] visited = new int[16];
+	private int stamp;
+	private final BitSet[] members = new BitSet[CLASSES];
+	private final List< Map< Long, Cell>> grids = new ArrayList<>( CLASSES);
+	private final List< Map< Long, Density>> pyramid = new ArrayList<>( LEVELS);
+	private int size;
+
+	public DetailIndex(){
+		for( int i = 0; i < CLASSES; i++){
+			members[i] = new BitSet();
+			grids.add( new HashMap<>());
+		}
+		for( int i = 0; i < LEVELS; i++)
+			pyramid.add( new HashMap<>());
+		Arrays.fill( classes, (byte) -1);
+	}
+
+	/**
+	 * <p>
+	 * add a room or replace what is known about it.</br>
+	 * </p>
+	 * @param id - id of room
+	 * @param record - current record of room
+	 */
+	public void put( int id, RoomRecord record){
+		remove( id);
+		if( record.getPointCount() == 0)
+			return;
+		grow( id);
+		double[] points = record.copyPoints();
+		double[] box = Polygons.bounds( points);
+		System.arraycopy( box, 0, bounds, id * 4, 4);
+		double extent = Math.max( box[2] - box[0], box[3] - box[1]);
+		int level = classOf( extent);
+		outlines[id] = Polygons.simplify( points, extent * SIMPLIFY);
+		colors[id] = (int) Math.round( record.getFill().getOpacity() * 255) << 24 | record.getFill().getRGB();
+		classes[id] = (byte) level;
+		members[level].set( id);
+		double cell = gridCell( level);
+		for( long y = cell( box[1], cell); y <= cell( box[3], cell); y++)
+			for( long x = cell( box[0], cell); x <= cell( box[2], cell); x++)
+				grids.get( level).computeIfAbsent( key( x, y), k -> new Cell()).add( id);
+		density( id, 1);
+		size++;
+	}
+
+	/**
+	 * <p>
+	 * forget a room, nothing happens if it is not known.</br>
+	 * </p>
+	 * @param id - id of room
+	 */
+	public void remove( int id){
+		if( id >= classes.length || classes[id] < 0)
+			return;
+		int level = classes[id];
+		double cell = gridCell( level);
+		int at = id * 4;
+		for( long y = cell( bounds[at + 1], cell); y <= cell( bounds[at + 3], cell); y++)
+			for( long x = cell( bounds[at], cell); x <= cell( bounds[at + 2], cell); x++){
+				Long key = key( x, y);
+				Cell ids = grids.get( level).get( key);
+				if( ids != null && ids.remove( id))
+					grids.get( level).remove( key);
+			}
+		density( id, -1);
+		members[level].clear( id);
+		classes[id] = -1;
+		outlines[id] = null;
+		size--;
+	}
+
+	/**
+	 * <p>
+	 * add or subtract a room from cell of its center on every pyramid level whose cells are larger than its
+	 * class.</br>
+	 * </p>
+	 */
+	private void density( int id, int sign){
+		int at = id * 4;
+		double x = (bounds[at] + bounds[at + 2]) / 2, y = (bounds[at + 1] + bounds[at + 3]) / 2;
+		int rgb = colors[id] & 0xFFFFFF;
+		for( int level = classes[id]; level < LEVELS; level++){
+			double cell = densityCell( level);
+			Long key = key( cell( x, cell), cell( y, cell));
+			if( pyramid.get( level).computeIfAbsent( key, k -> new Density()).add( rgb, sign))
+				pyramid.get( level).remove( key);
+		}
+	}
+
+	private void grow( int id){
+		if( id < classes.length)
+			return;
+		int length = Math.max( id + 1, classes.length * 2);
+		int start = classes.length;
+		bounds = Arrays.copyOf( bounds, length * 4);
+		outlines = Arrays.copyOf( outlines, length);
+		colors = Arrays.copyOf( colors, length);
+		visited = Arrays.copyOf( visited, length);
+		classes = Arrays.copyOf( classes, length);
+		Arrays.fill( classes, start, length, (byte) -1);
+	}
+
+	/**
+	 * @param id - id of a room
+	 * @return true if room is known, a room without points never is
+	 */
+	public boolean contains( int id){
+		return id >= 0 && id < classes.length && classes[id] >= 0;
+	}
+
+	/**
+	 * @return number of rooms known
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * @param id - id of a known room
+	 * @param zoom - pixels per map unit
+	 * @return how room is drawn at given zoom
+	 */
+	public Level level( int id, double zoom){
+		if( zoom >= 1)
+			return Level.DETAIL;
+		if( classes[id] <= densityLevel( zoom))
+			return Level.DENSITY;
+		double extent = extent( id) * zoom;
+		return extent >= DETAIL_PIXELS ? Level.DETAIL : extent >= OUTLINE_PIXELS ? Level.OUTLINE : Level.BOX;
+	}
+
+	/**
+	 * <p>
+	 * smallest extent a room drawn in full has at given zoom, 0 when every room is.</br>
+	 * </p>
+	 * @param zoom - pixels per map unit
+	 * @return extent in map units
+	 */
+	public static double detailExtent( double zoom){
+		return zoom >= 1 ? 0 : DETAIL_PIXELS / zoom;
+	}
+
+	/**
+	 * <p>
+	 * call action with every known room whose extent is in given range, visiting only classes which overlap
+	 * range. used to find rooms whose level changed with zoom.</br>
+	 * </p>
+	 * @param min - smallest extent, inclusive
+	 * @param max - largest extent, exclusive
+	 * @param action - called with id of each room
+	 */
+	public void forEachExtent( double min, double max, IntConsumer action){
+		if( !(max > min))
+			return;
+		for( int level = classOf( min); level < CLASSES && (level == 0 || BASE * Math.pow( 2, level - 1) < max); level++){
+			BitSet ids = members[level];
+			for( int id = ids.nextSetBit( 0); id >= 0; id = ids.nextSetBit( id + 1)){
+				double extent = extent( id);
+				if( extent >= min && extent < max)
+					action.accept( id);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * report every room touching given rectangle which is drawn as {@link Level#OUTLINE} or {@link Level#BOX} at
+	 * given zoom, each once. rooms of one class are reported together, classes from small to large.</br>
+	 * </p>
+	 * @param minX - left of viewport in map units
+	 * @param minY - top of viewport in map units
+	 * @param maxX - right of viewport in map units
+	 * @param maxY - bottom of viewport in map units
+	 * @param zoom - pixels per map unit
+	 * @param visitor - receives rooms
+	 */
+	public void visit( double minX, double minY, double maxX, double maxY, double zoom, RoomVisitor visitor){
+		if( zoom >= 1)
+			return;
+		stamp++;
+		for( int level = densityLevel( zoom) + 1; level < CLASSES; level++){
+			// smallest room of class is already drawn in full
+			if( level > 0 && BASE * Math.pow( 2, level - 1) * zoom >= DETAIL_PIXELS)
+				break;
+			forEachCell( grids.get( level), gridCell( level), minX, minY, maxX, maxY, ( key, ids) -> {
+				for( int i = 0; i < ids.size; i++){
+					int id = ids.ids[i];
+					if( visited[id] == stamp)
+						continue;
+					visited[id] = stamp;
+					int at = id * 4;
+					if( bounds[at] > maxX || bounds[at + 2] < minX || bounds[at + 1] > maxY || bounds[at + 3] < minY)
+						continue;
+					Level detail = level( id, zoom);
+					if( detail != Level.DETAIL && detail != Level.DENSITY)
+						visitor.room( id, detail);
+				}
+			});
+		}
+	}
+
+	/**
+	 * <p>
+	 * write density cells of rooms too small to be drawn alone into an ARGB image of a viewport, pixels of cells
+	 * are replaced and others left as they are.</br>
+	 * </p>
+	 * @param pixels - ARGB pixels of viewport in rows
+	 * @param width - width of viewport in pixels
+	 * @param height - height of viewport in pixels
+	 * @param minX - map x of left edge of viewport
+	 * @param minY - map y of top edge of viewport
+	 * @param zoom - pixels per map unit
+	 */
+	public void paintDensity( int[] pixels, int width, int height, double minX, double minY, double zoom){
+		if( zoom >= 1)
+			return;
+		int level = densityLevel( zoom);
+		double cell = densityCell( level);
+		Map< Long, Density> cells = pyramid.get( level);
+		forEachCell( cells, cell, minX, minY, minX + width / zoom, minY + height / zoom, ( key, density) -> {
+			long x = column( key), y = row( key);
+			int x0 = Math.max( 0, (int) Math.floor( (x * cell - minX) * zoom));
+			int x1 = Math.min( width, (int) Math.floor( ((x + 1) * cell - minX) * zoom));
+			int y0 = Math.max( 0, (int) Math.floor( (y * cell - minY) * zoom));
+			int y1 = Math.min( height, (int) Math.floor( ((y + 1) * cell - minY) * zoom));
+			int argb = density.argb();
+			for( int row = y0; row < y1; row++)
+				Arrays.fill( pixels, row * width + x0, row * width + Math.max( x0, x1), argb);
+		});
+	}
+
+	/**
+	 * <p>
+	 * call action with every non empty cell of given hash touching a rectangle. cells of rectangle are looked up
+	 * one by one unless hash holds fewer cells, then hash is walked instead.</br>
+	 * </p>
+	 */
+	private static < T> void forEachCell( Map< Long, T> cells, double cell, double minX, double minY, double maxX,
+			double maxY, CellAction< T> action){
+		if( cells.isEmpty())
+			return;
+		long x0 = cell( minX, cell), x1 = cell( maxX, cell), y0 = cell( minY, cell), y1 = cell( maxY, cell);
+		if( (double) (x1 - x0 + 1) * (y1 - y0 + 1) > cells.size()){
+			for( Map.Entry< Long, T> entry: cells.entrySet()){
+				long x = column( entry.getKey()), y = row( entry.getKey());
+				if( x >= x0 && x <= x1 && y >= y0 && y <= y1)
+					action.accept( entry.getKey(), entry.getValue());
+			}
+			return;
+		}
+		for( long y = y0; y <= y1; y++)
+			for( long x = x0; x <= x1; x++){
+				Long key = key( x, y);
+				T value = cells.get( key);
+				if( value != null)
+					action.accept( key, value);
+			}
+	}
+
+	private interface CellAction< T>{
+		void accept( Long key, T value);
+	}
+
+	/**
+	 * @param id - id of a known room
+	 * @return {minX, minY, maxX, maxY} of room, a copy
+	 */
+	public double[] getBounds( int id){
+		return Arrays.copyOfRange( bounds, id * 4, id * 4 + 4);
+	}
+
+	/**
+	 * @param id - id of a known room
+	 * @return simplified outline of room as x and y pairs, not a copy
+	 */
+	public double[] getOutline( int id){
+		return outlines[id];
+	}
+
+	/**
+	 * @param id - id of a known room
+	 * @return fill color of room as ARGB
+	 */
+	public int getColor( int id){
+		return colors[id];
+	}
+
+	private double extent( int id){
+		int at = id * 4;
+		return Math.max( bounds[at + 2] - bounds[at], bounds[at + 3] - bounds[at + 1]);
+	}
+
+	/**
+	 * <p>
+	 * level of pyramid whose cells are between half of {@link #CELL_PIXELS} and {@link #CELL_PIXELS} wide at given
+	 * zoom. its rooms are exactly those of its class and below.</br>
+	 * </p>
+	 */
+	private static int densityLevel( double zoom){
+		int level = (int) Math.floor( Math.log( CELL_PIXELS / (zoom * BASE)) / Math.log( 2));
+		return Math.max( 0, Math.min( LEVELS - 1, level));
+	}
+
+	/**
+	 * @return class of extent, class n above 0 holds extents from BASE * 2^(n - 1) to BASE * 2^n
+	 */
+	private static int classOf( double extent){
+		if( extent < BASE)
+			return 0;
+		return Math.min( CLASSES - 1, 1 + (int) Math.floor( Math.log( extent / BASE) / Math.log( 2)));
+	}
+
+	private static double gridCell( int level){
+		return BASE * Math.pow( 2, level + 1);
+	}
+
+	private static double densityCell( int level){
+		return BASE * Math.pow( 2, level);
+	}
+
+	private static long cell( double value, double cell){
+		return (long) Math.floor( value / cell);
+	}
+
+	private static Long key( long x, long y){
+		return (x << 32 | (y & 0xFFFFFFFFL)) * MIX;
+	}
+
+	private static long column( long key){
+		return (key * UNMIX) >> 32;
+	}
+
+	private static long row( long key){
+		return (int) (key * UNMIX);
+	}
+}
@@ -0,0 +1,96 @@
+package mapmaker.render;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+/**
+ * <p>
+ * layout of icon atlas, one PNG holding every toolbar and menu icon so application decodes a single image at
+ * start up instead of one per icon. first row holds {@value #LARGE} pixel icons and second row
+ * {@value #SMALL} pixel icons, both in order of {@link #NAMES}.</br>
+ * atlas is built from <code>20xp</code> and <code>40xp</code> directories of <code>icons</code>, which are not
+ * shipped, by {@link #pack(Path)}, see {@link mapmaker.cli.PackIcons}, and must be packed again when an icon is
+ * added or changed.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class IconSheet{
+
+	/**
+	 * <p>
+	 * file name of atlas inside <code>resources/icons</code>.</br>
+	 * </p>
+	 */
+	public static final String ATLAS = "atlas.png";
+	/**
+	 * <p>
+	 * size of toolbar icons.</br>
+	 * </p>
+	 */
+	public static final int LARGE = 40;
+	/**
+	 * <p>
+	 * size of menu icons.</br>
+	 * </p>
+	 */
+	public static final int SMALL = 20;
+
+	private static final String[] NAMES = { "clear", "cursor", "doorway", "eraser", "exit", "information", "move",
+			"new-file", "open-archive", "open-book", "plans", "question", "road", "save" };
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private IconSheet(){
+	}
+
+	/**
+	 * @param name - file name of icon without extension, such as "save"
+	 * @param size - {@link #LARGE} or {@link #SMALL}
+	 * @return x, y, width and height of icon in atlas
+	 * @throws IllegalArgumentException if there is no such icon
+	 */
+	public static int[] cell( String name, int size){
+		int index = Arrays.asList( NAMES).indexOf( name);
+		if( index < 0 || (size != LARGE && size != SMALL))
+			throw new IllegalArgumentException( "no " + size + " pixel icon \"" + name + "\" in atlas");
+		return new int[]{ index * size, size == LARGE ? 0 : LARGE, size, size };
+	}
+
+	/**
+	 * <p>
+	 * draw every icon into its cell, icons not of cell size are scaled to fit.</br>
+	 * </p>
+	 * @param icons - directory holding <code>20xp</code> and <code>40xp</code> directories of icons
+	 * @return atlas image
+	 * @throws IOException if an icon cannot be read
+	 */
+	public static BufferedImage pack( Path icons) throws IOException{
+		BufferedImage atlas = new BufferedImage( NAMES.length * LARGE, LARGE + SMALL, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = atlas.createGraphics();
+		g.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		try{
+			for( String name: NAMES)
+				for( int size: new int[]{ LARGE, SMALL }){
+					Path file = icons.resolve( size + "xp").resolve( name + ".png");
+					BufferedImage icon = ImageIO.read( file.toFile());
+					if( icon == null)
+						throw new IOException( "\"" + file + "\" is not an image");
+					int[] cell = cell( name, size);
+					g.drawImage( icon, cell[0], cell[1], cell[2], cell[3], null);
+				}
+		}finally{
+			g.dispose();
+		}
+		return atlas;
+	}
+}
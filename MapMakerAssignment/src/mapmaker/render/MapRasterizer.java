@@ -0,0 +1,210 @@
+package mapmaker.render;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import mapmaker.geom.Polygons;
+import mapmaker.geom.SpatialGrid;
+import mapmaker.model.MapColor;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * headless renderer of rooms into image tiles using {@link Graphics2D}, no display or JavaFX toolkit is needed.
+ * rooms are drawn like {@link javafx.scene.shape.Polygon} draws them, fill first then a centered stroke with square
+ * caps and miter joins, in order of the list.</br>
+ * image covers bounds of all rooms including their strokes at given scale. a tile only draws rooms found near it in
+ * a {@link SpatialGrid}, so rendering one tile costs the rooms touching it, not all rooms. tiles can be rendered
+ * from many threads at once.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapRasterizer{
+
+	/**
+	 * <p>
+	 * default miter limit of JavaFX shapes.</br>
+	 * </p>
+	 */
+	private static final float MITER_LIMIT = 10;
+
+	private final List< RoomRecord> rooms;
+	private final double[] bounds;
+	private final SpatialGrid grid;
+	private final double scale;
+	private final long left, top;
+	private final int width, height;
+
+	/**
+	 * @param rooms - rooms to be drawn, list must not change while rasterizer is used
+	 * @param scale - pixels per map unit
+	 */
+	public MapRasterizer( List< RoomRecord> rooms, double scale){
+		this( rooms, roomBounds( rooms), null, scale);
+	}
+
+	private MapRasterizer( List< RoomRecord> rooms, double[] bounds, SpatialGrid grid, double scale){
+		if( !(scale > 0))
+			throw new IllegalArgumentException( "scale must be positive, was " + scale);
+		this.rooms = rooms;
+		this.bounds = bounds;
+		this.grid = grid != null ? grid : SpatialGrid.of( bounds);
+		this.scale = scale;
+		double[] all = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+		for( int i = 0; i < bounds.length; i += 4){
+			if( !Double.isNaN( bounds[i])){
+				Polygons.include( all, bounds[i], bounds[i + 1]);
+				Polygons.include( all, bounds[i + 2], bounds[i + 3]);
+			}
+		}
+		if( Double.isNaN( all[0]))
+			Arrays.fill( all, 0);
+		left = (long) Math.floor( all[0] * scale);
+		top = (long) Math.floor( all[1] * scale);
+		long w = Math.max( 1, (long) Math.ceil( all[2] * scale) - left);
+		long h = Math.max( 1, (long) Math.ceil( all[3] * scale) - top);
+		if( w > Integer.MAX_VALUE || h > Integer.MAX_VALUE)
+			throw new IllegalArgumentException( "image of " + w + "x" + h + " pixels is too large, use a smaller scale");
+		width = (int) w;
+		height = (int) h;
+	}
+
+	/**
+	 * <p>
+	 * create a rasterizer of same rooms at another scale, sharing bounds and spatial grid of this one.</br>
+	 * </p>
+	 * @param scale - pixels per map unit
+	 * @return new rasterizer
+	 */
+	public MapRasterizer withScale( double scale){
+		return new MapRasterizer( rooms, bounds, grid, scale);
+	}
+
+	/**
+	 * @return bounds of each room grown by how far its stroke can reach
+	 */
+	private static double[] roomBounds( List< RoomRecord> rooms){
+		double[] bounds = new double[rooms.size() * 4];
+		double[] room = new double[4];
+		for( int i = 0; i < rooms.size(); i++){
+			RoomRecord record = rooms.get( i);
+			Arrays.fill( room, Double.NaN);
+			for( int p = 0; p < record.getPointCount(); p++)
+				Polygons.include( room, record.getX( p), record.getY( p));
+			// square caps and miter joins can reach further than half of stroke width
+			double pad = record.getStrokeWidth() / 2 * MITER_LIMIT;
+			bounds[i * 4] = room[0] - pad;
+			bounds[i * 4 + 1] = room[1] - pad;
+			bounds[i * 4 + 2] = room[2] + pad;
+			bounds[i * 4 + 3] = room[3] + pad;
+		}
+		return bounds;
+	}
+
+	public int getWidth(){
+		return width;
+	}
+
+	public int getHeight(){
+		return height;
+	}
+
+	public double getScale(){
+		return scale;
+	}
+
+	/**
+	 * <p>
+	 * check if any room may be drawn in given part of whole image.</br>
+	 * </p>
+	 * @param x - left of tile in pixels of whole image
+	 * @param y - top of tile in pixels of whole image
+	 * @param w - width of tile
+	 * @param h - height of tile
+	 * @return false if given part is surely transparent
+	 */
+	public boolean hasRooms( int x, int y, int w, int h){
+		double minX = (left + x) / scale, minY = (top + y) / scale;
+		double maxX = (left + x + w) / scale, maxY = (top + y + h) / scale;
+		BitSet near = grid.query( minX, minY, maxX, maxY);
+		for( int i = near.nextSetBit( 0); i >= 0; i = near.nextSetBit( i + 1)){
+			int b = i * 4;
+			if( bounds[b] <= maxX && bounds[b + 2] >= minX && bounds[b + 1] <= maxY && bounds[b + 3] >= minY)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * <p>
+	 * render part of whole image into a new transparent tile.</br>
+	 * </p>
+	 * @param x - left of tile in pixels of whole image
+	 * @param y - top of tile in pixels of whole image
+	 * @param w - width of tile
+	 * @param h - height of tile
+	 * @return new ARGB image
+	 */
+	public BufferedImage renderTile( int x, int y, int w, int h){
+		BufferedImage tile = new BufferedImage( w, h, BufferedImage.TYPE_INT_ARGB);
+		renderTile( tile, x, y);
+		return tile;
+	}
+
+	/**
+	 * <p>
+	 * render part of whole image into given image, which should be transparent.</br>
+	 * </p>
+	 * @param tile - image to draw into
+	 * @param x - left of tile in pixels of whole image
+	 * @param y - top of tile in pixels of whole image
+	 */
+	public void renderTile( BufferedImage tile, int x, int y){
+		double minX = (left + x) / scale, minY = (top + y) / scale;
+		double maxX = (left + x + tile.getWidth()) / scale, maxY = (top + y + tile.getHeight()) / scale;
+		BitSet near = grid.query( minX, minY, maxX, maxY);
+		Graphics2D g = tile.createGraphics();
+		try{
+			g.setRenderingHint( RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g.setRenderingHint( RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+			g.translate( -(double) (left + x), -(double) (top + y));
+			g.scale( scale, scale);
+			Path2D.Double path = new Path2D.Double();
+			for( int i = near.nextSetBit( 0); i >= 0; i = near.nextSetBit( i + 1)){
+				int b = i * 4;
+				if( bounds[b] > maxX || bounds[b + 2] < minX || bounds[b + 1] > maxY || bounds[b + 3] < minY)
+					continue;
+				RoomRecord room = rooms.get( i);
+				if( room.getPointCount() == 0)
+					continue;
+				path.reset();
+				path.moveTo( room.getX( 0), room.getY( 0));
+				for( int p = 1; p < room.getPointCount(); p++)
+					path.lineTo( room.getX( p), room.getY( p));
+				path.closePath();
+				g.setColor( toColor( room.getFill()));
+				g.fill( path);
+				if( room.getStrokeWidth() > 0){
+					g.setColor( toColor( room.getStroke()));
+					g.setStroke( new BasicStroke( (float) room.getStrokeWidth(), BasicStroke.CAP_SQUARE,
+							BasicStroke.JOIN_MITER, MITER_LIMIT));
+					g.draw( path);
+				}
+			}
+		}finally{
+			g.dispose();
+		}
+	}
+
+	private static Color toColor( MapColor color){
+		return new Color( color.getARGB(), true);
+	}
+}
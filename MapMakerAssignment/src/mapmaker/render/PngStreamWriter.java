@@ -0,0 +1,183 @@
+package mapmaker.render;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>
+ * writes an 8 bit RGBA PNG one group of rows at a time, so an image much larger than memory can be written as it
+ * is rendered. only rows given so far and a small compression buffer are held.</br>
+ * every row uses the "sub" filter, which makes runs of same colored pixels, most of a map, compress well.</br>
+ * </p>
+ * @see <a href="https://www.w3.org/TR/png/">PNG specification</a>
+ *
+ * @version Oct 19, 2026
+ */
+public class PngStreamWriter implements Closeable{
+
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final int FILTER_SUB = 1;
+
+	private final DataOutputStream out;
+	private final int width, height;
+	private final Deflater deflater;
+	private final ChunkStream chunks;
+	private final DeflaterOutputStream idat;
+	private final byte[] row;
+	private int rowsWritten;
+
+	/**
+	 * <p>
+	 * write signature and header of image.</br>
+	 * </p>
+	 * @param out - stream to write to, closed by {@link #close()}
+	 * @param width - width of image in pixels
+	 * @param height - height of image in pixels
+	 * @throws IOException if header cannot be written
+	 */
+	public PngStreamWriter( OutputStream out, int width, int height) throws IOException{
+		if( width < 1 || height < 1)
+			throw new IllegalArgumentException( "image must have at least one pixel, was " + width + "x" + height);
+		this.out = new DataOutputStream( out);
+		this.width = width;
+		this.height = height;
+		this.out.write( SIGNATURE);
+		byte[] header = new byte[13];
+		putInt( header, 0, width);
+		putInt( header, 4, height);
+		header[8] = 8; // bits per channel
+		header[9] = 6; // RGBA
+		writeChunk( "IHDR", header, header.length);
+		deflater = new Deflater( Deflater.DEFAULT_COMPRESSION);
+		chunks = new ChunkStream();
+		idat = new DeflaterOutputStream( chunks, deflater, CHUNK_SIZE);
+		row = new byte[1 + width * 4];
+	}
+
+	/**
+	 * <p>
+	 * write next rows of image.</br>
+	 * </p>
+	 * @param argb - pixels as non premultiplied ARGB ints, same as {@link java.awt.image.BufferedImage#TYPE_INT_ARGB}
+	 * @param offset - index of first pixel of first row
+	 * @param stride - distance between first pixels of two rows
+	 * @param rows - number of rows to be written
+	 * @throws IOException if rows cannot be written
+	 */
+	public void writeRows( int[] argb, int offset, int stride, int rows) throws IOException{
+		if( rowsWritten + rows > height)
+			throw new IllegalStateException( "image has only " + height + " rows");
+		for( int r = 0; r < rows; r++){
+			row[0] = FILTER_SUB;
+			int previous = 0;
+			int start = offset + r * stride;
+			for( int x = 0, i = 1; x < width; x++, i += 4){
+				int pixel = argb[start + x];
+				// sub filter, each byte minus same byte of pixel on its left
+				row[i] = (byte) ((pixel >>> 16) - (previous >>> 16));
+				row[i + 1] = (byte) ((pixel >>> 8) - (previous >>> 8));
+				row[i + 2] = (byte) (pixel - previous);
+				row[i + 3] = (byte) ((pixel >>> 24) - (previous >>> 24));
+				previous = pixel;
+			}
+			idat.write( row);
+		}
+		rowsWritten += rows;
+	}
+
+	public int getRowsWritten(){
+		return rowsWritten;
+	}
+
+	/**
+	 * <p>
+	 * finish compressed data and write end of image. all rows must have been written.</br>
+	 * </p>
+	 */
+	@Override
+	public void close() throws IOException{
+		try{
+			idat.finish();
+			chunks.flushChunk();
+			if( rowsWritten != height)
+				throw new IllegalStateException( "only " + rowsWritten + " of " + height + " rows were written");
+			writeChunk( "IEND", new byte[0], 0);
+			out.flush();
+		}finally{
+			deflater.end();
+			out.close();
+		}
+	}
+
+	private void writeChunk( String type, byte[] data, int length) throws IOException{
+		byte[] name = type.getBytes( StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update( name);
+		crc.update( data, 0, length);
+		out.writeInt( length);
+		out.write( name);
+		out.write( data, 0, length);
+		out.writeInt( (int) crc.getValue());
+	}
+
+	private static void putInt( byte[] bytes, int offset, int value){
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+	}
+
+	/**
+	 * <p>
+	 * collects compressed bytes and writes them as IDAT chunks of at most {@value #CHUNK_SIZE} bytes.</br>
+	 * </p>
+	 */
+	private final class ChunkStream extends OutputStream{
+
+		private final byte[] buffer = new byte[CHUNK_SIZE];
+		private int size;
+
+		@Override
+		public void write( int b) throws IOException{
+			buffer[size++] = (byte) b;
+			if( size == buffer.length)
+				flushChunk();
+		}
+
+		@Override
+		public void write( byte[] b, int off, int len) throws IOException{
+			while( len > 0){
+				int n = Math.min( len, buffer.length - size);
+				System.arraycopy( b, off, buffer, size, n);
+				size += n;
+				off += n;
+				len -= n;
+				if( size == buffer.length)
+					flushChunk();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException{
+			flushChunk();
+		}
+
+		@Override
+		public void close() throws IOException{
+			flushChunk();
+		}
+
+		private void flushChunk() throws IOException{
+			if( size > 0)
+				writeChunk( "IDAT", buffer, size);
+			size = 0;
+		}
+	}
+}
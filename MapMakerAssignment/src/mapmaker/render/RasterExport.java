@@ -0,0 +1,155 @@
+package mapmaker.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * <p>
+ * exports a {@link MapRasterizer} as one large PNG or as a pyramid of PNG tiles. tiles are rendered in parallel on
+ * given pool.</br>
+ * a large PNG is made one band of tiles at a time, the next band renders while the previous one is compressed,
+ * so memory holds two bands, width of image times twice the tile size, no matter how tall the image is.</br>
+ * a pyramid is a directory of <code>z/x/y.png</code> tiles. level 0 fits whole map in one tile and every next
+ * level doubles the scale up to the scale of the rasterizer. tiles without rooms are not written.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class RasterExport{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private RasterExport(){
+	}
+
+	/**
+	 * <p>
+	 * render whole image and stream it as PNG.</br>
+	 * </p>
+	 * @param rasterizer - rooms and scale to be rendered
+	 * @param out - stream to write to, closed when done
+	 * @param tileSize - width and height of tiles rendered in parallel
+	 * @param pool - threads rendering tiles
+	 * @throws IOException if image cannot be written
+	 */
+	public static void writePng( MapRasterizer rasterizer, OutputStream out, int tileSize, ExecutorService pool)
+			throws IOException{
+		int width = rasterizer.getWidth(), height = rasterizer.getHeight();
+		int[] current = new int[width * Math.min( tileSize, height)];
+		int[] next = new int[current.length];
+		try( PngStreamWriter png = new PngStreamWriter( out, width, height)){
+			List< Future< ?>> pending = renderBand( rasterizer, 0, tileSize, current, pool);
+			for( int y = 0; y < height; y += tileSize){
+				await( pending);
+				if( y + tileSize < height)
+					pending = renderBand( rasterizer, y + tileSize, tileSize, next, pool);
+				png.writeRows( current, 0, width, Math.min( tileSize, height - y));
+				int[] swap = current;
+				current = next;
+				next = swap;
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * submit tiles of one band, each tile copies its pixels into its columns of band.</br>
+	 * </p>
+	 */
+	private static List< Future< ?>> renderBand( MapRasterizer rasterizer, int y, int tileSize, int[] band,
+			ExecutorService pool){
+		int width = rasterizer.getWidth();
+		int rows = Math.min( tileSize, rasterizer.getHeight() - y);
+		List< Future< ?>> tiles = new ArrayList<>();
+		for( int x = 0; x < width; x += tileSize){
+			int left = x, columns = Math.min( tileSize, width - x);
+			tiles.add( pool.submit( () -> {
+				BufferedImage tile = new BufferedImage( columns, rows, BufferedImage.TYPE_INT_ARGB);
+				if( rasterizer.hasRooms( left, y, columns, rows))
+					rasterizer.renderTile( tile, left, y);
+				int[] pixels = ((DataBufferInt) tile.getRaster().getDataBuffer()).getData();
+				for( int r = 0; r < rows; r++)
+					System.arraycopy( pixels, r * columns, band, r * width + left, columns);
+			}));
+		}
+		return tiles;
+	}
+
+	/**
+	 * <p>
+	 * render a pyramid of tiles into given directory.</br>
+	 * </p>
+	 * @param rasterizer - rooms and scale of most detailed level
+	 * @param directory - directory to write <code>z/x/y.png</code> tiles to
+	 * @param tileSize - width and height of every tile
+	 * @param pool - threads rendering and writing tiles
+	 * @return number of tiles written
+	 * @throws IOException if a tile cannot be written
+	 */
+	public static int writePyramid( MapRasterizer rasterizer, Path directory, int tileSize, ExecutorService pool)
+			throws IOException{
+		int largest = Math.max( rasterizer.getWidth(), rasterizer.getHeight());
+		int levels = 0;
+		while( ((long) tileSize << levels) < largest)
+			levels++;
+		AtomicInteger written = new AtomicInteger();
+		List< Future< ?>> tiles = new ArrayList<>();
+		for( int z = 0; z <= levels; z++){
+			MapRasterizer level = rasterizer.withScale( rasterizer.getScale() / (1L << (levels - z)));
+			for( int x = 0; x * tileSize < level.getWidth(); x++){
+				Path column = directory.resolve( Integer.toString( z)).resolve( Integer.toString( x));
+				for( int y = 0; y * tileSize < level.getHeight(); y++){
+					int tx = x * tileSize, ty = y * tileSize;
+					if( !level.hasRooms( tx, ty, tileSize, tileSize))
+						continue;
+					Path file = column.resolve( y + ".png");
+					tiles.add( pool.submit( () -> {
+						try{
+							Files.createDirectories( column);
+							ImageIO.write( level.renderTile( tx, ty, tileSize, tileSize), "png", file.toFile());
+							written.incrementAndGet();
+						}catch( IOException e){
+							throw new UncheckedIOException( e);
+						}
+					}));
+				}
+			}
+		}
+		await( tiles);
+		return written.get();
+	}
+
+	private static void await( List< Future< ?>> tasks) throws IOException{
+		try{
+			for( Future< ?> task: tasks)
+				task.get();
+		}catch( InterruptedException e){
+			tasks.forEach( t -> t.cancel( true));
+			Thread.currentThread().interrupt();
+			throw new IOException( "rendering was interrupted", e);
+		}catch( ExecutionException e){
+			tasks.forEach( t -> t.cancel( true));
+			if( e.getCause() instanceof UncheckedIOException)
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			if( e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException( e.getCause());
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package mapmaker.session;
+
+/**
+ * <p>
+ * one recorded input of an editing session, either a change of tool and option or a mouse press, drag or release
+ * on map. time is nanoseconds since start of session.</br>
+ * target of a mouse event is not a node but what it belongs to, nothing but map, a room by id or a control point by
+ * room id and index, so it can be found again in a replayed map whose rooms got same ids. mouse coordinates are
+ * local to map.</br>
+ * this class does not depend on JavaFX.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class SessionEvent{
+
+	public enum Type{
+		TOOL, PRESS, DRAG, RELEASE
+	}
+
+	public static final int TARGET_MAP = 0;
+	public static final int TARGET_ROOM = 1;
+	public static final int TARGET_POINT = 2;
+
+	public static final int SHIFT = 1;
+	public static final int SHORTCUT = 2;
+	public static final int ALT = 4;
+
+	private final Type type;
+	private final long time;
+	private final String tool;
+	private final int option;
+	private final double x;
+	private final double y;
+	private final int button;
+	private final int modifiers;
+	private final int targetKind;
+	private final int room;
+	private final int point;
+
+	private SessionEvent( Type type, long time, String tool, int option, double x, double y, int button, int modifiers,
+			int targetKind, int room, int point){
+		this.type = type;
+		this.time = time;
+		this.tool = tool;
+		this.option = option;
+		this.x = x;
+		this.y = y;
+		this.button = button;
+		this.modifiers = modifiers;
+		this.targetKind = targetKind;
+		this.room = room;
+		this.point = point;
+	}
+
+	/**
+	 * @param time - nanoseconds since start of session
+	 * @param tool - name of active tool
+	 * @param option - option of active tool
+	 * @return new tool event
+	 */
+	public static SessionEvent tool( long time, String tool, int option){
+		return new SessionEvent( Type.TOOL, time, tool, option, 0, 0, 0, 0, TARGET_MAP, -1, -1);
+	}
+
+	/**
+	 * @param type - {@link Type#PRESS}, {@link Type#DRAG} or {@link Type#RELEASE}
+	 * @param time - nanoseconds since start of session
+	 * @param x - x local to map
+	 * @param y - y local to map
+	 * @param button - ordinal of mouse button
+	 * @param modifiers - {@link #SHIFT}, {@link #SHORTCUT} and {@link #ALT} flags
+	 * @param targetKind - {@link #TARGET_MAP}, {@link #TARGET_ROOM} or {@link #TARGET_POINT}
+	 * @param room - id of target room, -1 for map
+	 * @param point - index of target control point in its room, -1 if target is not a control point
+	 * @return new mouse event
+	 */
+	public static SessionEvent mouse( Type type, long time, double x, double y, int button, int modifiers, int targetKind,
+			int room, int point){
+		if( type == Type.TOOL)
+			throw new IllegalArgumentException( "not a mouse event: " + type);
+		return new SessionEvent( type, time, null, 0, x, y, button, modifiers, targetKind, room, point);
+	}
+
+	public Type getType(){
+		return type;
+	}
+
+	public long getTime(){
+		return time;
+	}
+
+	public String getTool(){
+		return tool;
+	}
+
+	public int getOption(){
+		return option;
+	}
+
+	public double getX(){
+		return x;
+	}
+
+	public double getY(){
+		return y;
+	}
+
+	public int getButton(){
+		return button;
+	}
+
+	public int getModifiers(){
+		return modifiers;
+	}
+
+	public boolean isDown( int modifier){
+		return (modifiers & modifier) != 0;
+	}
+
+	public int getTargetKind(){
+		return targetKind;
+	}
+
+	public int getRoom(){
+		return room;
+	}
+
+	public int getPoint(){
+		return point;
+	}
+
+	@Override
+	public String toString(){
+		if( type == Type.TOOL)
+			return String.format( "%d TOOL %s %d", time, tool, option);
+		return String.format( "%d %s (%s, %s) button=%d modifiers=%d target=%d/%d/%d", time, type, x, y, button, modifiers,
+				targetKind, room, point);
+	}
+}
@@ -0,0 +1,168 @@
+package mapmaker.session;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * compact binary file of {@link SessionEvent}s, usually named <code>name.session</code>. events are appended as
+ * they happen, so a session cut short by a crash keeps everything before last flush.</br>
+ * layout, numbers in big endian as written by {@link DataOutputStream}, varints as in
+ * {@link mapmaker.io.CompactMapCodec}:
+ * <ol>
+ * 	<li>header, 4 bytes {@value #MAGIC} and one byte version</li>
+ * 	<li>for each event one byte {@link SessionEvent.Type} ordinal and microseconds since previous event as
+ * 		unsigned varint</li>
+ * 	<li>tool events then hold tool name as UTF and option as zig-zag varint</li>
+ * 	<li>mouse events then hold x and y as double, one byte of button ordinal shifted left by 4 or'ed with modifier
+ * 		flags, one byte target kind, and room id for room and point targets and point index for point targets as
+ * 		unsigned varints</li>
+ * </ol>
+ * a drag is usually under 20 bytes, so a minute of drawing is a few kilobytes.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class SessionFile{
+
+	public static final String MAGIC = "MSES";
+	public static final String EXTENSION = "session";
+	private static final int VERSION = 1;
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private SessionFile(){
+	}
+
+	/**
+	 * <p>
+	 * appends events to a new session file. times of events must not decrease.</br>
+	 * </p>
+	 */
+	public static final class Writer implements Closeable{
+
+		private final DataOutputStream out;
+		private long lastMicros;
+
+		/**
+		 * @param path - file to create, replaced if it exists
+		 * @throws IOException if file cannot be created
+		 */
+		public Writer( Path path) throws IOException{
+			out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( path), 1 << 14));
+			out.writeBytes( MAGIC);
+			out.writeByte( VERSION);
+		}
+
+		public void append( SessionEvent event) throws IOException{
+			long micros = event.getTime() / 1000;
+			if( micros < lastMicros)
+				throw new IllegalArgumentException( "event is older than previous one: " + event);
+			out.writeByte( event.getType().ordinal());
+			writeUnsigned( out, micros - lastMicros);
+			lastMicros = micros;
+			if( event.getType() == SessionEvent.Type.TOOL){
+				out.writeUTF( event.getTool());
+				writeUnsigned( out, ((long) event.getOption() << 1) ^ (event.getOption() >> 31));
+				return;
+			}
+			out.writeDouble( event.getX());
+			out.writeDouble( event.getY());
+			out.writeByte( event.getButton() << 4 | event.getModifiers());
+			out.writeByte( event.getTargetKind());
+			if( event.getTargetKind() != SessionEvent.TARGET_MAP)
+				writeUnsigned( out, event.getRoom());
+			if( event.getTargetKind() == SessionEvent.TARGET_POINT)
+				writeUnsigned( out, event.getPoint());
+		}
+
+		public void flush() throws IOException{
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException{
+			out.close();
+		}
+	}
+
+	/**
+	 * <p>
+	 * read every event of a session file. a file whose last event was cut short, as left by a crash, is read up to
+	 * that event.</br>
+	 * </p>
+	 * @param path - session file
+	 * @return events in order they were recorded
+	 * @throws IOException if file cannot be read or is not a session
+	 */
+	public static List< SessionEvent> read( Path path) throws IOException{
+		List< SessionEvent> events = new ArrayList<>();
+		try( DataInputStream in = new DataInputStream( new BufferedInputStream( Files.newInputStream( path), 1 << 14))){
+			byte[] magic = new byte[MAGIC.length()];
+			in.readFully( magic);
+			if( !MAGIC.equals( new String( magic, StandardCharsets.US_ASCII)))
+				throw new IOException( "not a session, header is missing");
+			int version = in.readUnsignedByte();
+			if( version != VERSION)
+				throw new IOException( "session version " + version + " is not supported");
+			SessionEvent.Type[] types = SessionEvent.Type.values();
+			long micros = 0;
+			for( int type; (type = in.read()) >= 0;){
+				if( type >= types.length)
+					throw new IOException( "event " + events.size() + ": unknown type " + type);
+				try{
+					micros += readUnsigned( in);
+					if( types[type] == SessionEvent.Type.TOOL){
+						String tool = in.readUTF();
+						long option = readUnsigned( in);
+						events.add( SessionEvent.tool( micros * 1000, tool, (int) ((option >>> 1) ^ -(option & 1))));
+						continue;
+					}
+					double x = in.readDouble(), y = in.readDouble();
+					int flags = in.readUnsignedByte();
+					int kind = in.readUnsignedByte();
+					int room = kind == SessionEvent.TARGET_MAP ? -1 : (int) readUnsigned( in);
+					int point = kind == SessionEvent.TARGET_POINT ? (int) readUnsigned( in) : -1;
+					events.add( SessionEvent.mouse( types[type], micros * 1000, x, y, flags >> 4, flags & 0xF, kind, room,
+							point));
+				}catch( EOFException e){
+					// last event was being written when recording stopped
+					break;
+				}
+			}
+		}
+		return events;
+	}
+
+	private static void writeUnsigned( DataOutputStream out, long value) throws IOException{
+		while( (value & ~0x7FL) != 0){
+			out.writeByte( (int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte( (int) value);
+	}
+
+	private static long readUnsigned( DataInputStream in) throws IOException{
+		long value = 0;
+		for( int shift = 0; shift < 64; shift += 7){
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if( (b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException( "varint is longer than 64 bits");
+	}
+}
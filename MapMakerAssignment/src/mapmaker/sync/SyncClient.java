@@ -0,0 +1,148 @@
+package mapmaker.sync;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * connection of one editor to a {@link SyncServer}. operations are sent in batches on a background thread, so
+ * sending never blocks caller, and batches of other editors are read on another one and handed to a listener
+ * through a publisher, usually <code>Platform::runLater</code>, like {@link mapmaker.preview.PreviewCache}
+ * does.</br>
+ * {@link #send(List)} and listener must run on same thread, publisher thread, so each batch sent carries server
+ * version of last batch applied before it was made.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class SyncClient implements Closeable{
+
+	private final Socket socket;
+	private final SyncProtocol.Writer writer;
+	private final SyncProtocol.Reader reader;
+	private final ExecutorService sender = Executors.newSingleThreadExecutor( r -> {
+		Thread thread = new Thread( r, "sync-send");
+		thread.setDaemon( true);
+		return thread;
+	});
+	private final int client;
+	private final int serverRooms;
+	private long applied;
+	private int nextRoom;
+
+	/**
+	 * <p>
+	 * connect and wait for server to name this editor. batches of server are not read before
+	 * {@link #start(Consumer, Consumer, Runnable)}.</br>
+	 * </p>
+	 * @param host - host of server
+	 * @param port - port of server
+	 * @throws IOException if server cannot be reached or does not speak {@link SyncProtocol}
+	 */
+	public SyncClient( String host, int port) throws IOException{
+		socket = new Socket( host, port);
+		try{
+			socket.setTcpNoDelay( true);
+			writer = new SyncProtocol.Writer( socket.getOutputStream());
+			writer.flush();
+			reader = new SyncProtocol.Reader( socket.getInputStream());
+			SyncProtocol.Frame hello = reader.read();
+			if( hello == null || hello.getType() != SyncProtocol.HELLO)
+				throw new IOException( "server did not say hello");
+			client = hello.getClient();
+			applied = hello.getVersion();
+			serverRooms = hello.getRooms();
+		}catch( IOException e){
+			socket.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * <p>
+	 * start reading batches of server, first one is a {@link SyncOp.Kind#SET} of every room on server.</br>
+	 * </p>
+	 * @param publisher - runs given task on thread of editor
+	 * @param listener - called on thread of editor with operations of each batch of other editors or corrections
+	 * @param closed - called on thread of editor once connection is lost or closed
+	 */
+	public void start( Consumer< Runnable> publisher, Consumer< List< SyncOp>> listener, Runnable closed){
+		Thread thread = new Thread( () -> {
+			try{
+				for( SyncProtocol.Frame frame; (frame = reader.read()) != null;){
+					List< SyncOp> ops = frame.getOps();
+					long version = frame.getVersion();
+					publisher.accept( () -> {
+						listener.accept( ops);
+						applied = Math.max( applied, version);
+					});
+				}
+			}catch( IOException e){
+				// connection lost, same as closed
+			}finally{
+				publisher.accept( closed);
+			}
+		}, "sync-receive");
+		thread.setDaemon( true);
+		thread.start();
+	}
+
+	/**
+	 * @return id server gave this editor
+	 */
+	public int getClient(){
+		return client;
+	}
+
+	/**
+	 * @return number of rooms on server when this editor connected
+	 */
+	public int getServerRooms(){
+		return serverRooms;
+	}
+
+	/**
+	 * @return a global id for a room added by this editor, never given before
+	 */
+	public long newRoomId(){
+		return (long) client << 32 | Integer.toUnsignedLong( nextRoom++);
+	}
+
+	/**
+	 * <p>
+	 * send one batch. called on thread of editor.</br>
+	 * </p>
+	 * @param ops - operations made since last batch, not copied
+	 */
+	public void send( List< SyncOp> ops){
+		if( ops.isEmpty())
+			return;
+		long seen = applied;
+		sender.execute( () -> {
+			try{
+				writer.batch( seen, ops);
+				writer.flush();
+			}catch( IOException e){
+				// reading thread sees same failure and reports it as closed
+			}
+		});
+	}
+
+	/**
+	 * @return bytes sent to server so far
+	 */
+	public long getBytesSent(){
+		return writer.size();
+	}
+
+	@Override
+	public void close() throws IOException{
+		sender.shutdown();
+		socket.close();
+	}
+}
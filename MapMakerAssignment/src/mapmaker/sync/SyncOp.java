@@ -0,0 +1,166 @@
+package mapmaker.sync;
+
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * one change to rooms of a shared map, sent between editors and {@link SyncServer} in batches, see
+ * {@link SyncProtocol}. rooms are named by a global id, id of editor which added the room in high 32 bits and a
+ * number counting rooms that editor added in low 32 bits, so editors never need to ask for ids.</br>
+ * operations carry no versions of their own, a batch sent to server carries highest server version its editor had
+ * applied when making it. that is enough for server to tell a change made on a stale room, see {@link SyncServer}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class SyncOp{
+
+	/**
+	 * <p>
+	 * kinds of operation, ordinal is their tag in {@link SyncProtocol}.</br>
+	 * </p>
+	 */
+	public enum Kind{
+		/**
+		 * new room with its record
+		 */
+		ADD,
+		/**
+		 * room erased
+		 */
+		REMOVE,
+		/**
+		 * new points of a room, same style
+		 */
+		GEOMETRY,
+		/**
+		 * new style of a room, same points
+		 */
+		STYLE,
+		/**
+		 * many rooms moved by same distance, such as a dragged selection
+		 */
+		MOVE,
+		/**
+		 * whole state of a room and its version, only sent by server, for a snapshot or to undo a rejected change
+		 */
+		SET;
+	}
+
+	private static final long[] NO_ROOMS = {};
+
+	private final Kind kind;
+	private final long room;
+	private final long version;
+	private final RoomRecord record;
+	private final double[] points;
+	private final MapStyle style;
+	private final double deltaX;
+	private final double deltaY;
+	private final long[] rooms;
+
+	private SyncOp( Kind kind, long room, long version, RoomRecord record, double[] points, MapStyle style,
+			double deltaX, double deltaY, long[] rooms){
+		this.kind = kind;
+		this.room = room;
+		this.version = version;
+		this.record = record;
+		this.points = points;
+		this.style = style;
+		this.deltaX = deltaX;
+		this.deltaY = deltaY;
+		this.rooms = rooms;
+	}
+
+	public static SyncOp add( long room, RoomRecord record){
+		return new SyncOp( Kind.ADD, room, 0, record, null, null, 0, 0, NO_ROOMS);
+	}
+
+	public static SyncOp remove( long room){
+		return new SyncOp( Kind.REMOVE, room, 0, null, null, null, 0, 0, NO_ROOMS);
+	}
+
+	/**
+	 * @param points - x and y pairs, not copied
+	 */
+	public static SyncOp geometry( long room, double[] points){
+		return new SyncOp( Kind.GEOMETRY, room, 0, null, points, null, 0, 0, NO_ROOMS);
+	}
+
+	public static SyncOp style( long room, MapStyle style){
+		return new SyncOp( Kind.STYLE, room, 0, null, null, style, 0, 0, NO_ROOMS);
+	}
+
+	/**
+	 * @param rooms - global ids of moved rooms, not copied
+	 */
+	public static SyncOp move( double deltaX, double deltaY, long[] rooms){
+		return new SyncOp( Kind.MOVE, -1, 0, null, null, null, deltaX, deltaY, rooms);
+	}
+
+	public static SyncOp set( long room, long version, RoomRecord record){
+		return new SyncOp( Kind.SET, room, version, record, null, null, 0, 0, NO_ROOMS);
+	}
+
+	public Kind getKind(){
+		return kind;
+	}
+
+	/**
+	 * @return global id of room, -1 for {@link Kind#MOVE}
+	 */
+	public long getRoom(){
+		return room;
+	}
+
+	/**
+	 * @return version of room after a {@link Kind#SET}, 0 for other kinds
+	 */
+	public long getVersion(){
+		return version;
+	}
+
+	/**
+	 * @return record of {@link Kind#ADD} and {@link Kind#SET}
+	 */
+	public RoomRecord getRecord(){
+		return record;
+	}
+
+	/**
+	 * @return x and y pairs of {@link Kind#GEOMETRY}, not a copy
+	 */
+	public double[] getPoints(){
+		return points;
+	}
+
+	/**
+	 * @return style of {@link Kind#STYLE}
+	 */
+	public MapStyle getStyle(){
+		return style;
+	}
+
+	public double getDeltaX(){
+		return deltaX;
+	}
+
+	public double getDeltaY(){
+		return deltaY;
+	}
+
+	/**
+	 * @return global ids of rooms of {@link Kind#MOVE}, not a copy
+	 */
+	public long[] getRooms(){
+		return rooms;
+	}
+
+	@Override
+	public String toString(){
+		if( kind == Kind.MOVE)
+			return "MOVE " + rooms.length + " rooms by " + deltaX + ", " + deltaY;
+		return kind + " " + Long.toHexString( room);
+	}
+}
@@ -0,0 +1,380 @@
+package mapmaker.sync;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+import mapmaker.model.StylePalette;
+
+/**
+ * <p>
+ * compact binary protocol between editors and {@link SyncServer}, same in both directions. numbers in big endian as
+ * written by {@link DataOutputStream}, varints as in {@link mapmaker.io.CompactMapCodec}:
+ * <ol>
+ * 	<li>header, 4 bytes {@value #MAGIC} and one byte version</li>
+ * 	<li>frames, each one byte type and then
+ * 		<ul>
+ * 			<li>{@link #HELLO}, only from server: id of editor, server version and number of rooms on server as
+ * 				unsigned varints</li>
+ * 			<li>{@link #BATCH}: server version as unsigned varint, number of operations as unsigned varint and each
+ * 				{@link SyncOp} as one byte kind followed by its fields</li>
+ * 		</ul>
+ * 	</li>
+ * </ol>
+ * a room is given by sides as varint, fill and stroke as rgb int plus opacity double, stroke width double, then
+ * number of points as varint followed by x and y doubles. a {@link SyncOp.Kind#MOVE} holds distance as two doubles
+ * then room ids sorted, first one as varint and others as varint distance from previous one. if its rooms are
+ * same as rooms of previous move on same connection only a count of 0 is written, so each frame of a long drag is
+ * about 20 bytes no matter how many rooms are dragged.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class SyncProtocol{
+
+	public static final String MAGIC = "MSYN";
+	public static final int HELLO = 0;
+	public static final int BATCH = 1;
+	private static final int VERSION = 1;
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private SyncProtocol(){
+	}
+
+	/**
+	 * <p>
+	 * one frame read by {@link Reader}.</br>
+	 * </p>
+	 */
+	public static final class Frame{
+
+		private final int type;
+		private final int client;
+		private final long version;
+		private final int rooms;
+		private final List< SyncOp> ops;
+
+		Frame( int type, int client, long version, int rooms, List< SyncOp> ops){
+			this.type = type;
+			this.client = client;
+			this.version = version;
+			this.rooms = rooms;
+			this.ops = ops;
+		}
+
+		/**
+		 * @return {@link SyncProtocol#HELLO} or {@link SyncProtocol#BATCH}
+		 */
+		public int getType(){
+			return type;
+		}
+
+		/**
+		 * @return id given to editor by {@link SyncProtocol#HELLO}
+		 */
+		public int getClient(){
+			return client;
+		}
+
+		/**
+		 * @return server version of frame, see {@link SyncServer}
+		 */
+		public long getVersion(){
+			return version;
+		}
+
+		/**
+		 * @return number of rooms on server when editor connected, for {@link SyncProtocol#HELLO}
+		 */
+		public int getRooms(){
+			return rooms;
+		}
+
+		/**
+		 * @return operations of a {@link SyncProtocol#BATCH}, empty for {@link SyncProtocol#HELLO}
+		 */
+		public List< SyncOp> getOps(){
+			return ops;
+		}
+	}
+
+	/**
+	 * <p>
+	 * writes frames to one connection. nothing is sent before {@link #flush()}, so one batch goes out in as few
+	 * packets as possible.</br>
+	 * </p>
+	 */
+	public static final class Writer implements Closeable{
+
+		private final DataOutputStream out;
+		private long[] lastMove = {};
+
+		/**
+		 * @param out - stream of connection
+		 * @throws IOException if header cannot be written
+		 */
+		public Writer( OutputStream out) throws IOException{
+			this.out = new DataOutputStream( new BufferedOutputStream( out, 1 << 16));
+			this.out.writeBytes( MAGIC);
+			this.out.writeByte( VERSION);
+		}
+
+		public void hello( int client, long version, int rooms) throws IOException{
+			out.writeByte( HELLO);
+			writeUnsigned( out, client);
+			writeUnsigned( out, version);
+			writeUnsigned( out, rooms);
+		}
+
+		/**
+		 * @param version - server version, see {@link SyncServer}
+		 * @param ops - operations of batch, a move without rooms is left out
+		 */
+		public void batch( long version, List< SyncOp> ops) throws IOException{
+			int count = 0;
+			for( SyncOp op: ops)
+				if( op.getKind() != SyncOp.Kind.MOVE || op.getRooms().length > 0)
+					count++;
+			out.writeByte( BATCH);
+			writeUnsigned( out, version);
+			writeUnsigned( out, count);
+			for( SyncOp op: ops){
+				if( op.getKind() == SyncOp.Kind.MOVE && op.getRooms().length == 0)
+					continue;
+				out.writeByte( op.getKind().ordinal());
+				switch( op.getKind()){
+					case ADD:
+						writeUnsigned( out, op.getRoom());
+						writeRecord( op.getRecord());
+						break;
+					case REMOVE:
+						writeUnsigned( out, op.getRoom());
+						break;
+					case GEOMETRY:
+						writeUnsigned( out, op.getRoom());
+						writeUnsigned( out, op.getPoints().length / 2);
+						for( double value: op.getPoints())
+							out.writeDouble( value);
+						break;
+					case STYLE:
+						writeUnsigned( out, op.getRoom());
+						writeStyle( op.getStyle());
+						break;
+					case MOVE:
+						writeMove( op);
+						break;
+					case SET:
+						writeUnsigned( out, op.getRoom());
+						writeUnsigned( out, op.getVersion());
+						writeRecord( op.getRecord());
+						break;
+				}
+			}
+		}
+
+		private void writeMove( SyncOp op) throws IOException{
+			out.writeDouble( op.getDeltaX());
+			out.writeDouble( op.getDeltaY());
+			long[] rooms = op.getRooms().clone();
+			Arrays.sort( rooms);
+			if( Arrays.equals( rooms, lastMove)){
+				writeUnsigned( out, 0);
+				return;
+			}
+			lastMove = rooms;
+			writeUnsigned( out, rooms.length);
+			long previous = 0;
+			for( long room: rooms){
+				writeUnsigned( out, room - previous);
+				previous = room;
+			}
+		}
+
+		private void writeRecord( RoomRecord record) throws IOException{
+			writeUnsigned( out, record.getSides());
+			writeStyle( record.getStyle());
+			writeUnsigned( out, record.getPointCount());
+			for( int i = 0; i < record.getPointCount(); i++){
+				out.writeDouble( record.getX( i));
+				out.writeDouble( record.getY( i));
+			}
+		}
+
+		private void writeStyle( MapStyle style) throws IOException{
+			out.writeInt( style.getFill().getRGB());
+			out.writeDouble( style.getFill().getOpacity());
+			out.writeInt( style.getStroke().getRGB());
+			out.writeDouble( style.getStroke().getOpacity());
+			out.writeDouble( style.getStrokeWidth());
+		}
+
+		public void flush() throws IOException{
+			out.flush();
+		}
+
+		/**
+		 * @return bytes written so far, header included
+		 */
+		public long size(){
+			// DataOutputStream counts in an int which stops at its largest value
+			return Integer.toUnsignedLong( out.size());
+		}
+
+		@Override
+		public void close() throws IOException{
+			out.close();
+		}
+	}
+
+	/**
+	 * <p>
+	 * reads frames of one connection.</br>
+	 * </p>
+	 */
+	public static final class Reader implements Closeable{
+
+		private final DataInputStream in;
+		private final StylePalette palette = new StylePalette();
+		private final SyncOp.Kind[] kinds = SyncOp.Kind.values();
+		private long[] lastMove = {};
+
+		/**
+		 * @param in - stream of connection
+		 * @throws IOException if header is missing or of another version
+		 */
+		public Reader( InputStream in) throws IOException{
+			this.in = new DataInputStream( new BufferedInputStream( in, 1 << 16));
+			byte[] magic = new byte[MAGIC.length()];
+			this.in.readFully( magic);
+			if( !MAGIC.equals( new String( magic, StandardCharsets.US_ASCII)))
+				throw new IOException( "not a map sync connection, header is missing");
+			int version = this.in.readUnsignedByte();
+			if( version != VERSION)
+				throw new IOException( "sync protocol version " + version + " is not supported");
+		}
+
+		/**
+		 * @return next frame, null if connection was closed between frames
+		 * @throws IOException if connection fails or frame is not valid
+		 */
+		public Frame read() throws IOException{
+			int type = in.read();
+			if( type < 0)
+				return null;
+			if( type == HELLO){
+				int client = (int) readUnsigned( in);
+				long version = readUnsigned( in);
+				return new Frame( HELLO, client, version, (int) readUnsigned( in), Collections.emptyList());
+			}
+			if( type != BATCH)
+				throw new IOException( "unknown frame type " + type);
+			long version = readUnsigned( in);
+			int count = (int) readUnsigned( in);
+			List< SyncOp> ops = new ArrayList<>( count);
+			for( int i = 0; i < count; i++){
+				int kind = in.readUnsignedByte();
+				if( kind >= kinds.length)
+					throw new IOException( "operation " + i + ": unknown kind " + kind);
+				switch( kinds[kind]){
+					case ADD:
+						ops.add( SyncOp.add( readUnsigned( in), readRecord()));
+						break;
+					case REMOVE:
+						ops.add( SyncOp.remove( readUnsigned( in)));
+						break;
+					case GEOMETRY:
+						long room = readUnsigned( in);
+						ops.add( SyncOp.geometry( room, readPoints( (int) readUnsigned( in))));
+						break;
+					case STYLE:
+						room = readUnsigned( in);
+						ops.add( SyncOp.style( room, readStyle()));
+						break;
+					case MOVE:
+						ops.add( readMove());
+						break;
+					case SET:
+						room = readUnsigned( in);
+						long roomVersion = readUnsigned( in);
+						ops.add( SyncOp.set( room, roomVersion, readRecord()));
+						break;
+				}
+			}
+			return new Frame( BATCH, -1, version, 0, ops);
+		}
+
+		private SyncOp readMove() throws IOException{
+			double deltaX = in.readDouble(), deltaY = in.readDouble();
+			int count = (int) readUnsigned( in);
+			if( count > 0){
+				long[] rooms = new long[count];
+				long previous = 0;
+				for( int i = 0; i < count; i++)
+					rooms[i] = previous += readUnsigned( in);
+				lastMove = rooms;
+			}
+			return SyncOp.move( deltaX, deltaY, lastMove);
+		}
+
+		private RoomRecord readRecord() throws IOException{
+			int sides = (int) readUnsigned( in);
+			MapStyle style = readStyle();
+			return new RoomRecord( sides, style, readPoints( (int) readUnsigned( in)));
+		}
+
+		private double[] readPoints( int count) throws IOException{
+			double[] points = new double[count * 2];
+			for( int i = 0; i < points.length; i++)
+				points[i] = in.readDouble();
+			return points;
+		}
+
+		private MapStyle readStyle() throws IOException{
+			MapColor fill = new MapColor( in.readInt(), in.readDouble());
+			MapColor stroke = new MapColor( in.readInt(), in.readDouble());
+			// rooms with equal style share one instance
+			return palette.canonical( new MapStyle( fill, stroke, in.readDouble()));
+		}
+
+		@Override
+		public void close() throws IOException{
+			in.close();
+		}
+	}
+
+	private static void writeUnsigned( DataOutputStream out, long value) throws IOException{
+		while( (value & ~0x7FL) != 0){
+			out.writeByte( (int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte( (int) value);
+	}
+
+	private static long readUnsigned( DataInputStream in) throws IOException{
+		long value = 0;
+		for( int shift = 0; shift < 64; shift += 7){
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if( (b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException( "varint is longer than 64 bits");
+	}
+}
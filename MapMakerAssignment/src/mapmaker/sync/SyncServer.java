@@ -0,0 +1,369 @@
+package mapmaker.sync;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * server holding one shared map which any number of editors connected over TCP change together, see
+ * {@link SyncClient}. it is the single order of all changes: every batch an editor sends is checked and applied in
+ * turn under one lock, then accepted operations go to all other editors in same order.</br>
+ * versions: server version counts batches accepted or corrected and version of a room is server version of batch which last
+ * changed it, remembered with editor which sent it. a batch carries highest server version its editor had applied.
+ * an operation on a room changed since then by another editor is stale and rejected, first change wins, and its
+ * editor gets {@link SyncOp.Kind#SET} with current room, or {@link SyncOp.Kind#REMOVE} if room is gone, so every
+ * editor ends with same rooms as server. a correction takes a server version of its own, and operations of its
+ * editor on a corrected room are rejected too until editor has applied it, else a change accepted meanwhile would
+ * be overwritten on editor by the older room of the correction.</br>
+ * each connection has its own sending thread and queue, so a slow editor never holds up the lock or others. frames
+ * waiting in a queue go out with one flush.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public final class SyncServer implements Closeable{
+
+	/**
+	 * <p>
+	 * port of {@link mapmaker.cli.MapServer} when none is given.</br>
+	 * </p>
+	 */
+	public static final int DEFAULT_PORT = 47113;
+
+	/**
+	 * <p>
+	 * state of one room on server.</br>
+	 * </p>
+	 */
+	private static final class Room{
+
+		private RoomRecord record;
+		private long version;
+		private int writer;
+
+		Room( RoomRecord record, long version, int writer){
+			this.record = record;
+			this.version = version;
+			this.writer = writer;
+		}
+	}
+
+	/**
+	 * <p>
+	 * a frame waiting to be sent, a hello when ops is null.</br>
+	 * </p>
+	 */
+	private static final class Outgoing{
+
+		private final long version;
+		private final int rooms;
+		private final List< SyncOp> ops;
+
+		Outgoing( long version, int rooms, List< SyncOp> ops){
+			this.version = version;
+			this.rooms = rooms;
+			this.ops = ops;
+		}
+	}
+
+	private final class Connection{
+
+		private final Socket socket;
+		private final int client;
+		private final BlockingQueue< Outgoing> queue = new LinkedBlockingQueue<>();
+		// rooms with a correction editor may not have applied yet, by server version of correction
+		private final Map< Long, Long> corrected = new HashMap<>();
+		private Thread sender;
+
+		Connection( Socket socket, int client){
+			this.socket = socket;
+			this.client = client;
+		}
+
+		private void receive(){
+			try( SyncProtocol.Reader reader = new SyncProtocol.Reader( socket.getInputStream())){
+				for( SyncProtocol.Frame frame; (frame = reader.read()) != null;)
+					if( frame.getType() == SyncProtocol.BATCH)
+						apply( this, frame.getVersion(), frame.getOps());
+			}catch( IOException e){
+				// editor went away or sent garbage, either way it is dropped
+			}finally{
+				disconnect( this);
+			}
+		}
+
+		private void send(){
+			try{
+				SyncProtocol.Writer writer = new SyncProtocol.Writer( socket.getOutputStream());
+				long flushed = 0;
+				while( true){
+					Outgoing next = queue.take();
+					do{
+						if( next.ops == null)
+							writer.hello( client, next.version, next.rooms);
+						else
+							writer.batch( next.version, next.ops);
+					}while( (next = queue.poll()) != null);
+					writer.flush();
+					sent.addAndGet( writer.size() - flushed);
+					flushed = writer.size();
+				}
+			}catch( IOException | InterruptedException e){
+				disconnect( this);
+			}
+		}
+	}
+
+	private final ServerSocket server;
+	private final Map< Long, Room> rooms = new LinkedHashMap<>();
+	private final List< Connection> connections = new ArrayList<>();
+	private final AtomicLong sent = new AtomicLong();
+	private final CountDownLatch closed = new CountDownLatch( 1);
+	private long version;
+	private int nextClient = 1;
+
+	/**
+	 * @param address - address to listen on, usually {@link InetAddress#getLoopbackAddress()}
+	 * @param port - port to listen on, 0 for any free port
+	 * @param initial - rooms server starts with, given ids of editor 0
+	 * @throws IOException if port cannot be opened
+	 */
+	public SyncServer( InetAddress address, int port, List< RoomRecord> initial) throws IOException{
+		for( int i = 0; i < initial.size(); i++)
+			rooms.put( (long) i, new Room( initial.get( i), 0, 0));
+		server = new ServerSocket();
+		server.bind( new InetSocketAddress( address, port));
+	}
+
+	/**
+	 * <p>
+	 * start accepting editors on a background thread.</br>
+	 * </p>
+	 */
+	public void start(){
+		daemon( this::accept, "sync-accept").start();
+	}
+
+	private void accept(){
+		try{
+			while( true){
+				Socket socket = server.accept();
+				socket.setTcpNoDelay( true);
+				synchronized( this){
+					Connection connection = new Connection( socket, nextClient++);
+					// snapshot is queued under lock, so it is followed by exactly batches accepted after it
+					List< SyncOp> snapshot = new ArrayList<>( rooms.size());
+					for( Map.Entry< Long, Room> room: rooms.entrySet())
+						snapshot.add( SyncOp.set( room.getKey(), room.getValue().version, room.getValue().record));
+					connection.queue.add( new Outgoing( version, rooms.size(), null));
+					connection.queue.add( new Outgoing( version, 0, snapshot));
+					connections.add( connection);
+					connection.sender = daemon( connection::send, "sync-send-" + connection.client);
+					connection.sender.start();
+					daemon( connection::receive, "sync-receive-" + connection.client).start();
+				}
+			}
+		}catch( IOException e){
+			// server socket was closed
+		}
+	}
+
+	private static Thread daemon( Runnable task, String name){
+		Thread thread = new Thread( task, name);
+		thread.setDaemon( true);
+		return thread;
+	}
+
+	/**
+	 * <p>
+	 * apply one batch of an editor, send accepted part to all other editors and corrections of rejected part back
+	 * to sender.</br>
+	 * </p>
+	 * @param from - editor which sent batch
+	 * @param seen - highest server version editor had applied when making batch
+	 * @param ops - operations of batch
+	 */
+	private synchronized void apply( Connection from, long seen, List< SyncOp> ops){
+		long next = version + 1;
+		if( !from.corrected.isEmpty())
+			from.corrected.values().removeIf( corrected -> corrected <= seen);
+		List< SyncOp> accepted = new ArrayList<>( ops.size());
+		List< SyncOp> corrections = new ArrayList<>();
+		for( SyncOp op: ops){
+			if( op.getKind() == SyncOp.Kind.MOVE){
+				long[] moved = new long[op.getRooms().length];
+				int count = 0;
+				for( long id: op.getRooms()){
+					Room room = current( id, from, seen, next, corrections);
+					if( room == null)
+						continue;
+					room.record = room.record.translate( op.getDeltaX(), op.getDeltaY());
+					changed( room, next, from.client);
+					moved[count++] = id;
+				}
+				if( count > 0)
+					accepted.add( count == moved.length ? op : SyncOp.move( op.getDeltaX(), op.getDeltaY(),
+							Arrays.copyOf( moved, count)));
+				continue;
+			}
+			if( op.getKind() == SyncOp.Kind.ADD){
+				// ids are made of editor ids, a taken one is a bug of its editor. its room is replaced by room of
+				// server so it still ends up with same map as everyone else
+				Room taken = rooms.putIfAbsent( op.getRoom(), new Room( op.getRecord(), next, from.client));
+				if( taken == null)
+					accepted.add( op);
+				else
+					correct( from, SyncOp.set( op.getRoom(), taken.version, taken.record), next, corrections);
+				continue;
+			}
+			// a room both removed is nothing to correct
+			if( op.getKind() == SyncOp.Kind.REMOVE && !rooms.containsKey( op.getRoom()))
+				continue;
+			Room room = current( op.getRoom(), from, seen, next, corrections);
+			if( room == null)
+				continue;
+			switch( op.getKind()){
+				case REMOVE:
+					rooms.remove( op.getRoom());
+					break;
+				case GEOMETRY:
+					RoomRecord record = room.record;
+					room.record = new RoomRecord( record.getSides(), record.getStyle(), op.getPoints());
+					break;
+				case STYLE:
+					room.record = room.record.withStyle( op.getStyle());
+					break;
+				default:
+					// only server sends whole rooms
+					continue;
+			}
+			changed( room, next, from.client);
+			accepted.add( op);
+		}
+		if( accepted.isEmpty() && corrections.isEmpty())
+			return;
+		version = next;
+		if( !accepted.isEmpty())
+			for( Connection connection: connections)
+				if( connection != from)
+					connection.queue.add( new Outgoing( version, 0, accepted));
+		if( !corrections.isEmpty())
+			from.queue.add( new Outgoing( version, 0, corrections));
+	}
+
+	/**
+	 * @return room if given editor may change it, else null after adding a correction for editor
+	 */
+	private Room current( long id, Connection from, long seen, long next, List< SyncOp> corrections){
+		Room room = rooms.get( id);
+		if( room == null)
+			correct( from, SyncOp.remove( id), next, corrections);
+		else if( room.version > seen && room.writer != from.client
+				|| from.corrected.getOrDefault( id, 0L) > seen)
+			correct( from, SyncOp.set( id, room.version, room.record), next, corrections);
+		else
+			return room;
+		return null;
+	}
+
+	private static void correct( Connection from, SyncOp correction, long next, List< SyncOp> corrections){
+		corrections.add( correction);
+		from.corrected.put( correction.getRoom(), next);
+	}
+
+	private static void changed( Room room, long version, int client){
+		room.version = version;
+		room.writer = client;
+	}
+
+	private synchronized void disconnect( Connection connection){
+		if( !connections.remove( connection))
+			return;
+		connection.sender.interrupt();
+		try{
+			connection.socket.close();
+		}catch( IOException e){
+			// closing anyway
+		}
+	}
+
+	/**
+	 * @return port server listens on
+	 */
+	public int getPort(){
+		return server.getLocalPort();
+	}
+
+	/**
+	 * @return number of editors connected
+	 */
+	public synchronized int getClientCount(){
+		return connections.size();
+	}
+
+	/**
+	 * @return server version, number of batches accepted or corrected so far
+	 */
+	public synchronized long getVersion(){
+		return version;
+	}
+
+	/**
+	 * @return current rooms of shared map, in order they were added
+	 */
+	public synchronized List< RoomRecord> getRecords(){
+		List< RoomRecord> records = new ArrayList<>( rooms.size());
+		for( Room room: rooms.values())
+			records.add( room.record);
+		return records;
+	}
+
+	/**
+	 * @return bytes sent to all editors so far
+	 */
+	public long getBytesSent(){
+		return sent.get();
+	}
+
+	/**
+	 * <p>
+	 * wait until {@link #close()} is called.</br>
+	 * </p>
+	 */
+	public void awaitClose() throws InterruptedException{
+		closed.await();
+	}
+
+	/**
+	 * <p>
+	 * stop accepting editors and drop all connected ones.</br>
+	 * </p>
+	 */
+	@Override
+	public void close() throws IOException{
+		server.close();
+		List< Connection> open;
+		synchronized( this){
+			open = new ArrayList<>( connections);
+		}
+		for( Connection connection: open)
+			disconnect( connection);
+		closed.countDown();
+	}
+}
@@ -0,0 +1,82 @@
+package mapmaker.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import mapmaker.geom.Affine;
+import mapmaker.geom.PackedPolygons;
+
+/**
+ * <p>
+ * rerunnable benchmark of transforming many rooms with one {@link Affine}. same random rooms, from a fixed seed, are
+ * transformed three ways: points boxed in a list of {@link Double}s per room, as a JavaFX polygon holds them,
+ * {@link PackedPolygons#transformSequential(Affine)} and {@link PackedPolygons#transformParallel(Affine)}. best and
+ * median time of each are printed. parallel can only be faster with more than one core, number of cores used by
+ * common fork-join pool is printed too.</br>
+ * </p>
+ * <pre>
+ * java -cp bin:test-bin mapmaker.bench.AffineBenchmark [rooms, default 100000] [runs, default 80]
+ * </pre>
+ *
+ * @version Oct 19, 2026
+ */
+public final class AffineBenchmark{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private AffineBenchmark(){
+	}
+
+	public static void main( String[] args){
+		int rooms = args.length > 0 ? Integer.parseInt( args[0]) : 100000;
+		int runs = args.length > 1 ? Integer.parseInt( args[1]) : 80;
+		Random random = new Random( 45);
+		PackedPolygons packed = new PackedPolygons( rooms, rooms * 6);
+		List< List< Double>> boxed = new ArrayList<>( rooms);
+		for( int room = 0; room < rooms; room++){
+			int polygon = packed.add( 3 + random.nextInt( 6));
+			List< Double> points = new ArrayList<>();
+			for( int i = packed.start( polygon); i < packed.end( polygon); i++){
+				double x = random.nextInt( 40000) / 4.0, y = random.nextInt( 40000) / 4.0;
+				packed.set( i, x, y);
+				points.add( x);
+				points.add( y);
+			}
+			boxed.add( points);
+		}
+		// points are on a grid of quarter pixels, so a quarter turn four times gives back same rooms
+		Affine transform = Affine.rotate( 90, 5000, 5000);
+		System.out.println( rooms + " rooms, " + packed.getPointCount() + " points, "
+				+ ForkJoinPool.getCommonPoolParallelism() + " fork-join threads");
+		run( "boxed doubles", runs, () -> transform( boxed, transform));
+		run( "packed sequential", runs, () -> packed.transformSequential( transform));
+		run( "packed parallel", runs, () -> packed.transformParallel( transform));
+	}
+
+	private static void transform( List< List< Double>> rooms, Affine transform){
+		for( List< Double> points: rooms)
+			for( int i = 0; i < points.size(); i += 2){
+				double x = points.get( i), y = points.get( i + 1);
+				points.set( i, transform.x( x, y));
+				points.set( i + 1, transform.y( x, y));
+			}
+	}
+
+	private static void run( String name, int runs, Runnable transform){
+		// first turns warm up compiler and are not counted
+		for( int i = 0; i < 8; i++)
+			transform.run();
+		long[] times = new long[runs];
+		for( int i = 0; i < times.length; i++){
+			long start = System.nanoTime();
+			transform.run();
+			times[i] = System.nanoTime() - start;
+		}
+		System.out.println( Timing.format( name, times));
+	}
+}
@@ -0,0 +1,83 @@
+package mapmaker.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import mapmaker.geom.PolygonBooleans;
+import mapmaker.geom.Polygons;
+
+/**
+ * <p>
+ * rerunnable benchmark of merging many rooms with {@link PolygonBooleans#union(List)}. three maps are made from a
+ * fixed seed so every run merges same rooms: a grid of touching squares whose shared edges carry floating point
+ * noise, a honeycomb of hexagons and randomly placed overlapping rooms. each is merged a few times and best and
+ * median time are printed with number of outlines and area before and after.</br>
+ * </p>
+ * <pre>
+ * java -cp bin:test-bin mapmaker.bench.BooleanBenchmark [random rooms, default 3000] [runs, default 5]
+ * </pre>
+ *
+ * @version Oct 19, 2026
+ */
+public final class BooleanBenchmark{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private BooleanBenchmark(){
+	}
+
+	public static void main( String[] args){
+		int rooms = args.length > 0 ? Integer.parseInt( args[0]) : 3000;
+		int runs = args.length > 1 ? Integer.parseInt( args[1]) : 5;
+		Random random = new Random( 34);
+		List< double[]> squares = new ArrayList<>();
+		for( int x = 0; x < 50; x++)
+			for( int y = 0; y < 50; y++)
+				squares.add( new double[]{ noisy( x, random), noisy( y, random), noisy( x + 1, random), noisy( y, random),
+						noisy( x + 1, random), noisy( y + 1, random), noisy( x, random), noisy( y + 1, random) });
+		List< double[]> hexagons = new ArrayList<>();
+		double width = Math.sqrt( 3);
+		for( int row = 0; row < 40; row++)
+			for( int column = 0; column < 40; column++)
+				hexagons.add( Polygons.regular( column * width + (row % 2) * width / 2, row * 1.5, 1, Math.PI / 6, 6));
+		List< double[]> scattered = new ArrayList<>();
+		double side = Math.sqrt( rooms) * 20;
+		for( int i = 0; i < rooms; i++)
+			scattered.add( Polygons.regular( random.nextDouble() * side, random.nextDouble() * side,
+					5 + random.nextDouble() * 15, random.nextDouble() * Math.PI, 3 + random.nextInt( 6)));
+		run( "touching squares", squares, runs);
+		run( "hexagons", hexagons, runs);
+		run( "random rooms", scattered, runs);
+	}
+
+	/**
+	 * @return value moved by less than grid of {@link PolygonBooleans}
+	 */
+	private static double noisy( double value, Random random){
+		return value + (random.nextDouble() - 0.5) * 1e-9;
+	}
+
+	private static void run( String name, List< double[]> polygons, int runs){
+		PolygonBooleans booleans = new PolygonBooleans();
+		double before = 0;
+		for( double[] polygon: polygons)
+			before += Polygons.area( polygon);
+		// first merge warms up compiler and is not counted
+		List< double[]> merged = booleans.union( polygons);
+		long[] times = new long[runs];
+		for( int i = 0; i < runs; i++){
+			long start = System.nanoTime();
+			merged = booleans.union( polygons);
+			times[i] = System.nanoTime() - start;
+		}
+		double after = 0;
+		for( double[] polygon: merged)
+			after += Polygons.area( polygon);
+		System.out.println( Timing.format( name + ": " + polygons.size() + " rooms, " + merged.size() + " outlines, area "
+				+ String.format( "%.1f to %.1f", before, after), times));
+	}
+}
@@ -0,0 +1,86 @@
+package mapmaker.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import mapmaker.io.CompactMapCodec;
+import mapmaker.io.ExportersTest;
+import mapmaker.io.MapCodec;
+import mapmaker.io.MapCodecs;
+import mapmaker.io.RecordWriter;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * rerunnable benchmark of size and speed of {@link CompactMapCodec} against text and binary maps. same random map
+ * is written and read back in memory by each codec, compact one at a few precisions with and without deflate.
+ * prints size of each file with best and median time of writing and reading it.</br>
+ * </p>
+ * <pre>
+ * java -cp bin:test-bin mapmaker.bench.CompactBenchmark [rooms, default 100000] [runs, default 5]
+ * </pre>
+ *
+ * @version Oct 19, 2026
+ */
+public final class CompactBenchmark{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private CompactBenchmark(){
+	}
+
+	public static void main( String[] args) throws IOException{
+		int rooms = args.length > 0 ? Integer.parseInt( args[0]) : 100000;
+		int runs = args.length > 1 ? Integer.parseInt( args[1]) : 5;
+		List< RoomRecord> records = ExportersTest.randomMap( rooms, 27);
+		Map< String, MapCodec> codecs = new LinkedHashMap<>();
+		codecs.put( "text", MapCodecs.TEXT);
+		codecs.put( "binary", MapCodecs.BINARY);
+		for( double precision: new double[]{ 0.001, 0.01, 0.1 }){
+			codecs.put( "compact " + precision, new CompactMapCodec( precision, false));
+			codecs.put( "compact " + precision + " deflated", new CompactMapCodec( precision, true));
+		}
+		System.out.println( rooms + " rooms");
+		for( Map.Entry< String, MapCodec> codec: codecs.entrySet()){
+			// first round warms up compiler and is not counted
+			byte[] bytes = write( codec.getValue(), records);
+			read( codec.getValue(), bytes);
+			long[] writes = new long[runs];
+			long[] reads = new long[runs];
+			for( int i = 0; i < runs; i++){
+				long start = System.nanoTime();
+				write( codec.getValue(), records);
+				writes[i] = System.nanoTime() - start;
+				start = System.nanoTime();
+				read( codec.getValue(), bytes);
+				reads[i] = System.nanoTime() - start;
+			}
+			System.out.println( codec.getKey() + ": " + bytes.length / 1000 + " kB");
+			System.out.println( "  " + Timing.format( "write", writes));
+			System.out.println( "  " + Timing.format( "read", reads));
+		}
+	}
+
+	private static byte[] write( MapCodec codec, List< RoomRecord> records) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( RecordWriter writer = codec.writer( bytes)){
+			for( RoomRecord record: records)
+				writer.accept( record);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static List< RoomRecord> read( MapCodec codec, byte[] bytes) throws IOException{
+		List< RoomRecord> records = new ArrayList<>();
+		codec.read( new ByteArrayInputStream( bytes), records::add);
+		return records;
+	}
+}
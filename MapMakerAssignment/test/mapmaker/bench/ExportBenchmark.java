@@ -0,0 +1,86 @@
+package mapmaker.bench;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import mapmaker.io.ExportersTest;
+import mapmaker.io.MapCodecs;
+import mapmaker.io.MapExporter;
+import mapmaker.io.RecordWriter;
+import mapmaker.io.SvgExporter;
+import mapmaker.model.MapStats;
+
+/**
+ * <p>
+ * rerunnable benchmark of streaming a text map into SVG and GeoJSON, the way <code>MapBatch convert</code> does:
+ * records are read one by one and each is written as it arrives. a random map of given size is written to a
+ * temporary file first, so every run converts same rooms. prints best and median time of each format with size of
+ * output. run with a small heap, such as -Xmx64m, to see that memory does not grow with map.</br>
+ * </p>
+ * <pre>
+ * java -Xmx64m -cp bin:test-bin mapmaker.bench.ExportBenchmark [rooms, default 100000] [runs, default 5]
+ * </pre>
+ *
+ * @version Oct 19, 2026
+ */
+public final class ExportBenchmark{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private ExportBenchmark(){
+	}
+
+	public static void main( String[] args) throws IOException{
+		int rooms = args.length > 0 ? Integer.parseInt( args[0]) : 100000;
+		int runs = args.length > 1 ? Integer.parseInt( args[1]) : 5;
+		Path directory = Files.createTempDirectory( "export-benchmark");
+		Path map = directory.resolve( "random.map");
+		try{
+			MapCodecs.TEXT.writeAll( map, ExportersTest.randomMap( rooms, 36));
+			System.out.println( rooms + " rooms, " + Files.size( map) / 1000 + " kB of text");
+			MapStats stats = new MapStats();
+			read( map, stats);
+			List< MapExporter> exporters = new ArrayList<>();
+			exporters.add( new SvgExporter().withBounds( stats.getBounds()));
+			exporters.add( MapCodecs.GEOJSON);
+			for( MapExporter exporter: exporters){
+				Path output = directory.resolve( "random." + exporter.extension());
+				// first conversion warms up compiler and is not counted
+				convert( map, exporter, output);
+				long[] times = new long[runs];
+				for( int i = 0; i < runs; i++){
+					long start = System.nanoTime();
+					convert( map, exporter, output);
+					times[i] = System.nanoTime() - start;
+				}
+				System.out.println( Timing.format( exporter.name() + ": " + Files.size( output) / 1000 + " kB", times));
+				Files.delete( output);
+			}
+		}finally{
+			Files.deleteIfExists( map);
+			Files.delete( directory);
+		}
+	}
+
+	private static void read( Path map, MapStats stats) throws IOException{
+		try( InputStream in = new BufferedInputStream( Files.newInputStream( map), 1 << 16)){
+			MapCodecs.TEXT.read( in, stats::add);
+		}
+	}
+
+	private static void convert( Path map, MapExporter exporter, Path output) throws IOException{
+		try( InputStream in = new BufferedInputStream( Files.newInputStream( map), 1 << 16);
+				RecordWriter writer = exporter.writer( new BufferedOutputStream( Files.newOutputStream( output), 1 << 16))){
+			MapCodecs.TEXT.read( in, writer);
+		}
+	}
+}
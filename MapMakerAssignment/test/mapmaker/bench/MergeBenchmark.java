@@ -0,0 +1,106 @@
+package mapmaker.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import mapmaker.geom.Polygons;
+import mapmaker.io.ExportersTest;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapDiff;
+import mapmaker.model.MapMerge;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomFingerprint;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * rerunnable benchmark of {@link MapDiff}, {@link MapMerge} and {@link RoomFingerprint#dedupe(List)} on a large
+ * map. two sides are made from one random base, each moving, restyling, removing and adding a given share of rooms,
+ * some of them same on both sides. prints best and median time of each step.</br>
+ * </p>
+ * <pre>
+ * java -cp bin:test-bin mapmaker.bench.MergeBenchmark [rooms, default 100000] [percent changed, default 5] [runs, default 5]
+ * </pre>
+ *
+ * @version Oct 19, 2026
+ */
+public final class MergeBenchmark{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private MergeBenchmark(){
+	}
+
+	public static void main( String[] args){
+		int rooms = args.length > 0 ? Integer.parseInt( args[0]) : 100000;
+		double share = (args.length > 1 ? Double.parseDouble( args[1]) : 5) / 100;
+		int runs = args.length > 2 ? Integer.parseInt( args[2]) : 5;
+		List< RoomRecord> base = ExportersTest.randomMap( rooms, 46);
+		List< RoomRecord> ours = edit( base, share, new Random( 1));
+		List< RoomRecord> theirs = edit( base, share, new Random( 2));
+		// both sides paste same rooms too
+		List< RoomRecord> pasted = ExportersTest.randomMap( (int) (rooms * share / 4), 47);
+		ours.addAll( pasted);
+		theirs.addAll( pasted);
+		List< RoomRecord> doubled = new ArrayList<>( base);
+		doubled.addAll( base.subList( 0, (int) (rooms * share)));
+		System.out.println( rooms + " rooms, " + MapDiff.compare( base, ours));
+		System.out.println( MapMerge.merge( base, ours, theirs).getConflicts().size() + " conflicts");
+		// first round warms up compiler and is not counted
+		long[] diffs = new long[runs + 1], merges = new long[runs + 1], dedupes = new long[runs + 1];
+		for( int i = 0; i <= runs; i++){
+			long start = System.nanoTime();
+			MapDiff.compare( base, ours);
+			diffs[i] = System.nanoTime() - start;
+			start = System.nanoTime();
+			MapMerge.merge( base, ours, theirs);
+			merges[i] = System.nanoTime() - start;
+			start = System.nanoTime();
+			RoomFingerprint.dedupe( doubled);
+			dedupes[i] = System.nanoTime() - start;
+		}
+		System.out.println( Timing.format( "diff", counted( diffs)));
+		System.out.println( Timing.format( "merge", counted( merges)));
+		System.out.println( Timing.format( "dedupe", counted( dedupes)));
+	}
+
+	/**
+	 * @return copy of base with given share of rooms moved a little, restyled, removed or added
+	 */
+	private static List< RoomRecord> edit( List< RoomRecord> base, double share, Random random){
+		MapStyle style = new MapStyle( new MapColor( random.nextInt( 1 << 24), 1), MapColor.BLACK, 1);
+		List< RoomRecord> edited = new ArrayList<>( base.size());
+		for( RoomRecord room: base){
+			if( random.nextDouble() >= share){
+				edited.add( room);
+				continue;
+			}
+			switch( random.nextInt( 4)){
+				case 0:
+					edited.add( room.translate( random.nextDouble() - 0.5, random.nextDouble() - 0.5));
+					break;
+				case 1:
+					edited.add( room.withStyle( style));
+					break;
+				case 2:
+					break;
+				default:
+					edited.add( room);
+					edited.add( new RoomRecord( 3, style, Polygons.regular( random.nextDouble() * 10000,
+							random.nextDouble() * 10000, 5 + random.nextDouble() * 20, 0, 3)));
+					break;
+			}
+		}
+		return edited;
+	}
+
+	private static long[] counted( long[] nanos){
+		long[] counted = new long[nanos.length - 1];
+		System.arraycopy( nanos, 1, counted, 0, counted.length);
+		return counted;
+	}
+}
@@ -0,0 +1,33 @@
+package mapmaker.bench;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * formatting shared by benchmarks of this package.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+final class Timing{
+
+	/**
+	 * <p>
+	 * private default constructor to prevent creation of this object.</br>
+	 * </p>
+	 */
+	private Timing(){
+	}
+
+	/**
+	 * @param label - what was measured
+	 * @param nanos - time of each run
+	 * @return label followed by best and median time of runs in milliseconds
+	 */
+	static String format( String label, long[] nanos){
+		long[] sorted = nanos.clone();
+		Arrays.sort( sorted);
+		return String.format( "%s, best %.2f ms, median %.2f ms of %d runs", label, sorted[0] / 1e6,
+				sorted[sorted.length / 2] / 1e6, sorted.length);
+	}
+}
@@ -0,0 +1,106 @@
+package mapmaker.cli;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mapmaker.io.ExportersTest;
+import mapmaker.io.MapCodecs;
+import mapmaker.io.MapIndex;
+import mapmaker.io.SvgExporter;
+import mapmaker.model.MapStats;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * files written by {@link MapBatch}, streamed record by record, against same map written at once.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapBatchTest{
+
+	private Path directory;
+	private Path map;
+	private List< RoomRecord> records;
+
+	@Before
+	public void writeMap() throws IOException{
+		directory = Files.createTempDirectory( "mapbatch");
+		map = directory.resolve( "random.map");
+		MapCodecs.TEXT.writeAll( map, ExportersTest.randomMap( 5000, 26));
+		records = MapCodecs.TEXT.readAll( map);
+	}
+
+	@After
+	public void deleteFiles() throws IOException{
+		try( Stream< Path> files = Files.walk( directory)){
+			files.sorted( Comparator.reverseOrder()).forEach( path -> path.toFile().delete());
+		}
+	}
+
+	private void convert( String format) throws IOException{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		PrintStream stream = new PrintStream( output, true, "UTF-8");
+		assertEquals( output.toString( "UTF-8"), 0, MapBatch.run( new String[]{ "convert", "--threads", "2",
+				"--format", format, "--out", directory.toString(), map.toString() }, stream, stream));
+	}
+
+	@Test
+	public void streamedSvgMatchesExportOfWholeMap() throws IOException{
+		convert( "svg");
+		MapStats stats = new MapStats();
+		records.forEach( stats::add);
+		Path expected = directory.resolve( "expected.svg");
+		new SvgExporter().withBounds( stats.getBounds()).writeAll( expected, records);
+		assertArrayEquals( Files.readAllBytes( expected), Files.readAllBytes( directory.resolve( "random.svg")));
+	}
+
+	@Test
+	public void streamedGeoJsonMatchesExportOfWholeMap() throws IOException{
+		convert( "geojson");
+		Path expected = directory.resolve( "expected.geojson");
+		MapCodecs.GEOJSON.writeAll( expected, records);
+		assertArrayEquals( Files.readAllBytes( expected), Files.readAllBytes( directory.resolve( "random.geojson")));
+	}
+
+	@Test
+	public void convertedBinaryReadsBackSameRooms() throws IOException{
+		convert( "binary");
+		assertEquals( records, MapCodecs.BINARY.readAll( directory.resolve( "random.mapb")));
+	}
+
+	@Test
+	public void brokenIndexIsRebuiltInsteadOfAbortingRun() throws IOException{
+		// header, version 2, size of map, checksum and a style count no sidecar can hold
+		ByteArrayOutputStream sidecar = new ByteArrayOutputStream();
+		try( DataOutputStream data = new DataOutputStream( sidecar)){
+			data.writeBytes( MapIndex.MAGIC);
+			data.writeByte( 2);
+			data.writeLong( Files.size( map));
+			data.writeInt( 0);
+			data.writeInt( 0x7ffffff0);
+		}
+		Files.write( MapIndex.sidecarOf( map), sidecar.toByteArray());
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		PrintStream stream = new PrintStream( output, true, "UTF-8");
+		assertEquals( output.toString( "UTF-8"), 0, MapBatch.run( new String[]{ "index", map.toString() }, stream, stream));
+		assertTrue( output.toString( "UTF-8"), output.toString( "UTF-8").contains( "\"rebuilt\":true"));
+		assertNotNull( MapIndex.load( map));
+	}
+}
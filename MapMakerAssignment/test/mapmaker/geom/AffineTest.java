@@ -0,0 +1,117 @@
+package mapmaker.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ * factories and composition of {@link Affine} checked on single points.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class AffineTest{
+
+	private static final double EPSILON = 1e-9;
+
+	private static void assertPoint( Affine transform, double x, double y, double expectedX, double expectedY){
+		assertEquals( "x of " + x + ", " + y + " by " + transform, expectedX, transform.x( x, y), EPSILON);
+		assertEquals( "y of " + x + ", " + y + " by " + transform, expectedY, transform.y( x, y), EPSILON);
+	}
+
+	@Test
+	public void identityKeepsPoints(){
+		assertPoint( Affine.IDENTITY, 3.5, -7.25, 3.5, -7.25);
+		assertTrue( Affine.IDENTITY.isTranslation());
+	}
+
+	@Test
+	public void translateMovesPoints(){
+		Affine translate = Affine.translate( 10, -5);
+		assertPoint( translate, 1, 2, 11, -3);
+		assertTrue( translate.isTranslation());
+	}
+
+	@Test
+	public void rotateByRightAngleTurnsClockwiseOnScreen(){
+		Affine rotate = Affine.rotate( 90, 10, 10);
+		assertPoint( rotate, 20, 10, 10, 20);
+		assertPoint( rotate, 10, 20, 0, 10);
+		assertPoint( rotate, 10, 10, 10, 10);
+		assertTrue( !rotate.isTranslation());
+	}
+
+	@Test
+	public void rightAngleCoefficientsAreExact(){
+		for( int degrees = -360; degrees <= 360; degrees += 90){
+			Affine rotate = Affine.rotate( degrees, 0, 0);
+			for( double coefficient: new double[]{ rotate.getA(), rotate.getB(), rotate.getC(), rotate.getD() })
+				assertTrue( degrees + " degrees has " + rotate, coefficient == 0 || coefficient == 1 || coefficient == -1);
+		}
+	}
+
+	/**
+	 * <p>
+	 * exact for points and center on a grid of quarter pixels, where every sum is exact too. arbitrary decimals
+	 * like 0.1 are already rounded and may move by last bit.</br>
+	 * </p>
+	 */
+	@Test
+	public void fourQuarterTurnsGiveBackExactPoints(){
+		Affine quarter = Affine.rotate( 90, 123.25, -78.5);
+		double[] xs = { 0.5, 1e6 + 0.25, -2.5, 123.25 };
+		double[] ys = { 0.75, -1e3, 99.75, -78.5 };
+		for( int i = 0; i < xs.length; i++){
+			double x = xs[i], y = ys[i];
+			for( int turn = 0; turn < 4; turn++){
+				double nextX = quarter.x( x, y);
+				y = quarter.y( x, y);
+				x = nextX;
+			}
+			assertEquals( xs[i], x, 0);
+			assertEquals( ys[i], y, 0);
+		}
+	}
+
+	@Test
+	public void mirrorFlipsAcrossLine(){
+		assertPoint( Affine.mirrorHorizontal( 5), 2, 7, 8, 7);
+		assertPoint( Affine.mirrorVertical( 5), 2, 7, 2, 3);
+		Affine twice = Affine.mirrorHorizontal( 5).then( Affine.mirrorHorizontal( 5));
+		assertPoint( twice, 2, 7, 2, 7);
+		assertTrue( twice.isTranslation());
+	}
+
+	@Test
+	public void scaleKeepsCenterInPlace(){
+		Affine scale = Affine.scale( 2, 3, 10, 20);
+		assertPoint( scale, 10, 20, 10, 20);
+		assertPoint( scale, 11, 21, 12, 23);
+	}
+
+	@Test
+	public void thenAppliesThisFirst(){
+		Affine translate = Affine.translate( 10, 0);
+		Affine rotate = Affine.rotate( 90, 0, 0);
+		assertPoint( translate.then( rotate), 1, 0, 0, 11);
+		assertPoint( rotate.then( translate), 1, 0, 10, 1);
+	}
+
+	@Test
+	public void compositionMatchesSteps(){
+		Affine[] steps = { Affine.rotate( 30, 4, 5), Affine.scale( 1.5, -0.5, 1, 2), Affine.translate( -3, 8),
+				Affine.mirrorVertical( 2) };
+		Affine combined = Affine.IDENTITY;
+		for( Affine step: steps)
+			combined = combined.then( step);
+		double x = 7.25, y = -3.5;
+		for( Affine step: steps){
+			double nextX = step.x( x, y);
+			y = step.y( x, y);
+			x = nextX;
+		}
+		assertPoint( combined, 7.25, -3.5, x, y);
+	}
+}
@@ -0,0 +1,110 @@
+package mapmaker.geom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ * packing of polygons and both transform paths of {@link PackedPolygons}. parallel path must give same bits as
+ * sequential one, on batches big enough to be split into many chunks with a partial last one.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class PackedPolygonsTest{
+
+	/**
+	 * <p>
+	 * batch of random polygons with at least given number of points in total.</br>
+	 * </p>
+	 */
+	static PackedPolygons randomPolygons( int points, long seed){
+		Random random = new Random( seed);
+		PackedPolygons packed = new PackedPolygons( 16, 16);
+		while( packed.getPointCount() < points){
+			int polygon = packed.add( 3 + random.nextInt( 10));
+			for( int i = packed.start( polygon); i < packed.end( polygon); i++)
+				packed.set( i, (random.nextDouble() - 0.5) * 1e5, (random.nextDouble() - 0.5) * 1e5);
+		}
+		return packed;
+	}
+
+	private static void assertSameBits( PackedPolygons expected, PackedPolygons actual){
+		assertEquals( expected.getPointCount(), actual.getPointCount());
+		for( int i = 0; i < expected.getPointCount(); i++){
+			assertEquals( "x of point " + i, Double.doubleToRawLongBits( expected.getX( i)),
+					Double.doubleToRawLongBits( actual.getX( i)));
+			assertEquals( "y of point " + i, Double.doubleToRawLongBits( expected.getY( i)),
+					Double.doubleToRawLongBits( actual.getY( i)));
+		}
+	}
+
+	@Test
+	public void addKeepsPolygonsApart(){
+		PackedPolygons packed = new PackedPolygons( 1, 1);
+		double[] triangle = { 0, 0, 4, 0, 0, 3 };
+		double[] square = { 1, 1, 2, 1, 2, 2, 1, 2 };
+		for( int i = 0; i < 20; i++)
+			packed.add( i % 2 == 0 ? triangle : square);
+		assertEquals( 20, packed.getPolygonCount());
+		assertEquals( 10 * 3 + 10 * 4, packed.getPointCount());
+		assertArrayEquals( triangle, packed.toArray( 18), 0);
+		assertArrayEquals( square, packed.toArray( 19), 0);
+		assertEquals( packed.end( 18), packed.start( 19));
+	}
+
+	@Test
+	public void transformMatchesAffine(){
+		PackedPolygons packed = new PackedPolygons( 1, 4);
+		packed.add( new double[]{ 0, 0, 10, 0, 10, 5, 0, 5 });
+		Affine rotate = Affine.rotate( 37, 2, 3);
+		packed.transform( rotate);
+		double[] expected = { 0, 0, 10, 0, 10, 5, 0, 5 };
+		for( int i = 0; i < 4; i++)
+			assertArrayEquals( new double[]{ rotate.x( expected[i * 2], expected[i * 2 + 1]),
+					rotate.y( expected[i * 2], expected[i * 2 + 1]) },
+					new double[]{ packed.getX( i), packed.getY( i) }, 0);
+	}
+
+	@Test
+	public void parallelMatchesSequentialBitForBit(){
+		int points = PackedPolygons.PARALLEL_THRESHOLD * 4 + PackedPolygons.CHUNK / 3;
+		Affine transform = Affine.rotate( 17.5, 123.4, -56.7).then( Affine.scale( 1.25, -0.75, 3, 4))
+				.then( Affine.translate( 0.1, 0.2));
+		PackedPolygons sequential = randomPolygons( points, 45);
+		PackedPolygons parallel = randomPolygons( points, 45);
+		assertTrue( sequential.getPointCount() % PackedPolygons.CHUNK != 0);
+		sequential.transformSequential( transform);
+		parallel.transformParallel( transform);
+		assertSameBits( sequential, parallel);
+	}
+
+	@Test
+	public void automaticChoiceMatchesSequential(){
+		PackedPolygons sequential = randomPolygons( PackedPolygons.PARALLEL_THRESHOLD * 2, 46);
+		PackedPolygons automatic = randomPolygons( PackedPolygons.PARALLEL_THRESHOLD * 2, 46);
+		Affine transform = Affine.mirrorHorizontal( 50).then( Affine.rotate( -90, 7, 8));
+		sequential.transformSequential( transform);
+		automatic.transform( transform);
+		assertSameBits( sequential, automatic);
+	}
+
+	@Test
+	public void parallelQuarterTurnsGiveBackExactPoints(){
+		PackedPolygons original = randomPolygons( PackedPolygons.PARALLEL_THRESHOLD * 2, 47);
+		PackedPolygons turned = randomPolygons( PackedPolygons.PARALLEL_THRESHOLD * 2, 47);
+		// points on a grid of quarter pixels, like rooms drawn with mouse, so no sum is rounded
+		for( PackedPolygons packed: new PackedPolygons[]{ original, turned })
+			for( int i = 0; i < packed.getPointCount(); i++)
+				packed.set( i, Math.rint( packed.getX( i) * 4) / 4, Math.rint( packed.getY( i) * 4) / 4);
+		Affine quarter = Affine.rotate( 90, 1000.5, -2000.25);
+		for( int turn = 0; turn < 4; turn++)
+			turned.transformParallel( quarter);
+		assertSameBits( original, turned);
+	}
+}
@@ -0,0 +1,137 @@
+package mapmaker.geom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ * union, intersection and difference of rectangles whose results are known exactly.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class PolygonBooleansTest{
+
+	private static final double EPSILON = 1e-9;
+
+	private final PolygonBooleans booleans = new PolygonBooleans();
+
+	private static double[] rectangle( double minX, double minY, double maxX, double maxY){
+		return new double[]{ minX, minY, maxX, minY, maxX, maxY, minX, maxY };
+	}
+
+	/**
+	 * <p>
+	 * check ring has exactly given corners, in any order and orientation, and given area.</br>
+	 * </p>
+	 */
+	private static void assertRing( double[] ring, double area, double... corners){
+		assertEquals( "corners of " + Arrays.toString( ring), corners.length, ring.length);
+		for( int i = 0; i < corners.length; i += 2){
+			boolean found = false;
+			for( int j = 0; j < ring.length && !found; j += 2)
+				found = Math.abs( ring[j] - corners[i]) < EPSILON && Math.abs( ring[j + 1] - corners[i + 1]) < EPSILON;
+			assertTrue( "corner " + corners[i] + ", " + corners[i + 1] + " missing from " + Arrays.toString( ring), found);
+		}
+		assertEquals( area, Polygons.area( ring), EPSILON);
+	}
+
+	@Test
+	public void unionOfOverlappingRectanglesIsOneOutline(){
+		List< double[]> result = booleans.union( rectangle( 0, 0, 10, 10), rectangle( 5, 5, 15, 15));
+		assertEquals( 1, result.size());
+		assertRing( result.get( 0), 175, 0, 0, 10, 0, 10, 5, 15, 5, 15, 15, 5, 15, 5, 10, 0, 10);
+	}
+
+	@Test
+	public void unionOfRectanglesSharingAnEdgeDropsTheEdge(){
+		List< double[]> result = booleans.union( rectangle( 0, 0, 10, 10), rectangle( 10, 0, 20, 10));
+		assertEquals( 1, result.size());
+		assertRing( result.get( 0), 200, 0, 0, 20, 0, 20, 10, 0, 10);
+	}
+
+	@Test
+	public void edgesWithinGridAreShared(){
+		// 0.1 + 0.2 is not 0.3, both edges still snap to same grid point
+		List< double[]> result = booleans.union( rectangle( 0, 0, 0.1 + 0.2, 1), rectangle( 0.3, 0, 1, 1));
+		assertEquals( 1, result.size());
+		assertRing( result.get( 0), 1, 0, 0, 1, 0, 1, 1, 0, 1);
+	}
+
+	@Test
+	public void unionOfDisjointRectanglesKeepsBoth(){
+		List< double[]> result = booleans.union( rectangle( 0, 0, 1, 1), rectangle( 5, 5, 6, 6));
+		assertEquals( 2, result.size());
+		assertEquals( 2, Polygons.area( result.get( 0)) + Polygons.area( result.get( 1)), EPSILON);
+	}
+
+	@Test
+	public void unionOfGridOfSquaresIsItsOutline(){
+		List< double[]> squares = new ArrayList<>();
+		for( int x = 0; x < 10; x++)
+			for( int y = 0; y < 10; y++)
+				squares.add( rectangle( x, y, x + 1, y + 1));
+		List< double[]> result = booleans.union( squares);
+		assertEquals( 1, result.size());
+		assertRing( result.get( 0), 100, 0, 0, 10, 0, 10, 10, 0, 10);
+	}
+
+	@Test
+	public void intersectionOfOverlappingRectangles(){
+		List< double[]> result = booleans.intersection( rectangle( 0, 0, 10, 10), rectangle( 5, 5, 15, 15));
+		assertEquals( 1, result.size());
+		assertRing( result.get( 0), 25, 5, 5, 10, 5, 10, 10, 5, 10);
+	}
+
+	@Test
+	public void intersectionOfDisjointRectanglesIsEmpty(){
+		assertTrue( booleans.intersection( rectangle( 0, 0, 1, 1), rectangle( 2, 2, 3, 3)).isEmpty());
+		assertTrue( booleans.intersection( Arrays.asList( rectangle( 0, 0, 2, 2), rectangle( 1, 1, 3, 3),
+				rectangle( 5, 5, 6, 6))).isEmpty());
+	}
+
+	@Test
+	public void differenceCutsACorner(){
+		List< double[]> result = booleans.difference( rectangle( 0, 0, 10, 10), rectangle( 5, 5, 15, 15));
+		assertEquals( 1, result.size());
+		assertRing( result.get( 0), 75, 0, 0, 10, 0, 10, 5, 5, 5, 5, 10, 0, 10);
+	}
+
+	@Test
+	public void differenceSplitsARoomInTwo(){
+		List< double[]> result = booleans.difference( rectangle( 0, 0, 30, 10), rectangle( 10, -1, 20, 11));
+		assertEquals( 2, result.size());
+		for( double[] ring: result)
+			assertEquals( 100, Polygons.area( ring), EPSILON);
+	}
+
+	@Test
+	public void holeIsBridgedIntoItsOutline(){
+		List< double[]> result = booleans.difference( rectangle( 0, 0, 30, 30), rectangle( 10, 10, 20, 20));
+		assertEquals( 1, result.size());
+		double[] ring = result.get( 0);
+		// outline and hole share one ring whose signed area is outline minus hole
+		assertEquals( 800, Polygons.area( ring), EPSILON);
+		assertTrue( Polygons.contains( ring, 5, 5));
+		assertTrue( !Polygons.contains( ring, 15, 15));
+	}
+
+	@Test
+	public void differenceWithSeveralCutters(){
+		List< double[]> result = booleans.difference( rectangle( 0, 0, 10, 10),
+				Arrays.asList( rectangle( 0, 0, 5, 10), rectangle( 5, 0, 10, 5)));
+		assertEquals( 1, result.size());
+		assertRing( result.get( 0), 25, 5, 5, 10, 5, 10, 10, 5, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void gridMustBePositive(){
+		new PolygonBooleans( 0);
+	}
+}
@@ -0,0 +1,109 @@
+package mapmaker.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * binary maps round trip exactly, and broken point counts are reported as format errors without allocating
+ * memory for points which are not there.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class BinaryMapCodecTest{
+
+	/**
+	 * @return binary map of one record claiming given number of points and holding given coordinates
+	 */
+	private static byte[] record( int count, double... coordinates) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( DataOutputStream data = new DataOutputStream( bytes)){
+			data.writeBytes( BinaryMapCodec.MAGIC);
+			data.writeByte( 1);
+			data.writeByte( 1);
+			data.writeInt( 4);
+			data.writeInt( 0);
+			data.writeDouble( 1);
+			data.writeInt( 0);
+			data.writeDouble( 1);
+			data.writeDouble( 1);
+			data.writeInt( count);
+			for( double value: coordinates)
+				data.writeDouble( value);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static List< RoomRecord> read( byte[] bytes) throws IOException{
+		List< RoomRecord> records = new ArrayList<>();
+		MapCodecs.BINARY.read( new ByteArrayInputStream( bytes), records::add);
+		return records;
+	}
+
+	private static void assertRejected( byte[] bytes, String message) throws IOException{
+		try{
+			read( bytes);
+			fail( "broken map was read");
+		}catch( MapFormatException e){
+			assertTrue( e.getMessage(), e.getMessage().contains( message));
+		}
+	}
+
+	@Test
+	public void randomMapRoundTripsExactly() throws IOException{
+		List< RoomRecord> records = ExportersTest.randomMap( 2000, 26);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( RecordWriter writer = MapCodecs.BINARY.writer( bytes)){
+			for( RoomRecord record: records)
+				writer.accept( record);
+		}
+		List< RoomRecord> read = read( bytes.toByteArray());
+		assertEquals( records.size(), read.size());
+		for( int i = 0; i < records.size(); i++){
+			assertEquals( records.get( i).getSides(), read.get( i).getSides());
+			assertEquals( records.get( i).getStyle(), read.get( i).getStyle());
+			assertArrayEquals( records.get( i).copyPoints(), read.get( i).copyPoints(), 0);
+		}
+	}
+
+	@Test
+	public void largeRecordGrowsToItsPoints() throws IOException{
+		double[] points = new double[20000];
+		for( int i = 0; i < points.length; i++)
+			points[i] = i * 0.5;
+		byte[] bytes = record( points.length / 2, points);
+		// end of file marker
+		byte[] ended = Arrays.copyOf( bytes, bytes.length + 1);
+		assertArrayEquals( points, read( ended).get( 0).copyPoints(), 0);
+	}
+
+	@Test
+	public void countOverflowingArrayIsRejected() throws IOException{
+		assertRejected( record( 0x40000000), "too large");
+	}
+
+	@Test
+	public void negativeCountIsRejected() throws IOException{
+		assertRejected( record( -1), "negative point count");
+	}
+
+	@Test
+	public void countLargerThanFileIsTruncated() throws IOException{
+		assertRejected( record( 0x3ffffff0, 1, 2, 3, 4), "truncated");
+	}
+}
@@ -0,0 +1,180 @@
+package mapmaker.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.geom.Polygons;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * compact maps round trip within half of their precision, whichever way coordinates move, whether rooms are
+ * stored by their parameters or by their points and with or without deflate.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class CompactMapCodecTest{
+
+	private static byte[] write( MapCodec codec, List< RoomRecord> records) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( RecordWriter writer = codec.writer( bytes)){
+			for( RoomRecord record: records)
+				writer.accept( record);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static List< RoomRecord> read( byte[] bytes) throws IOException{
+		List< RoomRecord> records = new ArrayList<>();
+		MapCodecs.COMPACT.read( new ByteArrayInputStream( bytes), records::add);
+		return records;
+	}
+
+	/**
+	 * <p>
+	 * fail unless records have same sides and style and every coordinate is within half of precision.</br>
+	 * </p>
+	 */
+	private static void assertWithin( double precision, List< RoomRecord> expected, List< RoomRecord> actual){
+		assertEquals( expected.size(), actual.size());
+		// quantizing itself rounds, division back may add an ulp
+		double tolerance = precision / 2 * (1 + 1e-9);
+		for( int i = 0; i < expected.size(); i++){
+			assertEquals( "sides of room " + i, expected.get( i).getSides(), actual.get( i).getSides());
+			assertEquals( "style of room " + i, expected.get( i).getStyle(), actual.get( i).getStyle());
+			assertArrayEquals( "points of room " + i, expected.get( i).copyPoints(), actual.get( i).copyPoints(), tolerance);
+		}
+	}
+
+	private static int varintSize( long value) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( bytes);
+		CompactMapCodec.writeSigned( out, value);
+		assertEquals( value, CompactMapCodec.readSigned( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray()))));
+		return bytes.size();
+	}
+
+	@Test
+	public void zigZagKeepsSmallNegativeValuesShort() throws IOException{
+		assertEquals( 1, varintSize( 0));
+		assertEquals( 1, varintSize( -1));
+		assertEquals( 1, varintSize( 63));
+		assertEquals( 1, varintSize( -64));
+		assertEquals( 2, varintSize( 64));
+		assertEquals( 2, varintSize( -65));
+		assertEquals( 10, varintSize( Long.MAX_VALUE));
+		assertEquals( 10, varintSize( Long.MIN_VALUE));
+	}
+
+	@Test
+	public void negativeDeltasRoundTrip() throws IOException{
+		// every coordinate is below the one before it and the last ones are negative
+		double[] points = { 1000.25, 900.5, 10.125, -3.75, -5000, -7000.5, -5000.001, -7001 };
+		List< RoomRecord> records = Arrays.asList( new RoomRecord( 5, MapStyle.DEFAULT, points),
+				new RoomRecord( 3, MapStyle.DEFAULT, new double[]{ -9000, -9000, -9000.5, -9001, -9001, -9000 }));
+		byte[] bytes = write( new CompactMapCodec( 0.001, false), records);
+		assertWithin( 0.001, records, read( bytes));
+	}
+
+	@Test
+	public void everyCoordinateIsWithinHalfOfPrecision() throws IOException{
+		List< RoomRecord> records = ExportersTest.randomMap( 2000, 27);
+		for( double precision: new double[]{ 0.001, 0.01, 0.5, 4 })
+			assertWithin( precision, records, read( write( new CompactMapCodec( precision, false), records)));
+	}
+
+	@Test
+	public void regularRoomIsStoredByItsParameters() throws IOException{
+		RoomRecord regular = new RoomRecord( 12, MapStyle.DEFAULT, Polygons.regular( 512.5, 300.25, 40, 0.3, 12));
+		double[] points = regular.copyPoints();
+		points[4] += 3;
+		RoomRecord edited = new RoomRecord( 12, MapStyle.DEFAULT, points);
+		CompactMapCodec codec = new CompactMapCodec( 0.001, false);
+		byte[] parametric = write( codec, Collections.singletonList( regular));
+		byte[] polygon = write( codec, Collections.singletonList( edited));
+		// center, radius and angle take a handful of varints, 24 coordinates take at least one byte each
+		assertTrue( parametric.length + " vs " + polygon.length, parametric.length + 20 < polygon.length);
+		assertWithin( 0.001, Collections.singletonList( regular), read( parametric));
+		// an edited room is not made regular again
+		List< RoomRecord> read = read( polygon);
+		assertWithin( 0.001, Collections.singletonList( edited), read);
+		assertEquals( points[4], read.get( 0).getX( 2), 0.0005);
+	}
+
+	@Test
+	public void roomWithMorePointsThanSidesIsStoredByPoints() throws IOException{
+		double[] regular = Polygons.regular( 100, 100, 20, 0, 4);
+		double[] points = Arrays.copyOf( regular, 10);
+		points[8] = 120;
+		points[9] = 110;
+		List< RoomRecord> records = Collections.singletonList( new RoomRecord( 4, MapStyle.DEFAULT, points));
+		assertWithin( 0.001, records, read( write( new CompactMapCodec( 0.001, false), records)));
+	}
+
+	@Test
+	public void deflatedMapIsFlaggedSmallerAndSame() throws IOException{
+		List< RoomRecord> records = ExportersTest.randomMap( 5000, 28);
+		byte[] plain = write( new CompactMapCodec( 0.01, false), records);
+		byte[] deflated = write( new CompactMapCodec( 0.01, true), records);
+		assertEquals( 0, plain[5]);
+		assertEquals( 1, deflated[5]);
+		assertTrue( deflated.length + " vs " + plain.length, deflated.length < plain.length);
+		List< RoomRecord> fromPlain = read( plain);
+		List< RoomRecord> fromDeflated = read( deflated);
+		assertWithin( 0.01, records, fromDeflated);
+		for( int i = 0; i < records.size(); i++)
+			assertArrayEquals( fromPlain.get( i).copyPoints(), fromDeflated.get( i).copyPoints(), 0);
+	}
+
+	@Test
+	public void truncatedMapIsRejected() throws IOException{
+		byte[] bytes = write( new CompactMapCodec( 0.01, true), ExportersTest.randomMap( 100, 29));
+		try{
+			read( Arrays.copyOf( bytes, bytes.length / 2));
+			fail( "truncated map was read");
+		}catch( MapFormatException e){
+			assertTrue( e.getMessage(), e.getMessage().contains( "truncated"));
+		}
+	}
+
+	@Test
+	public void pointCountLargerThanFileIsTruncated() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( DataOutputStream out = new DataOutputStream( bytes)){
+			out.write( write( new CompactMapCodec( 0.01, false), Collections.< RoomRecord> emptyList()), 0, 14);
+			// polygon with style of its own and a billion points of which only one is there
+			out.writeByte( 1);
+			for( int color = 0; color < 2; color++){
+				out.write( new byte[3]);
+				out.writeDouble( 1);
+			}
+			out.writeDouble( 1);
+			CompactMapCodec.writeUnsigned( out, 4);
+			CompactMapCodec.writeUnsigned( out, 1000000000);
+			CompactMapCodec.writeSigned( out, 5);
+			CompactMapCodec.writeSigned( out, -5);
+		}
+		try{
+			read( bytes.toByteArray());
+			fail( "broken map was read");
+		}catch( MapFormatException e){
+			assertTrue( e.getMessage(), e.getMessage().contains( "truncated"));
+		}
+	}
+}
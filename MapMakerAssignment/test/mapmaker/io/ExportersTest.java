@@ -0,0 +1,154 @@
+package mapmaker.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import mapmaker.geom.Polygons;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * output of {@link SvgExporter} and {@link GeoJsonExporter}, exactly for a small map and parsed back for a large
+ * random one.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class ExportersTest{
+
+	private static final MapStyle HALF_RED = new MapStyle( new MapColor( 0xFF0000, 0.5), MapColor.BLACK, 1.5);
+
+	private static List< RoomRecord> smallMap(){
+		return Arrays.asList( new RoomRecord( 3, MapStyle.DEFAULT, new double[]{ 0, 0, 10, 0, 5, 8.5 }),
+				new RoomRecord( 4, HALF_RED, new double[]{ 0, 0, 0, 10, 10, 10, 10, 0 }),
+				new RoomRecord( 3, MapStyle.DEFAULT, new double[]{ 20, 0, 30, 0, 25, -4 }));
+	}
+
+	/**
+	 * <p>
+	 * rooms with random points, including fractions which need all 17 digits, and one of a few styles.</br>
+	 * </p>
+	 */
+	public static List< RoomRecord> randomMap( int rooms, long seed){
+		Random random = new Random( seed);
+		MapStyle[] styles = { MapStyle.DEFAULT, HALF_RED, new MapStyle( MapColor.BLACK, MapColor.LIGHTGREEN, 0.25) };
+		List< RoomRecord> records = new ArrayList<>( rooms);
+		for( int i = 0; i < rooms; i++){
+			int sides = 2 + random.nextInt( 6);
+			double[] points = Polygons.regular( random.nextDouble() * 10000, random.nextDouble() * 10000,
+					1 + random.nextDouble() * 50, random.nextDouble() * Math.PI, sides);
+			records.add( new RoomRecord( sides, styles[random.nextInt( styles.length)], points));
+		}
+		return records;
+	}
+
+	static String write( MapExporter exporter, List< RoomRecord> records) throws IOException{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try( RecordWriter writer = exporter.writer( out)){
+			for( RoomRecord record: records)
+				writer.accept( record);
+		}
+		return new String( out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void svgOfSmallMap() throws IOException{
+		assertEquals( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"30\" height=\"14\" viewBox=\"0 -4 30 14\">\n"
+				+ "<style>polygon{stroke-linecap:square;stroke-linejoin:miter;stroke-miterlimit:10}</style>\n"
+				+ "<style>.s0{fill:#90EE90;stroke:#006400;stroke-width:2}</style>\n"
+				+ "<polygon class=\"s0\" points=\"0,0 10,0 5,8.5\"/>\n"
+				+ "<style>.s1{fill:#FF0000;fill-opacity:0.5;stroke:#000000;stroke-width:1.5}</style>\n"
+				+ "<polygon class=\"s1\" points=\"0,0 0,10 10,10 10,0\"/>\n"
+				+ "<polygon class=\"s0\" points=\"20,0 30,0 25,-4\"/>\n"
+				+ "</svg>\n", write( new SvgExporter().withBounds( new double[]{ 0, -4, 30, 10 }), smallMap()));
+	}
+
+	@Test
+	public void svgWithoutBoundsHasNoSize() throws IOException{
+		assertTrue( write( new SvgExporter(), smallMap()).contains( "version=\"1.1\">\n"));
+	}
+
+	@Test
+	public void geoJsonOfSmallMap() throws IOException{
+		// y is negated and every ring is counter clockwise and closed
+		assertEquals( "{\"type\":\"FeatureCollection\",\"features\":[\n"
+				+ "{\"type\":\"Feature\",\"properties\":{\"sides\":3,\"fill\":\"#90EE90\",\"fill-opacity\":1,\"stroke\":\"#006400\",\"stroke-opacity\":1,\"stroke-width\":2},"
+				+ "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[5,-8.5],[10,0],[0,0]]]}},\n"
+				+ "{\"type\":\"Feature\",\"properties\":{\"sides\":4,\"fill\":\"#FF0000\",\"fill-opacity\":0.5,\"stroke\":\"#000000\",\"stroke-opacity\":1,\"stroke-width\":1.5},"
+				+ "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[0,-10],[10,-10],[10,0],[0,0]]]}},\n"
+				+ "{\"type\":\"Feature\",\"properties\":{\"sides\":3,\"fill\":\"#90EE90\",\"fill-opacity\":1,\"stroke\":\"#006400\",\"stroke-opacity\":1,\"stroke-width\":2},"
+				+ "\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[20,0],[30,0],[25,4],[20,0]]]}}\n"
+				+ "]}\n", write( MapCodecs.GEOJSON, smallMap()));
+	}
+
+	@Test
+	public void svgKeepsEveryPointExactly() throws Exception{
+		List< RoomRecord> records = randomMap( 2000, 36);
+		String svg = write( new SvgExporter(), records);
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+				.parse( new ByteArrayInputStream( svg.getBytes( StandardCharsets.UTF_8)));
+		NodeList polygons = document.getElementsByTagName( "polygon");
+		assertEquals( records.size(), polygons.getLength());
+		for( int i = 0; i < records.size(); i++){
+			String[] pairs = ((Element) polygons.item( i)).getAttribute( "points").split( " ");
+			RoomRecord record = records.get( i);
+			assertEquals( record.getPointCount(), pairs.length);
+			for( int p = 0; p < pairs.length; p++){
+				String[] xy = pairs[p].split( ",");
+				assertEquals( record.getX( p), Double.parseDouble( xy[0]), 0);
+				assertEquals( record.getY( p), Double.parseDouble( xy[1]), 0);
+			}
+		}
+		// 3 styles and the rule for all polygons
+		assertEquals( 4, document.getElementsByTagName( "style").getLength());
+	}
+
+	@Test
+	public void geoJsonKeepsEveryPointExactly() throws IOException{
+		List< RoomRecord> records = randomMap( 2000, 36);
+		Matcher rings = Pattern.compile( "\"coordinates\":\\[\\[(.*?)\\]\\]\\}").matcher( write( MapCodecs.GEOJSON, records));
+		for( RoomRecord record: records){
+			assertTrue( rings.find());
+			String[] pairs = rings.group( 1).replace( "],[", "|").replace( "[", "").replace( "]", "").split( "\\|");
+			int count = record.getPointCount();
+			assertEquals( count + 1, pairs.length);
+			assertEquals( pairs[0], pairs[count]);
+			double[] ring = new double[count * 2];
+			for( int p = 0; p < count; p++){
+				String[] xy = pairs[p].split( ",");
+				ring[p * 2] = Double.parseDouble( xy[0]);
+				ring[p * 2 + 1] = -Double.parseDouble( xy[1]);
+			}
+			// same points in same or reversed order, counter clockwise once y grows up
+			boolean reversed = Polygons.signedArea( record.copyPoints()) > 0;
+			for( int p = 0; p < count; p++){
+				int source = reversed ? (count - p) % count : p;
+				assertEquals( record.getX( source), ring[p * 2], 0);
+				assertEquals( record.getY( source), ring[p * 2 + 1], 0);
+			}
+			assertTrue( count < 3 || Polygons.signedArea( ring) <= 0);
+		}
+		assertTrue( !rings.find());
+	}
+}
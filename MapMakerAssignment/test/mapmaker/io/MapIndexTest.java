@@ -0,0 +1,134 @@
+package mapmaker.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * sidecar index of a text map, and stale or broken sidecars being found and rebuilt before anything big is
+ * allocated for them.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapIndexTest{
+
+	private Path directory;
+	private Path map;
+	private List< RoomRecord> records;
+
+	@Before
+	public void writeMap() throws IOException{
+		directory = Files.createTempDirectory( "mapindex");
+		map = directory.resolve( "random.map");
+		MapCodecs.TEXT.writeAll( map, ExportersTest.randomMap( 500, 37));
+		records = MapCodecs.TEXT.readAll( map);
+	}
+
+	@After
+	public void deleteFiles() throws IOException{
+		try( Stream< Path> files = Files.walk( directory)){
+			files.sorted( Comparator.reverseOrder()).forEach( path -> path.toFile().delete());
+		}
+	}
+
+	/**
+	 * @return header of a sidecar for given map size followed by given counts, nothing after them
+	 */
+	private static byte[] header( long mapSize, int... counts) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( DataOutputStream data = new DataOutputStream( bytes)){
+			data.writeBytes( MapIndex.MAGIC);
+			data.writeByte( 2);
+			data.writeLong( mapSize);
+			data.writeInt( 0);
+			for( int count: counts)
+				data.writeInt( count);
+		}
+		return bytes.toByteArray();
+	}
+
+	private void assertRebuilt() throws IOException{
+		assertNull( MapIndex.load( map));
+		MapIndex index = MapIndex.open( map);
+		assertEquals( records.size(), index.size());
+		assertNotNull( MapIndex.load( map));
+		List< RoomRecord> read = new ArrayList<>();
+		index.read( map, 0, index.size(), read::add);
+		assertEquals( records.size(), read.size());
+		for( int i = 0; i < records.size(); i++)
+			assertArrayEquals( records.get( i).copyPoints(), read.get( i).copyPoints(), 0);
+	}
+
+	@Test
+	public void openWritesAndReusesIndex() throws IOException{
+		MapIndex built = MapIndex.open( map);
+		assertTrue( Files.exists( MapIndex.sidecarOf( map)));
+		MapIndex loaded = MapIndex.load( map);
+		assertNotNull( loaded);
+		assertEquals( built.size(), loaded.size());
+		assertEquals( built.getStyleCount(), loaded.getStyleCount());
+		for( int i = 0; i < built.size(); i++)
+			assertArrayEquals( built.getBounds( i), loaded.getBounds( i), 0);
+	}
+
+	@Test
+	public void changedMapIsRebuilt() throws IOException{
+		MapIndex.open( map);
+		MapCodecs.TEXT.writeAll( map, records.subList( 0, 400));
+		records = records.subList( 0, 400);
+		assertRebuilt();
+	}
+
+	@Test
+	public void hugeStyleCountIsRejected() throws IOException{
+		Files.write( MapIndex.sidecarOf( map), header( Files.size( map), 0x7ffffff0));
+		assertRebuilt();
+	}
+
+	@Test
+	public void hugeRecordCountIsRejected() throws IOException{
+		Files.write( MapIndex.sidecarOf( map), header( Files.size( map), 0, 0x7ffffff0));
+		assertRebuilt();
+	}
+
+	@Test
+	public void countOfGarbageSidecarIsNotRead() throws IOException{
+		// only header and count of another map, rejected on size before count is looked at
+		Files.write( MapIndex.sidecarOf( map), header( 12345, 0x7ffffff0));
+		assertRebuilt();
+	}
+
+	@Test( expected = MapFormatException.class)
+	public void readRejectsCountsLargerThanFile() throws IOException{
+		Path sidecar = MapIndex.sidecarOf( map);
+		Files.write( sidecar, header( 0, 1, 0));
+		MapIndex.read( sidecar);
+	}
+
+	@Test( expected = MapFormatException.class)
+	public void readRejectsNegativeCounts() throws IOException{
+		Path sidecar = MapIndex.sidecarOf( map);
+		Files.write( sidecar, header( 0, 0, -1));
+		MapIndex.read( sidecar);
+	}
+}
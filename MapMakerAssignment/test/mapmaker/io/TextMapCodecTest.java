@@ -0,0 +1,132 @@
+package mapmaker.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * style table of text maps: each style is defined once by a <code>style id fill a stroke a width</code> line and
+ * records refer to it by id, read back to same rooms sharing one {@link MapStyle} per style. references to styles
+ * not defined before them are format errors.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class TextMapCodecTest{
+
+	private static final MapStyle RED = new MapStyle( new MapColor( 0xFF0000, 0.5), MapColor.BLACK, 1.5);
+	private static final MapStyle GREEN = new MapStyle( MapColor.BLACK, MapColor.LIGHTGREEN, 0.25);
+
+	private static List< RoomRecord> read( MapCodec codec, String text) throws IOException{
+		List< RoomRecord> records = new ArrayList<>();
+		codec.read( new ByteArrayInputStream( text.getBytes( StandardCharsets.UTF_8)), records::add);
+		return records;
+	}
+
+	private static List< String> lines( String text, String start){
+		List< String> lines = new ArrayList<>();
+		for( String line: text.split( "\r?\n"))
+			if( line.startsWith( start))
+				lines.add( line);
+		return lines;
+	}
+
+	private static void assertRejected( String text, String message) throws IOException{
+		try{
+			read( MapCodecs.TEXT, text);
+			fail( "broken map was read");
+		}catch( MapFormatException e){
+			assertTrue( e.getMessage(), e.getMessage().contains( message));
+		}
+	}
+
+	@Test
+	public void eachStyleIsDefinedOnceAndReferredTo() throws IOException{
+		List< RoomRecord> records = new ArrayList<>();
+		for( int i = 0; i < 9; i++)
+			records.add( new RoomRecord( 3, i % 3 == 0 ? MapStyle.DEFAULT : i % 3 == 1 ? RED : GREEN,
+					new double[]{ i, 0, i + 10, 0.1, i + 5, 8.5 }));
+		String text = ExportersTest.write( MapCodecs.TEXT, records);
+		assertEquals( Arrays.asList( "style 0 " + MapStyle.DEFAULT, "style 1 " + RED, "style 2 " + GREEN),
+				definitions( text));
+		// every record refers to its style instead of holding colors
+		assertEquals( 9, lines( text, "style ").size() - definitions( text).size());
+		assertTrue( lines( text, TextMapCodec.FILL + " ").isEmpty());
+		List< RoomRecord> read = read( MapCodecs.TEXT, text);
+		assertEquals( records, read);
+		// rooms of one style share it
+		assertSame( read.get( 1).getStyle(), read.get( 4).getStyle());
+		assertSame( read.get( 2).getStyle(), read.get( 8).getStyle());
+	}
+
+	/**
+	 * @return style definition lines, those with more than an id
+	 */
+	private static List< String> definitions( String text){
+		List< String> definitions = new ArrayList<>();
+		for( String line: lines( text, "style "))
+			if( line.trim().split( " ").length > 2)
+				definitions.add( line);
+		return definitions;
+	}
+
+	@Test
+	public void handWrittenTableIsRead() throws IOException{
+		String text = "style 7 #FF0000 0.500000 #000000 1.000000 1.5\n"
+				+ "style 3 #000000 1.000000 #90EE90 1.000000 0.25\n"
+				+ "sides 3\nstyle 3\npoints 0 0 10 0 5 8.5\n"
+				+ "sides 3\nfill #FF0000 0.500000\nstroke #000000 1.000000\nstrokeWidth 1.5\npoints 1 1 2 2 3 3\n"
+				+ "sides 4\nstyle 7\npoints 0 0 0 10 10 10 10 0\n";
+		List< RoomRecord> read = read( MapCodecs.TEXT, text);
+		assertEquals( 3, read.size());
+		assertEquals( GREEN, read.get( 0).getStyle());
+		assertEquals( RED, read.get( 1).getStyle());
+		assertEquals( RED, read.get( 2).getStyle());
+		// a record with its own colors equal to a table style shares that style
+		assertSame( read.get( 1).getStyle(), read.get( 2).getStyle());
+	}
+
+	@Test
+	public void undefinedStyleIsRejected() throws IOException{
+		assertRejected( "style 0 #FF0000 0.500000 #000000 1.000000 1.5\nsides 3\nstyle 1\npoints 0 0 10 0 5 8.5\n",
+				"line 3: style 1 is not defined");
+	}
+
+	@Test
+	public void styleUsedBeforeItsDefinitionIsRejected() throws IOException{
+		assertRejected( "sides 3\nstyle 0\npoints 0 0 10 0 5 8.5\nstyle 0 #FF0000 0.500000 #000000 1.000000 1.5\n",
+				"style 0 is not defined");
+	}
+
+	@Test
+	public void styleDefinedTwiceIsRejected() throws IOException{
+		assertRejected( "style 0 #FF0000 0.500000 #000000 1.000000 1.5\nstyle 0 #000000 1.000000 #90EE90 1.000000 0.25\n",
+				"line 2: style 0 is defined twice");
+	}
+
+	@Test
+	public void legacyFormatHasNoTableAndReadsSame() throws IOException{
+		List< RoomRecord> records = ExportersTest.randomMap( 200, 29);
+		String legacy = ExportersTest.write( MapCodecs.LEGACY_TEXT, records);
+		assertTrue( lines( legacy, "style ").isEmpty());
+		assertEquals( records, read( MapCodecs.TEXT, legacy));
+		String table = ExportersTest.write( MapCodecs.TEXT, records);
+		assertTrue( table.length() + " vs " + legacy.length(), table.length() < legacy.length());
+		assertEquals( read( MapCodecs.TEXT, legacy), read( MapCodecs.TEXT, table));
+	}
+}
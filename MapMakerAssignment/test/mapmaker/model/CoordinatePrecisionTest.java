@@ -0,0 +1,168 @@
+package mapmaker.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mapmaker.io.ExportersTest;
+import mapmaker.io.MapCodec;
+import mapmaker.io.MapCodecs;
+
+/**
+ * <p>
+ * {@link CoordinatePrecision#FLOAT} and {@link CoordinatePrecision#FIXED} keep every coordinate within
+ * {@link CoordinatePrecision#maxError(double)}, and a document saved and read back at same precision holds
+ * exactly same values as before.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class CoordinatePrecisionTest{
+
+	private Path file;
+
+	@Before
+	public void createFile() throws IOException{
+		file = Files.createTempFile( "precision", ".map");
+	}
+
+	@After
+	public void deleteFile() throws IOException{
+		Files.deleteIfExists( file);
+	}
+
+	/**
+	 * @return values spread over many magnitudes, with edges of range of {@link CoordinatePrecision#FIXED}
+	 */
+	private static double[] randomValues( long seed){
+		Random random = new Random( seed);
+		double[] values = new double[20000];
+		for( int i = 0; i < values.length; i++)
+			values[i] = (random.nextDouble() - 0.5) * Math.pow( 10, random.nextInt( 7));
+		values[0] = 2147483.6474;
+		values[1] = -2147483.6484;
+		values[2] = 0;
+		values[3] = -0.0005;
+		return values;
+	}
+
+	private static void assertWithinBound( CoordinatePrecision precision, double[] expected, Coordinates actual){
+		assertEquals( expected.length, actual.size());
+		assertEquals( precision, actual.precision());
+		for( int i = 0; i < expected.length; i++){
+			double error = Math.abs( expected[i] - actual.get( i));
+			assertTrue( expected[i] + " stored as " + actual.get( i), error <= precision.maxError( expected[i]));
+		}
+	}
+
+	@Test
+	public void floatIsWithinHalfAnUlp(){
+		double[] values = randomValues( 28);
+		assertWithinBound( CoordinatePrecision.FLOAT, values, Coordinates.of( values, CoordinatePrecision.FLOAT));
+	}
+
+	@Test
+	public void fixedIsWithinHalfAStep(){
+		double[] values = randomValues( 29);
+		assertWithinBound( CoordinatePrecision.FIXED, values, Coordinates.of( values, CoordinatePrecision.FIXED));
+	}
+
+	@Test
+	public void doubleIsExact(){
+		double[] values = randomValues( 30);
+		Coordinates coordinates = Coordinates.of( values.clone(), CoordinatePrecision.DOUBLE);
+		for( int i = 0; i < values.length; i++)
+			assertEquals( values[i], coordinates.get( i), 0);
+	}
+
+	@Test( expected = IllegalArgumentException.class)
+	public void fixedRejectsCoordinatesOutOfRange(){
+		Coordinates.of( new double[]{ 0, 2147484 }, CoordinatePrecision.FIXED);
+	}
+
+	@Test
+	public void compactPrecisionHalvesCoordinates(){
+		double[] values = randomValues( 31);
+		long doubles = Coordinates.of( values, CoordinatePrecision.DOUBLE).estimatedBytes();
+		for( CoordinatePrecision precision: new CoordinatePrecision[]{ CoordinatePrecision.FLOAT, CoordinatePrecision.FIXED })
+			assertEquals( 32 + (doubles - 32) / 2, Coordinates.of( values, precision).estimatedBytes());
+	}
+
+	/**
+	 * <p>
+	 * store a random map with given precision, save it with given codec and read it back at same precision.
+	 * every value read must be exactly what was stored, and within bound of original one.</br>
+	 * </p>
+	 */
+	private void assertRoundTrip( MapCodec codec, CoordinatePrecision precision) throws IOException{
+		List< RoomRecord> original = ExportersTest.randomMap( 3000, 28);
+		MapDocument document = new MapDocument( precision);
+		for( RoomRecord record: original)
+			document.add( record);
+		codec.writeAll( file, document.getRooms());
+		MapDocument read = codec.readDocument( file, precision);
+		assertEquals( original.size(), read.size());
+		for( int i = 0; i < original.size(); i++){
+			Coordinates stored = document.get( i).getCoordinates();
+			Coordinates loaded = read.get( i).getCoordinates();
+			assertEquals( precision, loaded.precision());
+			assertEquals( stored.size(), loaded.size());
+			for( int v = 0; v < stored.size(); v++)
+				assertEquals( codec.name() + " room " + i, stored.get( v), loaded.get( v), 0);
+			assertWithinBound( precision, original.get( i).copyPoints(), loaded);
+			assertEquals( original.get( i).getStyle(), read.get( i).getStyle());
+		}
+		// saving again what was read gives same file
+		byte[] first = Files.readAllBytes( file);
+		codec.writeAll( file, read.getRooms());
+		assertTrue( codec.name() + " changed when saved again", Arrays.equals( first, Files.readAllBytes( file)));
+	}
+
+	@Test
+	public void floatRoundTripsThroughText() throws IOException{
+		assertRoundTrip( MapCodecs.TEXT, CoordinatePrecision.FLOAT);
+	}
+
+	@Test
+	public void fixedRoundTripsThroughText() throws IOException{
+		assertRoundTrip( MapCodecs.TEXT, CoordinatePrecision.FIXED);
+	}
+
+	@Test
+	public void floatRoundTripsThroughBinary() throws IOException{
+		assertRoundTrip( MapCodecs.BINARY, CoordinatePrecision.FLOAT);
+	}
+
+	@Test
+	public void fixedRoundTripsThroughBinary() throws IOException{
+		assertRoundTrip( MapCodecs.BINARY, CoordinatePrecision.FIXED);
+	}
+
+	@Test
+	public void fixedRoundTripsThroughCompact() throws IOException{
+		assertRoundTrip( MapCodecs.COMPACT, CoordinatePrecision.FIXED);
+	}
+
+	@Test
+	public void floatToFixedAndBackStaysWithinBothBounds(){
+		List< RoomRecord> original = ExportersTest.randomMap( 500, 29);
+		for( RoomRecord record: original){
+			RoomRecord converted = record.withPrecision( CoordinatePrecision.FLOAT).withPrecision( CoordinatePrecision.FIXED);
+			double[] points = record.copyPoints();
+			for( int i = 0; i < points.length; i++)
+				assertEquals( points[i], converted.getCoordinates().get( i),
+						CoordinatePrecision.FLOAT.maxError( points[i]) + CoordinatePrecision.FIXED.maxError( points[i]));
+			assertTrue( converted.withPrecision( CoordinatePrecision.FIXED) == converted);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package mapmaker.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.geom.Polygons;
+
+/**
+ * <p>
+ * {@link MapDiff} finds unchanged rooms by fingerprint wherever they moved in paint order, pairs a room moved a
+ * little, restyled or with a corner dragged with its old version, and leaves rooms moved far as removed and
+ * added.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapDiffTest{
+
+	/**
+	 * @return given number of squares of side 20 on a grid 30 apart, so no two rooms overlap
+	 */
+	static List< RoomRecord> grid( int rooms){
+		List< RoomRecord> records = new ArrayList<>( rooms);
+		for( int i = 0; i < rooms; i++)
+			records.add( new RoomRecord( 4, MapStyle.DEFAULT, Polygons.regular( i % 100 * 30, i / 100 * 30, 10 * Math.sqrt( 2),
+					Math.PI / 4, 4)));
+		return records;
+	}
+
+	private static BitSet bits( int... indices){
+		BitSet bits = new BitSet();
+		for( int index: indices)
+			bits.set( index);
+		return bits;
+	}
+
+	@Test
+	public void sameMapIsEmpty(){
+		List< RoomRecord> base = grid( 50);
+		MapDiff diff = MapDiff.compare( base, new ArrayList<>( base));
+		assertTrue( diff.toString(), diff.isEmpty());
+		assertEquals( 50, diff.getUnchangedCount());
+		for( int i = 0; i < base.size(); i++)
+			assertEquals( i, diff.matchOf( i));
+	}
+
+	@Test
+	public void reorderedRoomsAreUnchanged(){
+		List< RoomRecord> base = grid( 10);
+		List< RoomRecord> after = new ArrayList<>( base);
+		after.add( after.remove( 0));
+		MapDiff diff = MapDiff.compare( base, after);
+		assertTrue( diff.toString(), diff.isEmpty());
+		assertEquals( 9, diff.matchOf( 0));
+		assertEquals( 0, diff.matchOf( 1));
+	}
+
+	@Test
+	public void repeatedRoomsAreMatchedInPaintOrder(){
+		List< RoomRecord> base = grid( 3);
+		base.add( base.get( 1));
+		List< RoomRecord> after = new ArrayList<>( base);
+		after.remove( 3);
+		MapDiff diff = MapDiff.compare( base, after);
+		assertEquals( 1, diff.matchOf( 1));
+		assertEquals( -1, diff.matchOf( 3));
+		assertEquals( bits( 3), diff.getRemoved());
+	}
+
+	@Test
+	public void smallChangesAreModified(){
+		List< RoomRecord> base = grid( 20);
+		List< RoomRecord> after = new ArrayList<>( base);
+		after.set( 2, base.get( 2).translate( 3, -2));
+		after.set( 5, base.get( 5).withStyle( new MapStyle( MapColor.BLACK, MapColor.LIGHTGREEN, 2)));
+		double[] points = base.get( 9).copyPoints();
+		points[0] += 4;
+		after.set( 9, new RoomRecord( 4, MapStyle.DEFAULT, points));
+		MapDiff diff = MapDiff.compare( base, after);
+		assertEquals( bits( 2, 5, 9), diff.getModified());
+		assertEquals( 2, diff.matchOf( 2));
+		assertEquals( 5, diff.matchOf( 5));
+		assertEquals( 9, diff.matchOf( 9));
+		assertTrue( diff.getAdded().isEmpty());
+		assertTrue( diff.getRemoved().isEmpty());
+		assertEquals( 17, diff.getUnchangedCount());
+	}
+
+	@Test
+	public void roomMovedFarIsRemovedAndAdded(){
+		List< RoomRecord> base = grid( 20);
+		List< RoomRecord> after = new ArrayList<>( base);
+		after.set( 4, base.get( 4).translate( 5000, 5000));
+		MapDiff diff = MapDiff.compare( base, after);
+		assertFalse( diff.isModified( 4));
+		assertEquals( bits( 4), diff.getRemoved());
+		assertEquals( bits( 4), diff.getAdded());
+	}
+
+	@Test
+	public void addedAndRemovedRooms(){
+		List< RoomRecord> base = grid( 20);
+		List< RoomRecord> after = new ArrayList<>( base.subList( 1, 20));
+		after.add( new RoomRecord( 3, MapStyle.DEFAULT, Polygons.regular( -500, -500, 10, 0, 3)));
+		MapDiff diff = MapDiff.compare( base, after);
+		assertEquals( bits( 0), diff.getRemoved());
+		assertEquals( bits( 19), diff.getAdded());
+		assertEquals( 19, diff.getUnchangedCount());
+	}
+}
@@ -0,0 +1,100 @@
+package mapmaker.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.geom.Polygons;
+import mapmaker.io.MapCodecs;
+import mapmaker.io.RecordWriter;
+
+/**
+ * <p>
+ * {@link MapDocument#restyle(int, MapStyle)} gives every room of a palette slot its new style, whichever way the
+ * room is read, and only those rooms.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapDocumentTest{
+
+	private static final MapStyle RED = new MapStyle( new MapColor( 0xFF0000, 0.5), MapColor.BLACK, 1.5);
+	private static final MapStyle GREEN = new MapStyle( MapColor.BLACK, MapColor.LIGHTGREEN, 0.25);
+	private static final MapStyle BLUE = new MapStyle( new MapColor( 0x0000FF, 1), MapColor.BLACK, 3);
+
+	/**
+	 * @return document of given number of rooms, every third one {@link #RED}, others default
+	 */
+	private static MapDocument document( int rooms){
+		MapDocument document = new MapDocument();
+		for( int i = 0; i < rooms; i++)
+			document.add( new RoomRecord( 4, i % 3 == 0 ? RED : MapStyle.DEFAULT, Polygons.regular( i * 30, 0, 10, 0, 4)));
+		return document;
+	}
+
+	@Test
+	public void restyleChangesEveryRoomOfStyle(){
+		MapDocument document = document( 30);
+		int red = document.getStyleIndex( 0);
+		assertEquals( red, document.getStyleIndex( 3));
+		assertEquals( RED, document.restyle( red, GREEN));
+		for( int i = 0; i < document.size(); i++)
+			assertEquals( "room " + i, i % 3 == 0 ? GREEN : MapStyle.DEFAULT, document.get( i).getStyle());
+		int index = 0;
+		for( RoomRecord room: document)
+			assertEquals( "room " + index, index++ % 3 == 0 ? GREEN : MapStyle.DEFAULT, room.getStyle());
+	}
+
+	@Test
+	public void restyledRoomsKeepTheirPoints(){
+		MapDocument document = document( 6);
+		List< RoomRecord> before = new ArrayList<>( document.getRooms());
+		document.restyle( document.getStyleIndex( 1), BLUE);
+		for( int i = 0; i < document.size(); i++){
+			assertEquals( before.get( i).getCoordinates().size(), document.get( i).getCoordinates().size());
+			for( int p = 0; p < before.get( i).getPointCount(); p++){
+				assertEquals( before.get( i).getX( p), document.get( i).getX( p), 0);
+				assertEquals( before.get( i).getY( p), document.get( i).getY( p), 0);
+			}
+		}
+	}
+
+	@Test
+	public void roomAddedAfterRestyleUsesSlotOfItsStyle(){
+		MapDocument document = document( 6);
+		int red = document.getStyleIndex( 0);
+		document.restyle( red, BLUE);
+		// red is no longer in palette, so a red room gets a slot of its own
+		document.add( new RoomRecord( 3, RED, Polygons.regular( 0, 100, 10, 0, 3)));
+		document.add( new RoomRecord( 3, BLUE, Polygons.regular( 0, 200, 10, 0, 3)));
+		assertEquals( RED, document.get( 6).getStyle());
+		assertEquals( red, document.getStyleIndex( 7));
+		document.restyle( red, GREEN);
+		assertEquals( RED, document.get( 6).getStyle());
+		assertEquals( GREEN, document.get( 7).getStyle());
+		assertEquals( GREEN, document.get( 0).getStyle());
+	}
+
+	@Test
+	public void restyledDocumentIsSavedWithNewStyle() throws IOException{
+		MapDocument document = document( 9);
+		document.restyle( document.getStyleIndex( 0), GREEN);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( RecordWriter writer = MapCodecs.TEXT.writer( bytes)){
+			for( RoomRecord room: document)
+				writer.accept( room);
+		}
+		List< RoomRecord> read = new ArrayList<>();
+		MapCodecs.TEXT.read( new ByteArrayInputStream( bytes.toByteArray()), read::add);
+		assertEquals( document.getRooms(), read);
+		assertSame( read.get( 0).getStyle(), read.get( 6).getStyle());
+		assertEquals( GREEN, read.get( 3).getStyle());
+	}
+}
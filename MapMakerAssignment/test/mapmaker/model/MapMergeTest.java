@@ -0,0 +1,148 @@
+package mapmaker.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.geom.Polygons;
+
+/**
+ * <p>
+ * each rule of {@link MapMerge} on a base of squares none of which overlap, see {@link MapDiffTest#grid(int)}.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapMergeTest{
+
+	private static final MapStyle GREEN = new MapStyle( MapColor.BLACK, MapColor.LIGHTGREEN, 2);
+
+	private final List< RoomRecord> base = MapDiffTest.grid( 10);
+	private final List< RoomRecord> ours = new ArrayList<>( base);
+	private final List< RoomRecord> theirs = new ArrayList<>( base);
+
+	private static RoomRecord triangle( double x, double y){
+		return new RoomRecord( 3, MapStyle.DEFAULT, Polygons.regular( x, y, 10, 0, 3));
+	}
+
+	private MapMerge merge(){
+		return MapMerge.merge( base, ours, theirs);
+	}
+
+	@Test
+	public void unchangedSidesGiveBase(){
+		MapMerge merge = merge();
+		assertEquals( base, merge.getRooms());
+		assertTrue( merge.getConflicts().isEmpty());
+	}
+
+	@Test
+	public void changeOnOneSideIsTaken(){
+		RoomRecord moved = base.get( 2).translate( 3, 3);
+		RoomRecord styled = base.get( 6).withStyle( GREEN);
+		ours.set( 2, moved);
+		theirs.set( 6, styled);
+		MapMerge merge = merge();
+		List< RoomRecord> expected = new ArrayList<>( base);
+		expected.set( 2, moved);
+		expected.set( 6, styled);
+		assertEquals( expected, merge.getRooms());
+		assertTrue( merge.getConflicts().isEmpty());
+	}
+
+	@Test
+	public void removeOnOneSideIsTaken(){
+		ours.remove( 7);
+		theirs.remove( 1);
+		MapMerge merge = merge();
+		List< RoomRecord> expected = new ArrayList<>( base);
+		expected.remove( 7);
+		expected.remove( 1);
+		assertEquals( expected, merge.getRooms());
+		assertTrue( merge.getConflicts().isEmpty());
+	}
+
+	@Test
+	public void sameChangeOnBothSidesIsNoConflict(){
+		ours.set( 4, base.get( 4).translate( -2, 1));
+		theirs.set( 4, base.get( 4).translate( -2, 1));
+		ours.remove( 8);
+		theirs.remove( 8);
+		MapMerge merge = merge();
+		List< RoomRecord> expected = new ArrayList<>( base);
+		expected.set( 4, base.get( 4).translate( -2, 1));
+		expected.remove( 8);
+		assertEquals( expected, merge.getRooms());
+		assertTrue( merge.getConflicts().isEmpty());
+	}
+
+	@Test
+	public void differentChangesConflictAndOursIsKept(){
+		ours.set( 3, base.get( 3).translate( 4, 0));
+		theirs.set( 3, base.get( 3).withStyle( GREEN));
+		MapMerge merge = merge();
+		assertSame( ours.get( 3), merge.getRooms().get( 3));
+		assertEquals( 1, merge.getConflicts().size());
+		MapMerge.Conflict conflict = merge.getConflicts().get( 0);
+		assertEquals( 3, conflict.getBase());
+		assertSame( ours.get( 3), conflict.getOurs());
+		assertSame( theirs.get( 3), conflict.getTheirs());
+	}
+
+	@Test
+	public void changeAgainstRemoveConflictsAndKeepsChange(){
+		ours.set( 5, base.get( 5).translate( 0, 2));
+		theirs.remove( 5);
+		theirs.set( 0, base.get( 0).withStyle( GREEN));
+		ours.remove( 0);
+		MapMerge merge = merge();
+		List< RoomRecord> expected = new ArrayList<>( base);
+		expected.set( 0, theirs.get( 0));
+		expected.set( 5, ours.get( 4));
+		assertEquals( expected, merge.getRooms());
+		assertEquals( 2, merge.getConflicts().size());
+		MapMerge.Conflict removedByOurs = merge.getConflicts().get( 0);
+		assertEquals( 0, removedByOurs.getBase());
+		assertNull( removedByOurs.getOurs());
+		assertSame( theirs.get( 0), removedByOurs.getTheirs());
+		MapMerge.Conflict removedByTheirs = merge.getConflicts().get( 1);
+		assertEquals( 5, removedByTheirs.getBase());
+		assertSame( ours.get( 4), removedByTheirs.getOurs());
+		assertNull( removedByTheirs.getTheirs());
+	}
+
+	@Test
+	public void roomAddedOnBothSidesIsAddedOnce(){
+		RoomRecord both = triangle( 1000, 1000);
+		RoomRecord onlyOurs = triangle( 2000, 1000);
+		RoomRecord onlyTheirs = triangle( 3000, 1000);
+		ours.add( both);
+		ours.add( onlyOurs);
+		theirs.add( onlyTheirs);
+		theirs.add( both);
+		MapMerge merge = merge();
+		List< RoomRecord> expected = new ArrayList<>( base);
+		expected.addAll( Arrays.asList( both, onlyOurs, onlyTheirs));
+		assertEquals( expected, merge.getRooms());
+		assertTrue( merge.getConflicts().isEmpty());
+	}
+
+	@Test
+	public void roomAddedTwiceByOneSideAndOnceByOtherIsAddedTwice(){
+		RoomRecord pasted = triangle( 1000, 1000);
+		ours.add( pasted);
+		ours.add( pasted);
+		theirs.add( pasted);
+		List< RoomRecord> rooms = merge().getRooms();
+		assertEquals( base.size() + 2, rooms.size());
+		assertEquals( pasted, rooms.get( base.size()));
+		assertEquals( pasted, rooms.get( base.size() + 1));
+	}
+}
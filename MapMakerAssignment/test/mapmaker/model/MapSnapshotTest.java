@@ -0,0 +1,122 @@
+package mapmaker.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.geom.Polygons;
+
+/**
+ * <p>
+ * {@link MapSnapshot} taken the way an editor takes it, from transients of rooms by id and their paint order
+ * stamps, lists rooms in paint order and keeps them while editor goes on.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class MapSnapshotTest{
+
+	/**
+	 * <p>
+	 * rooms by id and paint order of an editor, like {@link mapmaker.MapAreaSkeleton} keeps them.</br>
+	 * </p>
+	 */
+	private final PersistentVector.Transient< RoomRecord> rooms = PersistentVector.< RoomRecord> empty().asTransient();
+	private final PersistentVector.Transient< Long> paintOrder = PersistentVector.< Long> empty().asTransient();
+	private final List< RoomRecord> made = new ArrayList<>();
+	private int count;
+	private long stamp;
+
+	private static RoomRecord room( int i){
+		return new RoomRecord( 3 + i % 5, MapStyle.DEFAULT, Polygons.regular( i * 10, i % 7, 4, 0, 3 + i % 5));
+	}
+
+	private void add( int id){
+		rooms.set( id, made.get( id));
+		paintOrder.set( id, stamp++);
+		count++;
+	}
+
+	private void remove( int id){
+		rooms.set( id, null);
+		paintOrder.set( id, null);
+		count--;
+	}
+
+	private void toFront( int id){
+		paintOrder.set( id, stamp++);
+	}
+
+	private MapSnapshot snapshot(){
+		return new MapSnapshot( rooms.persistent(), paintOrder.persistent(), count);
+	}
+
+	private List< RoomRecord> rooms( int... ids){
+		List< RoomRecord> list = new ArrayList<>();
+		for( int id: ids)
+			list.add( made.get( id));
+		return list;
+	}
+
+	@Test
+	public void roomsAreListedInPaintOrder(){
+		for( int i = 0; i < 5; i++){
+			made.add( room( i));
+			add( i);
+		}
+		toFront( 1);
+		remove( 3);
+		toFront( 0);
+		MapSnapshot snapshot = snapshot();
+		assertEquals( 4, snapshot.getRoomCount());
+		assertEquals( 5, snapshot.capacity());
+		assertNull( snapshot.get( 3));
+		assertEquals( rooms( 2, 4, 1, 0), snapshot.inPaintOrder());
+	}
+
+	@Test
+	public void snapshotIsKeptWhileEditorGoesOn(){
+		int size = 1024 + 40;
+		for( int i = 0; i < size; i++){
+			made.add( room( i));
+			add( i);
+		}
+		MapSnapshot snapshot = snapshot();
+		List< RoomRecord> before = snapshot.inPaintOrder();
+		assertEquals( made, before);
+		for( int i = 0; i < size; i += 2)
+			remove( i);
+		for( int i = 1; i < size; i += 4)
+			toFront( i);
+		for( int i = size; i < size + 2000; i++){
+			made.add( room( i));
+			add( i);
+		}
+		rooms.set( 7, room( 1));
+		assertEquals( before, snapshot.inPaintOrder());
+		assertEquals( size, snapshot.getRoomCount());
+		assertEquals( made.get( 7), snapshot.get( 7));
+		MapSnapshot after = snapshot();
+		assertNull( after.get( 0));
+		// rooms left where they were, then those brought to front, then new ones
+		List< RoomRecord> expected = new ArrayList<>();
+		for( int i = 3; i < size; i += 4)
+			expected.add( i == 7 ? room( 1) : made.get( i));
+		for( int i = 1; i < size; i += 4)
+			expected.add( made.get( i));
+		expected.addAll( made.subList( size, size + 2000));
+		assertEquals( expected, after.inPaintOrder());
+		assertEquals( size / 2 + 2000, after.getRoomCount());
+	}
+
+	@Test
+	public void emptySnapshotHasNoRooms(){
+		assertEquals( Arrays.asList(), MapSnapshot.EMPTY.inPaintOrder());
+		assertEquals( 0, MapSnapshot.EMPTY.getRoomCount());
+	}
+}
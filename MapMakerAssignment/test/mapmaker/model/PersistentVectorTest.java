@@ -0,0 +1,149 @@
+package mapmaker.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * <p>
+ * vectors taken from a {@link PersistentVector.Transient} keep their content whatever the transient does after,
+ * including when it grows past {@value #LEAF} and {@value #BRANCH} slots and gets another level of nodes.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class PersistentVectorTest{
+
+	/**
+	 * <p>
+	 * slots of one leaf node and of a tree of two levels.</br>
+	 * </p>
+	 */
+	private static final int LEAF = 32, BRANCH = 1024;
+
+	private static final int[] SIZES = { 1, LEAF - 1, LEAF, LEAF + 1, BRANCH - 1, BRANCH, BRANCH + 1, BRANCH * LEAF + 1 };
+
+	private static PersistentVector.Transient< Integer> filled( int size){
+		PersistentVector.Transient< Integer> edit = PersistentVector.< Integer> empty().asTransient();
+		for( int i = 0; i < size; i++)
+			edit.set( i, i);
+		return edit;
+	}
+
+	private static void assertFilled( int size, PersistentVector< Integer> vector){
+		assertEquals( size, vector.size());
+		for( int i = 0; i < size; i++)
+			assertEquals( "slot " + i + " of " + size, Integer.valueOf( i), vector.get( i));
+		assertNull( vector.get( size));
+		assertNull( vector.get( -1));
+	}
+
+	@Test
+	public void snapshotIsKeptWhenTransientOverwrites(){
+		for( int size: SIZES){
+			PersistentVector.Transient< Integer> edit = filled( size);
+			PersistentVector< Integer> snapshot = edit.persistent();
+			for( int i = 0; i < size; i++)
+				edit.set( i, -i - 1);
+			assertFilled( size, snapshot);
+			for( int i = 0; i < size; i++)
+				assertEquals( Integer.valueOf( -i - 1), edit.get( i));
+		}
+	}
+
+	@Test
+	public void snapshotIsKeptWhenTransientGrows(){
+		for( int size: SIZES){
+			PersistentVector.Transient< Integer> edit = filled( size);
+			PersistentVector< Integer> snapshot = edit.persistent();
+			// past next boundary, root of transient gets another level above shared one
+			int grown = size < LEAF ? LEAF + 1 : size < BRANCH ? BRANCH + 1 : BRANCH * LEAF * 2;
+			for( int i = size; i < grown; i++)
+				edit.set( i, i);
+			edit.set( 0, -1);
+			assertFilled( size, snapshot);
+			assertEquals( grown, edit.size());
+			assertEquals( Integer.valueOf( -1), edit.get( 0));
+			assertEquals( Integer.valueOf( grown - 1), edit.get( grown - 1));
+		}
+	}
+
+	@Test
+	public void snapshotIsKeptWhenTransientRemoves(){
+		for( int size: SIZES){
+			PersistentVector.Transient< Integer> edit = filled( size);
+			PersistentVector< Integer> snapshot = edit.persistent();
+			for( int i = 0; i < size; i += 3)
+				edit.set( i, null);
+			PersistentVector< Integer> removed = edit.persistent();
+			edit.clear();
+			edit.set( 5, 5);
+			assertFilled( size, snapshot);
+			assertEquals( size, removed.size());
+			for( int i = 0; i < size; i++)
+				assertEquals( i % 3 == 0 ? null : Integer.valueOf( i), removed.get( i));
+			assertEquals( 6, edit.size());
+		}
+	}
+
+	@Test
+	public void everySnapshotKeepsItsOwnVersion(){
+		PersistentVector.Transient< Integer> edit = filled( BRANCH + LEAF);
+		List< PersistentVector< Integer>> versions = new ArrayList<>();
+		for( int version = 0; version < 5; version++){
+			versions.add( edit.persistent());
+			for( int i = version; i < BRANCH + LEAF; i += 7)
+				edit.set( i, version * 100000 + i);
+		}
+		PersistentVector.Transient< Integer> expected = filled( BRANCH + LEAF);
+		for( int version = 0; version < 5; version++){
+			for( int i = 0; i < BRANCH + LEAF; i++)
+				assertEquals( "slot " + i + " of version " + version, expected.get( i), versions.get( version).get( i));
+			for( int i = version; i < BRANCH + LEAF; i += 7)
+				expected.set( i, version * 100000 + i);
+		}
+	}
+
+	@Test
+	public void setOnVectorLeavesItUnchanged(){
+		PersistentVector< Integer> vector = filled( BRANCH).persistent();
+		PersistentVector< Integer> changed = vector.set( 100, -1).set( BRANCH * 3, -2);
+		assertFilled( BRANCH, vector);
+		assertEquals( Integer.valueOf( -1), changed.get( 100));
+		assertEquals( Integer.valueOf( -2), changed.get( BRANCH * 3));
+		assertEquals( BRANCH * 3 + 1, changed.size());
+		assertNull( changed.get( BRANCH * 2));
+	}
+
+	@Test
+	public void forEachSkipsEmptySlotsInOrder(){
+		PersistentVector.Transient< Integer> edit = PersistentVector.< Integer> empty().asTransient();
+		int[] indices = { 3, 31, 32, 1000, 1024, 5000 };
+		for( int index: indices)
+			edit.set( index, index);
+		List< Integer> seen = new ArrayList<>();
+		edit.persistent().forEach( ( index, value) -> {
+			assertEquals( Integer.valueOf( index), value);
+			seen.add( index);
+		});
+		List< Integer> expected = new ArrayList<>();
+		for( int index: indices)
+			expected.add( index);
+		assertEquals( expected, seen);
+	}
+
+	@Test
+	public void negativeIndexIsRejected(){
+		try{
+			PersistentVector.< Integer> empty().asTransient().set( -1, 1);
+			fail( "negative index was written");
+		}catch( IndexOutOfBoundsException e){
+			// expected
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package mapmaker.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.geom.Polygons;
+
+/**
+ * <p>
+ * {@link RoomFingerprint} tells rooms apart by sides, style and points rounded to its quantum, and
+ * {@link RoomFingerprint#dedupe(List)} keeps first of repeated rooms in paint order.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class RoomFingerprintTest{
+
+	private static final RoomRecord ROOM = new RoomRecord( 5, MapStyle.DEFAULT, Polygons.regular( 100, 200, 30, 0.2, 5));
+
+	@Test
+	public void sameRoomWithinQuantumHasSameFingerprint(){
+		RoomRecord copy = new RoomRecord( 5, MapStyle.DEFAULT, ROOM.copyPoints());
+		assertEquals( RoomFingerprint.of( ROOM), RoomFingerprint.of( copy));
+		// saved with float precision, far below quantum
+		assertEquals( RoomFingerprint.of( ROOM), RoomFingerprint.of( ROOM.withPrecision( CoordinatePrecision.FLOAT)));
+	}
+
+	@Test
+	public void anyDifferenceChangesFingerprint(){
+		long fingerprint = RoomFingerprint.of( ROOM);
+		assertNotEquals( fingerprint, RoomFingerprint.of( ROOM.translate( 0.01, 0)));
+		assertNotEquals( fingerprint, RoomFingerprint.of( ROOM.withStyle( new MapStyle( MapColor.BLACK, MapColor.LIGHTGREEN, 1))));
+		assertNotEquals( fingerprint, RoomFingerprint.of( new RoomRecord( 6, MapStyle.DEFAULT, ROOM.copyPoints())));
+		// same outline starting from another corner
+		double[] points = ROOM.copyPoints();
+		double[] rotated = Arrays.copyOf( Arrays.copyOfRange( points, 2, points.length), points.length);
+		rotated[points.length - 2] = points[0];
+		rotated[points.length - 1] = points[1];
+		assertNotEquals( fingerprint, RoomFingerprint.of( new RoomRecord( 5, MapStyle.DEFAULT, rotated)));
+	}
+
+	@Test
+	public void dedupeKeepsFirstOfRepeatedRooms(){
+		List< RoomRecord> rooms = new ArrayList<>( MapDiffTest.grid( 5));
+		rooms.add( 1, rooms.get( 3));
+		rooms.add( rooms.get( 0));
+		rooms.add( rooms.get( 0));
+		BitSet duplicates = new BitSet();
+		duplicates.set( 4);
+		duplicates.set( 6, 8);
+		assertEquals( duplicates, RoomFingerprint.duplicates( rooms));
+		assertEquals( Arrays.asList( rooms.get( 0), rooms.get( 1), rooms.get( 2), rooms.get( 3), rooms.get( 5)),
+				RoomFingerprint.dedupe( rooms));
+	}
+
+	@Test
+	public void mapWithoutRepeatsIsKept(){
+		List< RoomRecord> rooms = MapDiffTest.grid( 100);
+		assertEquals( rooms, RoomFingerprint.dedupe( rooms));
+	}
+}
@@ -0,0 +1,207 @@
+package mapmaker.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Test;
+
+import mapmaker.model.MapSnapshot;
+
+/**
+ * <p>
+ * {@link GeometryService} without JavaFX. publisher only queues callbacks and test runs them, the way UI thread
+ * would. queries are held on latches so a newer query is always submitted while the older one still runs.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class GeometryServiceTest{
+
+	private static final long TIMEOUT = 5000;
+
+	private final BlockingQueue< Runnable> published = new LinkedBlockingQueue<>();
+	private final GeometryService service = new GeometryService( 2, published::add);
+	private final List< Object> results = new ArrayList<>();
+	private final List< RuntimeException> failures = new ArrayList<>();
+
+	@After
+	public void shutdown(){
+		service.shutdown();
+	}
+
+	private static void await( CountDownLatch latch){
+		try{
+			assertTrue( "query was not reached", latch.await( TIMEOUT, TimeUnit.MILLISECONDS));
+		}catch( InterruptedException e){
+			throw new AssertionError( e);
+		}
+	}
+
+	/**
+	 * <p>
+	 * run given number of published callbacks, waiting for each.</br>
+	 * </p>
+	 */
+	private void publish( int count) throws InterruptedException{
+		for( int i = 0; i < count; i++){
+			Runnable callback = published.poll( TIMEOUT, TimeUnit.MILLISECONDS);
+			assertNotNull( "nothing was published", callback);
+			callback.run();
+		}
+	}
+
+	private < T> void submit( String channel, Function< GeometrySnapshot, T> query){
+		service.submit( channel, query, results::add, failures::add);
+	}
+
+	@Test
+	public void newerQueryCancelsRunningOne() throws InterruptedException{
+		CountDownLatch started = new CountDownLatch( 1);
+		CountDownLatch interrupted = new CountDownLatch( 1);
+		submit( "select", snapshot -> {
+			started.countDown();
+			try{
+				new CountDownLatch( 1).await();
+			}catch( InterruptedException e){
+				interrupted.countDown();
+				throw new CancellationException();
+			}
+			return "stale";
+		});
+		await( started);
+		submit( "select", snapshot -> "latest");
+		await( interrupted);
+		publish( 1);
+		assertEquals( Collections.singletonList( "latest"), results);
+		assertTrue( failures.isEmpty());
+		assertTrue( service.isIdle());
+		assertTrue( published.isEmpty());
+	}
+
+	@Test
+	public void staleResultIsDroppedWhenQueryIgnoresCancel() throws InterruptedException{
+		CountDownLatch started = new CountDownLatch( 1);
+		CountDownLatch release = new CountDownLatch( 1);
+		submit( "select", snapshot -> {
+			started.countDown();
+			// finishes whatever happens, as a query not checking for interruption does
+			while( true){
+				try{
+					release.await();
+					return "stale";
+				}catch( InterruptedException e){
+					// keep waiting
+				}
+			}
+		});
+		await( started);
+		submit( "select", snapshot -> "latest");
+		publish( 1);
+		assertTrue( service.isIdle());
+		// older query publishes too, but its callback sees it is no longer latest
+		release.countDown();
+		publish( 1);
+		assertEquals( Collections.singletonList( "latest"), results);
+		assertTrue( service.isIdle());
+	}
+
+	@Test
+	public void channelsDoNotCancelEachOther() throws InterruptedException{
+		CountDownLatch release = new CountDownLatch( 1);
+		submit( "select", snapshot -> {
+			await( release);
+			return "select";
+		});
+		submit( "snap", snapshot -> "snap");
+		publish( 1);
+		assertFalse( service.isIdle());
+		release.countDown();
+		publish( 1);
+		assertEquals( Arrays.asList( "snap", "select"), results);
+		assertTrue( service.isIdle());
+	}
+
+	@Test
+	public void failureIsReported() throws InterruptedException{
+		IllegalStateException thrown = new IllegalStateException( "broken query");
+		submit( "select", snapshot -> {
+			throw thrown;
+		});
+		publish( 1);
+		assertTrue( results.isEmpty());
+		assertEquals( 1, failures.size());
+		assertSame( thrown, failures.get( 0));
+		assertTrue( service.isIdle());
+	}
+
+	@Test
+	public void staleFailureIsDropped() throws InterruptedException{
+		CountDownLatch started = new CountDownLatch( 1);
+		CountDownLatch release = new CountDownLatch( 1);
+		submit( "select", snapshot -> {
+			started.countDown();
+			while( release.getCount() > 0)
+				Thread.yield();
+			throw new IllegalStateException( "stale failure");
+		});
+		await( started);
+		submit( "select", snapshot -> "latest");
+		publish( 1);
+		release.countDown();
+		publish( 1);
+		assertEquals( Collections.singletonList( "latest"), results);
+		assertTrue( failures.isEmpty());
+	}
+
+	@Test
+	public void cancelledChannelPublishesNothing() throws InterruptedException{
+		CountDownLatch started = new CountDownLatch( 1);
+		CountDownLatch release = new CountDownLatch( 1);
+		submit( "select", snapshot -> {
+			started.countDown();
+			while( release.getCount() > 0)
+				Thread.yield();
+			return "cancelled";
+		});
+		await( started);
+		assertFalse( service.isIdle());
+		service.cancel( "select");
+		assertTrue( service.isIdle());
+		release.countDown();
+		publish( 1);
+		assertTrue( results.isEmpty());
+	}
+
+	@Test
+	public void queryKeepsSnapshotItWasSubmittedWith() throws InterruptedException{
+		GeometrySnapshot first = GeometrySnapshot.of( MapSnapshot.EMPTY);
+		GeometrySnapshot second = GeometrySnapshot.of( MapSnapshot.EMPTY);
+		service.update( first);
+		CountDownLatch release = new CountDownLatch( 1);
+		submit( "select", snapshot -> {
+			await( release);
+			return snapshot;
+		});
+		service.update( second);
+		submit( "snap", snapshot -> snapshot);
+		release.countDown();
+		publish( 2);
+		assertTrue( results.toString(), results.contains( first) && results.contains( second));
+		assertSame( second, service.getSnapshot());
+	}
+}
@@ -0,0 +1,135 @@
+package mapmaker.sync;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * every frame and operation of {@link SyncProtocol} written and read back, including repeated moves sent as a
+ * count of 0.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class SyncProtocolTest{
+
+	private static final MapStyle RED = new MapStyle( new MapColor( 0xff0000, 0.5), MapColor.BLACK, 2.5);
+	private static final RoomRecord ROOM = new RoomRecord( 3, RED, new double[]{ 0, 0, 10.25, -3, 5, 7e9 });
+	/**
+	 * <p>
+	 * id of a room added by editor 7, high 32 bits set.</br>
+	 * </p>
+	 */
+	private static final long BIG_ID = 7L << 32 | 123456;
+
+	private static SyncProtocol.Reader reader( ByteArrayOutputStream bytes) throws IOException{
+		return new SyncProtocol.Reader( new ByteArrayInputStream( bytes.toByteArray()));
+	}
+
+	private static void assertRoom( RoomRecord expected, RoomRecord actual){
+		assertEquals( expected.getSides(), actual.getSides());
+		assertEquals( expected.getStyle(), actual.getStyle());
+		assertArrayEquals( expected.copyPoints(), actual.copyPoints(), 0);
+	}
+
+	@Test
+	public void helloRoundTrips() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( SyncProtocol.Writer writer = new SyncProtocol.Writer( bytes)){
+			writer.hello( 3, 1L << 40, 100000);
+		}
+		SyncProtocol.Reader reader = reader( bytes);
+		SyncProtocol.Frame hello = reader.read();
+		assertEquals( SyncProtocol.HELLO, hello.getType());
+		assertEquals( 3, hello.getClient());
+		assertEquals( 1L << 40, hello.getVersion());
+		assertEquals( 100000, hello.getRooms());
+		assertTrue( hello.getOps().isEmpty());
+		assertNull( reader.read());
+	}
+
+	@Test
+	public void everyOperationRoundTrips() throws IOException{
+		MapStyle blue = new MapStyle( MapColor.BLACK, new MapColor( 0x0000ff, 1), 0.25);
+		List< SyncOp> ops = Arrays.asList( SyncOp.add( BIG_ID, ROOM), SyncOp.remove( 5), SyncOp.geometry( BIG_ID,
+				new double[]{ -1.5, 2, 3, -4 }), SyncOp.style( 0, blue), SyncOp.move( -0.5, 1e-3, new long[]{ BIG_ID, 3, 1 }),
+				SyncOp.set( 9, 42, ROOM));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( SyncProtocol.Writer writer = new SyncProtocol.Writer( bytes)){
+			writer.batch( 17, ops);
+		}
+		SyncProtocol.Frame frame = reader( bytes).read();
+		assertEquals( SyncProtocol.BATCH, frame.getType());
+		assertEquals( 17, frame.getVersion());
+		List< SyncOp> read = frame.getOps();
+		assertEquals( ops.size(), read.size());
+		for( int i = 0; i < ops.size(); i++)
+			assertSame( ops.get( i).getKind(), read.get( i).getKind());
+		assertEquals( BIG_ID, read.get( 0).getRoom());
+		assertRoom( ROOM, read.get( 0).getRecord());
+		assertEquals( 5, read.get( 1).getRoom());
+		assertArrayEquals( new double[]{ -1.5, 2, 3, -4 }, read.get( 2).getPoints(), 0);
+		assertEquals( blue, read.get( 3).getStyle());
+		assertEquals( -0.5, read.get( 4).getDeltaX(), 0);
+		assertEquals( 1e-3, read.get( 4).getDeltaY(), 0);
+		// rooms of a move are sent sorted
+		assertArrayEquals( new long[]{ 1, 3, BIG_ID }, read.get( 4).getRooms());
+		assertEquals( 9, read.get( 5).getRoom());
+		assertEquals( 42, read.get( 5).getVersion());
+		assertRoom( ROOM, read.get( 5).getRecord());
+	}
+
+	@Test
+	public void repeatedMoveSendsOnlyItsDistance() throws IOException{
+		long[] rooms = new long[1000];
+		for( int i = 0; i < rooms.length; i++)
+			rooms[i] = i * 3;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		SyncProtocol.Writer writer = new SyncProtocol.Writer( bytes);
+		writer.batch( 1, Collections.singletonList( SyncOp.move( 1, 1, rooms)));
+		long first = writer.size();
+		writer.batch( 2, Collections.singletonList( SyncOp.move( 2, 3, rooms.clone())));
+		long second = writer.size() - first;
+		writer.close();
+		// type, version, count and kind bytes, two doubles and a room count of 0
+		assertEquals( 1 + 1 + 1 + 1 + 16 + 1, second);
+		SyncProtocol.Reader reader = reader( bytes);
+		assertArrayEquals( rooms, reader.read().getOps().get( 0).getRooms());
+		SyncOp repeated = reader.read().getOps().get( 0);
+		assertEquals( 2, repeated.getDeltaX(), 0);
+		assertEquals( 3, repeated.getDeltaY(), 0);
+		assertArrayEquals( rooms, repeated.getRooms());
+	}
+
+	@Test
+	public void moveWithoutRoomsIsLeftOut() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( SyncProtocol.Writer writer = new SyncProtocol.Writer( bytes)){
+			writer.batch( 4, Arrays.asList( SyncOp.move( 1, 1, new long[0]), SyncOp.remove( 2)));
+		}
+		List< SyncOp> read = reader( bytes).read().getOps();
+		assertEquals( 1, read.size());
+		assertSame( SyncOp.Kind.REMOVE, read.get( 0).getKind());
+	}
+
+	@Test( expected = IOException.class)
+	public void missingHeaderIsRejected() throws IOException{
+		new SyncProtocol.Reader( new ByteArrayInputStream( "HTTP/1.1".getBytes( "US-ASCII")));
+	}
+}
@@ -0,0 +1,357 @@
+package mapmaker.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mapmaker.geom.Polygons;
+import mapmaker.io.TextMapCodec;
+import mapmaker.model.MapColor;
+import mapmaker.model.MapStyle;
+import mapmaker.model.RoomRecord;
+
+/**
+ * <p>
+ * {@link SyncServer} with editors connected over localhost. editors are headless, each one keeps its rooms by
+ * global id on its own thread and applies operations same way {@link mapmaker.SyncLink} applies them to a map:
+ * own changes at once, then batches of others and corrections of server as they arrive. whatever order concurrent
+ * changes reach server in, every editor must end with same rooms as server.</br>
+ * </p>
+ *
+ * @version Oct 19, 2026
+ */
+public class SyncServerTest{
+
+	private static final long TIMEOUT = 10000;
+
+	/**
+	 * <p>
+	 * headless editor. rooms are only touched on thread given to {@link SyncClient} as publisher.</br>
+	 * </p>
+	 */
+	private static final class Editor implements Closeable{
+
+		private final SyncClient client;
+		private final Map< Long, RoomRecord> rooms = new LinkedHashMap<>();
+		private final CountDownLatch snapshot = new CountDownLatch( 1);
+		private final ExecutorService thread;
+		private int corrections;
+
+		/**
+		 * @param publisher - runs tasks of editor, null for a thread of its own
+		 */
+		Editor( int port, Consumer< Runnable> publisher) throws IOException, InterruptedException{
+			client = new SyncClient( "localhost", port);
+			// never shut down, receiving thread of client may still hand it a batch while closing
+			thread = publisher == null ? Executors.newSingleThreadExecutor( task -> {
+				Thread daemon = new Thread( task, "editor");
+				daemon.setDaemon( true);
+				return daemon;
+			}) : null;
+			client.start( publisher == null ? thread::execute : publisher, this::received, () -> {});
+		}
+
+		private void received( List< SyncOp> ops){
+			if( snapshot.getCount() == 0)
+				for( SyncOp op: ops)
+					if( op.getKind() == SyncOp.Kind.SET)
+						corrections++;
+			apply( ops);
+			snapshot.countDown();
+		}
+
+		void awaitSnapshot() throws InterruptedException{
+			assertTrue( "no snapshot from server", snapshot.await( TIMEOUT, TimeUnit.MILLISECONDS));
+		}
+
+		void apply( List< SyncOp> ops){
+			for( SyncOp op: ops){
+				RoomRecord record = op.getKind() == SyncOp.Kind.MOVE ? null : rooms.get( op.getRoom());
+				switch( op.getKind()){
+					case ADD:
+					case SET:
+						rooms.put( op.getRoom(), op.getRecord());
+						break;
+					case REMOVE:
+						rooms.remove( op.getRoom());
+						break;
+					case GEOMETRY:
+						if( record != null)
+							rooms.put( op.getRoom(), new RoomRecord( record.getSides(), record.getStyle(), op.getPoints()));
+						break;
+					case STYLE:
+						if( record != null)
+							rooms.put( op.getRoom(), record.withStyle( op.getStyle()));
+						break;
+					case MOVE:
+						for( long room: op.getRooms()){
+							RoomRecord moved = rooms.get( room);
+							if( moved != null)
+								rooms.put( room, moved.translate( op.getDeltaX(), op.getDeltaY()));
+						}
+						break;
+				}
+			}
+		}
+
+		/**
+		 * <p>
+		 * change own rooms and send changes, like one pulse of an editor.</br>
+		 * </p>
+		 */
+		void edit( List< SyncOp> ops){
+			apply( ops);
+			client.send( ops);
+		}
+
+		/**
+		 * <p>
+		 * run given task on thread of editor and wait for it.</br>
+		 * </p>
+		 */
+		< T> T call( java.util.concurrent.Callable< T> task) throws InterruptedException, ExecutionException{
+			return thread.submit( task).get();
+		}
+
+		@Override
+		public void close() throws IOException{
+			client.close();
+		}
+	}
+
+	private SyncServer server;
+	private final List< Editor> editors = new ArrayList<>();
+
+	@Before
+	public void startServer() throws IOException{
+		List< RoomRecord> initial = new ArrayList<>();
+		for( int i = 0; i < 30; i++)
+			initial.add( new RoomRecord( 4, MapStyle.DEFAULT, Polygons.regular( i * 50, 100, 20, 0, 4)));
+		server = new SyncServer( InetAddress.getLoopbackAddress(), 0, initial);
+		server.start();
+	}
+
+	@After
+	public void stopServer() throws IOException{
+		for( Editor editor: editors)
+			editor.close();
+		server.close();
+	}
+
+	private Editor connect( Consumer< Runnable> publisher) throws IOException, InterruptedException{
+		Editor editor = new Editor( server.getPort(), publisher);
+		editors.add( editor);
+		return editor;
+	}
+
+	/**
+	 * @return rooms in a form compared regardless of order, each as text of its record
+	 */
+	private static List< String> sorted( Iterable< RoomRecord> records){
+		List< String> texts = new ArrayList<>();
+		for( RoomRecord record: records)
+			texts.add( TextMapCodec.format( record));
+		Collections.sort( texts);
+		return texts;
+	}
+
+	/**
+	 * <p>
+	 * fail with rooms only one side has.</br>
+	 * </p>
+	 */
+	private static void assertSameRooms( String editor, List< String> expected, List< String> actual){
+		List< String> missing = new ArrayList<>( expected);
+		missing.removeAll( actual);
+		List< String> extra = new ArrayList<>( actual);
+		extra.removeAll( expected);
+		assertEquals( "rooms of server missing on " + editor, Collections.emptyList(), missing);
+		assertEquals( "rooms of " + editor + " not on server", Collections.emptyList(), extra);
+	}
+
+	/**
+	 * <p>
+	 * wait until every editor has same rooms as server. nothing is sent while waiting, so once server and editors
+	 * agree they stay so.</br>
+	 * </p>
+	 */
+	private void assertConverged() throws Exception{
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while( true){
+			List< String> expected = sorted( server.getRecords());
+			boolean same = true;
+			for( Editor editor: editors)
+				same &= expected.equals( editor.call( () -> sorted( new ArrayList<>( editor.rooms.values()))));
+			if( same)
+				return;
+			if( System.currentTimeMillis() > end)
+				for( Editor editor: editors)
+					assertSameRooms( "editor " + editor.client.getClient(), expected,
+							editor.call( () -> sorted( new ArrayList<>( editor.rooms.values()))));
+			Thread.sleep( 20);
+		}
+	}
+
+	/**
+	 * <p>
+	 * one random batch on current rooms of editor: moves of several rooms, new points, new style, removes and
+	 * adds, mostly on rooms every editor shares so changes collide.</br>
+	 * </p>
+	 */
+	private static List< SyncOp> randomBatch( Editor editor, Random random){
+		List< Long> ids = new ArrayList<>( editor.rooms.keySet());
+		List< SyncOp> ops = new ArrayList<>();
+		for( int count = 1 + random.nextInt( 4); count > 0 && !ids.isEmpty(); count--){
+			long room = ids.get( random.nextInt( ids.size()));
+			switch( random.nextInt( 6)){
+				case 0:
+				case 1:
+					long[] moved = new long[1 + random.nextInt( Math.min( 5, ids.size()))];
+					for( int i = 0; i < moved.length; i++)
+						moved[i] = ids.get( random.nextInt( ids.size()));
+					ops.add( SyncOp.move( random.nextInt( 21) - 10, random.nextInt( 21) - 10,
+							Arrays.stream( moved).distinct().toArray()));
+					break;
+				case 2:
+					double[] points = editor.rooms.get( room).copyPoints();
+					for( int i = 0; i < points.length; i++)
+						points[i] += random.nextInt( 5) - 2;
+					ops.add( SyncOp.geometry( room, points));
+					break;
+				case 3:
+					ops.add( SyncOp.style( room, new MapStyle( new MapColor( random.nextInt( 1 << 24), 1), MapColor.BLACK, 1)));
+					break;
+				case 4:
+					if( random.nextInt( 3) == 0){
+						ops.add( SyncOp.remove( room));
+						ids.remove( room);
+					}
+					break;
+				default:
+					ops.add( SyncOp.add( editor.client.newRoomId(), new RoomRecord( 3, MapStyle.DEFAULT,
+							Polygons.regular( random.nextInt( 1000), random.nextInt( 1000), 15, 0, 3))));
+					break;
+			}
+		}
+		return ops;
+	}
+
+	@Test
+	public void concurrentEditorsEndWithRoomsOfServer() throws Exception{
+		for( int i = 0; i < 3; i++)
+			connect( null).awaitSnapshot();
+		for( Editor editor: editors)
+			assertEquals( sorted( server.getRecords()), editor.call( () -> sorted( new ArrayList<>( editor.rooms.values()))));
+		List< Thread> threads = new ArrayList<>();
+		List< Throwable> failures = Collections.synchronizedList( new ArrayList<>());
+		for( Editor editor: editors){
+			Random random = new Random( 48 + editor.client.getClient());
+			Thread thread = new Thread( () -> {
+				try{
+					for( int batch = 0; batch < 200; batch++){
+						editor.call( () -> {
+							editor.edit( randomBatch( editor, random));
+							return null;
+						});
+						if( batch % 20 == 0)
+							Thread.sleep( 1);
+					}
+				}catch( Exception e){
+					failures.add( e);
+				}
+			});
+			threads.add( thread);
+			thread.start();
+		}
+		for( Thread thread: threads)
+			thread.join();
+		assertEquals( Collections.emptyList(), failures);
+		assertConverged();
+		assertTrue( server.getVersion() > 0);
+	}
+
+	@Test
+	public void staleChangeIsCorrectedAndFirstWriterWins() throws Exception{
+		Editor first = connect( null);
+		first.awaitSnapshot();
+		// second editor applies nothing until told, so its changes are made on version it connected at
+		BlockingQueue< Runnable> pending = new LinkedBlockingQueue<>();
+		Editor second = connect( pending::add);
+		pending.take().run();
+		second.awaitSnapshot();
+		double x1 = server.getRecords().get( 1).getX( 0);
+		double[] points = { 0, 0, 40, 0, 40, 40, 0, 40 };
+		first.call( () -> {
+			first.edit( Collections.singletonList( SyncOp.geometry( 0, points)));
+			return null;
+		});
+		while( server.getVersion() == 0)
+			Thread.sleep( 5);
+		second.edit( Arrays.asList( SyncOp.move( 5, 5, new long[]{ 0, 1 }), SyncOp.remove( 2)));
+		// batch of first editor, then correction of room 0 for second
+		Runnable batch = pending.poll( TIMEOUT, TimeUnit.MILLISECONDS);
+		batch.run();
+		Runnable correction = pending.poll( TIMEOUT, TimeUnit.MILLISECONDS);
+		correction.run();
+		assertEquals( 1, second.corrections);
+		assertEquals( Arrays.toString( points), Arrays.toString( second.rooms.get( 0L).copyPoints()));
+		// only room 1 of move was accepted, and remove of an unchanged room too
+		List< RoomRecord> rooms = server.getRecords();
+		assertEquals( 29, rooms.size());
+		assertEquals( Arrays.toString( points), Arrays.toString( rooms.get( 0).copyPoints()));
+		assertEquals( x1 + 5, rooms.get( 1).getX( 0), 1e-9);
+		for( Runnable task; (task = pending.poll( 50, TimeUnit.MILLISECONDS)) != null;)
+			task.run();
+		assertConvergedWith( second, pending);
+	}
+
+	/**
+	 * <p>
+	 * like {@link #assertConverged()} for editors whose tasks are run by test itself.</br>
+	 * </p>
+	 */
+	private void assertConvergedWith( Editor editor, BlockingQueue< Runnable> pending) throws Exception{
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while( !sorted( server.getRecords()).equals( sorted( editor.rooms.values())) && System.currentTimeMillis() < end)
+			for( Runnable task; (task = pending.poll( 20, TimeUnit.MILLISECONDS)) != null;)
+				task.run();
+		assertSameRooms( "editor", sorted( server.getRecords()), sorted( editor.rooms.values()));
+	}
+
+	@Test
+	public void addWithTakenIdGetsRoomOfServer() throws Exception{
+		Editor editor = connect( null);
+		editor.awaitSnapshot();
+		RoomRecord server0 = server.getRecords().get( 0);
+		editor.call( () -> {
+			editor.edit( Collections.singletonList( SyncOp.add( 0, new RoomRecord( 3, MapStyle.DEFAULT,
+					Polygons.regular( 500, 500, 10, 0, 3)))));
+			return null;
+		});
+		assertConverged();
+		assertEquals( TextMapCodec.format( server0), TextMapCodec.format( server.getRecords().get( 0)));
+		assertEquals( 30, server.getRecords().size());
+	}
+}